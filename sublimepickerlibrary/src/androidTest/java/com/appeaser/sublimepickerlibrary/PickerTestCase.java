@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary;
+
+import android.content.Context;
+import android.os.Debug;
+import android.test.InstrumentationTestCase;
+import android.util.DisplayMetrics;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+/**
+ * Base for tests that create picker views. Views are created and driven on
+ * the main thread, with the light picker theme.
+ */
+public abstract class PickerTestCase extends InstrumentationTestCase {
+
+    protected Context getThemedContext() {
+        return new ContextThemeWrapper(getInstrumentation().getTargetContext(),
+                R.style.SublimePickerStyleLight);
+    }
+
+    protected void runOnMainSync(Runnable runnable) {
+        getInstrumentation().runOnMainSync(runnable);
+    }
+
+    /**
+     * Measures and lays out {@code view} at the size of the screen.
+     */
+    protected static void layout(View view) {
+        final DisplayMetrics metrics = view.getResources().getDisplayMetrics();
+        layout(view, metrics.widthPixels, metrics.heightPixels);
+    }
+
+    protected static void layout(View view, int width, int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.AT_MOST),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.AT_MOST));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+
+    /**
+     * Runs {@code work} once to warm up, then again on the main thread
+     * while counting its allocations.
+     *
+     * @return the number of objects the second run allocated
+     */
+    @SuppressWarnings("deprecation")
+    protected int countAllocations(final Runnable work) {
+        final int[] allocations = new int[1];
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                work.run();
+
+                Debug.startAllocCounting();
+                try {
+                    Debug.resetThreadAllocCount();
+                    work.run();
+                    allocations[0] = Debug.getThreadAllocCount();
+                } finally {
+                    Debug.stopAllocCounting();
+                }
+            }
+        });
+        return allocations[0];
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.support.v4.view.ViewPager;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.appeaser.sublimepickerlibrary.PickerTestCase;
+import com.appeaser.sublimepickerlibrary.R;
+
+import java.util.Calendar;
+
+/**
+ * Counts the month items {@link DayPickerPagerAdapter} inflates while a
+ * {@link ViewPager} is swiped through two years, one month at a time.
+ */
+public class DayPickerPagerAdapterRecyclingTest extends PickerTestCase {
+
+    private static final int MONTHS_SWIPED = 24;
+
+    // The current page, one on either side and one being swapped in
+    private static final int MAX_INFLATIONS = 4;
+
+    private CountingInflater mInflater;
+    private ViewPager mViewPager;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final Context themed = getThemedContext();
+                mInflater = new CountingInflater(LayoutInflater.from(themed), themed, new int[1]);
+
+                // The adapter gets its inflater from the context it is given.
+                final Context context = new ContextWrapper(themed) {
+                    @Override
+                    public Object getSystemService(String name) {
+                        if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+                            return mInflater;
+                        }
+                        return super.getSystemService(name);
+                    }
+                };
+
+                final DayPickerPagerAdapter adapter = new DayPickerPagerAdapter(context,
+                        R.layout.date_picker_month_item, R.id.month_view);
+                adapter.setMonthTextAppearance(R.style.SPMonthLabelTextAppearance);
+                adapter.setDayOfWeekTextAppearance(R.style.SPWeekDayLabelTextAppearance);
+                adapter.setDayTextAppearance(R.style.SPDayTextAppearance);
+
+                final Calendar min = Calendar.getInstance();
+                min.set(2016, Calendar.JANUARY, 1);
+                final Calendar max = Calendar.getInstance();
+                max.set(2018, Calendar.DECEMBER, 31);
+                adapter.setRange(min, max);
+
+                mViewPager = new ViewPager(themed);
+                mViewPager.setAdapter(adapter);
+                layout(mViewPager);
+            }
+        });
+    }
+
+    public void testSwipeForwardAndBack() {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= MONTHS_SWIPED; i++) {
+                    mViewPager.setCurrentItem(i, false);
+                }
+
+                for (int i = MONTHS_SWIPED - 1; i >= 0; i--) {
+                    mViewPager.setCurrentItem(i, false);
+                }
+            }
+        });
+
+        final int inflations = mInflater.getInflations();
+        assertTrue(inflations + " inflations while swiping "
+                        + MONTHS_SWIPED + " months and back",
+                inflations <= MAX_INFLATIONS);
+        assertEquals(0, mViewPager.getCurrentItem());
+    }
+
+    /**
+     * Counts inflations, including those of its clones, which the views
+     * being inflated create for their own contexts.
+     */
+    private static class CountingInflater extends LayoutInflater {
+        private final int[] mInflations;
+
+        CountingInflater(LayoutInflater original, Context newContext, int[] inflations) {
+            super(original, newContext);
+            mInflations = inflations;
+        }
+
+        int getInflations() {
+            return mInflations[0];
+        }
+
+        @Override
+        public LayoutInflater cloneInContext(Context newContext) {
+            return new CountingInflater(this, newContext, mInflations);
+        }
+
+        @Override
+        public View inflate(int resource, ViewGroup root, boolean attachToRoot) {
+            mInflations[0]++;
+            return super.inflate(resource, root, attachToRoot);
+        }
+    }
+}
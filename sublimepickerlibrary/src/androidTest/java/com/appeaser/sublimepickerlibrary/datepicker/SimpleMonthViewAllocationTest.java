@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import com.appeaser.sublimepickerlibrary.PickerTestCase;
+
+import java.util.Calendar;
+
+/**
+ * Counts the objects allocated by {@link SimpleMonthView#draw(Canvas)} on a
+ * laid out view, and by moving its selection, which should be none once the
+ * view has drawn a frame.
+ */
+public class SimpleMonthViewAllocationTest extends PickerTestCase {
+
+    private static final int FRAMES = 60;
+
+    private SimpleMonthView mView;
+    private Canvas mCanvas;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mView = new SimpleMonthView(getThemedContext());
+                mView.setMonthParams(Calendar.MARCH, 2016, Calendar.SUNDAY, 1, 31,
+                        3, 25, SelectedDate.Type.RANGE);
+                layout(mView);
+
+                mCanvas = new Canvas(Bitmap.createBitmap(mView.getWidth(), mView.getHeight(),
+                        Bitmap.Config.ARGB_8888));
+
+                // The first frame may build the title.
+                mView.draw(mCanvas);
+            }
+        });
+    }
+
+    public void testRedrawDoesNotAllocate() {
+        final int allocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < FRAMES; i++) {
+                    mView.draw(mCanvas);
+                }
+            }
+        });
+
+        assertEquals("Objects allocated in " + FRAMES + " frames", 0, allocations);
+    }
+
+    public void testDraggingRangeDoesNotAllocate() {
+        final int allocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < FRAMES; i++) {
+                    // Drag the end of the range through the month, so
+                    // that every frame draws a different range.
+                    final int end = 2 + i % 30;
+                    mView.setSelectedDays(1, end, SelectedDate.Type.RANGE);
+                    mView.draw(mCanvas);
+                }
+            }
+        });
+
+        assertEquals("Objects allocated in " + FRAMES + " frames", 0, allocations);
+    }
+}
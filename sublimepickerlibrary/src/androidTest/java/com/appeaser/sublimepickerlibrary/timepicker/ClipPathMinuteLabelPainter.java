@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Region;
+
+import com.appeaser.sublimepickerlibrary.utilities.SUtils;
+import com.appeaser.sublimepickerlibrary.utilities.StateColorTable;
+
+/**
+ * The minute label drawing {@link MinuteLabelPainter} replaced: all labels
+ * without activated states outside the selector circle, then only the
+ * activated labels inside of it, each pass under a clip path. Kept as a
+ * reference for the pixel comparison.
+ */
+final class ClipPathMinuteLabelPainter {
+
+    private final Path mSelectorPath = new Path();
+
+    /**
+     * Same parameters as {@link MinuteLabelPainter#draw}.
+     */
+    void draw(Canvas canvas, Paint paint, StateColorTable textColor, int alpha,
+              String[] texts, float[] textX, float[] textY, boolean[] enabled, int count,
+              int activatedFloor, int activatedCeil,
+              float selectorX, float selectorY, int selectorRadius) {
+        textColor.setAlpha(alpha);
+        paint.setShader(null);
+
+        mSelectorPath.reset();
+        mSelectorPath.addCircle(selectorX, selectorY, selectorRadius, Path.Direction.CCW);
+
+        canvas.save(Canvas.CLIP_SAVE_FLAG);
+        canvas.clipPath(mSelectorPath, Region.Op.DIFFERENCE);
+        drawLabels(canvas, paint, textColor, texts, textX, textY, enabled, count,
+                activatedFloor, activatedCeil, false);
+        canvas.restore();
+
+        canvas.save(Canvas.CLIP_SAVE_FLAG);
+        canvas.clipPath(mSelectorPath, Region.Op.INTERSECT);
+        drawLabels(canvas, paint, textColor, texts, textX, textY, enabled, count,
+                activatedFloor, activatedCeil, true);
+        canvas.restore();
+    }
+
+    private static void drawLabels(Canvas canvas, Paint paint, StateColorTable textColor,
+                                   String[] texts, float[] textX, float[] textY,
+                                   boolean[] enabled, int count,
+                                   int activatedFloor, int activatedCeil,
+                                   boolean activatedOnly) {
+        for (int i = 0; i < count; i++) {
+            final boolean activated = (activatedFloor == i || activatedCeil == i);
+            if (activatedOnly && !activated) {
+                continue;
+            }
+
+            final int stateMask = (enabled[i] ? SUtils.STATE_ENABLED : 0)
+                    | (activatedOnly ? SUtils.STATE_ACTIVATED : 0);
+            paint.setColor(textColor.getColorWithAlpha(stateMask));
+            canvas.drawText(texts[i], textX[i], textY[i], paint);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import com.appeaser.sublimepickerlibrary.PickerTestCase;
+import com.appeaser.sublimepickerlibrary.utilities.StateColorTable;
+
+import java.util.Arrays;
+
+/**
+ * Compares the pixels {@link MinuteLabelPainter} draws with those of the
+ * clip path drawing it replaced, {@link ClipPathMinuteLabelPainter}.
+ *
+ * Pixels must be equal except within {@link #EDGE_TOLERANCE} of the
+ * selector edge. Neither version antialiases that edge: the clip path keeps
+ * or drops whole pixels and the shader picks a color per pixel. But the
+ * clip path is a polygon approximating the circle and the gradient is looked
+ * up in a 256 entry table spanning twice the selector radius, so the two can
+ * disagree on the pixels the edge passes through.
+ */
+public class MinuteLabelPainterPixelTest extends PickerTestCase {
+
+    private static final int SIZE = 400;
+    private static final float CENTER = SIZE / 2f;
+    private static final float CIRCLE_RADIUS = 150f;
+    private static final int SELECTOR_RADIUS = 60;
+    private static final float TEXT_SIZE = 40f;
+    private static final int LABEL_COUNT = 12;
+
+    // 2 * 60 / 256 px for the gradient table, plus a pixel for the
+    // polygon and rounding of pixel centers
+    private static final float EDGE_TOLERANCE = 1.5f;
+
+    private final String[] mTexts = new String[LABEL_COUNT];
+    private final float[] mTextX = new float[LABEL_COUNT];
+    private final float[] mTextY = new float[LABEL_COUNT];
+    private final boolean[] mEnabled = new boolean[LABEL_COUNT];
+
+    private StateColorTable mTextColor;
+    private Paint mPaint;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        mPaint.setTextAlign(Paint.Align.CENTER);
+        mPaint.setTextSize(TEXT_SIZE);
+        mPaint.setTypeface(Typeface.DEFAULT);
+
+        final float textCenterOffset = (mPaint.descent() + mPaint.ascent()) / 2;
+        for (int i = 0; i < LABEL_COUNT; i++) {
+            mTexts[i] = String.format("%02d", i * 5);
+            mTextX[i] = CENTER + getX(i * 30);
+            mTextY[i] = CENTER + getY(i * 30) - textCenterOffset;
+        }
+        Arrays.fill(mEnabled, true);
+
+        mTextColor = new StateColorTable(new ColorStateList(new int[][]{
+                {android.R.attr.state_enabled, android.R.attr.state_activated},
+                {android.R.attr.state_enabled},
+                {android.R.attr.state_activated},
+                {}
+        }, new int[]{
+                Color.WHITE,
+                Color.rgb(0x21, 0x21, 0x21),
+                Color.rgb(0xe0, 0xe0, 0xff),
+                Color.rgb(0x9e, 0x9e, 0x9e)
+        }));
+    }
+
+    public void testSelectorOnLabel() {
+        assertSamePixels(3, 3, 90);
+    }
+
+    public void testSelectorBetweenLabels() {
+        assertSamePixels(3, 4, 105);
+    }
+
+    public void testBlockedLabels() {
+        Arrays.fill(mEnabled, 0, 6, false);
+        assertSamePixels(5, 6, 165);
+    }
+
+    private void assertSamePixels(int activatedFloor, int activatedCeil, int selectorDegrees) {
+        final float selectorX = CENTER + getX(selectorDegrees);
+        final float selectorY = CENTER + getY(selectorDegrees);
+
+        final Bitmap expected = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        new ClipPathMinuteLabelPainter().draw(new Canvas(expected), mPaint, mTextColor, 255,
+                mTexts, mTextX, mTextY, mEnabled, LABEL_COUNT, activatedFloor, activatedCeil,
+                selectorX, selectorY, SELECTOR_RADIUS);
+
+        final Bitmap actual = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        new MinuteLabelPainter().draw(new Canvas(actual), mPaint, mTextColor, 255,
+                mTexts, mTextX, mTextY, mEnabled, LABEL_COUNT, activatedFloor, activatedCeil,
+                selectorX, selectorY, SELECTOR_RADIUS);
+
+        int compared = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                final double distance = Math.hypot(x + 0.5f - selectorX, y + 0.5f - selectorY);
+                if (Math.abs(distance - SELECTOR_RADIUS) <= EDGE_TOLERANCE) {
+                    continue;
+                }
+
+                final int expectedPixel = expected.getPixel(x, y);
+                final int actualPixel = actual.getPixel(x, y);
+                if (expectedPixel != actualPixel) {
+                    fail(String.format("Pixel (%d, %d) is #%08x, expected #%08x",
+                            x, y, actualPixel, expectedPixel));
+                }
+                compared++;
+            }
+        }
+
+        // Make sure the labels were drawn at all.
+        assertFalse(expected.sameAs(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888)));
+        assertTrue(compared > SIZE * SIZE * 9 / 10);
+    }
+
+    private static float getX(int degrees) {
+        return CIRCLE_RADIUS * (float) Math.sin(Math.toRadians(degrees));
+    }
+
+    private static float getY(int degrees) {
+        return -CIRCLE_RADIUS * (float) Math.cos(Math.toRadians(degrees));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.TextView;
+
+import com.appeaser.sublimepickerlibrary.PickerTestCase;
+import com.appeaser.sublimepickerlibrary.R;
+import com.appeaser.sublimepickerlibrary.SublimePicker;
+import com.appeaser.sublimepickerlibrary.datepicker.SelectedDate;
+import com.appeaser.sublimepickerlibrary.helpers.SublimeListenerAdapter;
+import com.appeaser.sublimepickerlibrary.helpers.SublimeOptions;
+import com.appeaser.sublimepickerlibrary.recurrencepicker.SublimeRecurrencePicker;
+
+/**
+ * Checks the stable widths of the time header. How often numbers are
+ * measured is checked by HeaderDigitWidthsTest.
+ */
+public class SublimeTimePickerHeaderTest extends PickerTestCase {
+
+    public void testHeaderFitsEveryNumber() {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final SublimePicker picker = openTimePicker(getThemedContext());
+                assertFitsEveryNumber((TextView) picker.findViewById(R.id.hours), 24);
+                assertFitsEveryNumber((TextView) picker.findViewById(R.id.minutes), 60);
+            }
+        });
+    }
+
+    private static SublimePicker openTimePicker(Context context) {
+        final SublimePicker picker = new SublimePicker(context);
+        picker.initializePicker(new SublimeOptions()
+                .setDisplayOptions(SublimeOptions.ACTIVATE_TIME_PICKER)
+                .setPickerToShow(SublimeOptions.Picker.TIME_PICKER), new SublimeListenerAdapter() {
+            @Override
+            public void onDateTimeRecurrenceSet(SublimePicker sublimeMaterialPicker,
+                                                SelectedDate selectedDate, int hourOfDay,
+                                                int minute,
+                                                SublimeRecurrencePicker.RecurrenceOption option,
+                                                String recurrenceRule) {
+            }
+
+            @Override
+            public void onCancelled() {
+            }
+        });
+        layout(picker);
+        return picker;
+    }
+
+    /**
+     * Asserts that no number below {@code maxNumber} is wider than the
+     * minimum width the header gave {@code view}.
+     */
+    private static void assertFitsEveryNumber(TextView view, int maxNumber) {
+        final CharSequence text = view.getText();
+        view.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+        final int stableWidth = view.getMeasuredWidth();
+
+        for (int i = 0; i < maxNumber; i++) {
+            view.setText(String.format("%02d", i));
+            view.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
+            assertEquals("Width of " + view.getText(), stableWidth, view.getMeasuredWidth());
+        }
+        view.setText(text);
+    }
+}
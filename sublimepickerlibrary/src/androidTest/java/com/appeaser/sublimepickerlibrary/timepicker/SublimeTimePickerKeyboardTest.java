@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.view.KeyEvent;
+import android.view.View;
+import android.widget.TextView;
+
+import com.appeaser.sublimepickerlibrary.PickerTestCase;
+import com.appeaser.sublimepickerlibrary.R;
+
+/**
+ * Types times into the header of a 24-hour {@link SublimeTimePicker} and
+ * checks which keys are accepted.
+ */
+public class SublimeTimePickerKeyboardTest extends PickerTestCase {
+
+    private SublimeTimePicker mPicker;
+    private View mHeader;
+    private Boolean mValid;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mPicker = new SublimeTimePicker(getThemedContext());
+                mPicker.setIs24HourView(true);
+                mPicker.setCurrentHour(9);
+                mPicker.setCurrentMinute(0);
+                mPicker.setValidationCallback(
+                        new SublimeTimePicker.TimePickerValidationCallback() {
+                            @Override
+                            public void onTimePickerValidationChanged(boolean valid) {
+                                mValid = valid;
+                            }
+                        });
+                layout(mPicker);
+                mHeader = mPicker.findViewById(R.id.time_header);
+            }
+        });
+    }
+
+    public void testAcceptsAnyMinuteAtGranularityOne() {
+        type(KeyEvent.KEYCODE_1, KeyEvent.KEYCODE_0, KeyEvent.KEYCODE_0, KeyEvent.KEYCODE_7);
+
+        assertEquals(Boolean.TRUE, mValid);
+        assertHeader("10", "07");
+    }
+
+    public void testRejectsMinutesOffTheStep() {
+        setMinuteGranularity(15);
+
+        // 1:03 could still become 10:3x, but isn't valid as is.
+        type(KeyEvent.KEYCODE_1, KeyEvent.KEYCODE_0, KeyEvent.KEYCODE_3);
+        assertEquals(Boolean.FALSE, mValid);
+
+        // 10:37 is rejected, 10:30 is accepted.
+        type(KeyEvent.KEYCODE_7);
+        assertEquals(Boolean.FALSE, mValid);
+        type(KeyEvent.KEYCODE_0);
+        assertEquals(Boolean.TRUE, mValid);
+        assertHeader("10", "30");
+    }
+
+    public void testRejectsCompleteShortTimesOffTheStep() {
+        setMinuteGranularity(15);
+
+        // 1:07 can't be continued, so the 7 is rejected and 10:45 can follow.
+        type(KeyEvent.KEYCODE_1, KeyEvent.KEYCODE_0, KeyEvent.KEYCODE_7,
+                KeyEvent.KEYCODE_4, KeyEvent.KEYCODE_5);
+
+        assertEquals(Boolean.TRUE, mValid);
+        assertHeader("10", "45");
+    }
+
+    private void setMinuteGranularity(final int minuteGranularity) {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mPicker.setMinuteGranularity(minuteGranularity);
+            }
+        });
+    }
+
+    private void type(final int... keyCodes) {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int keyCode : keyCodes) {
+                    mHeader.dispatchKeyEvent(new KeyEvent(KeyEvent.ACTION_UP, keyCode));
+                }
+            }
+        });
+    }
+
+    private void assertHeader(String hour, String minute) {
+        assertEquals(hour, ((TextView) mPicker.findViewById(R.id.hours)).getText().toString());
+        assertEquals(minute, ((TextView) mPicker.findViewById(R.id.minutes)).getText().toString());
+    }
+}
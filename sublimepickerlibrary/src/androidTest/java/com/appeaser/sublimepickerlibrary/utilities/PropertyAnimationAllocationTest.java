@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.utilities;
+
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RectF;
+import android.util.Log;
+import android.util.Property;
+import android.view.animation.LinearInterpolator;
+
+import com.appeaser.sublimepickerlibrary.PickerTestCase;
+import com.appeaser.sublimepickerlibrary.drawables.CheckableDrawable;
+import com.appeaser.sublimepickerlibrary.timepicker.RadialTimePickerView;
+
+/**
+ * Counts the objects allocated by repeated animations after warm-up.
+ * ValueAnimator may allocate when it is started or stopped, depending on
+ * the platform version, so each count is compared with a bare ValueAnimator
+ * doing the same: our animations must not allocate anything on top of it.
+ */
+public class PropertyAnimationAllocationTest extends PickerTestCase {
+
+    private static final String TAG = "PropertyAnimationAlloc";
+
+    private static final int REPEATS = 50;
+    private static final int FRAMES = 60;
+
+    private static final int HOURS = 0;
+    private static final int MINUTES = 1;
+
+    public void testFramesDoNotAllocate() {
+        final Target target = new Target();
+        final PropertyAnimation animation = new PropertyAnimation(2)
+                .addRectFTrack(target, Target.RECT, new RectF(0, 0, 10, 10),
+                        new RectF(10, 10, 100, 100), 300, new LinearInterpolator())
+                .addIntTrack(target, Target.ALPHA, 0, 255, 200, new LinearInterpolator(), 0.5f);
+
+        final ValueAnimator baseline = ValueAnimator.ofFloat(0f, 1f);
+        baseline.setDuration(animation.getDuration());
+        baseline.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+            }
+        });
+
+        final int allocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i <= FRAMES; i++) {
+                    animation.setCurrentPlayTime(animation.getDuration() * i / FRAMES);
+                }
+            }
+        });
+        final int baselineAllocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i <= FRAMES; i++) {
+                    baseline.setCurrentPlayTime(baseline.getDuration() * i / FRAMES);
+                }
+            }
+        });
+
+        assertEquals(255, target.mAlpha);
+        assertEquals(new RectF(10, 10, 100, 100), target.mRect);
+        assertNoMoreThan(baselineAllocations, allocations, FRAMES + " frames");
+    }
+
+    public void testCheckableDrawableToggles() {
+        final CheckableDrawable drawable = new CheckableDrawable(Color.BLACK, false, 80);
+        drawable.setBounds(0, 0, 100, 100);
+
+        // Dimensions are resolved on the first draw.
+        drawable.draw(new Canvas(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888)));
+
+        final ValueAnimator baseline = ValueAnimator.ofFloat(0f, 1f);
+        baseline.addListener(new AnimatorListenerAdapter() {
+        });
+
+        final int allocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REPEATS; i++) {
+                    drawable.setCheckedOnClick(i % 2 == 0, null);
+                }
+            }
+        });
+        final int baselineAllocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REPEATS; i++) {
+                    if (baseline.isRunning()) {
+                        baseline.cancel();
+                    }
+                    baseline.start();
+                }
+            }
+        });
+
+        assertNoMoreThan(baselineAllocations, allocations, REPEATS + " toggles");
+    }
+
+    public void testRadialTimePickerTransitions() {
+        final RadialTimePickerView[] view = new RadialTimePickerView[1];
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                view[0] = new RadialTimePickerView(getThemedContext());
+                layout(view[0]);
+            }
+        });
+
+        final ValueAnimator baseline = ValueAnimator.ofFloat(0f, 1f);
+        baseline.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+            }
+        });
+
+        final int allocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REPEATS; i++) {
+                    view[0].setCurrentItemShowing(i % 2 == 0 ? MINUTES : HOURS, true);
+                }
+            }
+        });
+        final int baselineAllocations = countAllocations(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < REPEATS; i++) {
+                    if (baseline.isRunning()) {
+                        baseline.end();
+                    }
+                    baseline.start();
+                }
+            }
+        });
+
+        assertNoMoreThan(baselineAllocations, allocations, REPEATS + " transitions");
+    }
+
+    private static void assertNoMoreThan(int baseline, int allocations, String what) {
+        Log.i(TAG, what + ": " + allocations + " objects, ValueAnimator alone " + baseline);
+        assertTrue(allocations + " objects allocated in " + what + ", ValueAnimator alone takes "
+                + baseline, allocations <= baseline);
+    }
+
+    private static class Target {
+        static final Property<Target, RectF> RECT =
+                new Property<Target, RectF>(RectF.class, "rect") {
+                    @Override
+                    public void set(Target object, RectF value) {
+                        object.mRect.set(value);
+                    }
+
+                    @Override
+                    public RectF get(Target object) {
+                        return object.mRect;
+                    }
+                };
+
+        static final PropertyAnimation.IntProperty<Target> ALPHA =
+                new PropertyAnimation.IntProperty<Target>("alpha") {
+                    @Override
+                    public void setValue(Target object, int value) {
+                        object.mAlpha = value;
+                    }
+
+                    @Override
+                    public int getValue(Target object) {
+                        return object.mAlpha;
+                    }
+                };
+
+        final RectF mRect = new RectF();
+        int mAlpha;
+    }
+}
@@ -578,10 +578,12 @@ public class SublimePicker extends FrameLayout
 
         if (mTimePickerEnabled) {
             int[] timeParams = mOptions.getTimeParams();
+            mTimePicker.setMinuteGranularity(mOptions.getMinuteGranularity());
             mTimePicker.setCurrentHour(timeParams[0] /* hour of day */);
             mTimePicker.setCurrentMinute(timeParams[1] /* minute */);
             mTimePicker.setIs24HourView(mOptions.is24HourView());
             mTimePicker.setValidationCallback(this);
+            mTimePicker.setTimeAvailability(mOptions.getTimeAvailability());
 
             ivRecurrenceOptionsTP.setVisibility(mRecurrencePickerEnabled ?
                     View.VISIBLE : View.GONE);
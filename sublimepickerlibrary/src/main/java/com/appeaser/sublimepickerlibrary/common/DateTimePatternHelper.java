@@ -29,12 +29,12 @@ public class DateTimePatternHelper {
     public static final int PATTERN_MMMMy = 1;
 
     /**
-     * Used in {@link SublimeTimePicker#updateHeaderAmPm()}
+     * Used for the 12-hour header of {@link SublimeTimePicker}
      */
     public static final int PATTERN_hm = 2;
 
     /**
-     * Used in {@link SublimeTimePicker#updateHeaderHour(int, boolean)}
+     * Used for the 24-hour header of {@link SublimeTimePicker}
      */
     public static final int PATTERN_Hm = 3;
 
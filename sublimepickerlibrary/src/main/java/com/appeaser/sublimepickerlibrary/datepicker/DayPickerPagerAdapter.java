@@ -18,11 +18,13 @@ package com.appeaser.sublimepickerlibrary.datepicker;
 
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.support.annotation.IdRes;
 import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.util.Pools;
 import android.support.v4.view.PagerAdapter;
 import android.util.Log;
 import android.util.SparseArray;
@@ -45,11 +47,19 @@ class DayPickerPagerAdapter extends PagerAdapter {
 
     private static final int MONTHS_IN_YEAR = 12;
 
+    // ViewPager keeps the current page and one page on either side
+    private static final int MAX_RECYCLED_ITEMS = 3;
+
     private final Calendar mMinDate = Calendar.getInstance();
     private final Calendar mMaxDate = Calendar.getInstance();
 
     private final SparseArray<ViewHolder> mItems = new SparseArray<>();
 
+    // Styled month items that were destroyed & can be bound to a new position
+    private Pools.SimplePool<ViewHolder> mRecycledItems
+            = new Pools.SimplePool<>(MAX_RECYCLED_ITEMS);
+
+    private final Resources mResources;
     private final LayoutInflater mInflater;
     private final int mLayoutResId;
     private final int mCalendarViewId;
@@ -72,8 +82,12 @@ class DayPickerPagerAdapter extends PagerAdapter {
     // used in resolving start/end dates during range selection
     private final SelectedDate mTempSelectedDay = new SelectedDate(Calendar.getInstance());
 
+    // used in resolving the selected days for a month: {start, end}
+    private final int[] mTempSelectedDays = new int[2];
+
     public DayPickerPagerAdapter(@NonNull Context context, @LayoutRes int layoutResId,
                                  @IdRes int calendarViewId) {
+        mResources = context.getResources();
         mInflater = LayoutInflater.from(context);
         mLayoutResId = layoutResId;
         mCalendarViewId = calendarViewId;
@@ -118,78 +132,26 @@ class DayPickerPagerAdapter extends PagerAdapter {
     }
 
     /**
-     * Sets the selected day.
+     * Sets the selected day. Only months that currently have a view
+     * are updated; the rest pick up the selection when instantiated.
      *
      * @param day the selected day
      */
     public void setSelectedDay(@Nullable SelectedDate day) {
-        final int[] oldPosition = getPositionsForDay(mSelectedDay);
-        final int[] newPosition = getPositionsForDay(day);
-
-        boolean shouldClearOldPosition = oldPosition != null;
+        mSelectedDay = day;
 
-        // Clear the old position if necessary.
-        if (shouldClearOldPosition) {
-            for (int i = oldPosition[0]; i <= oldPosition[oldPosition.length - 1]; i++) {
-                final ViewHolder oldMonthView = mItems.get(i, null);
-                if (oldMonthView != null) {
-                    oldMonthView.calendar.setSelectedDays(-1, -1, SelectedDate.Type.SINGLE);
+        final SelectedDate.Type selectedDateType = day != null ? day.getType() : null;
 
-                }
-            }
-        }
+        final int count = mItems.size();
+        for (int i = 0; i < count; i++) {
+            final int position = mItems.keyAt(i);
+            final ViewHolder holder = mItems.valueAt(i);
 
-        // Set the new position.
-        if (newPosition != null) {
-            if (newPosition.length == 1) {
-                final ViewHolder newMonthView = mItems.get(newPosition[0], null);
-                if (newMonthView != null) {
-                    final int dayOfMonth = day.getFirstDate().get(Calendar.DAY_OF_MONTH);
-                    newMonthView.calendar.setSelectedDays(dayOfMonth, dayOfMonth, SelectedDate.Type.SINGLE);
-                }
-            } else if (newPosition.length == 2) {
-                boolean rangeIsInSameMonth = newPosition[0] == newPosition[1];
-
-                if (rangeIsInSameMonth) {
-                    final ViewHolder newMonthView = mItems.get(newPosition[0], null);
-                    if (newMonthView != null) {
-                        final int startDayOfMonth = day.getFirstDate().get(Calendar.DAY_OF_MONTH);
-                        final int endDayOfMonth = day.getSecondDate().get(Calendar.DAY_OF_MONTH);
-
-                        newMonthView.calendar.setSelectedDays(startDayOfMonth, endDayOfMonth, SelectedDate.Type.RANGE);
-                    }
-                } else {
-                    // Deal with starting month
-                    final ViewHolder newMonthViewStart = mItems.get(newPosition[0], null);
-                    if (newMonthViewStart != null) {
-                        final int startDayOfMonth = day.getFirstDate().get(Calendar.DAY_OF_MONTH);
-                        // TODO: Check this
-                        final int endDayOfMonth = day.getFirstDate().getActualMaximum(Calendar.DATE);
-
-                        newMonthViewStart.calendar.setSelectedDays(startDayOfMonth, endDayOfMonth, SelectedDate.Type.RANGE);
-                    }
-
-                    for (int i = newPosition[0] + 1; i < newPosition[1]; i++) {
-                        final ViewHolder newMonthView = mItems.get(i, null);
-                        if (newMonthView != null) {
-                            newMonthView.calendar.selectAllDays();
-                        }
-                    }
-
-                    // Deal with ending month
-                    final ViewHolder newMonthViewEnd = mItems.get(newPosition[1], null);
-                    if (newMonthViewEnd != null) {
-                        final int startDayOfMonth = day.getSecondDate().getMinimum(Calendar.DATE);
-                        // TODO: Check this
-                        final int endDayOfMonth = day.getSecondDate().get(Calendar.DAY_OF_MONTH);
-
-                        newMonthViewEnd.calendar.setSelectedDays(startDayOfMonth, endDayOfMonth, SelectedDate.Type.RANGE);
-                    }
-                }
-            }
+            resolveSelectedDayBasedOnType(getMonthForPosition(position),
+                    getYearForPosition(position), mTempSelectedDays);
+            holder.calendar.setSelectedDays(mTempSelectedDays[0], mTempSelectedDays[1],
+                    selectedDateType);
         }
-
-        mSelectedDay = day;
     }
 
     /**
@@ -204,18 +166,22 @@ class DayPickerPagerAdapter extends PagerAdapter {
     @SuppressWarnings("unused")
     void setCalendarTextColor(ColorStateList calendarTextColor) {
         mCalendarTextColor = calendarTextColor;
+        clearRecycledItems();
     }
 
     void setDaySelectorColor(ColorStateList selectorColor) {
         mDaySelectorColor = selectorColor;
+        clearRecycledItems();
     }
 
     void setMonthTextAppearance(int resId) {
         mMonthTextAppearance = resId;
+        clearRecycledItems();
     }
 
     void setDayOfWeekTextAppearance(int resId) {
         mDayOfWeekTextAppearance = resId;
+        clearRecycledItems();
     }
 
     int getDayOfWeekTextAppearance() {
@@ -224,12 +190,49 @@ class DayPickerPagerAdapter extends PagerAdapter {
 
     void setDayTextAppearance(int resId) {
         mDayTextAppearance = resId;
+        clearRecycledItems();
+    }
+
+    /**
+     * Drops recycled items - they were styled using values that
+     * have since changed.
+     */
+    private void clearRecycledItems() {
+        mRecycledItems = new Pools.SimplePool<>(MAX_RECYCLED_ITEMS);
     }
 
     int getDayTextAppearance() {
         return mDayTextAppearance;
     }
 
+    /**
+     * @return the width month items will request, or -1 if items
+     * use a custom layout and must be measured
+     */
+    int getDesiredItemWidth() {
+        if (mLayoutResId != R.layout.date_picker_month_item) {
+            return -1;
+        }
+
+        // Matches the horizontal padding set in date_picker_month_item.xml
+        return SimpleMonthView.getPreferredContentWidth(mResources)
+                + 2 * mResources.getDimensionPixelSize(R.dimen.sp_day_picker_padding_horizontal);
+    }
+
+    /**
+     * @return the height month items will request, or -1 if items
+     * use a custom layout and must be measured
+     */
+    int getDesiredItemHeight() {
+        if (mLayoutResId != R.layout.date_picker_month_item) {
+            return -1;
+        }
+
+        // Matches the vertical padding set in date_picker_month_item.xml
+        return SimpleMonthView.getPreferredContentHeight(mResources)
+                + mResources.getDimensionPixelSize(R.dimen.sp_day_picker_padding_top);
+    }
+
     @Override
     public int getCount() {
         return mCount;
@@ -261,35 +264,11 @@ class DayPickerPagerAdapter extends PagerAdapter {
         return (yearOffset * MONTHS_IN_YEAR + monthOffset);
     }
 
-    private int[] getPositionsForDay(@Nullable SelectedDate day) {
-        if (day == null) {
-            return null;
-        }
-
-        SelectedDate.Type typeOfDay = day.getType();
-        int[] positions = null;
-
-        if (typeOfDay == SelectedDate.Type.SINGLE) {
-            positions = new int[1];
-            final int yearOffset = day.getFirstDate().get(Calendar.YEAR) - mMinDate.get(Calendar.YEAR);
-            final int monthOffset = day.getFirstDate().get(Calendar.MONTH) - mMinDate.get(Calendar.MONTH);
-            positions[0] = yearOffset * MONTHS_IN_YEAR + monthOffset;
-        } else if (typeOfDay == SelectedDate.Type.RANGE) {
-            positions = new int[2];
-            final int yearOffsetFirstDate = day.getFirstDate().get(Calendar.YEAR) - mMinDate.get(Calendar.YEAR);
-            final int monthOffsetFirstDate = day.getFirstDate().get(Calendar.MONTH) - mMinDate.get(Calendar.MONTH);
-            positions[0] = yearOffsetFirstDate * MONTHS_IN_YEAR + monthOffsetFirstDate;
-
-            final int yearOffsetSecondDate = day.getSecondDate().get(Calendar.YEAR) - mMinDate.get(Calendar.YEAR);
-            final int monthOffsetSecondDate = day.getSecondDate().get(Calendar.MONTH) - mMinDate.get(Calendar.MONTH);
-            positions[1] = yearOffsetSecondDate * MONTHS_IN_YEAR + monthOffsetSecondDate;
-        }
-
-        return positions;
-    }
-
-    @Override
-    public Object instantiateItem(ViewGroup container, int position) {
+    /**
+     * Inflates a month item and applies the current text appearances & colors.
+     * Items are expensive to create and are recycled by {@link #destroyItem}.
+     */
+    private ViewHolder createItem(ViewGroup container) {
         final View itemView = mInflater.inflate(mLayoutResId, container, false);
 
         final SimpleMonthView v = (SimpleMonthView) itemView.findViewById(mCalendarViewId);
@@ -312,10 +291,23 @@ class DayPickerPagerAdapter extends PagerAdapter {
             v.setDayTextColor(mCalendarTextColor);
         }
 
+        return new ViewHolder(itemView, v);
+    }
+
+    @Override
+    public Object instantiateItem(ViewGroup container, int position) {
+        ViewHolder holder = mRecycledItems.acquire();
+
+        if (holder == null) {
+            holder = createItem(container);
+        }
+
+        final SimpleMonthView v = holder.calendar;
+
         final int month = getMonthForPosition(position);
         final int year = getYearForPosition(position);
 
-        final int[] selectedDay = resolveSelectedDayBasedOnType(month, year);
+        final int[] selectedDay = resolveSelectedDayBasedOnType(month, year, mTempSelectedDays);
 
         final int enabledDayRangeStart;
         if (mMinDate.get(Calendar.MONTH) == month && mMinDate.get(Calendar.YEAR) == year) {
@@ -339,10 +331,10 @@ class DayPickerPagerAdapter extends PagerAdapter {
                 enabledDayRangeStart, enabledDayRangeEnd, selectedDay[0], selectedDay[1],
                 mSelectedDay != null ? mSelectedDay.getType() : null);
 
-        final ViewHolder holder = new ViewHolder(position, itemView, v);
+        holder.position = position;
         mItems.put(position, holder);
 
-        container.addView(itemView);
+        container.addView(holder.container);
 
         return holder;
     }
@@ -353,6 +345,7 @@ class DayPickerPagerAdapter extends PagerAdapter {
         container.removeView(holder.container);
 
         mItems.remove(position);
+        mRecycledItems.release(holder);
     }
 
     @Override
@@ -382,12 +375,11 @@ class DayPickerPagerAdapter extends PagerAdapter {
     };
 
     private static class ViewHolder {
-        public final int position;
+        public int position;
         public final View container;
         public final SimpleMonthView calendar;
 
-        public ViewHolder(int position, View container, SimpleMonthView calendar) {
-            this.position = position;
+        public ViewHolder(View container, SimpleMonthView calendar) {
             this.container = container;
             this.calendar = calendar;
         }
@@ -427,31 +419,38 @@ class DayPickerPagerAdapter extends PagerAdapter {
         return null;
     }
 
-    private int[] resolveSelectedDayBasedOnType(int month, int year) {
+    /**
+     * Resolves the selected days that fall in the given month.
+     *
+     * @param outDays receives the first & last selected day of month,
+     *                or -1 for both if no day in this month is selected
+     * @return <code>outDays</code>
+     */
+    private int[] resolveSelectedDayBasedOnType(int month, int year, int[] outDays) {
+        outDays[0] = outDays[1] = -1;
+
         if (mSelectedDay == null) {
-            return new int[]{-1, -1};
+            return outDays;
         }
 
         if (mSelectedDay.getType() == SelectedDate.Type.SINGLE) {
-            return resolveSelectedDayForTypeSingle(month, year);
+            resolveSelectedDayForTypeSingle(month, year, outDays);
         } else if (mSelectedDay.getType() == SelectedDate.Type.RANGE) {
-            return resolveSelectedDayForTypeRange(month, year);
+            resolveSelectedDayForTypeRange(month, year, outDays);
         }
 
-        return new int[]{-1, -1};
+        return outDays;
     }
 
-    private int[] resolveSelectedDayForTypeSingle(int month, int year) {
+    private void resolveSelectedDayForTypeSingle(int month, int year, int[] outDays) {
         if (mSelectedDay.getFirstDate().get(Calendar.MONTH) == month
                 && mSelectedDay.getFirstDate().get(Calendar.YEAR) == year) {
             int resolvedDay = mSelectedDay.getFirstDate().get(Calendar.DAY_OF_MONTH);
-            return new int[]{resolvedDay, resolvedDay};
+            outDays[0] = outDays[1] = resolvedDay;
         }
-
-        return new int[]{-1, -1};
     }
 
-    private int[] resolveSelectedDayForTypeRange(int month, int year) {
+    private void resolveSelectedDayForTypeRange(int month, int year, int[] outDays) {
         // Quan: "year.month" Eg: Feb, 2015 ==> 2015.02, Dec, 2000 ==> 2000.12
         float startDateQuan = mSelectedDay.getStartDate().get(Calendar.YEAR)
                 + (mSelectedDay.getStartDate().get(Calendar.MONTH) + 1) / 100f;
@@ -474,10 +473,9 @@ class DayPickerPagerAdapter extends PagerAdapter {
                 endDay = SUtils.getDaysInMonth(month, year);
             }
 
-            return new int[]{startDay, endDay};
+            outDays[0] = startDay;
+            outDays[1] = endDay;
         }
-
-        return new int[]{-1, -1};
     }
 
     public void onDateRangeSelectionStarted(SelectedDate selectedDate) {
@@ -299,6 +299,7 @@ class DayPickerView extends ViewGroup {
 
     public void setDayOfWeekTextAppearance(int resId) {
         mAdapter.setDayOfWeekTextAppearance(resId);
+        mViewPager.invalidateDesiredPageSize();
     }
 
     public int getDayOfWeekTextAppearance() {
@@ -308,6 +309,7 @@ class DayPickerView extends ViewGroup {
     @SuppressWarnings("unused")
     public void setDayTextAppearance(int resId) {
         mAdapter.setDayTextAppearance(resId);
+        mViewPager.invalidateDesiredPageSize();
     }
 
     @SuppressWarnings("unused")
@@ -20,12 +20,14 @@ import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.os.Parcelable;
 import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewCompat;
 import android.support.v4.view.ViewPager;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.animation.AnimationUtils;
 
 import com.appeaser.sublimepickerlibrary.R;
 import com.appeaser.sublimepickerlibrary.utilities.Config;
@@ -50,6 +52,13 @@ class DayPickerViewPager extends ViewPager {
     private Method mPopulateMethod;
     private boolean mAlreadyTriedAccessingMethod;
 
+    // Size requested by month pages. All pages share the same size, so this
+    // is resolved once from the adapter instead of measuring pages.
+    private static final int PAGE_SIZE_UNRESOLVED = -2;
+    private static final int PAGE_SIZE_CUSTOM = -1;
+    private int mDesiredPageWidth = PAGE_SIZE_UNRESOLVED;
+    private int mDesiredPageHeight = PAGE_SIZE_UNRESOLVED;
+
     private boolean mCanPickRange;
     private DayPickerPagerAdapter mDayPickerPagerAdapter;
 
@@ -59,13 +68,37 @@ class DayPickerViewPager extends ViewPager {
     private CheckForLongPress mCheckForLongPress;
     private SelectedDate mTempSelectedDate;
 
+    // Range-drag moves are coalesced: only the latest position
+    // is resolved, at most once per frame.
+    private float mRangeDragX, mRangeDragY;
+    private boolean mRangeUpdatePending;
+    private final Runnable mRangeUpdateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mRangeUpdatePending = false;
+            updateRangeEnd();
+        }
+    };
+
     // Scrolling support
     private static final int SCROLLING_LEFT = -1;
     private static final int NOT_SCROLLING = 0;
     private static final int SCROLLING_RIGHT = 1;
-    private ScrollerRunnable mScrollerRunnable;
     private int mScrollingDirection = NOT_SCROLLING;
 
+    // Auto-scroll speed, in pages per second, at the inner boundary
+    // of the edge zone and at the very edge of the view
+    private static final float AUTO_SCROLL_MIN_PAGES_PER_SECOND = 0.5f;
+    private static final float AUTO_SCROLL_MAX_PAGES_PER_SECOND = 4f;
+
+    // Upper bound for the time step of a single auto-scroll frame
+    private static final long AUTO_SCROLL_MAX_FRAME_MILLIS = 50L;
+
+    private final AutoScroller mAutoScroller = new AutoScroller();
+
+    // How far into the edge zone the finger is: 0 (inner boundary) - 1 (edge)
+    private float mEdgeDepth;
+
     public DayPickerViewPager(Context context) {
         this(context, null);
     }
@@ -80,6 +113,28 @@ class DayPickerViewPager extends ViewPager {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mDesiredPageWidth == PAGE_SIZE_UNRESOLVED && mDayPickerPagerAdapter != null) {
+            mDesiredPageWidth = mDayPickerPagerAdapter.getDesiredItemWidth();
+            mDesiredPageHeight = mDayPickerPagerAdapter.getDesiredItemHeight();
+        }
+
+        if (mDesiredPageWidth >= 0 && mDesiredPageHeight >= 0) {
+            final int desiredWidth = Math.max(getSuggestedMinimumWidth(),
+                    mDesiredPageWidth + getPaddingLeft() + getPaddingRight());
+            final int desiredHeight = Math.max(getSuggestedMinimumHeight(),
+                    mDesiredPageHeight + getPaddingTop() + getPaddingBottom());
+
+            // ViewPager populates itself and measures its pages
+            // to fit the exact size we hand it.
+            super.onMeasure(
+                    MeasureSpec.makeMeasureSpec(
+                            resolveSize(desiredWidth, widthMeasureSpec), MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(
+                            resolveSize(desiredHeight, heightMeasureSpec), MeasureSpec.EXACTLY));
+            return;
+        }
+
+        // Pages use a custom layout: measure them.
         //populate();
         // Use reflection
         callPopulate();
@@ -200,6 +255,16 @@ class DayPickerViewPager extends ViewPager {
         }
     }
 
+    /**
+     * Discards the cached page size. Must be called when anything
+     * that affects the size of month pages changes.
+     */
+    void invalidateDesiredPageSize() {
+        mDesiredPageWidth = PAGE_SIZE_UNRESOLVED;
+        mDesiredPageHeight = PAGE_SIZE_UNRESOLVED;
+        requestLayout();
+    }
+
     protected void setCanPickRange(boolean canPickRange) {
         mCanPickRange = canPickRange;
     }
@@ -299,8 +364,10 @@ class DayPickerViewPager extends ViewPager {
 
             if (ev.getAction() == MotionEvent.ACTION_UP) {
                 if (mDayPickerPagerAdapter != null) {
-                    mTempSelectedDate = mDayPickerPagerAdapter.resolveEndDateForRange((int) ev.getX(),
-                            (int) ev.getY(), getCurrentItem(), false);
+                    final int position = resolvePageAt(ev.getX());
+                    mTempSelectedDate = mDayPickerPagerAdapter.resolveEndDateForRange(
+                            (int) resolvePageX(ev.getX(), position),
+                            (int) ev.getY(), position, false);
                     mDayPickerPagerAdapter.onDateRangeSelectionEnded(mTempSelectedDate);
                 }
             }
@@ -308,234 +375,178 @@ class DayPickerViewPager extends ViewPager {
             mIsLongPressed = false;
             mInitialDownX = -1;
             mInitialDownY = -1;
-            mScrollingDirection = NOT_SCROLLING;
-
-            if (mScrollerRunnable != null) {
-                removeCallbacks(mScrollerRunnable);
-            }
+            cancelRangeUpdate();
+            stopAutoScroll();
             //return true;
         } else if (mIsLongPressed && ev.getAction() == MotionEvent.ACTION_DOWN) {
             if (Config.DEBUG) {
                 Log.i(TAG, "OTE: LONGPRESS && DOWN");
             }
 
-            mScrollingDirection = NOT_SCROLLING;
+            stopAutoScroll();
         } else if (mIsLongPressed && ev.getAction() == MotionEvent.ACTION_MOVE) {
             if (Config.DEBUG) {
                 Log.i(TAG, "OTE: LONGPRESS && MOVE");
             }
 
-            int direction = resolveDirectionForScroll(ev.getX());
-            boolean directionChanged = mScrollingDirection != direction;
-
-            if (directionChanged) {
-                if (mScrollerRunnable != null) {
-                    removeCallbacks(mScrollerRunnable);
-                }
-            }
-
-            if (mScrollerRunnable == null) {
-                mScrollerRunnable = new ScrollerRunnable();
-            }
-
-            mScrollingDirection = direction;
-
-            if (mScrollingDirection == NOT_SCROLLING) {
-                if (mDayPickerPagerAdapter != null) {
-                    mTempSelectedDate = mDayPickerPagerAdapter.resolveEndDateForRange((int) ev.getX(),
-                            (int) ev.getY(), getCurrentItem(), true);
-
-                    if (mTempSelectedDate != null) {
-                        mDayPickerPagerAdapter.onDateRangeSelectionUpdated(mTempSelectedDate);
-                    }
-                }
-            } else if (directionChanged) { // SCROLLING_LEFT || SCROLLING_RIGHT
-                post(mScrollerRunnable);
+            final int direction = resolveDirectionForScroll(ev.getX());
+
+            if (direction == NOT_SCROLLING) {
+                stopAutoScroll();
+                scheduleRangeUpdate(ev.getX(), ev.getY());
+            } else { // SCROLLING_LEFT || SCROLLING_RIGHT
+                // The auto-scroller updates the range end on every frame
+                mRangeDragX = ev.getX();
+                mRangeDragY = ev.getY();
+                mEdgeDepth = resolveEdgeDepth(ev.getX(), direction);
+                startAutoScroll(direction);
             }
         }
 
         return mIsLongPressed || super.onTouchEvent(ev);
     }
 
-    private int resolveDirectionForScroll(float x) {
-        if (x - getLeft() < MONTH_SCROLL_THRESHOLD) {
-            return SCROLLING_LEFT;
-        } else if (getRight() - x < MONTH_SCROLL_THRESHOLD) {
-            return SCROLLING_RIGHT;
+    /**
+     * Records the latest drag position and schedules a range update
+     * for the next frame, unless one is already pending.
+     */
+    private void scheduleRangeUpdate(float x, float y) {
+        mRangeDragX = x;
+        mRangeDragY = y;
+
+        if (!mRangeUpdatePending) {
+            mRangeUpdatePending = true;
+            ViewCompat.postOnAnimation(this, mRangeUpdateRunnable);
         }
-
-        return NOT_SCROLLING;
     }
 
-    private class ScrollerRunnable implements Runnable {
-        @Override
-        public void run() {
-            if (mScrollingDirection == NOT_SCROLLING) {
-                return;
-            }
-
-            final int direction = mScrollingDirection;
-
-            // Animation is expensive for accessibility services since it sends
-            // lots of scroll and content change events.
-            final boolean animate = true; //!mAccessibilityManager.isEnabled()
-
-            // ViewPager clamps input values, so we don't need to worry
-            // about passing invalid indices.
-            setCurrentItem(getCurrentItem() + direction, animate);
-
-            // Four times the default anim duration
-            postDelayed(this, 1000L);
+    private void cancelRangeUpdate() {
+        if (mRangeUpdatePending) {
+            removeCallbacks(mRangeUpdateRunnable);
+            mRangeUpdatePending = false;
         }
     }
 
-    // May need to refer to this later
-    /*@Override
-    public boolean onTouchEvent(MotionEvent ev) {
-        // looks like the ViewPager wants to step in
-        if (mCheckForLongPress != null) {
-            removeCallbacks(mCheckForLongPress);
+    private void updateRangeEnd() {
+        if (!mIsLongPressed || mDayPickerPagerAdapter == null) {
+            return;
         }
 
-        if (mIsLongPressed && ev.getAction() == MotionEvent.ACTION_UP
-                || ev.getAction() == MotionEvent.ACTION_CANCEL) {
-            if (Config.DEBUG) {
-                Log.i(TAG, "OTE: LONGPRESS && (UP || CANCEL)");
-            }
+        final int position = resolvePageAt(mRangeDragX);
+        mTempSelectedDate = mDayPickerPagerAdapter.resolveEndDateForRange(
+                (int) resolvePageX(mRangeDragX, position), (int) mRangeDragY, position, true);
 
-            if (ev.getAction() == MotionEvent.ACTION_UP) {
-                if (mDayPickerPagerAdapter != null) {
-                    mTempSelectedDate = mDayPickerPagerAdapter.resolveEndDateForRange((int)ev.getX(),
-                            (int)ev.getY(), getCurrentItem(), false);
-                    mDayPickerPagerAdapter.onDateRangeSelectionEnded(mTempSelectedDate);
-                }
-            }
-
-            mIsLongPressed = false;
-            mInitialDownX = -1;
-            mInitialDownY = -1;
-
-            if (mScrollerRunnable != null) {
-                removeCallbacks(mScrollerRunnable);
-            }
-            //return true;
-        } else if (mIsLongPressed &&  ev.getAction() == MotionEvent.ACTION_DOWN) {
-            if (Config.DEBUG) {
-                Log.i(TAG, "OTE: LONGPRESS && DOWN");
-            }
-        } else if (mIsLongPressed &&  ev.getAction() == MotionEvent.ACTION_MOVE) {
-            if (Config.DEBUG) {
-                Log.i(TAG, "OTE: LONGPRESS && MOVE");
-            }
-
-            int direction = resolveDirectionForScroll(ev.getX(), ev.getY());
-
-            if (direction == 0) {
-                mScrollingLeft = false;
-                mScrollingRight = false;
-
-                if (mScrollerRunnable != null) {
-                    removeCallbacks(mScrollerRunnable);
-                }
-
-                if (mDayPickerPagerAdapter != null) {
-                    mTempSelectedDate = mDayPickerPagerAdapter.resolveEndDateForRange((int)ev.getX(),
-                            (int)ev.getY(), getCurrentItem(), true);
-
-                    if (mTempSelectedDate != null) {
-                        mDayPickerPagerAdapter.onDateRangeSelectionUpdated(mTempSelectedDate);
-                    }
-                }
-            } else if (direction == -1) {
-                if (mScrollingLeft) {
-                    // nothing
-                } else if (mScrollingRight) {
-                    mScrollingRight = false;
-                    mScrollingLeft = true;
-
-                    if (mScrollerRunnable != null) {
-                        removeCallbacks(mScrollerRunnable);
-                    }
+        if (mTempSelectedDate != null) {
+            mDayPickerPagerAdapter.onDateRangeSelectionUpdated(mTempSelectedDate);
+        }
+    }
 
-                    if (mScrollerRunnable == null) {
-                        mScrollerRunnable = new ScrollerRunnable();
-                    }
+    /**
+     * Returns the position of the page under <code>x</code>. While pages are
+     * being scrolled this can differ from {@link #getCurrentItem()}.
+     */
+    private int resolvePageAt(float x) {
+        final int pageStride = getWidth() - getPaddingLeft() - getPaddingRight() + getPageMargin();
+        if (pageStride <= 0 || getAdapter() == null) {
+            return getCurrentItem();
+        }
 
-                    post(mScrollerRunnable);
-                } else {
-                    mScrollingLeft = true;
+        final int position = (int) Math.floor((x + getScrollX() - getPaddingLeft()) / pageStride);
+        return SUtils.constrain(position, 0, getAdapter().getCount() - 1);
+    }
 
-                    if (mScrollerRunnable == null) {
-                        mScrollerRunnable = new ScrollerRunnable();
-                    }
+    /**
+     * Translates <code>x</code> into the coordinates the page at
+     * <code>position</code> would have if it were fully scrolled in.
+     */
+    private float resolvePageX(float x, int position) {
+        final int pageStride = getWidth() - getPaddingLeft() - getPaddingRight() + getPageMargin();
+        return x + getScrollX() - position * pageStride;
+    }
 
-                    post(mScrollerRunnable);
-                }
-            } else if (direction == 1) {
-                if (mScrollingRight) {
-                    // nothing
-                } else if (mScrollingLeft) {
-                    mScrollingLeft = false;
-                    mScrollingRight = true;
-
-                    if (mScrollerRunnable != null) {
-                        removeCallbacks(mScrollerRunnable);
-                    }
+    private int resolveDirectionForScroll(float x) {
+        if (x < MONTH_SCROLL_THRESHOLD) {
+            return SCROLLING_LEFT;
+        } else if (getWidth() - x < MONTH_SCROLL_THRESHOLD) {
+            return SCROLLING_RIGHT;
+        }
 
-                    if (mScrollerRunnable == null) {
-                        mScrollerRunnable = new ScrollerRunnable();
-                    }
+        return NOT_SCROLLING;
+    }
 
-                    post(mScrollerRunnable);
-                } else {
-                    mScrollingRight = true;
+    private float resolveEdgeDepth(float x, int direction) {
+        final float distanceFromEdge = direction == SCROLLING_LEFT ? x : getWidth() - x;
+        final float depth = 1f - distanceFromEdge / MONTH_SCROLL_THRESHOLD;
+        return Math.max(0f, Math.min(1f, depth));
+    }
 
-                    if (mScrollerRunnable == null) {
-                        mScrollerRunnable = new ScrollerRunnable();
-                    }
+    private void startAutoScroll(int direction) {
+        final boolean wasScrolling = mScrollingDirection != NOT_SCROLLING;
+        mScrollingDirection = direction;
 
-                    post(mScrollerRunnable);
-                }
-            }
+        if (!wasScrolling) {
+            cancelRangeUpdate();
+            mAutoScroller.start();
         }
-
-        return mIsLongPressed || super.onTouchEvent(ev);
     }
 
-    private int resolveDirectionForScroll(float x, float y) {
-        if (x - getLeft() < MONTH_SCROLL_THRESHOLD) {
-            return -1;
-        } else if (getRight() - x < MONTH_SCROLL_THRESHOLD) {
-            return 1;
+    private void stopAutoScroll() {
+        if (mScrollingDirection == NOT_SCROLLING) {
+            return;
         }
 
-        return 0;
+        mScrollingDirection = NOT_SCROLLING;
+        removeCallbacks(mAutoScroller);
     }
 
-    public class ScrollerRunnable implements Runnable {
+    /**
+     * Moves through months while the finger rests in an edge zone during
+     * range selection. Runs once per frame and accumulates page progress
+     * at a rate that grows with how deep the finger is inside the edge
+     * zone; a month change is issued each time a full page is reached.
+     * The range end follows the finger on every frame, including while
+     * pages are animating.
+     */
+    private class AutoScroller implements Runnable {
+        private long mLastFrameTime;
+        private float mPageProgress;
+
+        void start() {
+            mLastFrameTime = AnimationUtils.currentAnimationTimeMillis();
+
+            // Move right away on entering the edge zone
+            mPageProgress = 1f;
+            ViewCompat.postOnAnimation(DayPickerViewPager.this, this);
+        }
+
         @Override
         public void run() {
-            final int direction;
-            if (mScrollingLeft) {
-                direction = -1;
-            } else if (mScrollingRight) {
-                direction = 1;
-            } else {
+            if (mScrollingDirection == NOT_SCROLLING) {
                 return;
             }
 
-            // Animation is expensive for accessibility services since it sends
-            // lots of scroll and content change events.
-            final boolean animate = true; //!mAccessibilityManager.isEnabled()
+            final long now = AnimationUtils.currentAnimationTimeMillis();
+            final long frameMillis = Math.min(now - mLastFrameTime, AUTO_SCROLL_MAX_FRAME_MILLIS);
+            mLastFrameTime = now;
+
+            final float pagesPerSecond = AUTO_SCROLL_MIN_PAGES_PER_SECOND
+                    + (AUTO_SCROLL_MAX_PAGES_PER_SECOND - AUTO_SCROLL_MIN_PAGES_PER_SECOND)
+                    * mEdgeDepth;
+            mPageProgress += pagesPerSecond * frameMillis / 1000f;
 
-            // ViewPager clamps input values, so we don't need to worry
-            // about passing invalid indices.
-            setCurrentItem(getCurrentItem() + direction, animate);
+            if (mPageProgress >= 1f) {
+                mPageProgress -= 1f;
+
+                // ViewPager clamps input values, so we don't need to worry
+                // about passing invalid indices.
+                setCurrentItem(getCurrentItem() + mScrollingDirection, true);
+            }
 
-            // Four times the default anim duration
-            postDelayed(this, 1000L);
+            updateRangeEnd();
+
+            ViewCompat.postOnAnimation(DayPickerViewPager.this, this);
         }
-    }*/
+    }
 
     @Override
     public void setAdapter(PagerAdapter adapter) {
@@ -544,6 +555,8 @@ class DayPickerViewPager extends ViewPager {
         if (adapter instanceof DayPickerPagerAdapter) {
             mDayPickerPagerAdapter = (DayPickerPagerAdapter) adapter;
         }
+
+        invalidateDesiredPageSize();
     }
 
     @Override
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import android.support.annotation.NonNull;
+
+import com.appeaser.sublimepickerlibrary.utilities.SUtils;
+
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable table of the pre-formatted day numbers and day of week
+ * labels drawn by {@link SimpleMonthView}. Tables are shared by all
+ * month views and are keyed by (locale, first day of week).
+ */
+final class MonthLabels {
+
+    private static final int DAYS_IN_WEEK = 7;
+    private static final int MAX_DAYS_IN_MONTH = 31;
+
+    private static final String DAY_OF_WEEK_FORMAT;
+
+    static {
+        // Deals with the change in usage of `EEEEE` pattern.
+        // See method `SimpleDateFormat#appendDayOfWeek(...)` for more details.
+        if (SUtils.isApi_18_OrHigher()) {
+            DAY_OF_WEEK_FORMAT = "EEEEE";
+        } else {
+            DAY_OF_WEEK_FORMAT = "E";
+        }
+    }
+
+    // One slot per possible first day of week (Calendar.SUNDAY - Calendar.SATURDAY)
+    private static final Map<Locale, MonthLabels[]> sLabels = new HashMap<>();
+
+    private final String[] mDayLabels = new String[MAX_DAYS_IN_MONTH];
+    private final String[] mDayOfWeekLabels = new String[DAYS_IN_WEEK];
+
+    private MonthLabels(Locale locale, int weekStart) {
+        final NumberFormat dayFormatter = NumberFormat.getIntegerInstance(locale);
+        for (int i = 0; i < MAX_DAYS_IN_MONTH; i++) {
+            mDayLabels[i] = dayFormatter.format(i + 1);
+        }
+
+        final SimpleDateFormat dayOfWeekFormatter
+                = new SimpleDateFormat(DAY_OF_WEEK_FORMAT, locale);
+        final Calendar calendar = Calendar.getInstance();
+        for (int col = 0; col < DAYS_IN_WEEK; col++) {
+            calendar.set(Calendar.DAY_OF_WEEK, (col + weekStart) % DAYS_IN_WEEK);
+            mDayOfWeekLabels[col] = dayOfWeekFormatter.format(calendar.getTime());
+        }
+    }
+
+    /**
+     * Returns the label table for the given locale & first day of week,
+     * creating it on first use.
+     *
+     * @param locale    locale used for formatting
+     * @param weekStart first day of the week, {@link Calendar#SUNDAY}
+     *                  through {@link Calendar#SATURDAY}
+     */
+    static MonthLabels get(@NonNull Locale locale, int weekStart) {
+        synchronized (sLabels) {
+            MonthLabels[] forLocale = sLabels.get(locale);
+
+            if (forLocale == null) {
+                forLocale = new MonthLabels[DAYS_IN_WEEK];
+                sLabels.put(locale, forLocale);
+            }
+
+            final int index = weekStart - Calendar.SUNDAY;
+            if (forLocale[index] == null) {
+                forLocale[index] = new MonthLabels(locale, weekStart);
+            }
+
+            return forLocale[index];
+        }
+    }
+
+    /**
+     * @param day day of month, 1 through 31
+     * @return the localized number for <code>day</code>
+     */
+    String getDayLabel(int day) {
+        return mDayLabels[day - 1];
+    }
+
+    /**
+     * @param col column in the month grid, 0 being the first day of week
+     * @return the localized day of week label for <code>col</code>
+     */
+    String getDayOfWeekLabel(int col) {
+        return mDayOfWeekLabels[col];
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import java.util.Calendar;
+
+/**
+ * Immutable description of how a month is laid out in a
+ * {@link SimpleMonthView} grid: where the first day falls, how many
+ * rows are used and which days can be picked. Drawing, touch handling
+ * and accessibility all read from the same instance.
+ * <p/>
+ * Layouts are cheap to build, so each view builds its own rather than
+ * looking them up in a shared cache; equal layouts compare equal.
+ * <p/>
+ * This class does not depend on the Android framework. Day arithmetic
+ * uses the proleptic Gregorian calendar through epoch days (days since
+ * 1970-01-01), so months before October 1582 are laid out as Gregorian
+ * months, while {@link java.util.GregorianCalendar} switches to the Julian
+ * calendar there by default.
+ */
+final class MonthLayout {
+
+    static final int DAYS_IN_WEEK = 7;
+    static final int MAX_WEEKS_IN_MONTH = 6;
+    static final int MAX_DAYS_IN_MONTH = 31;
+
+    private final int mYear;
+    private final int mMonth;
+    private final int mWeekStart;
+
+    private final int mDaysInMonth;
+    private final int mDayOfWeekStart;
+    private final int mDayOffset;
+    private final int mRows;
+
+    private final int mEnabledDayStart;
+    private final int mEnabledDayEnd;
+
+    private final int mFirstEpochDay;
+
+    /**
+     * @param year            the year
+     * @param month           the month, {@link Calendar#JANUARY} through {@link Calendar#DECEMBER}
+     * @param weekStart       first day of the week, {@link Calendar#SUNDAY} through
+     *                        {@link Calendar#SATURDAY}
+     * @param enabledDayStart the first enabled day, constrained to the month
+     * @param enabledDayEnd   the last enabled day, constrained to the month
+     */
+    MonthLayout(int year, int month, int weekStart, int enabledDayStart, int enabledDayEnd) {
+        if (month < Calendar.JANUARY || month > Calendar.DECEMBER) {
+            throw new IllegalArgumentException("Invalid Month");
+        }
+
+        if (weekStart < Calendar.SUNDAY || weekStart > Calendar.SATURDAY) {
+            throw new IllegalArgumentException("Invalid first day of week");
+        }
+
+        mYear = year;
+        mMonth = month;
+        mWeekStart = weekStart;
+
+        mDaysInMonth = getDaysInMonth(month, year);
+        mFirstEpochDay = toEpochDay(year, month, 1);
+        mDayOfWeekStart = getDayOfWeek(mFirstEpochDay);
+
+        final int offset = mDayOfWeekStart - mWeekStart;
+        mDayOffset = mDayOfWeekStart < mWeekStart ? offset + DAYS_IN_WEEK : offset;
+        mRows = (mDayOffset + mDaysInMonth + DAYS_IN_WEEK - 1) / DAYS_IN_WEEK;
+
+        mEnabledDayStart = constrain(enabledDayStart, 1, mDaysInMonth);
+        mEnabledDayEnd = constrain(enabledDayEnd, mEnabledDayStart, mDaysInMonth);
+    }
+
+    int getYear() {
+        return mYear;
+    }
+
+    int getMonth() {
+        return mMonth;
+    }
+
+    int getWeekStart() {
+        return mWeekStart;
+    }
+
+    int getDaysInMonth() {
+        return mDaysInMonth;
+    }
+
+    /**
+     * @return the day of week (ex. {@link Calendar#SUNDAY}) of the first day of the month
+     */
+    int getDayOfWeekStart() {
+        return mDayOfWeekStart;
+    }
+
+    /**
+     * @return the column the first day of the month falls in
+     */
+    int getDayOffset() {
+        return mDayOffset;
+    }
+
+    /**
+     * @return the number of week rows the month spans
+     */
+    int getRows() {
+        return mRows;
+    }
+
+    int getEnabledDayStart() {
+        return mEnabledDayStart;
+    }
+
+    int getEnabledDayEnd() {
+        return mEnabledDayEnd;
+    }
+
+    boolean isValidDayOfMonth(int day) {
+        return day >= 1 && day <= mDaysInMonth;
+    }
+
+    boolean isDayEnabled(int day) {
+        return day >= mEnabledDayStart && day <= mEnabledDayEnd;
+    }
+
+    /**
+     * @return the column (0 being the first day of week) for a valid <code>day</code>
+     */
+    int getColumn(int day) {
+        return (day - 1 + mDayOffset) % DAYS_IN_WEEK;
+    }
+
+    /**
+     * @return the row for a valid <code>day</code>
+     */
+    int getRow(int day) {
+        return (day - 1 + mDayOffset) / DAYS_IN_WEEK;
+    }
+
+    /**
+     * @return the day of month shown at (row, col), or -1 if the cell is empty
+     */
+    int getDayAt(int row, int col) {
+        if (row < 0 || col < 0 || col >= DAYS_IN_WEEK) {
+            return -1;
+        }
+
+        final int day = row * DAYS_IN_WEEK + col + 1 - mDayOffset;
+        return isValidDayOfMonth(day) ? day : -1;
+    }
+
+    /**
+     * @return the epoch day of the first day of this month
+     */
+    int getFirstEpochDay() {
+        return mFirstEpochDay;
+    }
+
+    /**
+     * @return the day of month matching <code>epochDay</code>, or -1 if
+     * <code>epochDay</code> does not fall in this month
+     */
+    int getDayForEpochDay(int epochDay) {
+        final int day = epochDay - mFirstEpochDay + 1;
+        return isValidDayOfMonth(day) ? day : -1;
+    }
+
+    /**
+     * Converts a date to the number of days since 1970-01-01, in the
+     * proleptic Gregorian calendar. Dates before 1582-10-15 therefore
+     * differ from those of a default {@link java.util.GregorianCalendar}.
+     *
+     * @param month      {@link Calendar#JANUARY} through {@link Calendar#DECEMBER}
+     * @param dayOfMonth 1 based day of month
+     */
+    static int toEpochDay(int year, int month, int dayOfMonth) {
+        // Shift the year to start in March, so that the leap day
+        // is the last day of the (shifted) year.
+        final int y = month < Calendar.MARCH ? year - 1 : year;
+        final int era = (y >= 0 ? y : y - 399) / 400;
+        final int yearOfEra = y - era * 400;
+        final int shiftedMonth = month < Calendar.MARCH ? month + 10 : month - 2;
+        final int dayOfYear = (153 * shiftedMonth + 2) / 5 + dayOfMonth - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @return the day of week, {@link Calendar#SUNDAY} through
+     * {@link Calendar#SATURDAY}, for the given epoch day
+     */
+    static int getDayOfWeek(int epochDay) {
+        // 1970-01-01 was a Thursday
+        final int fromSunday = ((epochDay + 4) % DAYS_IN_WEEK + DAYS_IN_WEEK) % DAYS_IN_WEEK;
+        return Calendar.SUNDAY + fromSunday;
+    }
+
+    static int getDaysInMonth(int month, int year) {
+        switch (month) {
+            case Calendar.JANUARY:
+            case Calendar.MARCH:
+            case Calendar.MAY:
+            case Calendar.JULY:
+            case Calendar.AUGUST:
+            case Calendar.OCTOBER:
+            case Calendar.DECEMBER:
+                return 31;
+            case Calendar.APRIL:
+            case Calendar.JUNE:
+            case Calendar.SEPTEMBER:
+            case Calendar.NOVEMBER:
+                return 30;
+            case Calendar.FEBRUARY:
+                return isLeapYear(year) ? 29 : 28;
+            default:
+                throw new IllegalArgumentException("Invalid Month");
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int constrain(int amount, int low, int high) {
+        return amount < low ? low : (amount > high ? high : amount);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MonthLayout)) {
+            return false;
+        }
+
+        final MonthLayout other = (MonthLayout) o;
+        return mYear == other.mYear && mMonth == other.mMonth && mWeekStart == other.mWeekStart
+                && mEnabledDayStart == other.mEnabledDayStart
+                && mEnabledDayEnd == other.mEnabledDayEnd;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mYear;
+        result = 31 * result + mMonth;
+        result = 31 * result + mWeekStart;
+        result = 31 * result + mEnabledDayStart;
+        result = 31 * result + mEnabledDayEnd;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "MonthLayout{" + mYear + "-" + (mMonth + 1) + ", weekStart=" + mWeekStart
+                + ", offset=" + mDayOffset + ", rows=" + mRows
+                + ", enabled=" + mEnabledDayStart + ".." + mEnabledDayEnd + "}";
+    }
+}
@@ -23,6 +23,7 @@ import android.content.res.ColorStateList;
 import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
@@ -45,9 +46,10 @@ import com.appeaser.sublimepickerlibrary.R;
 import com.appeaser.sublimepickerlibrary.common.DateTimePatternHelper;
 import com.appeaser.sublimepickerlibrary.utilities.Config;
 import com.appeaser.sublimepickerlibrary.utilities.SUtils;
+import com.appeaser.sublimepickerlibrary.utilities.StateColorTable;
 
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
@@ -59,31 +61,13 @@ import java.util.Locale;
 class SimpleMonthView extends View {
     private static final String TAG = SimpleMonthView.class.getSimpleName();
 
-    private static final int DAYS_IN_WEEK = 7;
-    private static final int MAX_WEEKS_IN_MONTH = 6;
+    private static final int DAYS_IN_WEEK = MonthLayout.DAYS_IN_WEEK;
+    private static final int MAX_WEEKS_IN_MONTH = MonthLayout.MAX_WEEKS_IN_MONTH;
 
     private static final int DEFAULT_SELECTED_DAY = -1;
     private static final int DEFAULT_WEEK_START = Calendar.SUNDAY;
 
     private static final String DEFAULT_TITLE_FORMAT = "MMMMy";
-    private static final String DAY_OF_WEEK_FORMAT;
-
-    @SuppressWarnings("FieldCanBeLocal")
-    private final int DRAW_RECT = 0;
-    @SuppressWarnings("FieldCanBeLocal")
-    private final int DRAW_RECT_WITH_CURVE_ON_LEFT = 1;
-    @SuppressWarnings("FieldCanBeLocal")
-    private final int DRAW_RECT_WITH_CURVE_ON_RIGHT = 2;
-
-    static {
-        // Deals with the change in usage of `EEEEE` pattern.
-        // See method `SimpleDateFormat#appendDayOfWeek(...)` for more details.
-        if (SUtils.isApi_18_OrHigher()) {
-            DAY_OF_WEEK_FORMAT = "EEEEE";
-        } else {
-            DAY_OF_WEEK_FORMAT = "E";
-        }
-    }
 
     private final TextPaint mMonthPaint = new TextPaint();
     private final TextPaint mDayOfWeekPaint = new TextPaint();
@@ -93,13 +77,13 @@ class SimpleMonthView extends View {
     private final Paint mDayRangeSelectorPaint = new Paint();
 
     private final Calendar mCalendar = Calendar.getInstance();
-    private final Calendar mDayOfWeekLabelCalendar = Calendar.getInstance();
 
     private MonthViewTouchHelper mTouchHelper;
 
     private SimpleDateFormat mTitleFormatter;
-    private SimpleDateFormat mDayOfWeekFormatter;
-    private NumberFormat mDayFormatter;
+
+    private Locale mLocale;
+    private MonthLabels mLabels;
 
     // Desired dimensions.
     private int mDesiredMonthHeight;
@@ -110,9 +94,6 @@ class SimpleMonthView extends View {
 
     private CharSequence mTitle;
 
-    private int mMonth;
-    private int mYear;
-
     // Dimensions as laid out.
     private int mMonthHeight;
     private int mDayOfWeekHeight;
@@ -136,38 +117,26 @@ class SimpleMonthView extends View {
      */
     private int mToday = DEFAULT_SELECTED_DAY;
 
-    /**
-     * The first day of the week (ex. Calendar.SUNDAY).
-     */
-    private int mWeekStart = DEFAULT_WEEK_START;
-
-    /**
-     * The number of days (ex. 28) in the current month.
-     */
-    private int mDaysInMonth;
-
-    /**
-     * The day of week (ex. Calendar.SUNDAY) for the first day of the current
-     * month.
-     */
-    private int mDayOfWeekStart;
-
-    /**
-     * The day of month for the first (inclusive) enabled day.
-     */
-    private int mEnabledDayStart = 1;
+    private final TodayProvider.OnDayChangedListener mDayChangedListener
+            = new TodayProvider.OnDayChangedListener() {
+        @Override
+        public void onDayChanged(int todayEpochDay) {
+            updateToday(todayEpochDay);
+        }
+    };
 
     /**
-     * The day of month for the last (inclusive) enabled day.
+     * Month, first day of the week, day offset & enabled days for the
+     * current month.
      */
-    private int mEnabledDayEnd = 31;
+    private MonthLayout mLayout;
 
     /**
      * Optional listener for handling day click actions.
      */
     private OnDayClickListener mOnDayClickListener;
 
-    private ColorStateList mDayTextColor;
+    private final StateColorTable mDayTextColor = new StateColorTable();
 
     private int mTouchedItem = -1;
 
@@ -177,6 +146,30 @@ class SimpleMonthView extends View {
 
     private float mPaddingRangeIndicator;
 
+    /**
+     * Cell geometry resolved for the current layout. See
+     * {@link #updateCellGeometry()}.
+     */
+    private boolean mIsLayoutRtl;
+    private final float[] mColCenters = new float[DAYS_IN_WEEK];
+    private final float[] mRowCenters = new float[MAX_WEEKS_IN_MONTH];
+    private final float[] mRangeArcLefts = new float[DAYS_IN_WEEK];
+    private final float[] mRangeArcRights = new float[DAYS_IN_WEEK];
+    private float mRangeHalfHeight;
+    private final RectF mRangeArcRect = new RectF();
+
+    /**
+     * Background for the activated date range: one closed band per week
+     * row. Rebuilt lazily by {@link #updateRangeBands()} whenever the
+     * selection, the month or the cell geometry changes.
+     */
+    private final Path mRangeBands = new Path();
+    private boolean mRangeBandsInvalid = true;
+
+    // Used in computing dirty regions in invalidateDays(int, int)
+    private final Rect mDirtyRect = new Rect();
+    private final Rect mTempRect = new Rect();
+
     public SimpleMonthView(Context context) {
         this(context, null);
     }
@@ -221,6 +214,7 @@ class SimpleMonthView extends View {
                 ViewCompat.IMPORTANT_FOR_ACCESSIBILITY_YES);
 
         final Locale locale = res.getConfiguration().locale;
+        mLocale = locale;
 
         String titleFormat;
 
@@ -232,8 +226,10 @@ class SimpleMonthView extends View {
         }
 
         mTitleFormatter = new SimpleDateFormat(titleFormat, locale);
-        mDayOfWeekFormatter = new SimpleDateFormat(DAY_OF_WEEK_FORMAT, locale);
-        mDayFormatter = NumberFormat.getIntegerInstance(locale);
+
+        mLayout = new MonthLayout(mCalendar.get(Calendar.YEAR), mCalendar.get(Calendar.MONTH),
+                DEFAULT_WEEK_START, 1, MonthLayout.MAX_DAYS_IN_MONTH);
+        mLabels = MonthLabels.get(locale, mLayout.getWeekStart());
 
         initPaints(res);
     }
@@ -291,7 +287,7 @@ class SimpleMonthView extends View {
     public void setDayTextAppearance(int resId) {
         final ColorStateList textColor = applyTextAppearance(mDayPaint, resId);
         if (textColor != null) {
-            mDayTextColor = textColor;
+            mDayTextColor.setColorStateList(textColor);
         }
 
         invalidate();
@@ -360,7 +356,7 @@ class SimpleMonthView extends View {
     }
 
     void setDayTextColor(ColorStateList dayTextColor) {
-        mDayTextColor = dayTextColor;
+        mDayTextColor.setColorStateList(dayTextColor);
         invalidate();
     }
 
@@ -501,54 +497,43 @@ class SimpleMonthView extends View {
         for (int col = 0; col < DAYS_IN_WEEK; col++) {
             final int colCenter = colWidth * col + colWidth / 2;
             final int colCenterRtl;
-            if (SUtils.isLayoutRtlCompat(this)) {
+            if (mIsLayoutRtl) {
                 colCenterRtl = mPaddedWidth - colCenter;
             } else {
                 colCenterRtl = colCenter;
             }
 
-            final int dayOfWeek = (col + mWeekStart) % DAYS_IN_WEEK;
-            final String label = getDayOfWeekLabel(dayOfWeek);
+            final String label = mLabels.getDayOfWeekLabel(col);
             canvas.drawText(label, colCenterRtl, rowCenter - halfLineHeight, p);
         }
     }
 
-    private String getDayOfWeekLabel(int dayOfWeek) {
-        mDayOfWeekLabelCalendar.set(Calendar.DAY_OF_WEEK, dayOfWeek);
-        return mDayOfWeekFormatter.format(mDayOfWeekLabelCalendar.getTime());
-    }
-
     /**
      * Draws the month days.
      */
     @SuppressWarnings("ConstantConditions")
     private void drawDays(Canvas canvas) {
         final TextPaint p = mDayPaint;
-        final int headerHeight = mMonthHeight + mDayOfWeekHeight;
-        //final int rowHeight = mDayHeight;
-        final float rowHeight = mDayHeight;
-        //final int colWidth = mCellWidth;
-        final float colWidth = mCellWidth;
 
         // Text is vertically centered within the row height.
         final float halfLineHeight = (p.ascent() + p.descent()) / 2f;
-        //int rowCenter = headerHeight + rowHeight / 2;
-        float rowCenter = headerHeight + rowHeight / 2f;
 
-        for (int day = 1, col = findDayOffset(); day <= mDaysInMonth; day++) {
-            //final int colCenter = colWidth * col + colWidth / 2;
-            final float colCenter = colWidth * col + colWidth / 2f;
-            //final int colCenterRtl;
-            final float colCenterRtl;
-            if (SUtils.isLayoutRtlCompat(this)) {
-                colCenterRtl = mPaddedWidth - colCenter;
-            } else {
-                colCenterRtl = colCenter;
-            }
+        if (mRangeBandsInvalid) {
+            updateRangeBands();
+        }
+
+        canvas.drawPath(mRangeBands, mDayRangeSelectorPaint);
+
+        final MonthLayout layout = mLayout;
+        final int daysInMonth = layout.getDaysInMonth();
+
+        for (int day = 1, col = layout.getDayOffset(), row = 0; day <= daysInMonth; day++) {
+            final float colCenterRtl = mColCenters[col];
+            final float rowCenter = mRowCenters[row];
 
             int stateMask = 0;
 
-            final boolean isDayEnabled = isDayEnabled(day);
+            final boolean isDayEnabled = layout.isDayEnabled(day);
             if (isDayEnabled) {
                 stateMask |= SUtils.STATE_ENABLED;
             }
@@ -562,80 +547,6 @@ class SimpleMonthView extends View {
                 canvas.drawCircle(colCenterRtl, rowCenter, mDaySelectorRadius, mDaySelectorPaint);
             } else if (isDayInActivatedRange) {
                 stateMask |= SUtils.STATE_ACTIVATED;
-
-                int bgShape = DRAW_RECT;
-
-                if (mActivatedDays.isSingleDay()) {
-                    if (mActivatedDays.isStartOfMonth()) {
-                        bgShape = DRAW_RECT_WITH_CURVE_ON_RIGHT;
-                    } else {
-                        bgShape = DRAW_RECT_WITH_CURVE_ON_LEFT;
-                    }
-                } else if (mActivatedDays.isStartingDayOfRange(day)) {
-                    bgShape = DRAW_RECT_WITH_CURVE_ON_LEFT;
-                } else if (mActivatedDays.isEndingDayOfRange(day)) {
-                    bgShape = DRAW_RECT_WITH_CURVE_ON_RIGHT;
-                }
-
-                // Use height to constrain the protrusion of the arc
-                boolean constrainProtrusion = colWidth > (rowHeight - (2 * mPaddingRangeIndicator));
-                float horDistFromCenter = constrainProtrusion ?
-                        rowHeight / 2f - mPaddingRangeIndicator
-                        : colWidth / 2f;
-
-                switch (bgShape) {
-                    case DRAW_RECT_WITH_CURVE_ON_LEFT:
-                        int leftRectArcLeft = (int)(colCenterRtl - horDistFromCenter) % 2 == 1 ?
-                                (int)(colCenterRtl - horDistFromCenter) + 1
-                                : (int)(colCenterRtl - horDistFromCenter);
-
-                        int leftRectArcRight = (int)(colCenterRtl + horDistFromCenter) % 2 == 1 ?
-                                (int)(colCenterRtl + horDistFromCenter) + 1
-                                : (int)(colCenterRtl + horDistFromCenter);
-
-                        RectF leftArcRect = new RectF(leftRectArcLeft,
-                                rowCenter - rowHeight / 2f + mPaddingRangeIndicator,
-                                leftRectArcRight,
-                                rowCenter + rowHeight / 2f - mPaddingRangeIndicator);
-
-                        canvas.drawArc(leftArcRect, 90, 180, true, mDayRangeSelectorPaint);
-
-                        canvas.drawRect(new RectF(leftArcRect.centerX(),
-                                        rowCenter - rowHeight / 2f + mPaddingRangeIndicator,
-                                        colCenterRtl + colWidth / 2f,
-                                        rowCenter + rowHeight / 2f - mPaddingRangeIndicator),
-                                mDayRangeSelectorPaint);
-                        break;
-                    case DRAW_RECT_WITH_CURVE_ON_RIGHT:
-                        int rightRectArcLeft = (int)(colCenterRtl - horDistFromCenter) % 2 == 1 ?
-                                (int)(colCenterRtl - horDistFromCenter) + 1
-                                : (int)(colCenterRtl - horDistFromCenter);
-
-                        int rightRectArcRight = (int)(colCenterRtl + horDistFromCenter) % 2 == 1 ?
-                                (int)(colCenterRtl + horDistFromCenter) + 1
-                                : (int)(colCenterRtl + horDistFromCenter);
-
-                        RectF rightArcRect = new RectF(rightRectArcLeft,
-                                rowCenter - rowHeight / 2f + mPaddingRangeIndicator,
-                                rightRectArcRight,
-                                rowCenter + rowHeight / 2f - mPaddingRangeIndicator);
-
-                        canvas.drawArc(rightArcRect, 270, 180, true, mDayRangeSelectorPaint);
-
-                        canvas.drawRect(new RectF(colCenterRtl - colWidth / 2f,
-                                        rowCenter - rowHeight / 2f + mPaddingRangeIndicator,
-                                        rightArcRect.centerX(),
-                                        rowCenter + rowHeight / 2f - mPaddingRangeIndicator),
-                                mDayRangeSelectorPaint);
-                        break;
-                    default:
-                        canvas.drawRect(new RectF(colCenterRtl - colWidth / 2f,
-                                        rowCenter - rowHeight / 2f + mPaddingRangeIndicator,
-                                        colCenterRtl + colWidth / 2f,
-                                        rowCenter + rowHeight / 2f - mPaddingRangeIndicator),
-                                mDayRangeSelectorPaint);
-                        break;
-                }
             }
 
             if (mTouchedItem == day) {
@@ -653,28 +564,124 @@ class SimpleMonthView extends View {
             if (isDayToday && !isDayInActivatedRange) {
                 dayTextColor = mDaySelectorPaint.getColor();
             } else {
-                final int[] stateSet = SUtils.resolveStateSet(stateMask);
-                dayTextColor = mDayTextColor.getColorForState(stateSet, 0);
+                dayTextColor = mDayTextColor.getColor(stateMask);
             }
             p.setColor(dayTextColor);
 
-            canvas.drawText(mDayFormatter.format(day), colCenterRtl, rowCenter - halfLineHeight, p);
+            canvas.drawText(mLabels.getDayLabel(day), colCenterRtl, rowCenter - halfLineHeight, p);
 
             col++;
 
             if (col == DAYS_IN_WEEK) {
                 col = 0;
-                rowCenter += rowHeight;
+                row++;
             }
         }
     }
 
-    private boolean isDayEnabled(int day) {
-        return day >= mEnabledDayStart && day <= mEnabledDayEnd;
+    /**
+     * Rebuilds {@link #mRangeBands} from {@link #mActivatedDays}. Each week
+     * row covered by the range gets a single band running from its first
+     * to its last activated day. The band is rounded at the start of the
+     * range and at the end of the range, on the leading and trailing side
+     * respectively.
+     */
+    private void updateRangeBands() {
+        mRangeBands.reset();
+        mRangeBandsInvalid = false;
+
+        final ActivatedDays activatedDays = mActivatedDays;
+        if (!activatedDays.isValid() || activatedDays.isSelected(activatedDays.startingDay)) {
+            return;
+        }
+
+        final int firstDay = Math.max(activatedDays.startingDay, 1);
+        final int lastDay = Math.min(activatedDays.endingDay, mLayout.getDaysInMonth());
+        final float halfCellWidth = mCellWidth / 2f;
+
+        for (int rowStartDay = firstDay; rowStartDay <= lastDay; ) {
+            final int startCol = mLayout.getColumn(rowStartDay);
+            final int rowEndDay = Math.min(rowStartDay + (DAYS_IN_WEEK - 1 - startCol), lastDay);
+            final int endCol = startCol + (rowEndDay - rowStartDay);
+            final int row = mLayout.getRow(rowStartDay);
+
+            final boolean leadingCurve = activatedDays.hasLeadingCurve(rowStartDay);
+            final boolean trailingCurve = activatedDays.hasTrailingCurve(rowEndDay);
+
+            final int leftCol = mIsLayoutRtl ? endCol : startCol;
+            final int rightCol = mIsLayoutRtl ? startCol : endCol;
+            final boolean leftCurve = mIsLayoutRtl ? trailingCurve : leadingCurve;
+            final boolean rightCurve = mIsLayoutRtl ? leadingCurve : trailingCurve;
+
+            final float top = mRowCenters[row] - mRangeHalfHeight;
+            final float bottom = mRowCenters[row] + mRangeHalfHeight;
+            final float left = leftCurve ?
+                    (mRangeArcLefts[leftCol] + mRangeArcRights[leftCol]) / 2f
+                    : mColCenters[leftCol] - halfCellWidth;
+            final float right = rightCurve ?
+                    (mRangeArcLefts[rightCol] + mRangeArcRights[rightCol]) / 2f
+                    : mColCenters[rightCol] + halfCellWidth;
+
+            mRangeBands.moveTo(left, top);
+            mRangeBands.lineTo(right, top);
+
+            if (rightCurve) {
+                mRangeArcRect.set(mRangeArcLefts[rightCol], top, mRangeArcRights[rightCol], bottom);
+                mRangeBands.arcTo(mRangeArcRect, 270, 180, false);
+            } else {
+                mRangeBands.lineTo(right, bottom);
+            }
+
+            mRangeBands.lineTo(left, bottom);
+
+            if (leftCurve) {
+                mRangeArcRect.set(mRangeArcLefts[leftCol], top, mRangeArcRights[leftCol], bottom);
+                mRangeBands.arcTo(mRangeArcRect, 90, 180, false);
+            }
+
+            mRangeBands.close();
+
+            rowStartDay = rowEndDay + 1;
+        }
     }
 
-    private boolean isValidDayOfMonth(int day) {
-        return day >= 1 && day <= mDaysInMonth;
+    /**
+     * Resolves the per-column and per-row drawing positions used by
+     * {@link #drawDays(Canvas)} for the current layout and layout direction.
+     * Nothing here depends on the displayed month, so this only needs to run
+     * when the view is laid out again.
+     */
+    private void updateCellGeometry() {
+        mIsLayoutRtl = SUtils.isLayoutRtlCompat(this);
+
+        final float rowHeight = mDayHeight;
+        final float colWidth = mCellWidth;
+
+        // Use height to constrain the protrusion of the arc
+        final boolean constrainProtrusion = colWidth > (rowHeight - (2 * mPaddingRangeIndicator));
+        final float horDistFromCenter = constrainProtrusion ?
+                rowHeight / 2f - mPaddingRangeIndicator
+                : colWidth / 2f;
+
+        for (int col = 0; col < DAYS_IN_WEEK; col++) {
+            final float colCenter = colWidth * col + colWidth / 2f;
+            final float colCenterRtl = mIsLayoutRtl ? mPaddedWidth - colCenter : colCenter;
+            mColCenters[col] = colCenterRtl;
+
+            // Arc bounds are snapped to even pixel values.
+            final int arcLeft = (int) (colCenterRtl - horDistFromCenter);
+            final int arcRight = (int) (colCenterRtl + horDistFromCenter);
+            mRangeArcLefts[col] = arcLeft % 2 == 1 ? arcLeft + 1 : arcLeft;
+            mRangeArcRights[col] = arcRight % 2 == 1 ? arcRight + 1 : arcRight;
+        }
+
+        final int headerHeight = mMonthHeight + mDayOfWeekHeight;
+        for (int row = 0; row < MAX_WEEKS_IN_MONTH; row++) {
+            mRowCenters[row] = headerHeight + rowHeight * row + rowHeight / 2f;
+        }
+
+        mRangeHalfHeight = rowHeight / 2f - mPaddingRangeIndicator;
+        mRangeBandsInvalid = true;
     }
 
     private static boolean isValidDayOfWeek(int day) {
@@ -686,17 +693,94 @@ class SimpleMonthView extends View {
     }
 
     public void selectAllDays() {
-        setSelectedDays(1, SUtils.getDaysInMonth(mMonth, mYear), SelectedDate.Type.RANGE);
+        setSelectedDays(1, mLayout.getDaysInMonth(), SelectedDate.Type.RANGE);
     }
 
     public void setSelectedDays(int selectedDayStart, int selectedDayEnd, SelectedDate.Type selectedDateType) {
+        final int oldDayStart = mActivatedDays.startingDay;
+        final int oldDayEnd = mActivatedDays.endingDay;
+        final SelectedDate.Type oldDateType = mActivatedDays.selectedDateType;
+        final boolean wasValid = mActivatedDays.isValid();
+
+        if (oldDayStart == selectedDayStart && oldDayEnd == selectedDayEnd
+                && oldDateType == selectedDateType) {
+            return;
+        }
+
         mActivatedDays.startingDay = selectedDayStart;
         mActivatedDays.endingDay = selectedDayEnd;
         mActivatedDays.selectedDateType = selectedDateType;
+        mRangeBandsInvalid = true;
+
+        // Only redraw the days whose state changed. When both selections are
+        // ranges, the days between the two start days and between the two
+        // end days are the only ones affected. A single day that moves only
+        // affects the day it leaves and the day it lands on.
+        if (wasValid && mActivatedDays.isValid()
+                && oldDateType == SelectedDate.Type.RANGE
+                && selectedDateType == SelectedDate.Type.RANGE) {
+            final int startsFirst = Math.min(oldDayStart, selectedDayStart);
+            final int startsLast = Math.max(oldDayStart, selectedDayStart);
+            final int endsFirst = Math.min(oldDayEnd, selectedDayEnd);
+            final int endsLast = Math.max(oldDayEnd, selectedDayEnd);
+
+            if (endsFirst <= startsLast + 1) {
+                // Adjacent or overlapping spans, e.g. a range shifted by
+                // fewer days than it is long.
+                invalidateDays(startsFirst, endsLast);
+            } else {
+                invalidateDays(startsFirst, startsLast);
+                invalidateDays(endsFirst, endsLast);
+            }
+        } else if (wasValid && mActivatedDays.isValid()
+                && oldDayStart <= selectedDayEnd && selectedDayStart <= oldDayEnd) {
+            // The type changed between selections that share days.
+            invalidateDays(Math.min(oldDayStart, selectedDayStart),
+                    Math.max(oldDayEnd, selectedDayEnd));
+        } else {
+            if (wasValid) {
+                invalidateDays(oldDayStart, oldDayEnd);
+            }
 
-        // Invalidate cached accessibility information.
-        mTouchHelper.invalidateRoot();
-        invalidate();
+            if (mActivatedDays.isValid()) {
+                invalidateDays(selectedDayStart, selectedDayEnd);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cells and the accessibility nodes for days
+     * <code>firstDay</code> through <code>lastDay</code> (both inclusive).
+     * Days are grouped by week row so that a single dirty rect is
+     * posted per row.
+     */
+    private void invalidateDays(int firstDay, int lastDay) {
+        firstDay = Math.max(firstDay, 1);
+        lastDay = Math.min(lastDay, mLayout.getDaysInMonth());
+
+        // The day selector and the range band's curves may protrude
+        // beyond a cell's bounds.
+        final int outsetH = Math.max(0, mDaySelectorRadius - mCellWidth / 2) + 1;
+        final int outsetV = Math.max(0, mDaySelectorRadius - mDayHeight / 2) + 1;
+
+        for (int rowStartDay = firstDay; rowStartDay <= lastDay; ) {
+            final int startCol = mLayout.getColumn(rowStartDay);
+            final int rowEndDay = Math.min(rowStartDay + (DAYS_IN_WEEK - 1 - startCol), lastDay);
+
+            getBoundsForDay(rowStartDay, mDirtyRect);
+            getBoundsForDay(rowEndDay, mTempRect);
+            mDirtyRect.union(mTempRect);
+            mDirtyRect.inset(-outsetH, -outsetV);
+
+            //noinspection deprecation
+            invalidate(mDirtyRect);
+
+            rowStartDay = rowEndDay + 1;
+        }
+
+        for (int day = firstDay; day <= lastDay; day++) {
+            mTouchHelper.invalidateVirtualView(day);
+        }
     }
 
     /**
@@ -706,13 +790,17 @@ class SimpleMonthView extends View {
      *                  {@link Calendar#SUNDAY} through {@link Calendar#SATURDAY}
      */
     public void setFirstDayOfWeek(int weekStart) {
-        if (isValidDayOfWeek(weekStart)) {
-            mWeekStart = weekStart;
-        } else {
-            mWeekStart = mCalendar.getFirstDayOfWeek();
+        if (!isValidDayOfWeek(weekStart)) {
+            weekStart = mCalendar.getFirstDayOfWeek();
         }
 
+        mLayout = new MonthLayout(mLayout.getYear(), mLayout.getMonth(), weekStart,
+                mLayout.getEnabledDayStart(), mLayout.getEnabledDayEnd());
+        mLabels = MonthLabels.get(mLocale, weekStart);
+        mRangeBandsInvalid = true;
+
         // Invalidate cached accessibility information.
+        mTouchHelper.invalidateDayBounds();
         mTouchHelper.invalidateRoot();
         invalidate();
     }
@@ -738,35 +826,36 @@ class SimpleMonthView extends View {
     void setMonthParams(int month, int year, int weekStart, int enabledDayStart,
                         int enabledDayEnd, int selectedDayStart, int selectedDayEnd,
                         SelectedDate.Type selectedDateType) {
-        if (isValidMonth(month)) {
-            mMonth = month;
+        if (!isValidMonth(month)) {
+            month = mLayout.getMonth();
         }
-        mYear = year;
 
-        mCalendar.set(Calendar.MONTH, mMonth);
-        mCalendar.set(Calendar.YEAR, mYear);
+        // Only used for formatting the title.
+        mCalendar.set(Calendar.MONTH, month);
+        mCalendar.set(Calendar.YEAR, year);
         mCalendar.set(Calendar.DAY_OF_MONTH, 1);
-        mDayOfWeekStart = mCalendar.get(Calendar.DAY_OF_WEEK);
 
-        if (isValidDayOfWeek(weekStart)) {
-            mWeekStart = weekStart;
-        } else {
-            mWeekStart = mCalendar.getFirstDayOfWeek();
+        if (!isValidDayOfWeek(weekStart)) {
+            weekStart = mCalendar.getFirstDayOfWeek();
         }
 
+        final MonthLayout layout = new MonthLayout(year, month, weekStart,
+                enabledDayStart, enabledDayEnd);
+
         // Figure out what day today is.
-        final Calendar today = Calendar.getInstance();
-        mToday = -1;
-        mDaysInMonth = SUtils.getDaysInMonth(mMonth, mYear);
-        for (int i = 0; i < mDaysInMonth; i++) {
-            final int day = i + 1;
-            if (sameDay(day, today)) {
-                mToday = day;
-            }
+        final int today = layout.getDayForEpochDay(TodayProvider.getInstance().getTodayEpochDay());
+
+        if (layout.equals(mLayout) && today == mToday) {
+            // Re-bound to the month already shown, e.g. after a selection
+            // change. Only the days whose state changed need to be redrawn
+            // and re-announced.
+            setSelectedDays(selectedDayStart, selectedDayEnd, selectedDateType);
+            return;
         }
 
-        mEnabledDayStart = SUtils.constrain(enabledDayStart, 1, mDaysInMonth);
-        mEnabledDayEnd = SUtils.constrain(enabledDayEnd, mEnabledDayStart, mDaysInMonth);
+        mLayout = layout;
+        mLabels = MonthLabels.get(mLocale, weekStart);
+        mToday = today;
 
         // Invalidate the old title.
         mTitle = null;
@@ -774,14 +863,39 @@ class SimpleMonthView extends View {
         mActivatedDays.startingDay = selectedDayStart;
         mActivatedDays.endingDay = selectedDayEnd;
         mActivatedDays.selectedDateType = selectedDateType;
+        mRangeBandsInvalid = true;
+
+        // A pressed day belongs to the month previously shown.
+        if (mPendingCheckForTap != null) {
+            removeCallbacks(mPendingCheckForTap);
+        }
+        mTouchedItem = -1;
+        mInitialTarget = -1;
 
         // Invalidate cached accessibility information.
+        mTouchHelper.invalidateDayBounds();
         mTouchHelper.invalidateRoot();
+
+        // Recycled month views are re-bound without being re-created.
+        invalidate();
     }
 
-    private boolean sameDay(int day, Calendar today) {
-        return mYear == today.get(Calendar.YEAR) && mMonth == today.get(Calendar.MONTH)
-                && day == today.get(Calendar.DAY_OF_MONTH);
+    /**
+     * Returns the preferred width of a month view, excluding padding.
+     * Matches the width requested in {@link #onMeasure(int, int)}.
+     */
+    static int getPreferredContentWidth(Resources res) {
+        return res.getDimensionPixelSize(R.dimen.sp_date_picker_day_width) * DAYS_IN_WEEK;
+    }
+
+    /**
+     * Returns the preferred height of a month view, excluding padding.
+     * Matches the height requested in {@link #onMeasure(int, int)}.
+     */
+    static int getPreferredContentHeight(Resources res) {
+        return res.getDimensionPixelSize(R.dimen.sp_date_picker_day_height) * MAX_WEEKS_IN_MONTH
+                + res.getDimensionPixelSize(R.dimen.sp_date_picker_day_of_week_height)
+                + res.getDimensionPixelSize(R.dimen.sp_date_picker_month_height);
     }
 
     @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
@@ -799,10 +913,44 @@ class SimpleMonthView extends View {
         setMeasuredDimension(resolvedWidth, resolvedHeight);
     }
 
+    /**
+     * Moves the today highlight if <code>todayEpochDay</code> falls on
+     * a different day of this month.
+     */
+    private void updateToday(int todayEpochDay) {
+        final int oldToday = mToday;
+        mToday = mLayout.getDayForEpochDay(todayEpochDay);
+
+        if (mToday != oldToday) {
+            invalidateDays(oldToday, oldToday);
+            invalidateDays(mToday, mToday);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        final TodayProvider todayProvider = TodayProvider.getInstance();
+        todayProvider.addOnDayChangedListener(getContext(), mDayChangedListener);
+
+        // The day may have changed while detached.
+        updateToday(todayProvider.getTodayEpochDay());
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        TodayProvider.getInstance().removeOnDayChangedListener(mDayChangedListener);
+
+        super.onDetachedFromWindow();
+    }
+
     @Override
     public void onRtlPropertiesChanged(/*@ResolvedLayoutDir*/ int layoutDirection) {
         super.onRtlPropertiesChanged(layoutDirection);
 
+        updateCellGeometry();
+        mTouchHelper.invalidateDayBounds();
         requestLayout();
     }
 
@@ -848,18 +996,13 @@ class SimpleMonthView extends View {
         mDaySelectorRadius = Math.min(mDesiredDaySelectorRadius,
                 Math.min(maxSelectorWidth, maxSelectorHeight));
 
+        updateCellGeometry();
+
         // Invalidate cached accessibility information.
+        mTouchHelper.invalidateDayBounds();
         mTouchHelper.invalidateRoot();
     }
 
-    private int findDayOffset() {
-        final int offset = mDayOfWeekStart - mWeekStart;
-        if (mDayOfWeekStart < mWeekStart) {
-            return offset + DAYS_IN_WEEK;
-        }
-        return offset;
-    }
-
     /**
      * Calculates the day of the month at the specified touch position. Returns
      * the day of the month or -1 if the position wasn't in a valid day.
@@ -892,13 +1035,7 @@ class SimpleMonthView extends View {
 
         final int row = (paddedY - headerHeight) / mDayHeight;
         final int col = (paddedXRtl * DAYS_IN_WEEK) / mPaddedWidth;
-        final int index = col + row * DAYS_IN_WEEK;
-        final int day = index + 1 - findDayOffset();
-        if (!isValidDayOfMonth(day)) {
-            return -1;
-        }
-
-        return day;
+        return mLayout.getDayAt(row, col);
     }
 
     /**
@@ -908,14 +1045,12 @@ class SimpleMonthView extends View {
      * @param outBounds the rect to populate with bounds
      */
     private boolean getBoundsForDay(int id, Rect outBounds) {
-        if (!isValidDayOfMonth(id)) {
+        if (!mLayout.isValidDayOfMonth(id)) {
             return false;
         }
 
-        final int index = id - 1 + findDayOffset();
-
         // Compute left edge, taking into account RTL.
-        final int col = index % DAYS_IN_WEEK;
+        final int col = mLayout.getColumn(id);
         final int colWidth = mCellWidth;
         final int left;
         if (SUtils.isLayoutRtlCompat(this)) {
@@ -925,7 +1060,7 @@ class SimpleMonthView extends View {
         }
 
         // Compute top edge.
-        final int row = index / DAYS_IN_WEEK;
+        final int row = mLayout.getRow(id);
         final int rowHeight = mDayHeight;
         final int headerHeight = mMonthHeight + mDayOfWeekHeight;
         final int top = getPaddingTop() + headerHeight + row * rowHeight;
@@ -942,13 +1077,13 @@ class SimpleMonthView extends View {
      * @param day the day that was clicked
      */
     private boolean onDayClicked(int day) {
-        if (!isValidDayOfMonth(day) || !isDayEnabled(day)) {
+        if (!mLayout.isValidDayOfMonth(day) || !mLayout.isDayEnabled(day)) {
             return false;
         }
 
         if (mOnDayClickListener != null) {
             final Calendar date = Calendar.getInstance();
-            date.set(mYear, mMonth, day);
+            date.set(mLayout.getYear(), mLayout.getMonth(), day);
 
             mOnDayClickListener.onDayClick(this, date);
         }
@@ -965,10 +1100,30 @@ class SimpleMonthView extends View {
         private final Rect mTempRect = new Rect();
         private final Calendar mTempCalendar = Calendar.getInstance();
 
+        // Descriptions of the days of the month they were formatted for,
+        // indexed by day and formatted when first requested.
+        private final CharSequence[] mDayDescriptions
+                = new CharSequence[MonthLayout.MAX_DAYS_IN_MONTH + 1];
+        private int mDescribedYear = -1;
+        private int mDescribedMonth = -1;
+
+        // Packed left, top, right and bottom of each day's bounds. Bit n of
+        // mDayBoundsValid is set once the bounds of day n are cached.
+        private final int[] mDayBounds = new int[(MonthLayout.MAX_DAYS_IN_MONTH + 1) * 4];
+        private long mDayBoundsValid;
+
         public MonthViewTouchHelper(View forView) {
             super(forView);
         }
 
+        /**
+         * Drops the cached bounds of all days. Called when the layout of
+         * the month or the geometry of the view changes.
+         */
+        void invalidateDayBounds() {
+            mDayBoundsValid = 0;
+        }
+
         @Override
         protected int getVirtualViewAt(float x, float y) {
             final int day = getDayAtLocation((int) (x + 0.5f), (int) (y + 0.5f));
@@ -980,7 +1135,7 @@ class SimpleMonthView extends View {
 
         @Override
         protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
-            for (int day = 1; day <= mDaysInMonth; day++) {
+            for (int day = 1, daysInMonth = mLayout.getDaysInMonth(); day <= daysInMonth; day++) {
                 virtualViewIds.add(day);
             }
         }
@@ -992,7 +1147,7 @@ class SimpleMonthView extends View {
 
         @Override
         protected void onPopulateNodeForVirtualView(int virtualViewId, AccessibilityNodeInfoCompat node) {
-            final boolean hasBounds = getBoundsForDay(virtualViewId, mTempRect);
+            final boolean hasBounds = getCachedBoundsForDay(virtualViewId, mTempRect);
 
             if (!hasBounds) {
                 // The day is invalid, kill the node.
@@ -1007,7 +1162,7 @@ class SimpleMonthView extends View {
             node.setContentDescription(getDayDescription(virtualViewId));
             node.setBoundsInParent(mTempRect);
 
-            final boolean isDayEnabled = isDayEnabled(virtualViewId);
+            final boolean isDayEnabled = mLayout.isDayEnabled(virtualViewId);
             if (isDayEnabled) {
                 node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
             }
@@ -1037,12 +1192,50 @@ class SimpleMonthView extends View {
          * @return a description of the virtual view
          */
         private CharSequence getDayDescription(int id) {
-            if (isValidDayOfMonth(id)) {
-                mTempCalendar.set(mYear, mMonth, id);
-                return DateFormat.format(DATE_FORMAT, mTempCalendar.getTimeInMillis());
+            if (!mLayout.isValidDayOfMonth(id)) {
+                return "";
+            }
+
+            final int year = mLayout.getYear();
+            final int month = mLayout.getMonth();
+            if (year != mDescribedYear || month != mDescribedMonth) {
+                Arrays.fill(mDayDescriptions, null);
+                mDescribedYear = year;
+                mDescribedMonth = month;
             }
 
-            return "";
+            CharSequence description = mDayDescriptions[id];
+            if (description == null) {
+                mTempCalendar.set(year, month, id);
+                description = DateFormat.format(DATE_FORMAT, mTempCalendar.getTimeInMillis());
+                mDayDescriptions[id] = description;
+            }
+            return description;
+        }
+
+        /**
+         * Same as {@link #getBoundsForDay(int, Rect)}, but answered from the
+         * cache once a day's bounds have been computed.
+         */
+        private boolean getCachedBoundsForDay(int id, Rect outBounds) {
+            if (!mLayout.isValidDayOfMonth(id)) {
+                return false;
+            }
+
+            final int i = id * 4;
+            if ((mDayBoundsValid & (1L << id)) != 0) {
+                outBounds.set(mDayBounds[i], mDayBounds[i + 1],
+                        mDayBounds[i + 2], mDayBounds[i + 3]);
+                return true;
+            }
+
+            getBoundsForDay(id, outBounds);
+            mDayBounds[i] = outBounds.left;
+            mDayBounds[i + 1] = outBounds.top;
+            mDayBounds[i + 2] = outBounds.right;
+            mDayBounds[i + 3] = outBounds.bottom;
+            mDayBoundsValid |= 1L << id;
+            return true;
         }
 
         /**
@@ -1052,8 +1245,8 @@ class SimpleMonthView extends View {
          * @return the visible text of the virtual view
          */
         private CharSequence getDayText(int id) {
-            if (isValidDayOfMonth(id)) {
-                return mDayFormatter.format(id);
+            if (mLayout.isValidDayOfMonth(id)) {
+                return mLabels.getDayLabel(id);
             }
 
             return null;
@@ -1061,12 +1254,12 @@ class SimpleMonthView extends View {
     }
 
     public Calendar composeDate(int day) {
-        if (!isValidDayOfMonth(day) || !isDayEnabled(day)) {
+        if (!mLayout.isValidDayOfMonth(day) || !mLayout.isDayEnabled(day)) {
             return null;
         }
 
         final Calendar date = Calendar.getInstance();
-        date.set(mYear, mMonth, day);
+        date.set(mLayout.getYear(), mLayout.getMonth(), day);
         return date;
     }
 
@@ -1134,6 +1327,30 @@ class SimpleMonthView extends View {
         public boolean isStartOfMonth() {
             return startingDay == 1;
         }
+
+        /**
+         * @return true if the range background for <code>day</code> is
+         * rounded on its leading side.
+         */
+        public boolean hasLeadingCurve(int day) {
+            if (isSingleDay()) {
+                return day == startingDay && !isStartOfMonth();
+            }
+
+            return isStartingDayOfRange(day);
+        }
+
+        /**
+         * @return true if the range background for <code>day</code> is
+         * rounded on its trailing side.
+         */
+        public boolean hasTrailingCurve(int day) {
+            if (isSingleDay()) {
+                return day == startingDay && isStartOfMonth();
+            }
+
+            return isEndingDayOfRange(day);
+        }
     }
 
     /**
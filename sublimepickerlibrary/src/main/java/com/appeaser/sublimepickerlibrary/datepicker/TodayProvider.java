@@ -0,0 +1,250 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Shared source for today's date, expressed as an epoch day (see
+ * {@link MonthLayout#toEpochDay(int, int, int)}). Today is computed once
+ * and recomputed only once the clock leaves that day, whether past the next
+ * midnight or back before the last one. Registered listeners are notified
+ * on the main thread when the day changes. While there are listeners, a
+ * change of the system time or time zone recomputes today right away.
+ * <p/>
+ * The time source can be replaced with {@link #setClock(Clock)}, which
+ * makes day changes deterministic in tests.
+ */
+final class TodayProvider {
+
+    /**
+     * Source of the current time.
+     */
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    interface OnDayChangedListener {
+        void onDayChanged(int todayEpochDay);
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static TodayProvider sInstance;
+
+    private final ArrayList<OnDayChangedListener> mListeners = new ArrayList<>();
+    private final Calendar mCalendar = Calendar.getInstance();
+
+    private Clock mClock = SYSTEM_CLOCK;
+    private Handler mHandler;
+
+    private int mTodayEpochDay;
+    // Start of mTodayEpochDay and of the day after it, in mClock's time
+    private long mMidnightMillis = Long.MAX_VALUE;
+    private long mNextMidnightMillis = Long.MIN_VALUE;
+    // Last day listeners were told about
+    private int mDispatchedEpochDay;
+
+    private final Runnable mRolloverRunnable = new Runnable() {
+        @Override
+        public void run() {
+            checkForDayChange();
+        }
+    };
+
+    private final BroadcastReceiver mTimeChangedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            onTimeChanged();
+        }
+    };
+
+    // Context mTimeChangedReceiver is registered with, while there are listeners
+    private Context mReceiverContext;
+
+    // Use getInstance(); tests create their own instances
+    TodayProvider() {
+    }
+
+    static TodayProvider getInstance() {
+        if (sInstance == null) {
+            sInstance = new TodayProvider();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Replaces the time source. Pass <code>null</code> to restore the
+     * system clock.
+     */
+    void setClock(Clock clock) {
+        mClock = clock != null ? clock : SYSTEM_CLOCK;
+        onTimeChanged();
+    }
+
+    /**
+     * @return today's epoch day
+     */
+    int getTodayEpochDay() {
+        final long now = mClock.currentTimeMillis();
+        if (now < mMidnightMillis || now >= mNextMidnightMillis) {
+            computeToday();
+        }
+
+        return mTodayEpochDay;
+    }
+
+    /**
+     * @param context used to listen for time and time zone changes while
+     *                there are listeners
+     */
+    void addOnDayChangedListener(@NonNull Context context,
+                                 @NonNull OnDayChangedListener listener) {
+        if (mListeners.isEmpty()) {
+            registerTimeChangedReceiver(context);
+
+            // Time zone changes while nobody listened went unnoticed.
+            invalidateToday();
+            mDispatchedEpochDay = getTodayEpochDay();
+        }
+
+        if (!mListeners.contains(listener)) {
+            mListeners.add(listener);
+        }
+
+        scheduleRollover();
+    }
+
+    void removeOnDayChangedListener(@NonNull OnDayChangedListener listener) {
+        mListeners.remove(listener);
+
+        if (mListeners.isEmpty()) {
+            unregisterTimeChangedReceiver();
+
+            if (mHandler != null) {
+                mHandler.removeCallbacks(mRolloverRunnable);
+            }
+        }
+    }
+
+    /**
+     * Recomputes today after the time or the time zone changed, and
+     * notifies listeners if the day changed. Must be called on the main
+     * thread.
+     */
+    void onTimeChanged() {
+        invalidateToday();
+        checkForDayChange();
+    }
+
+    /**
+     * Recomputes today if midnight has passed and notifies listeners
+     * if the day changed. Must be called on the main thread.
+     */
+    void checkForDayChange() {
+        final int todayEpochDay = getTodayEpochDay();
+
+        if (!mListeners.isEmpty() && todayEpochDay != mDispatchedEpochDay) {
+            mDispatchedEpochDay = todayEpochDay;
+
+            // Iterate over a copy; listeners may unregister themselves.
+            final OnDayChangedListener[] listeners
+                    = mListeners.toArray(new OnDayChangedListener[mListeners.size()]);
+            for (OnDayChangedListener listener : listeners) {
+                listener.onDayChanged(todayEpochDay);
+            }
+        }
+
+        scheduleRollover();
+    }
+
+    private void invalidateToday() {
+        mMidnightMillis = Long.MAX_VALUE;
+        mNextMidnightMillis = Long.MIN_VALUE;
+    }
+
+    private void computeToday() {
+        final Calendar calendar = mCalendar;
+        calendar.setTimeZone(TimeZone.getDefault());
+        calendar.setTimeInMillis(mClock.currentTimeMillis());
+
+        mTodayEpochDay = MonthLayout.toEpochDay(calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH));
+
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        mMidnightMillis = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        mNextMidnightMillis = calendar.getTimeInMillis();
+    }
+
+    private void registerTimeChangedReceiver(Context context) {
+        final IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_TIME_CHANGED);
+        filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+        filter.addAction(Intent.ACTION_DATE_CHANGED);
+
+        // Don't hold on to an activity.
+        final Context applicationContext = context.getApplicationContext();
+        mReceiverContext = applicationContext != null ? applicationContext : context;
+        mReceiverContext.registerReceiver(mTimeChangedReceiver, filter);
+    }
+
+    private void unregisterTimeChangedReceiver() {
+        if (mReceiverContext != null) {
+            mReceiverContext.unregisterReceiver(mTimeChangedReceiver);
+            mReceiverContext = null;
+        }
+    }
+
+    private void scheduleRollover() {
+        if (mListeners.isEmpty()) {
+            return;
+        }
+
+        if (mHandler == null) {
+            mHandler = new Handler(Looper.getMainLooper());
+        }
+
+        // Makes sure mNextMidnightMillis is current.
+        getTodayEpochDay();
+
+        // Delays are measured in uptime, which stops during deep sleep.
+        // Listeners re-sync via getTodayEpochDay() when re-attached.
+        mHandler.removeCallbacks(mRolloverRunnable);
+        mHandler.postDelayed(mRolloverRunnable,
+                Math.max(0, mNextMidnightMillis - mClock.currentTimeMillis()));
+    }
+}
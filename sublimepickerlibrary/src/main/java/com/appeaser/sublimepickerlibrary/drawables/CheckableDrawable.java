@@ -18,8 +18,6 @@ package com.appeaser.sublimepickerlibrary.drawables;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
@@ -27,9 +25,13 @@ import android.graphics.Paint;
 import android.graphics.PixelFormat;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
+import android.util.Property;
+import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.AnticipateInterpolator;
 import android.view.animation.OvershootInterpolator;
 
+import com.appeaser.sublimepickerlibrary.utilities.PropertyAnimation;
+
 /**
  * Provides animated transition between 'on' and 'off' state.
  * Used as background for 'WeekButton'.
@@ -40,16 +42,63 @@ public class CheckableDrawable extends Drawable {
     private int mMinAlpha, mMaxAlpha;
     private Paint mPaint;
 
-    private AnimatorSet asTransition;
-    private final OvershootInterpolator mExpandInterpolator = new OvershootInterpolator();
-    private final AnticipateInterpolator mCollapseInterpolator = new AnticipateInterpolator();
-    private final CRectFEvaluator mRectEvaluator = new CRectFEvaluator();
+    private static final Property<CheckableDrawable, RectF> RECT_BOUNDS =
+            new Property<CheckableDrawable, RectF>(RectF.class, "newRectBounds") {
+                @Override
+                public void set(CheckableDrawable object, RectF value) {
+                    object.setNewRectBounds(value);
+                }
+
+                @Override
+                public RectF get(CheckableDrawable object) {
+                    return object.mRectToDraw;
+                }
+            };
+
+    private static final PropertyAnimation.IntProperty<CheckableDrawable> ALPHA =
+            new PropertyAnimation.IntProperty<CheckableDrawable>("alpha") {
+                @Override
+                public void setValue(CheckableDrawable object, int value) {
+                    object.setAlpha(value);
+                }
+
+                @Override
+                public int getValue(CheckableDrawable object) {
+                    return object.mPaint.getAlpha();
+                }
+            };
 
-    private RectF mRectToDraw, mCollapsedRect, mExpandedRect;
+    // Built once; both animate between mCollapsedRect & mExpandedRect,
+    // which are updated in place.
+    private final PropertyAnimation mExpandTransition, mCollapseTransition;
+    private PropertyAnimation asTransition;
+    private OnAnimationDone mCallback;
+
+    private final RectF mRectToDraw, mCollapsedRect, mExpandedRect;
     private int mExpandedWidthHeight;
 
     private boolean mChecked, mReady;
 
+    private final AnimatorListenerAdapter mTransitionListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            super.onAnimationEnd(animation);
+
+            if (mCallback != null) {
+                mCallback.animationIsDone();
+            }
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            super.onAnimationCancel(animation);
+
+            if (mCallback != null) {
+                mCallback.animationHasBeenCancelled();
+            }
+        }
+    };
+
     public CheckableDrawable(int color, boolean checked, int expandedWidthHeight) {
         mChecked = checked;
         mExpandedWidthHeight = expandedWidthHeight;
@@ -66,6 +115,29 @@ public class CheckableDrawable extends Drawable {
         mPaint.setAlpha(mMaxAlpha);
         mPaint.setAntiAlias(true);
         mPaint.setStyle(Paint.Style.FILL);
+
+        mExpandTransition = createTransition(true);
+        mCollapseTransition = createTransition(false);
+    }
+
+    private PropertyAnimation createTransition(boolean expand) {
+        final int duration = expand ?
+                ANIMATION_DURATION_EXPAND :
+                ANIMATION_DURATION_COLLAPSE;
+
+        final PropertyAnimation transition = new PropertyAnimation(2)
+                .addRectFTrack(this, RECT_BOUNDS,
+                        expand ? mCollapsedRect : mExpandedRect,
+                        expand ? mExpandedRect : mCollapsedRect,
+                        duration, expand ?
+                                new OvershootInterpolator() :
+                                new AnticipateInterpolator())
+                .addIntTrack(this, ALPHA,
+                        expand ? mMinAlpha : mMaxAlpha,
+                        expand ? mMaxAlpha : mMinAlpha,
+                        duration, new AccelerateDecelerateInterpolator(), 0f);
+        transition.addListener(mTransitionListener);
+        return transition;
     }
 
     // initialize dimensions
@@ -82,9 +154,9 @@ public class CheckableDrawable extends Drawable {
         float collapsedRight = width / 2f;
         float collapsedBottom = height / 2f;
 
-        mCollapsedRect = new RectF(collapsedLeft, collapsedTop,
+        mCollapsedRect.set(collapsedLeft, collapsedTop,
                 collapsedRight, collapsedBottom);
-        mExpandedRect = new RectF(expandedLeft, expandedTop,
+        mExpandedRect.set(expandedLeft, expandedTop,
                 expandedRight, expandedBottom);
 
         reset();
@@ -134,53 +206,10 @@ public class CheckableDrawable extends Drawable {
 
     // Animate between 'on' & 'off' state
     private void animate(boolean expand, final OnAnimationDone callback) {
-        RectF from = expand ? mCollapsedRect : mExpandedRect;
-        RectF to = expand ? mExpandedRect : mCollapsedRect;
-
-        mRectToDraw.set(from);
-
-        ObjectAnimator oaTransition = ObjectAnimator.ofObject(this,
-                "newRectBounds",
-                mRectEvaluator, from, to);
-
-        int duration = expand ?
-                ANIMATION_DURATION_EXPAND :
-                ANIMATION_DURATION_COLLAPSE;
-
-        oaTransition.setDuration(duration);
-        oaTransition.setInterpolator(expand ?
-                mExpandInterpolator :
-                mCollapseInterpolator);
-
-        ObjectAnimator oaAlpha = ObjectAnimator.ofInt(this,
-                "alpha",
-                expand ? mMinAlpha : mMaxAlpha,
-                expand ? mMaxAlpha : mMinAlpha);
-        oaAlpha.setDuration(duration);
-
-        asTransition = new AnimatorSet();
-        asTransition.playTogether(oaTransition, oaAlpha);
-
-        asTransition.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-
-                if (callback != null) {
-                    callback.animationIsDone();
-                }
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                super.onAnimationCancel(animation);
-
-                if (callback != null) {
-                    callback.animationHasBeenCancelled();
-                }
-            }
-        });
+        mRectToDraw.set(expand ? mCollapsedRect : mExpandedRect);
 
+        mCallback = callback;
+        asTransition = expand ? mExpandTransition : mCollapseTransition;
         asTransition.start();
     }
 
@@ -209,10 +238,9 @@ public class CheckableDrawable extends Drawable {
         return PixelFormat.TRANSLUCENT;
     }
 
-    // ObjectAnimator property
-    @SuppressWarnings("unused")
+    // Animated property, copied into the rect to draw
     public void setNewRectBounds(RectF newRectBounds) {
-        mRectToDraw = newRectBounds;
+        mRectToDraw.set(newRectBounds);
         invalidateSelf();
     }
 
@@ -23,6 +23,8 @@ import android.text.TextUtils;
 
 import com.appeaser.sublimepickerlibrary.datepicker.SelectedDate;
 import com.appeaser.sublimepickerlibrary.recurrencepicker.SublimeRecurrencePicker;
+import com.appeaser.sublimepickerlibrary.timepicker.SublimeTimePicker;
+import com.appeaser.sublimepickerlibrary.timepicker.TimeAvailability;
 import com.appeaser.sublimepickerlibrary.utilities.SUtils;
 
 import java.util.Calendar;
@@ -53,6 +55,8 @@ public class SublimeOptions implements Parcelable {
     //private int mYear = -1, mMonthOfYear = -1, mDayOfMonth = -1, mHourOfDay = -1, mMinute = -1;
     private long mMinDate = Long.MIN_VALUE, mMaxDate = Long.MIN_VALUE;
     private boolean mAnimateLayoutChanges, mIs24HourView;
+    private int mMinuteGranularity = 1;
+    private TimeAvailability mTimeAvailability;
 
     private SublimeRecurrencePicker.RecurrenceOption mRecurrenceOption
             = SublimeRecurrencePicker.RecurrenceOption.DOES_NOT_REPEAT;
@@ -190,6 +194,28 @@ public class SublimeOptions implements Parcelable {
         return this;
     }
 
+    // Provide initial time parameters, along with the step between
+    // selectable minutes: 1, or a divisor of 60 that is a multiple
+    // of 5 (e.g. 5, 10, 15, 30)
+    @SuppressWarnings("unused")
+    public SublimeOptions setTimeParams(int hourOfDay, int minute, boolean is24HourView,
+                                        int minuteGranularity) {
+        if (!SublimeTimePicker.isValidMinuteGranularity(minuteGranularity)) {
+            throw new IllegalArgumentException("Invalid minute granularity.");
+        }
+
+        mMinuteGranularity = minuteGranularity;
+        return setTimeParams(hourOfDay, minute, is24HourView);
+    }
+
+    // Provide the minutes of the day that can be picked;
+    // null makes all of them available
+    @SuppressWarnings("unused")
+    public SublimeOptions setTimeAvailability(TimeAvailability timeAvailability) {
+        mTimeAvailability = timeAvailability;
+        return this;
+    }
+
     // Provide initial Recurrence-rule
     @SuppressWarnings("unused")
     public SublimeOptions setRecurrenceParams(SublimeRecurrencePicker.RecurrenceOption recurrenceOption, String recurrenceRule) {
@@ -287,6 +313,14 @@ public class SublimeOptions implements Parcelable {
         return mIs24HourView;
     }
 
+    public int getMinuteGranularity() {
+        return mMinuteGranularity;
+    }
+
+    public TimeAvailability getTimeAvailability() {
+        return mTimeAvailability;
+    }
+
     // Verifies if the supplied options are valid
     public void verifyValidity() {
         if (mPickerToShow == null || mPickerToShow == Picker.INVALID) {
@@ -331,6 +365,8 @@ public class SublimeOptions implements Parcelable {
         mHourOfDay = in.readInt();
         mMinute = in.readInt();
         mIs24HourView = in.readByte() != 0;
+        mMinuteGranularity = in.readInt();
+        mTimeAvailability = in.readParcelable(TimeAvailability.class.getClassLoader());
         mRecurrenceRule = in.readString();
         mCanPickDateRange = in.readByte() != 0;
     }
@@ -349,6 +385,8 @@ public class SublimeOptions implements Parcelable {
         dest.writeInt(mHourOfDay);
         dest.writeInt(mMinute);
         dest.writeByte((byte) (mIs24HourView ? 1 : 0));
+        dest.writeInt(mMinuteGranularity);
+        dest.writeParcelable(mTimeAvailability, flags);
         dest.writeString(mRecurrenceRule);
         dest.writeByte((byte) (mCanPickDateRange ? 1 : 0));
     }
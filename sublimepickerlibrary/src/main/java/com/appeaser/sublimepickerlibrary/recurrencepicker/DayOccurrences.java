@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+/**
+ * The occurrences of a {@link RecurrenceBatch} within a window, grouped by
+ * day. Occurrences are held in flat primitive arrays, ordered by day, then
+ * by time, then by event index; the occurrences of day {@code d} are the
+ * indices [{@link #getDayStart}(d), {@link #getDayEnd}(d)).
+ * <pre>
+ * for (int day = 0; day &lt; occurrences.getDayCount(); day++) {
+ *     for (int i = occurrences.getDayStart(day); i &lt; occurrences.getDayEnd(day); i++) {
+ *         bind(occurrences.getEvent(i), occurrences.getOccurrence(i));
+ *     }
+ * }
+ * </pre>
+ */
+public final class DayOccurrences {
+
+    private final int mFirstEpochDay;
+    // Indexed by day, with one more entry holding the total size
+    private final int[] mDayStarts;
+    private final int[] mEvents;
+    private final long[] mOccurrences;
+
+    DayOccurrences(int firstEpochDay, int[] dayStarts, int[] events, long[] occurrences) {
+        mFirstEpochDay = firstEpochDay;
+        mDayStarts = dayStarts;
+        mEvents = events;
+        mOccurrences = occurrences;
+    }
+
+    /**
+     * @return the number of days in the window, including days without
+     * occurrences
+     */
+    public int getDayCount() {
+        return mDayStarts.length - 1;
+    }
+
+    /**
+     * @return the days from 1970-01-01 to {@code day}, see
+     * {@link EventRecurrenceIterator#getEpochDay}
+     */
+    public int getEpochDay(int day) {
+        return mFirstEpochDay + day;
+    }
+
+    /**
+     * @return the index of the first occurrence on {@code day}
+     */
+    public int getDayStart(int day) {
+        return mDayStarts[day];
+    }
+
+    /**
+     * @return the index after the last occurrence on {@code day}
+     */
+    public int getDayEnd(int day) {
+        return mDayStarts[day + 1];
+    }
+
+    /**
+     * @return the number of occurrences on all days
+     */
+    public int size() {
+        return mEvents.length;
+    }
+
+    /**
+     * @return the index of the event the occurrence belongs to, as returned
+     * by {@link RecurrenceBatch#add}
+     */
+    public int getEvent(int index) {
+        return mEvents[index];
+    }
+
+    /**
+     * @return the occurrence, packed as by {@link EventRecurrenceIterator#pack}
+     */
+    public long getOccurrence(int index) {
+        return mOccurrences[index];
+    }
+}
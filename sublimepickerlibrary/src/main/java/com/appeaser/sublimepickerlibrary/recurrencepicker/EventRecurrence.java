@@ -21,8 +21,9 @@ import android.text.format.Time;
 import android.util.Log;
 import android.util.TimeFormatException;
 
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.HashMap;
+import java.util.Locale;
 
 /**
  * Event recurrence utility functions.
@@ -75,29 +76,6 @@ public class EventRecurrence {
     public int[] bysetpos;
     public int bysetposCount;
 
-    /**
-     * maps a part string to a parser object
-     */
-    private static HashMap<String, PartParser> sParsePartMap;
-
-    static {
-        sParsePartMap = new HashMap<String, PartParser>();
-        sParsePartMap.put("FREQ", new ParseFreq());
-        sParsePartMap.put("UNTIL", new ParseUntil());
-        sParsePartMap.put("COUNT", new ParseCount());
-        sParsePartMap.put("INTERVAL", new ParseInterval());
-        sParsePartMap.put("BYSECOND", new ParseBySecond());
-        sParsePartMap.put("BYMINUTE", new ParseByMinute());
-        sParsePartMap.put("BYHOUR", new ParseByHour());
-        sParsePartMap.put("BYDAY", new ParseByDay());
-        sParsePartMap.put("BYMONTHDAY", new ParseByMonthDay());
-        sParsePartMap.put("BYYEARDAY", new ParseByYearDay());
-        sParsePartMap.put("BYWEEKNO", new ParseByWeekNo());
-        sParsePartMap.put("BYMONTH", new ParseByMonth());
-        sParsePartMap.put("BYSETPOS", new ParseBySetPos());
-        sParsePartMap.put("WKST", new ParseWkst());
-    }
-
     /* values for bit vector that keeps track of what we have already seen */
     private static final int PARSED_FREQ = 1 << 0;
     private static final int PARSED_UNTIL = 1 << 1;
@@ -115,39 +93,24 @@ public class EventRecurrence {
     private static final int PARSED_WKST = 1 << 13;
 
     /**
-     * maps a FREQ value to an integer constant
+     * the part names, indexed so that the PARSED_* flag of a part is 1 << index
      */
-    private static final HashMap<String, Integer> sParseFreqMap = new HashMap<String, Integer>();
-
-    static {
-        sParseFreqMap.put("SECONDLY", SECONDLY);
-        sParseFreqMap.put("MINUTELY", MINUTELY);
-        sParseFreqMap.put("HOURLY", HOURLY);
-        sParseFreqMap.put("DAILY", DAILY);
-        sParseFreqMap.put("WEEKLY", WEEKLY);
-        sParseFreqMap.put("MONTHLY", MONTHLY);
-        sParseFreqMap.put("YEARLY", YEARLY);
-    }
+    private static final String[] PART_NAMES = {
+            "FREQ", "UNTIL", "COUNT", "INTERVAL", "BYSECOND", "BYMINUTE", "BYHOUR", "BYDAY",
+            "BYMONTHDAY", "BYYEARDAY", "BYWEEKNO", "BYMONTH", "BYSETPOS", "WKST"
+    };
 
     /**
-     * maps a two-character weekday string to an integer constant
+     * the FREQ values, indexed by their integer constant minus one
      */
-    private static final HashMap<String, Integer> sParseWeekdayMap = new HashMap<String, Integer>();
-
-    static {
-        sParseWeekdayMap.put("SU", SU);
-        sParseWeekdayMap.put("MO", MO);
-        sParseWeekdayMap.put("TU", TU);
-        sParseWeekdayMap.put("WE", WE);
-        sParseWeekdayMap.put("TH", TH);
-        sParseWeekdayMap.put("FR", FR);
-        sParseWeekdayMap.put("SA", SA);
-    }
+    private static final String[] FREQ_NAMES = {
+            "SECONDLY", "MINUTELY", "HOURLY", "DAILY", "WEEKLY", "MONTHLY", "YEARLY"
+    };
 
     /**
-     * If set, allow lower-case recurrence rule strings.  Minor performance impact.
+     * the two-character weekday strings, indexed so that the constant is SU << index
      */
-    private static final boolean ALLOW_LOWER_CASE = true;
+    private static final String[] WEEKDAY_NAMES = {"SU", "MO", "TU", "WE", "TH", "FR", "SA"};
 
     /**
      * If set, validate the value of UNTIL parts.  Minor performance impact.
@@ -474,8 +437,8 @@ public class EventRecurrence {
         }
 
         EventRecurrence er = (EventRecurrence) obj;
-        return (startDate == null ?
-                er.startDate == null : Time.compare(startDate, er.startDate) == 0) &&
+        return (startDate == null ? er.startDate == null
+                : er.startDate != null && Time.compare(startDate, er.startDate) == 0) &&
                 freq == er.freq &&
                 (until == null ? er.until == null : until.equals(er.until)) &&
                 count == er.count &&
@@ -493,10 +456,66 @@ public class EventRecurrence {
                 arraysEqual(bysetpos, bysetposCount, er.bysetpos, er.bysetposCount);
     }
 
+    /**
+     * Hashes the elements of an array up to its count, consistent with arraysEqual().
+     */
+    private static int arrayHashCode(int[] array, int count) {
+        int result = count;
+        for (int i = 0; i < count; i++) {
+            result = 31 * result + array[i];
+        }
+        return result;
+    }
+
+    /**
+     * Consistent with equals(), but like it, changes when the fields do.  The startDate is
+     * left out: equals() compares it with Time.compare(), so equal recurrences may hold
+     * different Time objects.
+     */
     @Override
     public int hashCode() {
-        // We overrode equals, so we must override hashCode().  Nobody seems to need this though.
-        throw new UnsupportedOperationException();
+        int result = freq;
+        result = 31 * result + (until != null ? until.hashCode() : 0);
+        result = 31 * result + count;
+        result = 31 * result + interval;
+        result = 31 * result + wkst;
+        result = 31 * result + arrayHashCode(bysecond, bysecondCount);
+        result = 31 * result + arrayHashCode(byminute, byminuteCount);
+        result = 31 * result + arrayHashCode(byhour, byhourCount);
+        result = 31 * result + arrayHashCode(byday, bydayCount);
+        result = 31 * result + arrayHashCode(bydayNum, bydayCount);
+        result = 31 * result + arrayHashCode(bymonthday, bymonthdayCount);
+        result = 31 * result + arrayHashCode(byyearday, byyeardayCount);
+        result = 31 * result + arrayHashCode(byweekno, byweeknoCount);
+        result = 31 * result + arrayHashCode(bymonth, bymonthCount);
+        result = 31 * result + arrayHashCode(bysetpos, bysetposCount);
+        return result;
+    }
+
+    /**
+     * Copies the parser-modified fields of {@code other}, with arrays of their exact counts.
+     * Like parse(), does not alter startDate.
+     */
+    void copyRuleFrom(EventRecurrence other) {
+        freq = other.freq;
+        until = other.until;
+        count = other.count;
+        interval = other.interval;
+        wkst = other.wkst;
+        bysecond = copyOf(other.bysecond, bysecondCount = other.bysecondCount);
+        byminute = copyOf(other.byminute, byminuteCount = other.byminuteCount);
+        byhour = copyOf(other.byhour, byhourCount = other.byhourCount);
+        byday = copyOf(other.byday, bydayCount = other.bydayCount);
+        bydayNum = copyOf(other.bydayNum, bydayCount);
+        bymonthday = copyOf(other.bymonthday, bymonthdayCount = other.bymonthdayCount);
+        byyearday = copyOf(other.byyearday, byyeardayCount = other.byyeardayCount);
+        byweekno = copyOf(other.byweekno, byweeknoCount = other.byweeknoCount);
+        bymonth = copyOf(other.bymonth, bymonthCount = other.bymonthCount);
+        bysetpos = copyOf(other.bysetpos, bysetposCount = other.bysetposCount);
+    }
+
+    private static int[] copyOf(int[] array, int count) {
+        return array == null ? null : Arrays.copyOf(array, count);
     }
 
     /**
@@ -556,10 +575,12 @@ public class EventRecurrence {
          *   FREQ=YEARLY;INTERVAL=4;BYMONTH=11;BYDAY=TU;BYMONTHDAY=2,3,4,5,6,7,8
          *
          * Strategy:
-         * (1) Split the string at ';' boundaries to get an array of rule "parts".
-         * (2) For each part, find substrings for left/right sides of '=' (name/value).
-         * (3) Call a <name>-specific parsing function to parse the <value> into an
-         *     output field.
+         * (1) Scan the string once, finding each part between ';' boundaries and the '='
+         *     separating its name from its value.
+         * (2) Match the name against the known part names in place.
+         * (3) Call a <name>-specific parsing function to parse the <value>, given as a range
+         *     of the string, into an output field.  Integers are parsed digit by digit, so
+         *     no substrings are created except for the UNTIL value and for error messages.
          *
          * By keeping track of which names we've seen in a bit vector, we can verify the
          * constraints indicated above (FREQ appears first, none of them appear more than once --
@@ -569,8 +590,9 @@ public class EventRecurrence {
          * In general, RFC 2445 property names (e.g. "FREQ") and enumerations ("TU") must
          * be handled in a case-insensitive fashion, but case may be significant for other
          * properties.  We don't have any case-sensitive values in RRULE, except possibly
-         * for the custom "X-" properties, but we ignore those anyway.  Thus, we can trivially
-         * convert the entire string to upper case and then use simple comparisons.
+         * for the custom "X-" properties, but we ignore those anyway.  Thus, names and values
+         * are compared with ASCII letters folded to upper case, and the values we keep or
+         * report are upper-cased.
          *
          * Differences from previous version:
          * - allows lower-case property and enumeration values [optional]
@@ -588,45 +610,46 @@ public class EventRecurrence {
         /* TODO: replace with "if (freq != 0) throw" if nothing requires this */
         resetFields();
 
+        // Upper-casing may change the length of non-ASCII text (e.g. "\u00df" becomes "SS"),
+        // so such strings are upper-cased up front rather than folded as they are scanned.
+        // Locale.ROOT keeps e.g. a Turkish default locale from turning "daily" into "DA\u0130LY".
+        final String rule = isAscii(recur) ? recur : recur.toUpperCase(Locale.ROOT);
+        final int length = rule.length();
+
         int parseFlags = 0;
-        String[] parts;
-        if (ALLOW_LOWER_CASE) {
-            parts = recur.toUpperCase().split(";");
-        } else {
-            parts = recur.split(";");
-        }
-        for (String part : parts) {
+        for (int partStart = 0, partEnd; partStart < length; partStart = partEnd + 1) {
+            partEnd = indexOf(rule, ';', partStart, length);
             // allow empty part (e.g., double semicolon ";;")
-            if (TextUtils.isEmpty(part)) {
+            if (partEnd == partStart) {
                 continue;
             }
-            int equalIndex = part.indexOf('=');
-            if (equalIndex <= 0) {
+            int equalIndex = indexOf(rule, '=', partStart, partEnd);
+            if (equalIndex == partStart || equalIndex == partEnd) {
                 /* no '=' or no LHS */
-                throw new InvalidFormatException("Missing LHS in " + part);
+                throw new InvalidFormatException("Missing LHS in "
+                        + upperCase(rule, partStart, partEnd));
             }
-
-            String lhs = part.substring(0, equalIndex);
-            String rhs = part.substring(equalIndex + 1);
-            if (rhs.length() == 0) {
-                throw new InvalidFormatException("Missing RHS in " + part);
+            if (equalIndex + 1 == partEnd) {
+                throw new InvalidFormatException("Missing RHS in "
+                        + upperCase(rule, partStart, partEnd));
             }
 
-            /*
-             * In lieu of a "switch" statement that allows string arguments, we use a
-             * map from strings to parsing functions.
-             */
-            PartParser parser = sParsePartMap.get(lhs);
-            if (parser == null) {
-                if (lhs.startsWith("X-")) {
+            int part = indexOf(PART_NAMES, rule, partStart, equalIndex);
+            if (part < 0) {
+                if (equalIndex - partStart >= 2
+                        && toUpperCase(rule.charAt(partStart)) == 'X'
+                        && rule.charAt(partStart + 1) == '-') {
                     //Log.d(TAG, "Ignoring custom part " + lhs);
                     continue;
                 }
-                throw new InvalidFormatException("Couldn't find parser for " + lhs);
+                throw new InvalidFormatException("Couldn't find parser for "
+                        + upperCase(rule, partStart, equalIndex));
             } else {
-                int flag = parser.parsePart(rhs, this);
+                int flag = 1 << part;
+                parsePart(flag, rule, equalIndex + 1, partEnd);
                 if ((parseFlags & flag) != 0) {
-                    throw new InvalidFormatException("Part " + lhs + " was specified twice");
+                    throw new InvalidFormatException("Part " + PART_NAMES[part]
+                            + " was specified twice");
                 }
                 parseFlags |= flag;
             }
@@ -653,310 +676,318 @@ public class EventRecurrence {
     }
 
     /**
-     * Base class for the RRULE part parsers.
+     * Parses the value of a single part into its field.
+     *
+     * @param flag  The PARSED_* flag of the part.
+     * @param str   The string holding the value.
+     * @param start The index of the first character of the value.
+     * @param end   The index after the last character of the value.
      */
-    abstract static class PartParser {
-        /**
-         * Parses a single part.
-         *
-         * @param value The right-hand-side of the part.
-         * @param er    The EventRecurrence into which the result is stored.
-         * @return A bit value indicating which part was parsed.
-         */
-        public abstract int parsePart(String value, EventRecurrence er);
-
-        /**
-         * Parses an integer, with range-checking.
-         *
-         * @param str       The string to parse.
-         * @param minVal    Minimum allowed value.
-         * @param maxVal    Maximum allowed value.
-         * @param allowZero Is 0 allowed?
-         * @return The parsed value.
-         */
-        public static int parseIntRange(String str, int minVal, int maxVal, boolean allowZero) {
-            try {
-                if (str.charAt(0) == '+') {
-                    // Integer.parseInt does not allow a leading '+', so skip it manually.
-                    str = str.substring(1);
+    private void parsePart(int flag, String str, int start, int end) {
+        switch (flag) {
+            case PARSED_FREQ: {
+                // FREQ={SECONDLY,MINUTELY,...}
+                int index = indexOf(FREQ_NAMES, str, start, end);
+                if (index < 0) {
+                    throw new InvalidFormatException("Invalid FREQ value: "
+                            + upperCase(str, start, end));
                 }
-                int val = Integer.parseInt(str);
-                if (val < minVal || val > maxVal || (val == 0 && !allowZero)) {
-                    throw new InvalidFormatException("Integer value out of range: " + str);
+                freq = SECONDLY + index;
+                break;
+            }
+            case PARSED_UNTIL: {
+                // UNTIL=enddate, e.g. "19970829T021400"
+                String value = upperCase(str, start, end);
+                if (VALIDATE_UNTIL) {
+                    try {
+                        // Parse the time to validate it.  The result isn't retained.
+                        Time until = new Time();
+                        until.parse(value);
+                    } catch (TimeFormatException tfe) {
+                        throw new InvalidFormatException("Invalid UNTIL value: " + value);
+                    }
                 }
-                return val;
-            } catch (NumberFormatException nfe) {
-                throw new InvalidFormatException("Invalid integer value: " + str);
+                until = value;
+                break;
             }
-        }
-
-        /**
-         * Parses a comma-separated list of integers, with range-checking.
-         *
-         * @param listStr   The string to parse.
-         * @param minVal    Minimum allowed value.
-         * @param maxVal    Maximum allowed value.
-         * @param allowZero Is 0 allowed?
-         * @return A new array with values, sized to hold the exact number of elements.
-         */
-        public static int[] parseNumberList(String listStr, int minVal, int maxVal,
-                                            boolean allowZero) {
-            int[] values;
-
-            if (listStr.indexOf(",") < 0) {
-                // Common case: only one entry, skip split() overhead.
-                values = new int[1];
-                values[0] = parseIntRange(listStr, minVal, maxVal, allowZero);
-            } else {
-                String[] valueStrs = listStr.split(",");
-                int len = valueStrs.length;
-                values = new int[len];
-                for (int i = 0; i < len; i++) {
-                    values[i] = parseIntRange(valueStrs[i], minVal, maxVal, allowZero);
+            case PARSED_COUNT:
+                // COUNT=[non-negative-integer]
+                count = parseIntRange(str, start, end,
+                        Integer.MIN_VALUE, Integer.MAX_VALUE, true);
+                if (count < 0) {
+                    Log.d(TAG, "Invalid Count. Forcing COUNT to 1 from "
+                            + upperCase(str, start, end));
+                    count = 1; // invalid count. assume one time recurrence.
+                }
+                break;
+            case PARSED_INTERVAL:
+                // INTERVAL=[non-negative-integer]
+                interval = parseIntRange(str, start, end,
+                        Integer.MIN_VALUE, Integer.MAX_VALUE, true);
+                if (interval < 1) {
+                    Log.d(TAG, "Invalid Interval. Forcing INTERVAL to 1 from "
+                            + upperCase(str, start, end));
+                    interval = 1;
                 }
+                break;
+            case PARSED_BYSECOND:
+                bysecond = parseNumberList(str, start, end, 0, 59, true);
+                bysecondCount = bysecond.length;
+                break;
+            case PARSED_BYMINUTE:
+                byminute = parseNumberList(str, start, end, 0, 59, true);
+                byminuteCount = byminute.length;
+                break;
+            case PARSED_BYHOUR:
+                byhour = parseNumberList(str, start, end, 0, 23, true);
+                byhourCount = byhour.length;
+                break;
+            case PARSED_BYDAY:
+                // BYDAY=bywdaylist, e.g. "1SU,-1SU"
+                parseByDay(str, start, end);
+                break;
+            case PARSED_BYMONTHDAY:
+                bymonthday = parseNumberList(str, start, end, -31, 31, false);
+                bymonthdayCount = bymonthday.length;
+                break;
+            case PARSED_BYYEARDAY:
+                byyearday = parseNumberList(str, start, end, -366, 366, false);
+                byyeardayCount = byyearday.length;
+                break;
+            case PARSED_BYWEEKNO:
+                byweekno = parseNumberList(str, start, end, -53, 53, false);
+                byweeknoCount = byweekno.length;
+                break;
+            case PARSED_BYMONTH:
+                bymonth = parseNumberList(str, start, end, 1, 12, false);
+                bymonthCount = bymonth.length;
+                break;
+            case PARSED_BYSETPOS:
+                bysetpos = parseNumberList(str, start, end,
+                        Integer.MIN_VALUE, Integer.MAX_VALUE, true);
+                bysetposCount = bysetpos.length;
+                break;
+            case PARSED_WKST: {
+                // WKST={SU,MO,...}
+                int index = indexOf(WEEKDAY_NAMES, str, start, end);
+                if (index < 0) {
+                    throw new InvalidFormatException("Invalid WKST value: "
+                            + upperCase(str, start, end));
+                }
+                wkst = SU << index;
+                break;
             }
-            return values;
         }
     }
 
     /**
-     * parses FREQ={SECONDLY,MINUTELY,...}
+     * Parses BYDAY=bywdaylist, putting the pieces into parallel arrays.
      */
-    private static class ParseFreq extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            Integer freq = sParseFreqMap.get(value);
-            if (freq == null) {
-                throw new InvalidFormatException("Invalid FREQ value: " + value);
+    private void parseByDay(String str, int start, int end) {
+        end = trimTrailingCommas(str, start, end);
+        int count = countEntries(str, start, end);
+        int[] days = new int[count];
+        int[] nums = new int[count];
+
+        for (int i = 0, entryStart = start; i < count; i++) {
+            int entryEnd = indexOf(str, ',', entryStart, end);
+
+            /* parses [int]weekday */
+            int wdayStart = entryEnd - 2;
+            if (wdayStart > entryStart) {
+                /* number is included; parse it out and advance to weekday */
+                nums[i] = parseIntRange(str, entryStart, wdayStart, -53, 53, false);
+            } else {
+                /* just the weekday string */
+                wdayStart = entryStart;
             }
-            er.freq = freq;
-            return PARSED_FREQ;
-        }
-    }
-
-    /**
-     * parses UNTIL=enddate, e.g. "19970829T021400"
-     */
-    private static class ParseUntil extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            if (VALIDATE_UNTIL) {
-                try {
-                    // Parse the time to validate it.  The result isn't retained.
-                    Time until = new Time();
-                    until.parse(value);
-                } catch (TimeFormatException tfe) {
-                    throw new InvalidFormatException("Invalid UNTIL value: " + value);
-                }
+            int wday = indexOf(WEEKDAY_NAMES, str, wdayStart, entryEnd);
+            if (wday < 0) {
+                throw new InvalidFormatException("Invalid BYDAY value: "
+                        + upperCase(str, entryStart, entryEnd));
             }
-            er.until = value;
-            return PARSED_UNTIL;
+            days[i] = SU << wday;
+
+            entryStart = entryEnd + 1;
         }
+
+        byday = days;
+        bydayNum = nums;
+        bydayCount = count;
     }
 
     /**
-     * parses COUNT=[non-negative-integer]
+     * Parses a comma-separated list of integers, with range-checking.
+     *
+     * @param str     The string holding the list.
+     * @param start   The index of the first character of the list.
+     * @param end     The index after the last character of the list.
+     * @param minVal  Minimum allowed value.
+     * @param maxVal  Maximum allowed value.
+     * @param allowZero Is 0 allowed?
+     * @return A new array with values, sized to hold the exact number of elements.
      */
-    private static class ParseCount extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            er.count = parseIntRange(value, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
-            if (er.count < 0) {
-                Log.d(TAG, "Invalid Count. Forcing COUNT to 1 from " + value);
-                er.count = 1; // invalid count. assume one time recurrence.
-            }
-            return PARSED_COUNT;
+    private static int[] parseNumberList(String str, int start, int end,
+                                         int minVal, int maxVal, boolean allowZero) {
+        end = trimTrailingCommas(str, start, end);
+        int[] values = new int[countEntries(str, start, end)];
+
+        for (int i = 0, entryStart = start; i < values.length; i++) {
+            int entryEnd = indexOf(str, ',', entryStart, end);
+            values[i] = parseIntRange(str, entryStart, entryEnd, minVal, maxVal, allowZero);
+            entryStart = entryEnd + 1;
         }
+        return values;
     }
 
     /**
-     * parses INTERVAL=[non-negative-integer]
+     * Parses an integer, with range-checking.  Like Integer.parseInt, accumulates
+     * negatively so that Integer.MIN_VALUE can be parsed, and accepts any Unicode digits.
+     *
+     * @param str       The string holding the integer.
+     * @param start     The index of the first character of the integer.
+     * @param end       The index after the last character of the integer.
+     * @param minVal    Minimum allowed value.
+     * @param maxVal    Maximum allowed value.
+     * @param allowZero Is 0 allowed?
+     * @return The parsed value.
      */
-    private static class ParseInterval extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            er.interval = parseIntRange(value, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
-            if (er.interval < 1) {
-                Log.d(TAG, "Invalid Interval. Forcing INTERVAL to 1 from " + value);
-                er.interval = 1;
+    private static int parseIntRange(String str, int start, int end,
+                                     int minVal, int maxVal, boolean allowZero) {
+        if (start < end && str.charAt(start) == '+') {
+            // Skip a leading '+'; a sign may still follow, as Integer.parseInt allows.
+            start++;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end) {
+            char sign = str.charAt(i);
+            if (sign == '-') {
+                negative = true;
+                i++;
+            } else if (sign == '+') {
+                i++;
             }
-            return PARSED_INTERVAL;
         }
-    }
+        if (i == end) {
+            throw new InvalidFormatException("Invalid integer value: "
+                    + upperCase(str, start, end));
+        }
 
-    /**
-     * parses BYSECOND=byseclist
-     */
-    private static class ParseBySecond extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] bysecond = parseNumberList(value, 0, 59, true);
-            er.bysecond = bysecond;
-            er.bysecondCount = bysecond.length;
-            return PARSED_BYSECOND;
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multmin = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = Character.digit(str.charAt(i), 10);
+            if (digit < 0 || result < multmin || result * 10 < limit + digit) {
+                throw new InvalidFormatException("Invalid integer value: "
+                        + upperCase(str, start, end));
+            }
+            result = result * 10 - digit;
         }
-    }
 
-    /**
-     * parses BYMINUTE=byminlist
-     */
-    private static class ParseByMinute extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] byminute = parseNumberList(value, 0, 59, true);
-            er.byminute = byminute;
-            er.byminuteCount = byminute.length;
-            return PARSED_BYMINUTE;
+        int val = negative ? result : -result;
+        if (val < minVal || val > maxVal || (val == 0 && !allowZero)) {
+            throw new InvalidFormatException("Integer value out of range: "
+                    + str.substring(start, end));
         }
+        return val;
     }
 
     /**
-     * parses BYHOUR=byhrlist
+     * Like String.split(","), ignores empty entries at the end of a list.
+     *
+     * @return The end of the list without its trailing commas.
      */
-    private static class ParseByHour extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] byhour = parseNumberList(value, 0, 23, true);
-            er.byhour = byhour;
-            er.byhourCount = byhour.length;
-            return PARSED_BYHOUR;
+    private static int trimTrailingCommas(String str, int start, int end) {
+        while (end > start && str.charAt(end - 1) == ',') {
+            end--;
         }
+        return end;
     }
 
     /**
-     * parses BYDAY=bywdaylist, e.g. "1SU,-1SU"
+     * @return The number of comma-separated entries in the range, zero if it is empty.
      */
-    private static class ParseByDay extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] byday;
-            int[] bydayNum;
-            int bydayCount;
-
-            if (value.indexOf(",") < 0) {
-                /* only one entry, skip split() overhead */
-                bydayCount = 1;
-                byday = new int[1];
-                bydayNum = new int[1];
-                parseWday(value, byday, bydayNum, 0);
-            } else {
-                String[] wdays = value.split(",");
-                int len = wdays.length;
-                bydayCount = len;
-                byday = new int[len];
-                bydayNum = new int[len];
-                for (int i = 0; i < len; i++) {
-                    parseWday(wdays[i], byday, bydayNum, i);
-                }
-            }
-            er.byday = byday;
-            er.bydayNum = bydayNum;
-            er.bydayCount = bydayCount;
-            return PARSED_BYDAY;
+    private static int countEntries(String str, int start, int end) {
+        if (start == end) {
+            return 0;
         }
 
-        /**
-         * parses [int]weekday, putting the pieces into parallel array entries
-         */
-        private static void parseWday(String str, int[] byday, int[] bydayNum, int index) {
-            int wdayStrStart = str.length() - 2;
-            String wdayStr;
-
-            if (wdayStrStart > 0) {
-                /* number is included; parse it out and advance to weekday */
-                String numPart = str.substring(0, wdayStrStart);
-                int num = parseIntRange(numPart, -53, 53, false);
-                bydayNum[index] = num;
-                wdayStr = str.substring(wdayStrStart);
-            } else {
-                /* just the weekday string */
-                wdayStr = str;
-            }
-            Integer wday = sParseWeekdayMap.get(wdayStr);
-            if (wday == null) {
-                throw new InvalidFormatException("Invalid BYDAY value: " + str);
+        int count = 1;
+        for (int i = start; i < end; i++) {
+            if (str.charAt(i) == ',') {
+                count++;
             }
-            byday[index] = wday;
         }
+        return count;
     }
 
     /**
-     * parses BYMONTHDAY=bymodaylist
+     * @return The index of the first {@code c} in the range, or {@code end} if there is none.
      */
-    private static class ParseByMonthDay extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] bymonthday = parseNumberList(value, -31, 31, false);
-            er.bymonthday = bymonthday;
-            er.bymonthdayCount = bymonthday.length;
-            return PARSED_BYMONTHDAY;
+    private static int indexOf(String str, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (str.charAt(i) == c) {
+                return i;
+            }
         }
+        return end;
     }
 
     /**
-     * parses BYYEARDAY=byyrdaylist
+     * Finds the upper-case name that the range matches, ignoring the case of ASCII letters.
+     *
+     * @return The index of the name, or -1 if there is none.
      */
-    private static class ParseByYearDay extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] byyearday = parseNumberList(value, -366, 366, false);
-            er.byyearday = byyearday;
-            er.byyeardayCount = byyearday.length;
-            return PARSED_BYYEARDAY;
-        }
-    }
+    private static int indexOf(String[] names, String str, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.length() != length) {
+                continue;
+            }
 
-    /**
-     * parses BYWEEKNO=bywknolist
-     */
-    private static class ParseByWeekNo extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] byweekno = parseNumberList(value, -53, 53, false);
-            er.byweekno = byweekno;
-            er.byweeknoCount = byweekno.length;
-            return PARSED_BYWEEKNO;
+            int j = 0;
+            while (j < length && toUpperCase(str.charAt(start + j)) == name.charAt(j)) {
+                j++;
+            }
+            if (j == length) {
+                return i;
+            }
         }
+        return -1;
     }
 
     /**
-     * parses BYMONTH=bymolist
+     * @return The range as a string, with ASCII letters in upper case.
      */
-    private static class ParseByMonth extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] bymonth = parseNumberList(value, 1, 12, false);
-            er.bymonth = bymonth;
-            er.bymonthCount = bymonth.length;
-            return PARSED_BYMONTH;
+    private static String upperCase(String str, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                char[] chars = new char[end - start];
+                str.getChars(start, end, chars, 0);
+                for (int j = i - start; j < chars.length; j++) {
+                    chars[j] = toUpperCase(chars[j]);
+                }
+                return new String(chars);
+            }
         }
+        return str.substring(start, end);
     }
 
-    /**
-     * parses BYSETPOS=bysplist
-     */
-    private static class ParseBySetPos extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            int[] bysetpos = parseNumberList(value, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
-            er.bysetpos = bysetpos;
-            er.bysetposCount = bysetpos.length;
-            return PARSED_BYSETPOS;
-        }
+    private static char toUpperCase(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
     }
 
-    /**
-     * parses WKST={SU,MO,...}
-     */
-    private static class ParseWkst extends PartParser {
-        @Override
-        public int parsePart(String value, EventRecurrence er) {
-            Integer wkst = sParseWeekdayMap.get(value);
-            if (wkst == null) {
-                throw new InvalidFormatException("Invalid WKST value: " + value);
+    private static boolean isAscii(String str) {
+        for (int i = 0, length = str.length(); i < length; i++) {
+            if (str.charAt(i) >= 0x80) {
+                return false;
             }
-            er.wkst = wkst;
-            return PARSED_WKST;
         }
+        return true;
     }
 }
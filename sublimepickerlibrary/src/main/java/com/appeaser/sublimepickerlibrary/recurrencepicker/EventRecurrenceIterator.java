@@ -0,0 +1,988 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import android.text.format.Time;
+import android.util.TimeFormatException;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily expands an {@link EventRecurrence} into its occurrences, in
+ * chronological order, from a start date on. FREQ, INTERVAL, COUNT, UNTIL,
+ * BYSECOND, BYMINUTE, BYHOUR, BYDAY, BYMONTHDAY, BYYEARDAY, BYWEEKNO,
+ * BYMONTH, BYSETPOS and WKST are expanded as described in RFC 5545,
+ * section 3.3.10.
+ * <p/>
+ * Occurrences are returned as packed longs, see {@link #pack}, which
+ * compare in chronological order. The rule is compiled into lookup tables
+ * when the iterator is created; iterating allocates nothing.
+ * <p/>
+ * Times are wall-clock times in the time zone of the start date. A UTC
+ * UNTIL is converted to that zone. The start date itself is only returned
+ * if it matches the rule. Expansion stops after the year {@link #MAX_YEAR}.
+ */
+public final class EventRecurrenceIterator {
+
+    public static final int MAX_YEAR = 9999;
+
+    private static final int SHIFT_SECOND = 0;
+    private static final int SHIFT_MINUTE = 6;
+    private static final int SHIFT_HOUR = 12;
+    private static final int SHIFT_DAY = 17;
+    private static final int SHIFT_MONTH = 22;
+    private static final int SHIFT_YEAR = 26;
+
+    // The hour, minute and second bits of a packed value
+    static final long TIME_OF_DAY_MASK = (1L << SHIFT_DAY) - 1;
+
+    private static final int DAYS_IN_WEEK = 7;
+    private static final int HOURS_IN_DAY = 24;
+    private static final int MINUTES_IN_DAY = HOURS_IN_DAY * 60;
+    private static final int SECONDS_IN_DAY = MINUTES_IN_DAY * 60;
+
+    // Days from 0000-03-01 to 1970-01-01
+    private static final int EPOCH_OFFSET = 719468;
+    private static final int DAYS_IN_400_YEARS = 146097;
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private static final int STATE_NOT_READY = 0;
+    private static final int STATE_READY = 1;
+    private static final int STATE_DONE = 2;
+
+    private final int mFreq;
+    private final long mStep;
+    private final int mCount;
+    private final long mStart;
+    private final long mUntil;
+    private final int mUntilDay;
+    private final int mWeekStart;
+
+    // Day filters. A mask of 0 means the part is absent.
+    private final int mMonthMask;          // bit m for month m, 0-based
+    private final long mMonthDayMask;      // bit d for day d
+    private final long mNegMonthDayMask;   // bit d for day -d
+    private final long[] mYearDayMask;     // bit d for day d
+    private final long[] mNegYearDayMask;  // bit d for day -d
+    private final boolean mHasYearDays;
+    private final long mWeekNoMask;        // bit w for week w
+    private final long mNegWeekNoMask;     // bit w for week -w
+    private final boolean mHasByDay;
+    private final int mWeekdayMask;        // bit d for every weekday d
+    private final int[] mNthWeekdays;      // weekday d of week n, as n << 3 | d
+    private final boolean mNthInYear;
+
+    // Time filters, used by HOURLY and finer frequencies
+    private final int mHourMask;
+    private final long mMinuteMask;
+    private final long mSecondMask;
+
+    // Sorted, distinct times of day
+    private final int[] mHours;
+    private final int[] mMinutes;
+    private final int[] mSeconds;
+
+    // The times of day in the current period. Finer frequencies than
+    // DAILY fix some of them to the period.
+    private final int[] mPeriodHours = new int[1];
+    private final int[] mPeriodMinutes = new int[1];
+    private final int[] mPeriodSeconds = new int[1];
+    private int[] mHourList;
+    private int[] mMinuteList;
+    private int[] mSecondList;
+    private int mHourCount;
+    private int mMinuteCount;
+    private int mSecondCount;
+    private int mTimesPerDay;
+
+    // BYSETPOS, and the matching indexes into the current period
+    private final int[] mSetPos;
+    private final int[] mSelected;
+    private int mSelectedCount;
+    private int mSelectedIndex;
+    private int mDayOrdinal;
+
+    // The current period: its index in units of FREQ, its days, and the
+    // next candidate day and time of day
+    private long mPeriod;
+    private int mDayStart;
+    private int mDayEnd;
+    private int mDay;
+    private int mTimeIndex;
+
+    private long mLowerBound;
+    private int mReturned;
+    private int mState;
+    private long mNext;
+
+    // Year, 0-based month and day of month of mCivilEpochDay
+    private int mCivilEpochDay = Integer.MIN_VALUE;
+    private int mCivilYear;
+    private int mCivilMonth;
+    private int mCivilDay;
+
+    /**
+     * @param recurrence the rule to expand
+     * @param start      the start date, or null to use the rule's
+     *                   {@link EventRecurrence#startDate}
+     * @throws IllegalArgumentException if there is no start date, or if
+     *                                  the rule has no valid FREQ
+     * @throws EventRecurrence.InvalidFormatException if UNTIL can't be parsed
+     */
+    public EventRecurrenceIterator(EventRecurrence recurrence, Time start) {
+        this(recurrence, packStart(recurrence, start), parseUntil(recurrence, start));
+    }
+
+    /**
+     * @param rule  the rule to expand
+     * @param start the start date
+     * @throws IllegalArgumentException if {@code start} is null, or if the
+     *                                  rule has no valid FREQ
+     * @throws EventRecurrence.InvalidFormatException if UNTIL can't be parsed
+     */
+    public EventRecurrenceIterator(RecurrenceRule rule, Time start) {
+        this(rule.getRecurrence(), start);
+    }
+
+    EventRecurrenceIterator(EventRecurrence recurrence, long start, long until) {
+        if (recurrence.freq < EventRecurrence.SECONDLY
+                || recurrence.freq > EventRecurrence.YEARLY) {
+            throw new IllegalArgumentException("Invalid FREQ: " + recurrence.freq);
+        }
+
+        mFreq = recurrence.freq;
+        mCount = recurrence.count;
+        mStart = start;
+        mUntil = until;
+        mUntilDay = until == Long.MAX_VALUE ? Integer.MAX_VALUE : getEpochDay(until);
+        mWeekStart = EventRecurrence.day2TimeDay(
+                recurrence.wkst == 0 ? EventRecurrence.MO : recurrence.wkst);
+
+        final int interval = Math.max(recurrence.interval, 1);
+        mStep = mFreq == EventRecurrence.WEEKLY ? (long) interval * DAYS_IN_WEEK : interval;
+
+        final int startDay = getEpochDay(start);
+        final boolean hasMonthDays = recurrence.bymonthdayCount > 0;
+        final boolean hasWeekNos = recurrence.byweeknoCount > 0
+                && mFreq == EventRecurrence.YEARLY;
+        mHasYearDays = recurrence.byyeardayCount > 0;
+        mHasByDay = recurrence.bydayCount > 0;
+
+        // Without any of the day parts, the day is taken from the start date.
+        final boolean inferDay = !hasMonthDays && !mHasYearDays && !hasWeekNos && !mHasByDay;
+        if (inferDay && mFreq == EventRecurrence.YEARLY && recurrence.bymonthCount == 0) {
+            mMonthMask = 1 << getMonth(start);
+        } else {
+            mMonthMask = toMask(recurrence.bymonth, recurrence.bymonthCount, -1);
+        }
+        if (inferDay && (mFreq == EventRecurrence.MONTHLY || mFreq == EventRecurrence.YEARLY)) {
+            mMonthDayMask = 1L << getMonthDay(start);
+            mNegMonthDayMask = 0;
+        } else {
+            mMonthDayMask = toPositiveMask(recurrence.bymonthday, recurrence.bymonthdayCount);
+            mNegMonthDayMask = toNegativeMask(recurrence.bymonthday, recurrence.bymonthdayCount);
+        }
+
+        mYearDayMask = new long[(366 >>> 6) + 1];
+        mNegYearDayMask = new long[(366 >>> 6) + 1];
+        for (int i = 0; i < recurrence.byyeardayCount; i++) {
+            final int day = recurrence.byyearday[i];
+            final long[] mask = day > 0 ? mYearDayMask : mNegYearDayMask;
+            mask[Math.abs(day) >>> 6] |= 1L << Math.abs(day);
+        }
+
+        if (hasWeekNos) {
+            mWeekNoMask = toPositiveMask(recurrence.byweekno, recurrence.byweeknoCount);
+            mNegWeekNoMask = toNegativeMask(recurrence.byweekno, recurrence.byweeknoCount);
+        } else {
+            mWeekNoMask = mNegWeekNoMask = 0;
+        }
+
+        // Numbered weekdays, e.g. 2MO, only count within a month or a year.
+        final boolean allowNth = mFreq == EventRecurrence.MONTHLY
+                || mFreq == EventRecurrence.YEARLY;
+        mNthInYear = mFreq == EventRecurrence.YEARLY && recurrence.bymonthCount == 0;
+
+        int weekdayMask = 0;
+        int nthCount = 0;
+        final int[] nthWeekdays = new int[recurrence.bydayCount];
+        for (int i = 0; i < recurrence.bydayCount; i++) {
+            final int weekday = EventRecurrence.day2TimeDay(recurrence.byday[i]);
+            final int n = recurrence.bydayNum[i];
+            if (n == 0 || !allowNth) {
+                weekdayMask |= 1 << weekday;
+            } else {
+                nthWeekdays[nthCount++] = n << 3 | weekday;
+            }
+        }
+        if (inferDay && mFreq == EventRecurrence.WEEKLY) {
+            weekdayMask = 1 << getWeekday(startDay);
+        }
+        mWeekdayMask = weekdayMask;
+        mNthWeekdays = Arrays.copyOf(nthWeekdays, nthCount);
+
+        mHourMask = toMask(recurrence.byhour, recurrence.byhourCount, 0);
+        mMinuteMask = toPositiveMask(recurrence.byminute, recurrence.byminuteCount, 0);
+        mSecondMask = toPositiveMask(recurrence.bysecond, recurrence.bysecondCount, 0);
+
+        mHours = toSortedList(recurrence.byhour, recurrence.byhourCount, getHour(start));
+        mMinutes = toSortedList(recurrence.byminute, recurrence.byminuteCount, getMinute(start));
+        mSeconds = toSortedList(recurrence.bysecond, recurrence.bysecondCount, getSecond(start));
+
+        mSetPos = Arrays.copyOf(recurrence.bysetpos == null ? new int[0] : recurrence.bysetpos,
+                recurrence.bysetposCount);
+        mSelected = new int[recurrence.bysetposCount];
+
+        mLowerBound = start;
+        mPeriod = getPeriod(start);
+        if (!canMatchTimeOfDay() || !openPeriod()) {
+            mState = STATE_DONE;
+        }
+    }
+
+    public boolean hasNext() {
+        if (mState == STATE_NOT_READY) {
+            mState = computeNext() ? STATE_READY : STATE_DONE;
+        }
+        return mState == STATE_READY;
+    }
+
+    /**
+     * @return the next occurrence, packed as by {@link #pack}
+     * @throws NoSuchElementException if there are no more occurrences
+     */
+    public long next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        mState = STATE_NOT_READY;
+        mReturned++;
+        return mNext;
+    }
+
+    /**
+     * Skips the occurrences before {@code packed}. Without COUNT, whole
+     * periods are skipped without being expanded.
+     */
+    public void advanceTo(long packed) {
+        if (mCount > 0) {
+            while (hasNext() && mNext < packed) {
+                next();
+            }
+            return;
+        }
+
+        if (mState == STATE_DONE || (mState == STATE_READY && mNext >= packed)) {
+            return;
+        }
+
+        final long periods = (getPeriod(packed) - mPeriod) / mStep;
+        if (periods > 0) {
+            mPeriod += periods * mStep;
+            if (!openPeriod()) {
+                mState = STATE_DONE;
+                return;
+            }
+        }
+
+        mLowerBound = Math.max(mLowerBound, packed);
+        mState = STATE_NOT_READY;
+    }
+
+    private boolean computeNext() {
+        if (mCount > 0 && mReturned >= mCount) {
+            return false;
+        }
+
+        do {
+            while (nextCandidate()) {
+                if (mNext > mUntil) {
+                    return false;
+                }
+                if (mNext >= mLowerBound) {
+                    return true;
+                }
+            }
+
+            mPeriod += mStep;
+        } while (openPeriod());
+
+        return false;
+    }
+
+    /**
+     * Moves to the next candidate of the current period and stores it in
+     * {@link #mNext}.
+     *
+     * @return false if the period has no more candidates
+     */
+    private boolean nextCandidate() {
+        if (mSetPos.length > 0) {
+            if (mSelectedIndex == mSelectedCount) {
+                return false;
+            }
+
+            final int index = mSelected[mSelectedIndex++];
+            final int dayOrdinal = index / mTimesPerDay;
+            while (mDayOrdinal < dayOrdinal) {
+                mDay = nextMatchingDay(mDay + 1);
+                mDayOrdinal++;
+            }
+            mNext = packCandidate(mDay, index % mTimesPerDay);
+            return true;
+        }
+
+        if (mTimeIndex == mTimesPerDay) {
+            mDay = nextMatchingDay(mDay + 1);
+            mTimeIndex = 0;
+        }
+        if (mDay >= mDayEnd) {
+            return false;
+        }
+
+        mNext = packCandidate(mDay, mTimeIndex++);
+        return true;
+    }
+
+    /**
+     * Sets up the days and times of day of the period {@link #mPeriod}.
+     * Periods finer than a day are skipped while their day doesn't match.
+     *
+     * @return false if the expansion is over
+     */
+    private boolean openPeriod() {
+        while (true) {
+            final int day = getPeriodStartDay();
+            if (day > mUntilDay || getYear(day) > MAX_YEAR) {
+                return false;
+            }
+
+            mHourList = mHours;
+            mMinuteList = mMinutes;
+            mSecondList = mSeconds;
+
+            switch (mFreq) {
+                case EventRecurrence.YEARLY:
+                    mDayStart = day;
+                    mDayEnd = day + getYearLength((int) mPeriod);
+                    break;
+                case EventRecurrence.MONTHLY:
+                    mDayStart = day;
+                    mDayEnd = day + getMonthLength(mCivilYear, mCivilMonth);
+                    break;
+                case EventRecurrence.WEEKLY:
+                    mDayStart = day;
+                    mDayEnd = day + DAYS_IN_WEEK;
+                    break;
+                default:
+                    mDayStart = day;
+                    mDayEnd = day + 1;
+                    break;
+            }
+
+            if (mFreq < EventRecurrence.DAILY) {
+                if (!matchesDay(day)) {
+                    skipToDay(day + 1);
+                    continue;
+                }
+
+                // The period fixes the hour, and the minute and second for
+                // finer frequencies, which are then limited by the BYxxx parts.
+                final long secondOfDay = getSecondOfDay();
+                mPeriodHours[0] = (int) (secondOfDay / 3600);
+                mPeriodMinutes[0] = (int) (secondOfDay / 60 % 60);
+                mPeriodSeconds[0] = (int) (secondOfDay % 60);
+
+                final long skipTo = getNextMatchingTime(secondOfDay);
+                if (skipTo != secondOfDay) {
+                    skipToSecond(floorDiv(mPeriod, getPeriodsPerDay()) * SECONDS_IN_DAY + skipTo);
+                    continue;
+                }
+
+                mHourList = mPeriodHours;
+                if (mFreq < EventRecurrence.HOURLY) {
+                    mMinuteList = mPeriodMinutes;
+                }
+                if (mFreq < EventRecurrence.MINUTELY) {
+                    mSecondList = mPeriodSeconds;
+                }
+            }
+
+            mHourCount = mHourList.length;
+            mMinuteCount = mMinuteList.length;
+            mSecondCount = mSecondList.length;
+            mTimesPerDay = mHourCount * mMinuteCount * mSecondCount;
+
+            mDay = mTimesPerDay == 0 ? mDayEnd : nextMatchingDay(mDayStart);
+            mTimeIndex = 0;
+
+            if (mSetPos.length > 0) {
+                selectSetPositions();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Resolves BYSETPOS against the candidates of the current period.
+     */
+    private void selectSetPositions() {
+        int days = 0;
+        for (int day = mDay; day < mDayEnd; day = nextMatchingDay(day + 1)) {
+            days++;
+        }
+
+        final int size = days * mTimesPerDay;
+        int count = 0;
+        for (int pos : mSetPos) {
+            final int index = pos > 0 ? pos - 1 : size + pos;
+            if (pos == 0 || index < 0 || index >= size) {
+                continue;
+            }
+
+            // Insert sorted, dropping duplicates.
+            int i = count;
+            while (i > 0 && mSelected[i - 1] > index) {
+                i--;
+            }
+            if (i > 0 && mSelected[i - 1] == index) {
+                continue;
+            }
+            System.arraycopy(mSelected, i, mSelected, i + 1, count - i);
+            mSelected[i] = index;
+            count++;
+        }
+
+        mSelectedCount = count;
+        mSelectedIndex = 0;
+        mDayOrdinal = 0;
+    }
+
+    /**
+     * Moves {@link #mPeriod} to the first period starting on or after
+     * {@code epochDay}. Only used for periods finer than a day.
+     */
+    private void skipToDay(int epochDay) {
+        skipToPeriod((long) epochDay * getPeriodsPerDay());
+    }
+
+    /**
+     * Moves {@link #mPeriod} to the first period starting on or after
+     * {@code second}, counted from the start of 1970-01-01. Only used for
+     * periods finer than a day; {@code second} must start such a period.
+     */
+    private void skipToSecond(long second) {
+        skipToPeriod(second / (SECONDS_IN_DAY / getPeriodsPerDay()));
+    }
+
+    private void skipToPeriod(long target) {
+        final long periods = (target - mPeriod + mStep - 1) / mStep;
+        mPeriod += periods * mStep;
+    }
+
+    /**
+     * Finds the first time of day, at or after {@code secondOfDay}, that
+     * the hour, minute and second of the periods can match. A time that
+     * can't match moves on to the next matching hour, then minute, then
+     * second, so whole hours and minutes are skipped at once.
+     *
+     * @return the second of the day, or a later second, past the end of
+     * the day, for a time on a following day
+     */
+    private long getNextMatchingTime(long secondOfDay) {
+        final int hour = (int) (secondOfDay / 3600);
+        final int minute = (int) (secondOfDay / 60 % 60);
+        final int second = (int) (secondOfDay % 60);
+
+        if (!matchesMask(mHourMask, hour)) {
+            return getNextInMask(mHourMask, hour, HOURS_IN_DAY) * 3600L;
+        }
+        if (mFreq < EventRecurrence.HOURLY && !matchesMask(mMinuteMask, minute)) {
+            return hour * 3600L + getNextInMask(mMinuteMask, minute, 60) * 60L;
+        }
+        if (mFreq < EventRecurrence.MINUTELY && !matchesMask(mSecondMask, second)) {
+            return hour * 3600L + minute * 60L + getNextInMask(mSecondMask, second, 60);
+        }
+        return secondOfDay;
+    }
+
+    /**
+     * @return the first bit of {@code mask} after {@code value}, or
+     * {@code size} plus the first bit to wrap around to the next hour,
+     * minute or day
+     */
+    private static int getNextInMask(long mask, int value, int size) {
+        final long after = mask & (-1L << (value + 1));
+        if (after != 0) {
+            return Long.numberOfTrailingZeros(after);
+        }
+        return size + Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Periods finer than a day step through the times of day by INTERVAL,
+     * so they only reach the periods of the day that are congruent to the
+     * first period, modulo gcd(step, periods per day). Rules whose BYHOUR,
+     * BYMINUTE and BYSECOND exclude all of those would never end.
+     */
+    private boolean canMatchTimeOfDay() {
+        if (mFreq >= EventRecurrence.DAILY
+                || (mHourMask == 0 && mMinuteMask == 0 && mSecondMask == 0)) {
+            return true;
+        }
+
+        final int periodsPerDay = getPeriodsPerDay();
+        final int secondsPerPeriod = SECONDS_IN_DAY / periodsPerDay;
+        final int gcd = (int) gcd(mStep, periodsPerDay);
+        final long first = mPeriod - floorDiv(mPeriod, gcd) * gcd;
+        for (long period = first; period < periodsPerDay; period += gcd) {
+            final long secondOfDay = period * secondsPerPeriod;
+            if (getNextMatchingTime(secondOfDay) == secondOfDay) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getPeriodsPerDay() {
+        switch (mFreq) {
+            case EventRecurrence.HOURLY:
+                return HOURS_IN_DAY;
+            case EventRecurrence.MINUTELY:
+                return MINUTES_IN_DAY;
+            case EventRecurrence.SECONDLY:
+                return SECONDS_IN_DAY;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * @return the second of the day at which {@link #mPeriod} starts
+     */
+    private long getSecondOfDay() {
+        final long periodsPerDay = getPeriodsPerDay();
+        final long periodOfDay = mPeriod - floorDiv(mPeriod, periodsPerDay) * periodsPerDay;
+        return periodOfDay * (SECONDS_IN_DAY / periodsPerDay);
+    }
+
+    /**
+     * @return the first epoch day of {@link #mPeriod}. The civil date of
+     * that day is left in the civil fields.
+     */
+    private int getPeriodStartDay() {
+        final int day;
+        switch (mFreq) {
+            case EventRecurrence.YEARLY:
+                day = toEpochDay((int) mPeriod, 0, 1);
+                break;
+            case EventRecurrence.MONTHLY:
+                final int year = (int) floorDiv(mPeriod, 12);
+                day = toEpochDay(year, (int) (mPeriod - year * 12L), 1);
+                break;
+            case EventRecurrence.WEEKLY:
+            case EventRecurrence.DAILY:
+                day = (int) mPeriod;
+                break;
+            default:
+                day = (int) floorDiv(mPeriod, getPeriodsPerDay());
+                break;
+        }
+        setCivil(day);
+        return day;
+    }
+
+    /**
+     * @return the index of the period that contains {@code packed}, in
+     * units of FREQ
+     */
+    private long getPeriod(long packed) {
+        final int day = getEpochDay(packed);
+        switch (mFreq) {
+            case EventRecurrence.YEARLY:
+                return getYear(packed);
+            case EventRecurrence.MONTHLY:
+                return getYear(packed) * 12L + getMonth(packed);
+            case EventRecurrence.WEEKLY:
+                return day - floorMod(getWeekday(day) - mWeekStart, DAYS_IN_WEEK);
+            case EventRecurrence.DAILY:
+                return day;
+            case EventRecurrence.HOURLY:
+                return (long) day * HOURS_IN_DAY + getHour(packed);
+            case EventRecurrence.MINUTELY:
+                return ((long) day * HOURS_IN_DAY + getHour(packed)) * 60 + getMinute(packed);
+            default:
+                return (((long) day * HOURS_IN_DAY + getHour(packed)) * 60
+                        + getMinute(packed)) * 60 + getSecond(packed);
+        }
+    }
+
+    private int nextMatchingDay(int epochDay) {
+        while (epochDay < mDayEnd && !matchesDay(epochDay)) {
+            epochDay++;
+        }
+        return epochDay;
+    }
+
+    private boolean matchesDay(int epochDay) {
+        setCivil(epochDay);
+        final int year = mCivilYear;
+        final int month = mCivilMonth;
+        final int monthDay = mCivilDay;
+
+        if (mMonthMask != 0 && (mMonthMask & (1 << month)) == 0) {
+            return false;
+        }
+
+        if ((mWeekNoMask | mNegWeekNoMask) != 0 && !matchesWeekNo(epochDay, year)) {
+            return false;
+        }
+
+        if ((mMonthDayMask | mNegMonthDayMask) != 0) {
+            final int negMonthDay = getMonthLength(year, month) - monthDay + 1;
+            if ((mMonthDayMask & (1L << monthDay)) == 0
+                    && (mNegMonthDayMask & (1L << negMonthDay)) == 0) {
+                return false;
+            }
+        }
+
+        final int yearDay = epochDay - toEpochDay(year, 0, 1) + 1;
+        final int yearLength = getYearLength(year);
+        if (mHasYearDays) {
+            final int negYearDay = yearLength - yearDay + 1;
+            if ((mYearDayMask[yearDay >>> 6] & (1L << yearDay)) == 0
+                    && (mNegYearDayMask[negYearDay >>> 6] & (1L << negYearDay)) == 0) {
+                return false;
+            }
+        }
+
+        if (mHasByDay) {
+            final int weekday = getWeekday(epochDay);
+            if ((mWeekdayMask & (1 << weekday)) != 0) {
+                return true;
+            }
+
+            final int index = mNthInYear ? yearDay - 1 : monthDay - 1;
+            final int length = mNthInYear ? yearLength : getMonthLength(year, month);
+            final int n = index / DAYS_IN_WEEK + 1;
+            final int negN = -((length - 1 - index) / DAYS_IN_WEEK + 1);
+            for (int nthWeekday : mNthWeekdays) {
+                if ((nthWeekday & 7) == weekday) {
+                    final int nth = nthWeekday >> 3;
+                    if (nth == n || nth == negN) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        if (mWeekdayMask != 0) {
+            // Weekday inferred from the start date
+            return (mWeekdayMask & (1 << getWeekday(epochDay))) != 0;
+        }
+        return true;
+    }
+
+    /**
+     * Week 1 is the first week, starting on WKST, with at least four days
+     * in the year. Days outside the weeks of their year are numbered in the
+     * previous or next year.
+     */
+    private boolean matchesWeekNo(int epochDay, int year) {
+        int weekYear = year;
+        int weekYearStart = getFirstWeekStart(year);
+        if (epochDay < weekYearStart) {
+            weekYear--;
+            weekYearStart = getFirstWeekStart(weekYear);
+        } else {
+            final int nextStart = getFirstWeekStart(year + 1);
+            if (epochDay >= nextStart) {
+                weekYear++;
+                weekYearStart = nextStart;
+            }
+        }
+
+        final int week = (epochDay - weekYearStart) / DAYS_IN_WEEK + 1;
+        final int weeks = (getFirstWeekStart(weekYear + 1) - weekYearStart) / DAYS_IN_WEEK;
+        return (mWeekNoMask & (1L << week)) != 0
+                || (mNegWeekNoMask & (1L << (weeks - week + 1))) != 0;
+    }
+
+    private int getFirstWeekStart(int year) {
+        final int firstDay = toEpochDay(year, 0, 1);
+        final int offset = floorMod(getWeekday(firstDay) - mWeekStart, DAYS_IN_WEEK);
+        return offset <= 3 ? firstDay - offset : firstDay + DAYS_IN_WEEK - offset;
+    }
+
+    private long packCandidate(int epochDay, int timeIndex) {
+        setCivil(epochDay);
+        final int second = mSecondList[timeIndex % mSecondCount];
+        timeIndex /= mSecondCount;
+        final int minute = mMinuteList[timeIndex % mMinuteCount];
+        final int hour = mHourList[timeIndex / mMinuteCount];
+        return pack(mCivilYear, mCivilMonth, mCivilDay, hour, minute, second);
+    }
+
+    /**
+     * Converts an epoch day to its civil date, kept in the civil fields.
+     */
+    private void setCivil(int epochDay) {
+        if (epochDay == mCivilEpochDay) {
+            return;
+        }
+
+        final int z = epochDay + EPOCH_OFFSET;
+        final int era = (z >= 0 ? z : z - (DAYS_IN_400_YEARS - 1)) / DAYS_IN_400_YEARS;
+        final int dayOfEra = z - era * DAYS_IN_400_YEARS;
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+                - dayOfEra / (DAYS_IN_400_YEARS - 1)) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 2 : shiftedMonth - 10;
+
+        mCivilEpochDay = epochDay;
+        mCivilDay = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        mCivilMonth = month;
+        mCivilYear = yearOfEra + era * 400 + (month <= 1 ? 1 : 0);
+    }
+
+    private int getYear(int epochDay) {
+        setCivil(epochDay);
+        return mCivilYear;
+    }
+
+    /**
+     * Packs a date and time into a long. Packed values compare in
+     * chronological order.
+     *
+     * @param month the month, 0-based as in {@link Time#month}
+     */
+    public static long pack(int year, int month, int monthDay, int hour, int minute, int second) {
+        return (long) year << SHIFT_YEAR | month << SHIFT_MONTH | monthDay << SHIFT_DAY
+                | hour << SHIFT_HOUR | minute << SHIFT_MINUTE | second << SHIFT_SECOND;
+    }
+
+    public static int getYear(long packed) {
+        return (int) (packed >>> SHIFT_YEAR);
+    }
+
+    /**
+     * @return the month, 0-based as in {@link Time#month}
+     */
+    public static int getMonth(long packed) {
+        return (int) (packed >>> SHIFT_MONTH) & 0xF;
+    }
+
+    public static int getMonthDay(long packed) {
+        return (int) (packed >>> SHIFT_DAY) & 0x1F;
+    }
+
+    public static int getHour(long packed) {
+        return (int) (packed >>> SHIFT_HOUR) & 0x1F;
+    }
+
+    public static int getMinute(long packed) {
+        return (int) (packed >>> SHIFT_MINUTE) & 0x3F;
+    }
+
+    public static int getSecond(long packed) {
+        return (int) (packed >>> SHIFT_SECOND) & 0x3F;
+    }
+
+    /**
+     * @return the number of days from 1970-01-01 to the date of {@code packed}
+     */
+    public static int getEpochDay(long packed) {
+        return toEpochDay(getYear(packed), getMonth(packed), getMonthDay(packed));
+    }
+
+    /**
+     * Sets the wall-clock fields of {@code time} to {@code packed}. The
+     * time zone of {@code time} is left as it is.
+     */
+    public static void toTime(long packed, Time time) {
+        time.set(getSecond(packed), getMinute(packed), getHour(packed),
+                getMonthDay(packed), getMonth(packed), getYear(packed));
+    }
+
+    /**
+     * @param month the month, 0-based
+     */
+    static int toEpochDay(int year, int month, int monthDay) {
+        // Count years from March, so that the leap day is last.
+        final int y = month <= 1 ? year - 1 : year;
+        final int era = (y >= 0 ? y : y - 399) / 400;
+        final int yearOfEra = y - era * 400;
+        final int shiftedMonth = month <= 1 ? month + 10 : month - 2;
+        final int dayOfYear = (153 * shiftedMonth + 2) / 5 + monthDay - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_IN_400_YEARS + dayOfEra - EPOCH_OFFSET;
+    }
+
+    /**
+     * @return the day of the week, {@link Time#SUNDAY} through {@link Time#SATURDAY}
+     */
+    static int getWeekday(int epochDay) {
+        // 1970-01-01 was a Thursday.
+        return floorMod(epochDay + 4, DAYS_IN_WEEK);
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static int getYearLength(int year) {
+        return isLeapYear(year) ? 366 : 365;
+    }
+
+    private static int getMonthLength(int year, int month) {
+        return month == 1 && isLeapYear(year) ? 29 : DAYS_IN_MONTH[month];
+    }
+
+    private static boolean matchesMask(long mask, int value) {
+        return mask == 0 || (mask & (1L << value)) != 0;
+    }
+
+    private static long floorDiv(long x, long y) {
+        final long q = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            final long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static int floorMod(int x, int y) {
+        final int m = x % y;
+        return m < 0 ? m + y : m;
+    }
+
+    /**
+     * @param offset added to every value before it is used as a bit index
+     */
+    private static int toMask(int[] values, int count, int offset) {
+        int mask = 0;
+        for (int i = 0; i < count; i++) {
+            mask |= 1 << (values[i] + offset);
+        }
+        return mask;
+    }
+
+    private static long toPositiveMask(int[] values, int count) {
+        return toPositiveMask(values, count, 1);
+    }
+
+    /**
+     * @param min the smallest value that counts as positive
+     */
+    private static long toPositiveMask(int[] values, int count, int min) {
+        long mask = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] >= min) {
+                mask |= 1L << values[i];
+            }
+        }
+        return mask;
+    }
+
+    private static long toNegativeMask(int[] values, int count) {
+        long mask = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] < 0) {
+                mask |= 1L << -values[i];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return the values sorted without duplicates, or {@code defaultValue}
+     * alone if there are none
+     */
+    private static int[] toSortedList(int[] values, int count, int defaultValue) {
+        if (count == 0) {
+            return new int[]{defaultValue};
+        }
+
+        final int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+
+        int size = 1;
+        for (int i = 1; i < count; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+
+    static long packStart(EventRecurrence recurrence, Time start) {
+        if (start == null) {
+            start = recurrence.startDate;
+        }
+        if (start == null) {
+            throw new IllegalArgumentException("A start date is required.");
+        }
+
+        if (start.allDay) {
+            return pack(start.year, start.month, start.monthDay, 0, 0, 0);
+        }
+        return pack(start.year, start.month, start.monthDay,
+                start.hour, start.minute, start.second);
+    }
+
+    /**
+     * @return UNTIL in the time zone of the start date, or Long.MAX_VALUE
+     * if the rule has no UNTIL. A date without a time includes the whole day.
+     */
+    static long parseUntil(EventRecurrence recurrence, Time start) {
+        if (recurrence.until == null || recurrence.until.length() == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        if (start == null) {
+            start = recurrence.startDate;
+        }
+
+        final Time until = new Time(start != null ? start.timezone : Time.TIMEZONE_UTC);
+        try {
+            until.parse(recurrence.until);
+        } catch (TimeFormatException e) {
+            throw new EventRecurrence.InvalidFormatException(
+                    "Invalid UNTIL value: " + recurrence.until);
+        }
+
+        if (until.allDay) {
+            return pack(until.year, until.month, until.monthDay, 23, 59, 59);
+        }
+
+        if (start != null && !until.timezone.equals(start.timezone)) {
+            until.switchTimezone(start.timezone);
+        }
+        return pack(until.year, until.month, until.monthDay,
+                until.hour, until.minute, until.second);
+    }
+}
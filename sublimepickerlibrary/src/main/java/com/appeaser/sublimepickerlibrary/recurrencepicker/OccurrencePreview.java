@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import android.text.format.Time;
+import android.view.View;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Expands the next occurrences of a rule on a background thread, for the
+ * preview shown by {@link RecurrenceOptionCreator}. Each request cancels
+ * the one in flight, and only the result of the latest request is
+ * delivered, on the UI thread.
+ */
+final class OccurrencePreview {
+
+    interface Callback {
+        /**
+         * @param occurrences the occurrences, packed as by
+         *                    {@link EventRecurrenceIterator#pack}
+         * @param count       the number of valid entries in {@code occurrences}
+         */
+        void onOccurrencesExpanded(long[] occurrences, int count);
+    }
+
+    private static ExecutorService sExecutor;
+
+    private final View mHost;
+    private final Callback mCallback;
+
+    private Future<?> mPending;
+
+    // Incremented by every request, so that late results can be dropped.
+    private int mGeneration;
+
+    /**
+     * @param host the view whose UI thread receives the results
+     */
+    OccurrencePreview(View host, Callback callback) {
+        mHost = host;
+        mCallback = callback;
+    }
+
+    /**
+     * Expands up to {@code maxCount} occurrences of {@code recurrence} from
+     * {@code start} on. Neither argument may be modified afterwards.
+     */
+    void request(final EventRecurrence recurrence, final Time start, final int maxCount) {
+        cancel();
+
+        final int generation = mGeneration;
+        mPending = getExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                final long[] occurrences = new long[maxCount];
+                int count = 0;
+
+                final EventRecurrenceIterator iterator;
+                try {
+                    iterator = new EventRecurrenceIterator(recurrence, start);
+                } catch (RuntimeException e) {
+                    // The preview is best effort; leave it empty.
+                    deliver(generation, occurrences, 0);
+                    return;
+                }
+
+                final Thread thread = Thread.currentThread();
+                while (count < maxCount && iterator.hasNext()) {
+                    if (thread.isInterrupted()) {
+                        return;
+                    }
+                    occurrences[count++] = iterator.next();
+                }
+
+                deliver(generation, occurrences, count);
+            }
+        });
+    }
+
+    /**
+     * Cancels the request in flight, if any. Its result won't be delivered.
+     */
+    void cancel() {
+        mGeneration++;
+        if (mPending != null) {
+            mPending.cancel(true);
+            mPending = null;
+        }
+    }
+
+    private void deliver(final int generation, final long[] occurrences, final int count) {
+        mHost.post(new Runnable() {
+            @Override
+            public void run() {
+                if (generation == mGeneration) {
+                    mPending = null;
+                    mCallback.onOccurrencesExpanded(occurrences, count);
+                }
+            }
+        });
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor();
+        }
+        return sExecutor;
+    }
+}
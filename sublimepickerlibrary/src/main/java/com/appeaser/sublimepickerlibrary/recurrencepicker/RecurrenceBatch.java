@@ -0,0 +1,270 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import android.text.format.Time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Expands many events, each a {@link RecurrenceRule} with a start date,
+ * over one window of time, e.g. for an agenda. Events are split into
+ * fixed-size runs that can be expanded in parallel on an
+ * {@link ExecutorService}; the result is the same however the runs are
+ * scheduled.
+ * <p/>
+ * The window is compared with the wall-clock times of each event, in the
+ * time zone of its start date, as {@link EventRecurrenceIterator} returns
+ * them. Not thread-safe: don't add events while they are being expanded.
+ */
+public final class RecurrenceBatch {
+
+    // Events expanded by one task: enough to keep scheduling cheap, few
+    // enough to spread a batch over all threads.
+    private static final int EVENTS_PER_TASK = 64;
+
+    private RecurrenceRule[] mRules = new RecurrenceRule[16];
+    // Packed as by EventRecurrenceIterator#pack
+    private long[] mStarts = new long[16];
+    private long[] mUntils = new long[16];
+    private int mSize;
+
+    /**
+     * @param rule  the rule of the event, possibly shared with other events
+     * @param start the start date of the event
+     * @return the index of the event, as reported by {@link DayOccurrences#getEvent}
+     * @throws EventRecurrence.InvalidFormatException if the UNTIL of the rule can't be parsed
+     */
+    public int add(RecurrenceRule rule, Time start) {
+        if (rule == null || start == null) {
+            throw new IllegalArgumentException("rule and start must not be null");
+        }
+
+        if (mSize == mRules.length) {
+            mRules = Arrays.copyOf(mRules, mSize * 2);
+            mStarts = Arrays.copyOf(mStarts, mSize * 2);
+            mUntils = Arrays.copyOf(mUntils, mSize * 2);
+        }
+        mRules[mSize] = rule;
+        mStarts[mSize] = EventRecurrenceIterator.packStart(rule.getRecurrence(), start);
+        mUntils[mSize] = EventRecurrenceIterator.parseUntil(rule.getRecurrence(), start);
+        return mSize++;
+    }
+
+    /**
+     * @return the number of events added
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Expands all events on the calling thread.
+     *
+     * @param from the start of the window, packed as by {@link EventRecurrenceIterator#pack}
+     * @param to   the end of the window, exclusive
+     * @throws CancellationException if the calling thread is interrupted;
+     *                               its interrupt status is kept
+     */
+    public DayOccurrences expand(long from, long to) {
+        checkWindow(from, to);
+
+        final Run run = new Run(mRules, mStarts, mUntils, 0, mSize, from, to);
+        try {
+            run.call();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw newCancellationException(e);
+        }
+        return merge(from, to, new Run[]{run});
+    }
+
+    /**
+     * Expands all events on {@code executor}, and waits for them.
+     *
+     * @param from the start of the window, packed as by {@link EventRecurrenceIterator#pack}
+     * @param to   the end of the window, exclusive
+     * @throws InterruptedException  if interrupted while waiting; the
+     *                               remaining work is cancelled
+     * @throws CancellationException if a thread of {@code executor} is
+     *                               interrupted while expanding
+     */
+    public DayOccurrences expand(long from, long to, ExecutorService executor)
+            throws InterruptedException {
+        checkWindow(from, to);
+
+        final List<Future<Run>> futures = new ArrayList<>();
+        try {
+            for (int begin = 0; begin < mSize; begin += EVENTS_PER_TASK) {
+                final int end = Math.min(mSize, begin + EVENTS_PER_TASK);
+                futures.add(executor.submit(new Run(mRules, mStarts, mUntils, begin, end, from, to)));
+            }
+
+            final Run[] runs = new Run[futures.size()];
+            for (int i = 0; i < runs.length; i++) {
+                runs[i] = futures.get(i).get();
+            }
+            return merge(from, to, runs);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof InterruptedException) {
+                throw newCancellationException(cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            // Nothing left to cancel unless a run failed or we were interrupted
+            for (Future<Run> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static CancellationException newCancellationException(Throwable cause) {
+        final CancellationException e = new CancellationException("Expansion interrupted");
+        e.initCause(cause);
+        return e;
+    }
+
+    private static void checkWindow(long from, long to) {
+        if (from >= to) {
+            throw new IllegalArgumentException("The window must not be empty: from " + from
+                    + ", to " + to);
+        }
+    }
+
+    /**
+     * Groups the occurrences of all runs by day, and sorts each day by
+     * time and then by event.
+     */
+    private static DayOccurrences merge(long from, long to, Run[] runs) {
+        final int firstDay = EventRecurrenceIterator.getEpochDay(from);
+        int endDay = EventRecurrenceIterator.getEpochDay(to);
+        if ((to & EventRecurrenceIterator.TIME_OF_DAY_MASK) != 0) {
+            endDay++;
+        }
+        final int dayCount = endDay - firstDay;
+
+        final int[] dayStarts = new int[dayCount + 1];
+        for (Run run : runs) {
+            for (int i = 0; i < run.mSize; i++) {
+                dayStarts[EventRecurrenceIterator.getEpochDay(run.mOccurrences[i]) - firstDay + 1]++;
+            }
+        }
+        for (int day = 1; day <= dayCount; day++) {
+            dayStarts[day] += dayStarts[day - 1];
+        }
+
+        // The time of day above the event index, so sorting a day orders
+        // it by time and then by event.
+        final long[] keys = new long[dayStarts[dayCount]];
+        final long[] dates = new long[dayCount];
+        final int[] next = Arrays.copyOf(dayStarts, dayCount);
+        for (Run run : runs) {
+            for (int i = 0; i < run.mSize; i++) {
+                final long occurrence = run.mOccurrences[i];
+                final int day = EventRecurrenceIterator.getEpochDay(occurrence) - firstDay;
+                dates[day] = occurrence & ~EventRecurrenceIterator.TIME_OF_DAY_MASK;
+                keys[next[day]++] = (occurrence & EventRecurrenceIterator.TIME_OF_DAY_MASK) << 32
+                        | run.mEvents[i];
+            }
+        }
+
+        final int[] events = new int[keys.length];
+        final long[] occurrences = new long[keys.length];
+        for (int day = 0; day < dayCount; day++) {
+            Arrays.sort(keys, dayStarts[day], dayStarts[day + 1]);
+            for (int i = dayStarts[day]; i < dayStarts[day + 1]; i++) {
+                events[i] = (int) keys[i];
+                occurrences[i] = dates[day] | keys[i] >>> 32;
+            }
+        }
+
+        return new DayOccurrences(firstDay, dayStarts, events, occurrences);
+    }
+
+    /**
+     * Expands the events [begin, end) over the window.
+     */
+    private static final class Run implements Callable<Run> {
+        private final RecurrenceRule[] mRules;
+        private final long[] mStarts;
+        private final long[] mUntils;
+        private final int mBegin, mEnd;
+        private final long mFrom, mTo;
+
+        int[] mEvents = new int[16];
+        long[] mOccurrences = new long[16];
+        int mSize;
+
+        Run(RecurrenceRule[] rules, long[] starts, long[] untils, int begin, int end,
+            long from, long to) {
+            mRules = rules;
+            mStarts = starts;
+            mUntils = untils;
+            mBegin = begin;
+            mEnd = end;
+            mFrom = from;
+            mTo = to;
+        }
+
+        /**
+         * @throws InterruptedException if the thread is interrupted; the
+         *                              occurrences found so far are dropped
+         */
+        @Override
+        public Run call() throws InterruptedException {
+            for (int event = mBegin; event < mEnd; event++) {
+                // Ending at the window, rather than at UNTIL, stops rules
+                // that can't match early instead of searching to MAX_YEAR.
+                final EventRecurrenceIterator iterator = new EventRecurrenceIterator(
+                        mRules[event].getRecurrence(), mStarts[event],
+                        Math.min(mUntils[event], mTo - 1));
+                iterator.advanceTo(mFrom);
+                while (iterator.hasNext()) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    add(event, iterator.next());
+                }
+            }
+            return this;
+        }
+
+        private void add(int event, long occurrence) {
+            if (mSize == mEvents.length) {
+                mEvents = Arrays.copyOf(mEvents, mSize * 2);
+                mOccurrences = Arrays.copyOf(mOccurrences, mSize * 2);
+            }
+            mEvents[mSize] = event;
+            mOccurrences[mSize] = occurrence;
+            mSize++;
+        }
+    }
+}
@@ -92,6 +92,9 @@ public class RecurrenceOptionCreator extends FrameLayout
     private static final int COUNT_MAX = 730;
     private static final int COUNT_DEFAULT = 5;
 
+    // Number of occurrences listed in the preview
+    private static final int PREVIEW_COUNT = 5;
+
     // Special cases in monthlyByNthDayOfWeek
     private static final int FIFTH_WEEK_IN_A_MONTH = 5;
     private static final int LAST_NTH_DAY_OF_WEEK = -1;
@@ -175,6 +178,10 @@ public class RecurrenceOptionCreator extends FrameLayout
     private RadioButton mRepeatMonthlyByNthDayOfMonth;
     private String mMonthRepeatByDayOfWeekStr;
 
+    private TextView mOccurrencesPreview;
+    private OccurrencePreview mPreview;
+    private final Time mPreviewTime = new Time();
+
     private OnRecurrenceSetListener mRecurrenceSetListener;
     int mHeaderBackgroundColor;
 
@@ -611,9 +618,12 @@ public class RecurrenceOptionCreator extends FrameLayout
         switch (model.end) {
             case RecurrenceModel.END_BY_DATE:
                 if (model.endDate != null) {
-                    model.endDate.switchTimezone(Time.TIMEZONE_UTC);
-                    model.endDate.normalize(false);
-                    er.until = model.endDate.format2445();
+                    // Leave the model's end date in its own time zone, the
+                    // rule is also built for the preview while editing.
+                    final Time until = new Time(model.endDate);
+                    until.switchTimezone(Time.TIMEZONE_UTC);
+                    until.normalize(false);
+                    er.until = until.format2445();
                     er.count = 0;
                 } else {
                     throw new IllegalStateException("end = END_BY_DATE but endDate is null");
@@ -749,6 +759,14 @@ public class RecurrenceOptionCreator extends FrameLayout
 
         mRecurrencePicker = findViewById(R.id.recurrence_picker);
 
+        mOccurrencesPreview = (TextView) findViewById(R.id.occurrencesPreview);
+        mPreview = new OccurrencePreview(this, new OccurrencePreview.Callback() {
+            @Override
+            public void onOccurrencesExpanded(long[] occurrences, int count) {
+                showPreview(occurrences, count);
+            }
+        });
+
         mDateOnlyPicker = (RecurrenceEndDatePicker) findViewById(R.id.date_only_picker);
         mDateOnlyPicker.setVisibility(View.GONE);
 
@@ -786,6 +804,7 @@ public class RecurrenceOptionCreator extends FrameLayout
                     mModel.interval = v;
                     updateIntervalText();
                     mInterval.requestLayout();
+                    updatePreview();
                 }
             }
         });
@@ -816,6 +835,7 @@ public class RecurrenceOptionCreator extends FrameLayout
                     mModel.endCount = v;
                     updateEndCountText();
                     mEndCount.requestLayout();
+                    updatePreview();
                 }
             }
         });
@@ -1206,6 +1226,61 @@ public class RecurrenceOptionCreator extends FrameLayout
                 }
             }
         }
+
+        updatePreview();
+    }
+
+    /**
+     * Expands the next occurrences of the rule being edited in the
+     * background. Any expansion still running for an earlier state of the
+     * model is cancelled, so editing never waits on it.
+     */
+    private void updatePreview() {
+        if (mModel.recurrenceState == RecurrenceModel.STATE_NO_RECURRENCE) {
+            mPreview.cancel();
+            mOccurrencesPreview.setVisibility(View.GONE);
+            return;
+        }
+
+        final EventRecurrence recurrence = new EventRecurrence();
+        recurrence.wkst = mRecurrence.wkst;
+        try {
+            copyModelToEventRecurrence(mModel, recurrence);
+        } catch (IllegalStateException e) {
+            // The model is incomplete, e.g. while the count is being typed.
+            mPreview.cancel();
+            mOccurrencesPreview.setVisibility(View.GONE);
+            return;
+        }
+
+        mPreview.request(recurrence, new Time(mTime), PREVIEW_COUNT);
+    }
+
+    private void showPreview(long[] occurrences, int count) {
+        if (count == 0) {
+            mOccurrencesPreview.setVisibility(View.GONE);
+            return;
+        }
+
+        final StringBuilder dates = new StringBuilder();
+        mPreviewTime.timezone = mTime.timezone;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                dates.append(", ");
+            }
+            EventRecurrenceIterator.toTime(occurrences[i], mPreviewTime);
+            dates.append(mEndDateFormatter.format(mPreviewTime.toMillis(false)));
+        }
+
+        mOccurrencesPreview.setText(
+                mResources.getString(R.string.recurrence_next_occurrences, dates));
+        mOccurrencesPreview.setVisibility(View.VISIBLE);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mPreview.cancel();
+        super.onDetachedFromWindow();
     }
 
     /**
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+/**
+ * An immutable snapshot of the rule held by an {@link EventRecurrence}:
+ * everything {@link EventRecurrence#parse(String)} sets, but not the start
+ * date. Rules can be shared by any number of events and threads, and used
+ * as map keys. See {@link RecurrenceRuleCache} for sharing parsed rules.
+ */
+public final class RecurrenceRule {
+
+    // Never modified once constructed, and never handed out
+    private final EventRecurrence mRecurrence;
+    private final int mHashCode;
+
+    private RecurrenceRule(EventRecurrence recurrence) {
+        mRecurrence = recurrence;
+        mHashCode = recurrence.hashCode();
+    }
+
+    /**
+     * @param rule an RFC 2445 recurrence rule, e.g. "FREQ=WEEKLY;BYDAY=MO"
+     * @throws EventRecurrence.InvalidFormatException if the rule can't be parsed
+     */
+    public static RecurrenceRule parse(String rule) {
+        final EventRecurrence recurrence = new EventRecurrence();
+        recurrence.parse(rule);
+        return new RecurrenceRule(recurrence);
+    }
+
+    /**
+     * @return a snapshot of the rule {@code recurrence} currently holds
+     */
+    public static RecurrenceRule of(EventRecurrence recurrence) {
+        final EventRecurrence copy = new EventRecurrence();
+        copy.copyRuleFrom(recurrence);
+        return new RecurrenceRule(copy);
+    }
+
+    /**
+     * @return a new, mutable copy of the rule, without a start date
+     */
+    public EventRecurrence toEventRecurrence() {
+        final EventRecurrence copy = new EventRecurrence();
+        copy.copyRuleFrom(mRecurrence);
+        return copy;
+    }
+
+    /**
+     * The shared instance behind this rule, for code in this package that
+     * only reads it.
+     */
+    EventRecurrence getRecurrence() {
+        return mRecurrence;
+    }
+
+    /**
+     * @return one of {@link EventRecurrence#SECONDLY} to {@link EventRecurrence#YEARLY}
+     */
+    public int getFreq() {
+        return mRecurrence.freq;
+    }
+
+    /**
+     * @return UNTIL as written in the rule, or null
+     */
+    public String getUntil() {
+        return mRecurrence.until;
+    }
+
+    /**
+     * @return COUNT, or 0 if the rule has none
+     */
+    public int getCount() {
+        return mRecurrence.count;
+    }
+
+    /**
+     * @return INTERVAL, or 0 if the rule has none
+     */
+    public int getInterval() {
+        return mRecurrence.interval;
+    }
+
+    /**
+     * @return one of {@link EventRecurrence#SU} to {@link EventRecurrence#SA}
+     */
+    public int getWkst() {
+        return mRecurrence.wkst;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RecurrenceRule)) {
+            return false;
+        }
+
+        final RecurrenceRule other = (RecurrenceRule) o;
+        return mHashCode == other.mHashCode && mRecurrence.equals(other.mRecurrence);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    /**
+     * @return the rule in RFC 2445 form
+     */
+    @Override
+    public String toString() {
+        return mRecurrence.toString();
+    }
+}
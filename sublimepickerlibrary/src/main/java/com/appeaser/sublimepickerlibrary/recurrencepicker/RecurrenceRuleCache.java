@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import android.support.v4.util.LruCache;
+
+/**
+ * Parsed {@link RecurrenceRule}s keyed by their rule strings. Events that
+ * share a rule string share one parsed instance, so repeated rules cost a
+ * lookup rather than a parse. Strings that spell the same rule differently,
+ * e.g. "freq=daily" and "FREQ=DAILY", also share one instance, so memory
+ * grows with the number of distinct rules. The least recently used rules
+ * are dropped once the cache is full. Safe for use from any thread.
+ */
+public final class RecurrenceRuleCache {
+
+    private final LruCache<String, RecurrenceRule> mRules;
+    // Each distinct rule once, mapped to itself. Touched whenever the rule
+    // is returned, so it outlives every string in mRules that maps to it.
+    private final LruCache<RecurrenceRule, RecurrenceRule> mInterned;
+
+    /**
+     * @param maxSize the number of rules to keep
+     */
+    public RecurrenceRuleCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+
+        mInterned = new LruCache<>(maxSize);
+        mRules = new LruCache<String, RecurrenceRule>(maxSize) {
+            @Override
+            protected RecurrenceRule create(String rule) {
+                return intern(RecurrenceRule.parse(rule));
+            }
+        };
+    }
+
+    private RecurrenceRule intern(RecurrenceRule rule) {
+        synchronized (mInterned) {
+            final RecurrenceRule interned = mInterned.get(rule);
+            if (interned != null) {
+                return interned;
+            }
+            mInterned.put(rule, rule);
+            return rule;
+        }
+    }
+
+    /**
+     * @param rule an RFC 2445 recurrence rule, e.g. "FREQ=WEEKLY;BYDAY=MO"
+     * @return the shared parsed rule, parsed now if it isn't cached
+     * @throws EventRecurrence.InvalidFormatException if the rule can't be
+     *                                                parsed; nothing is cached
+     */
+    public RecurrenceRule get(String rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("rule must not be null");
+        }
+
+        final RecurrenceRule parsed = mRules.get(rule);
+        mInterned.get(parsed);
+        return parsed;
+    }
+
+    /**
+     * @return the number of rule strings cached
+     */
+    public int size() {
+        return mRules.size();
+    }
+
+    public void clear() {
+        mRules.evictAll();
+        mInterned.evictAll();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.annotation.TargetApi;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Widths of the two-digit numbers shown in the hour and minute views of
+ * the {@link SublimeTimePicker} header, used to give those views a width
+ * that doesn't change with the time shown. Each number is measured as a
+ * whole string with {@link Paint#measureText(String)}, so kerning between
+ * the digits counts. The widest width is measured once per paint style,
+ * locale and range, and shared by all pickers.
+ */
+final class HeaderDigitWidths {
+
+    private static final Map<HeaderDigitWidths, Float> sCache = new HashMap<>();
+
+    // Everything about the paint that changes the width of the text
+    private final Typeface mTypeface;
+    private final float mTextSize;
+    private final float mTextScaleX;
+    private final float mTextSkewX;
+    private final int mFlags;
+    private final float mLetterSpacing;
+    private final String mFontFeatureSettings;
+
+    private final Locale mLocale;
+    private final int mMaxNumber;
+
+    private HeaderDigitWidths(Paint paint, Locale locale, int maxNumber) {
+        mTypeface = paint.getTypeface();
+        mTextSize = paint.getTextSize();
+        mTextScaleX = paint.getTextScaleX();
+        mTextSkewX = paint.getTextSkewX();
+        mFlags = paint.getFlags();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            mLetterSpacing = getLetterSpacing(paint);
+            mFontFeatureSettings = getFontFeatureSettings(paint);
+        } else {
+            mLetterSpacing = 0;
+            mFontFeatureSettings = null;
+        }
+        mLocale = locale;
+        mMaxNumber = maxNumber;
+    }
+
+    /**
+     * @param paint     the paint the numbers are drawn with
+     * @param locale    the locale whose digits are drawn
+     * @param maxNumber the numbers [0, maxNumber) are drawn as two digits
+     * @return the width of the widest two-digit number below {@code maxNumber}
+     */
+    static float getMaxTwoDigitWidth(Paint paint, Locale locale, int maxNumber) {
+        final HeaderDigitWidths key = new HeaderDigitWidths(paint, locale, maxNumber);
+
+        synchronized (sCache) {
+            Float maxWidth = sCache.get(key);
+            if (maxWidth == null) {
+                maxWidth = measureMaxWidth(paint, locale, maxNumber);
+                sCache.put(key, maxWidth);
+            }
+            return maxWidth;
+        }
+    }
+
+    private static float measureMaxWidth(Paint paint, Locale locale, int maxNumber) {
+        float maxWidth = 0;
+        for (int i = 0; i < maxNumber; i++) {
+            final float width = paint.measureText(String.format(locale, "%02d", i));
+            if (width > maxWidth) {
+                maxWidth = width;
+            }
+        }
+        return maxWidth;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static float getLetterSpacing(Paint paint) {
+        return paint.getLetterSpacing();
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static String getFontFeatureSettings(Paint paint) {
+        return paint.getFontFeatureSettings();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HeaderDigitWidths)) {
+            return false;
+        }
+
+        final HeaderDigitWidths other = (HeaderDigitWidths) o;
+        return mTextSize == other.mTextSize
+                && mTextScaleX == other.mTextScaleX
+                && mTextSkewX == other.mTextSkewX
+                && mFlags == other.mFlags
+                && mLetterSpacing == other.mLetterSpacing
+                && mMaxNumber == other.mMaxNumber
+                && equals(mTypeface, other.mTypeface)
+                && equals(mFontFeatureSettings, other.mFontFeatureSettings)
+                && mLocale.equals(other.mLocale);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mTypeface != null ? mTypeface.hashCode() : 0;
+        result = 31 * result + Float.floatToIntBits(mTextSize);
+        result = 31 * result + Float.floatToIntBits(mTextScaleX);
+        result = 31 * result + Float.floatToIntBits(mTextSkewX);
+        result = 31 * result + mFlags;
+        result = 31 * result + Float.floatToIntBits(mLetterSpacing);
+        result = 31 * result + (mFontFeatureSettings != null ? mFontFeatureSettings.hashCode() : 0);
+        result = 31 * result + mLocale.hashCode();
+        result = 31 * result + mMaxNumber;
+        return result;
+    }
+
+    private static boolean equals(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
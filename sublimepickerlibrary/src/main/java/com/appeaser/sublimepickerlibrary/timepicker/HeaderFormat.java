@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.text.format.DateFormat;
+
+import com.appeaser.sublimepickerlibrary.common.DateTimePatternHelper;
+import com.appeaser.sublimepickerlibrary.utilities.SUtils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How the header of {@link SublimeTimePicker} shows a time for one locale
+ * in 12 or 24-hour mode. The best "hm"/"Hm" pattern is looked up once,
+ * and the header texts for every hour and minute are rendered up front,
+ * so updating the header while the clock face is dragged is a lookup.
+ * Descriptors are cached and shared by all pickers.
+ */
+final class HeaderFormat {
+
+    // See http://www.unicode.org/reports/tr35/tr35-dates.html for hour formats
+    private static final char[] HOUR_FORMATS = {'H', 'h', 'K', 'k'};
+
+    private static final Map<Locale, HeaderFormat> sFormats24Hour = new HashMap<>();
+    private static final Map<Locale, HeaderFormat> sFormats12Hour = new HashMap<>();
+
+    private final Locale mLocale;
+    private final boolean mIs24HourView;
+
+    // Indexed by hour of day
+    private final String[] mHourTexts = new String[24];
+    private final String[] mMinuteTexts = new String[60];
+    private final String mSeparator;
+    private final boolean mIsAmPmAtStart;
+
+    private HeaderFormat(Locale locale, boolean is24HourView) {
+        mLocale = locale;
+        mIs24HourView = is24HourView;
+
+        final String timePattern = getBestTimePattern(locale, is24HourView);
+
+        // Check if the pattern is single or double 'H', 'h', 'K', 'k'. We also save
+        // the hour format that we found.
+        final int lengthPattern = timePattern.length();
+        boolean hourWithTwoDigit = false;
+        char hourFormat = '\0';
+        for (int i = 0; i < lengthPattern; i++) {
+            final char c = timePattern.charAt(i);
+            if (isHourFormat(c)) {
+                hourFormat = c;
+                if (i + 1 < lengthPattern && c == timePattern.charAt(i + 1)) {
+                    hourWithTwoDigit = true;
+                }
+                break;
+            }
+        }
+
+        final String format = hourWithTwoDigit ? "%02d" : "%d";
+        for (int hour = 0; hour < mHourTexts.length; hour++) {
+            int value = hour;
+            if (is24HourView) {
+                // 'k' means 1-24 hour
+                if (hourFormat == 'k' && value == 0) {
+                    value = 24;
+                }
+            } else {
+                // 'K' means 0-11 hour
+                value = modulo12(value, hourFormat == 'K');
+            }
+            mHourTexts[hour] = String.format(locale, format, value);
+        }
+
+        for (int minute = 0; minute < mMinuteTexts.length; minute++) {
+            mMinuteTexts[minute] = String.format(locale, "%02d", minute);
+        }
+
+        // The separator is the character just after the last hour marker.
+        int hIndex = -1;
+        for (int i = lengthPattern - 1; i >= 0 && hIndex == -1; i--) {
+            if (isHourFormat(timePattern.charAt(i))) {
+                hIndex = i;
+            }
+        }
+        mSeparator = hIndex == -1 || hIndex + 1 >= lengthPattern ?
+                ":" : Character.toString(timePattern.charAt(hIndex + 1));
+
+        mIsAmPmAtStart = !is24HourView && timePattern.startsWith("a");
+    }
+
+    /**
+     * @return the shared descriptor for {@code locale} and the given mode
+     */
+    static HeaderFormat get(Locale locale, boolean is24HourView) {
+        final Map<Locale, HeaderFormat> formats = is24HourView ? sFormats24Hour : sFormats12Hour;
+        synchronized (formats) {
+            HeaderFormat format = formats.get(locale);
+            if (format == null) {
+                format = new HeaderFormat(locale, is24HourView);
+                formats.put(locale, format);
+            }
+            return format;
+        }
+    }
+
+    boolean matches(Locale locale, boolean is24HourView) {
+        return mIs24HourView == is24HourView
+                && (mLocale == locale || mLocale.equals(locale));
+    }
+
+    /**
+     * @param hourOfDay the hour, in [0, 23]
+     * @return the header text for the hour
+     */
+    String getHourText(int hourOfDay) {
+        return mHourTexts[hourOfDay];
+    }
+
+    /**
+     * @param minute the minute, in [0, 59]
+     * @return the header text for the minute, always two digits
+     */
+    String getMinuteText(int minute) {
+        return mMinuteTexts[minute];
+    }
+
+    /**
+     * The time separator is defined in the Unicode CLDR and cannot be supposed to be ":".
+     * <p/>
+     * See http://unicode.org/cldr/trac/browser/trunk/common/main
+     */
+    String getSeparator() {
+        return mSeparator;
+    }
+
+    /**
+     * @return true if AM/PM comes before the time, always false in 24-hour mode
+     */
+    boolean isAmPmAtStart() {
+        return mIsAmPmAtStart;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static String getBestTimePattern(Locale locale, boolean is24HourView) {
+        // Available on API >= 18
+        if (SUtils.isApi_18_OrHigher()) {
+            return DateFormat.getBestDateTimePattern(locale, is24HourView ? "Hm" : "hm");
+        }
+        return DateTimePatternHelper.getBestDateTimePattern(locale,
+                is24HourView ? DateTimePatternHelper.PATTERN_Hm
+                        : DateTimePatternHelper.PATTERN_hm);
+    }
+
+    private static boolean isHourFormat(char c) {
+        for (char hourFormat : HOUR_FORMATS) {
+            if (c == hourFormat) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int modulo12(int n, boolean startWithZero) {
+        int value = n % 12;
+        if (value == 0 && !startWithZero) {
+            value = 12;
+        }
+        return value;
+    }
+}
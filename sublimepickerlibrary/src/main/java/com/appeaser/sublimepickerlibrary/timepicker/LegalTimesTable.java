@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+/**
+ * Precompiled state machine deciding which keys can legally be typed in
+ * the keyboard mode of {@link SublimeTimePicker}. Keys are mapped to
+ * symbols first: digits 0-9 are their values, AM and PM are
+ * {@link #SYMBOL_AM} and {@link #SYMBOL_PM}, so the tables don't depend on
+ * the locale's AM/PM keys.
+ * <p/>
+ * There is one shared table per 12/24-hour mode. Each state is a row of
+ * {@link #SYMBOL_COUNT} entries in a flat array, holding the next state or
+ * {@link #NO_STATE}.
+ * <p/>
+ * This class does not depend on the Android framework.
+ */
+final class LegalTimesTable {
+
+    static final int SYMBOL_AM = 10;
+    static final int SYMBOL_PM = 11;
+    static final int SYMBOL_COUNT = 12;
+
+    static final int NO_STATE = -1;
+    static final int START_STATE = 0;
+
+    // 24-hour states
+    private static final int H24_ROOT = 0;
+    private static final int H24_0_1 = 1;           // 0 or 1 typed
+    private static final int H24_0_1_LOW = 2;       // then 0-5, e.g. 15
+    private static final int H24_0_1_LOW_HIGH = 3;  // then 6-9, e.g. 1:56
+    private static final int H24_0_1_HIGH = 4;      // then 6-9, e.g. 08
+    private static final int H24_2 = 5;             // 2 typed
+    private static final int H24_2_LOW = 6;         // then 0-3, e.g. 23
+    private static final int H24_2_HIGH = 7;        // then 4-5, e.g. 2:4
+    private static final int H24_3_9 = 8;           // 3-9 typed, e.g. 7
+    private static final int H24_MINUTE_FIRST = 9;  // first minute digit typed
+    private static final int H24_MINUTE_SECOND = 10; // second minute digit typed
+    private static final int H24_STATE_COUNT = 11;
+
+    // 12-hour states
+    private static final int H12_ROOT = 0;
+    private static final int H12_1 = 1;             // 1 typed
+    private static final int H12_1_LOW = 2;         // then 0-2, e.g. 12
+    private static final int H12_1_LOW_LOW = 3;     // then 0-5, e.g. 1:25 or 12:5
+    private static final int H12_1_LOW_LOW_ANY = 4; // then 0-9, e.g. 12:59
+    private static final int H12_1_LOW_HIGH = 5;    // then 6-9, e.g. 1:08
+    private static final int H12_1_HIGH = 6;        // then 3-5, e.g. 1:3
+    private static final int H12_1_HIGH_ANY = 7;    // then 0-9, e.g. 1:39
+    private static final int H12_2_9 = 8;           // 2-9 typed, e.g. 9
+    private static final int H12_2_9_LOW = 9;       // then 0-5, e.g. 9:3
+    private static final int H12_2_9_LOW_ANY = 10;  // then 0-9, e.g. 9:30
+    private static final int H12_AM_PM = 11;        // AM or PM typed
+    private static final int H12_STATE_COUNT = 12;
+
+    private static final LegalTimesTable TABLE_24_HOUR = build24Hour();
+    private static final LegalTimesTable TABLE_12_HOUR = build12Hour();
+
+    private final int[] mTransitions;
+    private final boolean[] mFinal;
+
+    private LegalTimesTable(int stateCount) {
+        mTransitions = new int[stateCount * SYMBOL_COUNT];
+        mFinal = new boolean[stateCount];
+        for (int i = 0; i < mTransitions.length; i++) {
+            mTransitions[i] = NO_STATE;
+        }
+    }
+
+    static LegalTimesTable get(boolean is24HourView) {
+        return is24HourView ? TABLE_24_HOUR : TABLE_12_HOUR;
+    }
+
+    /**
+     * @return the state reached by typing {@code symbol} in {@code state},
+     * or {@link #NO_STATE} if the symbol can't legally be typed
+     */
+    int next(int state, int symbol) {
+        return mTransitions[state * SYMBOL_COUNT + symbol];
+    }
+
+    /**
+     * @return true if no further symbol can be typed in {@code state}
+     */
+    boolean isFinal(int state) {
+        return mFinal[state];
+    }
+
+    private void add(int from, int firstSymbol, int lastSymbol, int to) {
+        for (int symbol = firstSymbol; symbol <= lastSymbol; symbol++) {
+            mTransitions[from * SYMBOL_COUNT + symbol] = to;
+        }
+    }
+
+    private void addAmPm(int from, int to) {
+        add(from, SYMBOL_AM, SYMBOL_PM, to);
+    }
+
+    private LegalTimesTable markFinalStates() {
+        for (int state = 0; state < mFinal.length; state++) {
+            boolean isFinal = true;
+            for (int symbol = 0; symbol < SYMBOL_COUNT && isFinal; symbol++) {
+                isFinal = next(state, symbol) == NO_STATE;
+            }
+            mFinal[state] = isFinal;
+        }
+        return this;
+    }
+
+    private static LegalTimesTable build24Hour() {
+        final LegalTimesTable table = new LegalTimesTable(H24_STATE_COUNT);
+
+        // The first digit may be 0-1, 2 or 3-9.
+        table.add(H24_ROOT, 0, 1, H24_0_1);
+        table.add(H24_ROOT, 2, 2, H24_2);
+        table.add(H24_ROOT, 3, 9, H24_3_9);
+
+        // When the first digit is 0-1, the second digit may be 0-9.
+        table.add(H24_0_1, 0, 5, H24_0_1_LOW);
+        table.add(H24_0_1, 6, 9, H24_0_1_HIGH);
+
+        // After 00-15 we may be followed by the first minute digit, e.g. 00:09, 15:58.
+        // Or the time is finished with 6-9, e.g. 0:55, 1:08.
+        table.add(H24_0_1_LOW, 0, 5, H24_MINUTE_FIRST);
+        table.add(H24_0_1_LOW, 6, 9, H24_0_1_LOW_HIGH);
+
+        // After 06-19 we must be followed by the first minute digit, e.g. 06:50, 18:20.
+        table.add(H24_0_1_HIGH, 0, 5, H24_MINUTE_FIRST);
+
+        // When the first digit is 2, the second digit may be 0-5.
+        table.add(H24_2, 0, 3, H24_2_LOW);
+        table.add(H24_2, 4, 5, H24_2_HIGH);
+
+        // After 20-23 we must be followed by the first minute digit, e.g. 20:50, 23:09.
+        table.add(H24_2_LOW, 0, 5, H24_MINUTE_FIRST);
+
+        // After 2:4-2:5 we must be followed by the last minute digit, e.g. 2:40, 2:53.
+        table.add(H24_2_HIGH, 0, 9, H24_MINUTE_SECOND);
+
+        // After 3-9 we must be followed by the first minute digit, e.g. 3:57, 8:12.
+        table.add(H24_3_9, 0, 5, H24_MINUTE_FIRST);
+
+        // The first minute digit must be followed by the second one.
+        table.add(H24_MINUTE_FIRST, 0, 9, H24_MINUTE_SECOND);
+
+        return table.markFinalStates();
+    }
+
+    private static LegalTimesTable build12Hour() {
+        final LegalTimesTable table = new LegalTimesTable(H12_STATE_COUNT);
+
+        // The first hour digit may be 1 or 2-9.
+        table.add(H12_ROOT, 1, 1, H12_1);
+        table.add(H12_ROOT, 2, 9, H12_2_9);
+
+        // Quick input of on-the-hour times, e.g. 1pm.
+        table.addAmPm(H12_1, H12_AM_PM);
+        // When the first digit is 1, the second digit may be 0-5.
+        table.add(H12_1, 0, 2, H12_1_LOW);
+        table.add(H12_1, 3, 5, H12_1_HIGH);
+
+        // Also for quick input of on-the-hour times, e.g. 10pm, 12am.
+        table.addAmPm(H12_1_LOW, H12_AM_PM);
+        table.add(H12_1_LOW, 0, 5, H12_1_LOW_LOW);
+        table.add(H12_1_LOW, 6, 9, H12_1_LOW_HIGH);
+
+        // The time may be finished now, e.g. 1:02pm, 1:25am.
+        table.addAmPm(H12_1_LOW_LOW, H12_AM_PM);
+        table.add(H12_1_LOW_LOW, 0, 9, H12_1_LOW_LOW_ANY);
+
+        // The time must be finished now, e.g. 10:49am, 12:40pm.
+        table.addAmPm(H12_1_LOW_LOW_ANY, H12_AM_PM);
+
+        // The time must be finished now, e.g. 1:08am, 1:26pm.
+        table.addAmPm(H12_1_LOW_HIGH, H12_AM_PM);
+
+        // When the first digit is 1 and the second 3-5, the third digit may be 0-9.
+        table.add(H12_1_HIGH, 0, 9, H12_1_HIGH_ANY);
+        // The time must be finished now, e.g. 1:39am, 1:50pm.
+        table.addAmPm(H12_1_HIGH_ANY, H12_AM_PM);
+
+        // Quick input of on-the-hour-times, e.g. 2am, 5pm.
+        table.addAmPm(H12_2_9, H12_AM_PM);
+        // When the first digit is 2-9, the second digit may be 0-5.
+        table.add(H12_2_9, 0, 5, H12_2_9_LOW);
+        // And then the third digit may be 0-9.
+        table.add(H12_2_9_LOW, 0, 9, H12_2_9_LOW_ANY);
+        // The time must be finished now, e.g. 2:57am, 9:30pm.
+        table.addAmPm(H12_2_9_LOW_ANY, H12_AM_PM);
+
+        return table.markFinalStates();
+    }
+}
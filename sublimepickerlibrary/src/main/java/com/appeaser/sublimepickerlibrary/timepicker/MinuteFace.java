@@ -0,0 +1,231 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+/**
+ * Immutable description of the minutes face of {@link RadialTimePickerView}
+ * for one minute granularity: which minutes are labeled, where the labels
+ * sit on the unit circle, and how touched degrees snap to selectable minutes.
+ * Faces are built lazily and shared by all views.
+ * <p/>
+ * Supported granularities are 1 and the divisors of 60 that are multiples
+ * of 5. With a granularity of 1, labels are every 5 minutes and the labeled
+ * minutes get larger touch areas. Otherwise every selectable minute is
+ * labeled and touches snap to the nearest one.
+ * <p/>
+ * This class does not depend on the Android framework.
+ */
+final class MinuteFace {
+
+    static final int DEFAULT_GRANULARITY = 1;
+
+    private static final int MINUTES_IN_HOUR = 60;
+    private static final int DEGREES_FOR_ONE_MINUTE = 360 / MINUTES_IN_HOUR;
+    private static final int MIN_LABEL_STEP = 5;
+
+    // Indexed by granularity
+    private static final MinuteFace[] sFaces = new MinuteFace[MINUTES_IN_HOUR + 1];
+
+    private final int mGranularity;
+    private final int mLabelStep;
+    private final int mLabelCount;
+
+    // Selectable degrees for every touched degree in [0, 360]
+    private final int[] mSnapDegrees = new int[361];
+
+    // Unit circle positions of the labels, starting at 12 o'clock and
+    // going clockwise. Labels sit at (center - r * cos, center - r * sin).
+    private final float[] mCos;
+    private final float[] mSin;
+
+    private MinuteFace(int granularity) {
+        mGranularity = granularity;
+        mLabelStep = Math.max(granularity, MIN_LABEL_STEP);
+        mLabelCount = MINUTES_IN_HOUR / mLabelStep;
+
+        if (granularity == 1) {
+            preparePrefer30sMap(mSnapDegrees);
+        } else {
+            prepareNearestStepMap(mSnapDegrees, granularity * DEGREES_FOR_ONE_MINUTE);
+        }
+
+        mCos = new float[mLabelCount];
+        mSin = new float[mLabelCount];
+
+        final double increment = 2.0 * Math.PI / mLabelCount;
+        double angle = Math.PI / 2.0;
+        for (int i = 0; i < mLabelCount; i++) {
+            mCos[i] = (float) Math.cos(angle);
+            mSin[i] = (float) Math.sin(angle);
+            angle += increment;
+        }
+    }
+
+    /**
+     * @param granularity the minute step, see {@link #isValidGranularity(int)}
+     * @return the shared face for {@code granularity}
+     */
+    static MinuteFace get(int granularity) {
+        if (!isValidGranularity(granularity)) {
+            throw new IllegalArgumentException("Invalid minute granularity: " + granularity);
+        }
+
+        synchronized (sFaces) {
+            MinuteFace face = sFaces[granularity];
+            if (face == null) {
+                face = new MinuteFace(granularity);
+                sFaces[granularity] = face;
+            }
+            return face;
+        }
+    }
+
+    /**
+     * @return true if {@code granularity} is 1, or a divisor of 60 that
+     * is a multiple of 5
+     */
+    static boolean isValidGranularity(int granularity) {
+        return granularity == 1 || (granularity >= MIN_LABEL_STEP
+                && granularity <= MINUTES_IN_HOUR / 2
+                && granularity % MIN_LABEL_STEP == 0
+                && MINUTES_IN_HOUR % granularity == 0);
+    }
+
+    int getGranularity() {
+        return mGranularity;
+    }
+
+    /**
+     * @return the number of minutes between labels
+     */
+    int getLabelStep() {
+        return mLabelStep;
+    }
+
+    int getLabelCount() {
+        return mLabelCount;
+    }
+
+    /**
+     * @return the minute shown by label {@code index}
+     */
+    int getLabelMinute(int index) {
+        return index * mLabelStep;
+    }
+
+    /**
+     * The returned tables are shared and must not be modified.
+     */
+    float[] getCos() {
+        return mCos;
+    }
+
+    float[] getSin() {
+        return mSin;
+    }
+
+    /**
+     * @param degrees touched degrees, in [0, 360]
+     * @return selectable degrees, in [0, 360]
+     */
+    int snapDegrees(int degrees) {
+        return mSnapDegrees[degrees];
+    }
+
+    /**
+     * @param degrees touched degrees, in [0, 360]
+     * @return degrees of the closest label, in [0, 360]
+     */
+    int snapToLabelDegrees(int degrees) {
+        final int step = mLabelStep * DEGREES_FOR_ONE_MINUTE;
+        final int floor = (degrees / step) * step;
+        final int ceiling = floor + step;
+        return (degrees - floor) < (ceiling - degrees) ? floor : ceiling;
+    }
+
+    /**
+     * @return {@code minute} rounded down to a selectable minute
+     */
+    int floorMinute(int minute) {
+        return minute - (minute % mGranularity);
+    }
+
+    /**
+     * Snaps to the closest multiple of {@code step}; halfway degrees go
+     * to the higher step.
+     */
+    private static void prepareNearestStepMap(int[] map, int step) {
+        for (int degrees = 0; degrees < map.length; degrees++) {
+            final int floor = (degrees / step) * step;
+            final int ceiling = floor + step;
+            map[degrees] = (degrees - floor) < (ceiling - degrees) ? floor : ceiling;
+        }
+    }
+
+    /**
+     * Split up the 360 degrees of the circle among the 60 selectable values. Assigns a larger
+     * selectable area to each of the 12 visible values, such that the ratio of space apportioned
+     * to a visible value : space apportioned to a non-visible value will be 14 : 4.
+     * E.g. the output of 30 degrees should have a higher range of input associated with it than
+     * the output of 24 degrees, because 30 degrees corresponds to a visible number on the clock
+     * circle (5 on the minutes, 1 or 13 on the hours).
+     */
+    private static void preparePrefer30sMap(int[] map) {
+        // We'll split up the visible output and the non-visible output such that each visible
+        // output will correspond to a range of 14 associated input degrees, and each non-visible
+        // output will correspond to a range of 4 associate input degrees, so visible numbers
+        // are more than 3 times easier to get than non-visible numbers:
+        // {354-359,0-7}:0, {8-11}:6, {12-15}:12, {16-19}:18, {20-23}:24, {24-37}:30, etc.
+        //
+        // If an output of 30 degrees should correspond to a range of 14 associated degrees, then
+        // we'll need any input between 24 - 37 to snap to 30. Working out from there, 20-23 should
+        // snap to 24, while 38-41 should snap to 36. This is somewhat counter-intuitive, that you
+        // can be touching 36 degrees but have the selection snapped to 30 degrees; however, this
+        // inconsistency isn't noticeable at such fine-grained degrees, and it affords us the
+        // ability to aggressively prefer the visible values by a factor of more than 3:1, which
+        // greatly contributes to the selectability of these values.
+
+        // The first output is 0, and each following output will increment by 6 {0, 6, 12, ...}.
+        int snappedOutputDegrees = 0;
+        // Count of how many inputs we've designated to the specified output.
+        int count = 1;
+        // How many input we expect for a specified output. This will be 14 for output divisible
+        // by 30, and 4 for the remaining output. We'll special case the outputs of 0 and 360, so
+        // the caller can decide which they need.
+        int expectedCount = 8;
+        // Iterate through the input.
+        for (int degrees = 0; degrees < map.length; degrees++) {
+            // Save the input-output mapping.
+            map[degrees] = snappedOutputDegrees;
+            // If this is the last input for the specified output, calculate the next output and
+            // the next expected count.
+            if (count == expectedCount) {
+                snappedOutputDegrees += 6;
+                if (snappedOutputDegrees == 360) {
+                    expectedCount = 7;
+                } else if (snappedOutputDegrees % 30 == 0) {
+                    expectedCount = 14;
+                } else {
+                    expectedCount = 4;
+                }
+                count = 1;
+            } else {
+                count++;
+            }
+        }
+    }
+}
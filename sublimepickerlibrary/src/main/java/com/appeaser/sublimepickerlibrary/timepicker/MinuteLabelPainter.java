@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+
+import com.appeaser.sublimepickerlibrary.utilities.SUtils;
+import com.appeaser.sublimepickerlibrary.utilities.StateColorTable;
+
+/**
+ * Draws the minute labels of {@link RadialTimePickerView}, each one once.
+ * Labels that may reach into the selector circle are drawn with a shader
+ * that switches from the activated color (or nothing, for labels that
+ * aren't activated) to the normal color at the edge of the selector. This
+ * replaces drawing all labels twice under a DIFFERENCE and an INTERSECT
+ * clip path.
+ */
+final class MinuteLabelPainter {
+
+    // Shaders used to color labels that lie under the selector: 0 for
+    // enabled labels, 1 for enabled and activated ones, 2 for labels of
+    // blocked minutes and 3 for blocked and activated ones.
+    private final Shader[] mShaders = new Shader[4];
+    private final int[][] mShaderColors = new int[4][2];
+    private final Matrix mShaderMatrix = new Matrix();
+    private int mShaderRadius;
+
+    /**
+     * Draws labels {@code 0} to {@code count - 1}. The text size and
+     * typeface of {@code paint} must already be set.
+     *
+     * @param enabled        whether the minute of each label can be selected
+     * @param activatedFloor the first label the selector activates
+     * @param activatedCeil  the last label the selector activates
+     */
+    void draw(Canvas canvas, Paint paint, StateColorTable textColor, int alpha,
+              String[] texts, float[] textX, float[] textY, boolean[] enabled, int count,
+              int activatedFloor, int activatedCeil,
+              float selectorX, float selectorY, int selectorRadius) {
+        textColor.setAlpha(alpha);
+
+        // Labels whose center is farther than this from the selector center
+        // cannot overlap it.
+        final float textCenterOffset = (paint.descent() + paint.ascent()) / 2;
+        final float reach = selectorRadius + paint.getTextSize();
+        final float reachSquared = reach * reach;
+
+        mShaderMatrix.setTranslate(selectorX, selectorY);
+
+        for (int i = 0; i < count; i++) {
+            final float dX = textX[i] - selectorX;
+            final float dY = textY[i] + textCenterOffset - selectorY;
+            final int enabledMask = enabled[i] ? SUtils.STATE_ENABLED : 0;
+
+            if (dX * dX + dY * dY < reachSquared) {
+                final boolean activated = (activatedFloor == i || activatedCeil == i);
+                final int color = textColor.getColor(enabledMask);
+                final int shaderIndex = enabled[i] ? 0 : 2;
+                final Shader shader = activated
+                        ? getShader(shaderIndex + 1, selectorRadius,
+                        textColor.getColor(enabledMask | SUtils.STATE_ACTIVATED), color)
+                        : getShader(shaderIndex, selectorRadius, Color.TRANSPARENT, color);
+                shader.setLocalMatrix(mShaderMatrix);
+                paint.setShader(shader);
+                paint.setColor(Color.BLACK);
+                paint.setAlpha(alpha);
+            } else {
+                paint.setShader(null);
+                paint.setColor(textColor.getColorWithAlpha(enabledMask));
+            }
+
+            canvas.drawText(texts[i], textX[i], textY[i], paint);
+        }
+
+        paint.setShader(null);
+    }
+
+    /**
+     * Returns a shader centered on the origin that yields {@code insideColor}
+     * within {@code radius} and {@code outsideColor} beyond it. Shaders are
+     * cached and only moved into place through their local matrix.
+     */
+    private Shader getShader(int index, int radius, int insideColor, int outsideColor) {
+        if (radius != mShaderRadius) {
+            mShaderRadius = radius;
+            for (int i = 0; i < mShaders.length; i++) {
+                mShaders[i] = null;
+            }
+        }
+
+        final int[] colors = mShaderColors[index];
+        if (mShaders[index] == null || colors[0] != insideColor || colors[1] != outsideColor) {
+            colors[0] = insideColor;
+            colors[1] = outsideColor;
+
+            // Hard stop at half the gradient radius, so that the edge lands
+            // on the selector radius and CLAMP extends the outside color.
+            mShaders[index] = new RadialGradient(0, 0, radius * 2,
+                    new int[]{insideColor, insideColor, outsideColor, outsideColor},
+                    new float[]{0f, 0.5f, 0.5f, 1f}, Shader.TileMode.CLAMP);
+        }
+        return mShaders[index];
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+/**
+ * Integer-only resolution of the angle of a point around the center of
+ * {@link RadialTimePickerView}. Angles are whole degrees, measured clockwise
+ * from 12 o'clock.
+ * <p/>
+ * Each offset is reduced to an octant, where the angle is found by
+ * comparing the slope against a fixed-point table of tan((d + 0.5)&deg;).
+ * For whole-pixel offsets this yields the same degrees as
+ * {@code (int) (Math.toDegrees(Math.atan2(dY, dX) + Math.PI / 2) + 0.5)},
+ * including the truncation that expression applies to negative angles
+ * (between 9 and 12 o'clock), wrapped into [0, 360).
+ * <p/>
+ * This class does not depend on the Android framework.
+ */
+final class RadialAngles {
+
+    private static final int FRACTION_BITS = 30;
+
+    // TAN_HALF_DEGREES[d] = tan((d + 0.5) degrees) << FRACTION_BITS, for d in [0, 44]
+    private static final long[] TAN_HALF_DEGREES = new long[45];
+
+    static {
+        for (int d = 0; d < TAN_HALF_DEGREES.length; d++) {
+            TAN_HALF_DEGREES[d] = Math.round(
+                    Math.tan(Math.toRadians(d + 0.5)) * (1L << FRACTION_BITS));
+        }
+    }
+
+    private RadialAngles() {
+        // Static helpers only
+    }
+
+    /**
+     * @param dX horizontal offset from the center, in pixels
+     * @param dY vertical offset from the center, in pixels (downwards)
+     * @return the angle of the offset in whole degrees, in [0, 360)
+     */
+    static int getDegrees(int dX, int dY) {
+        if (dY < 0) {
+            if (dX >= 0) {
+                // 12 to 3 o'clock
+                return roundedAtan(dX, -dY);
+            }
+
+            // 9 to 12 o'clock: the reference expression is negative here
+            // and truncated towards zero instead of rounded.
+            final int degrees = roundedAtan(-dX, -dY) - 1;
+            return degrees > 0 ? 360 - degrees : 0;
+        } else if (dX > 0) {
+            // 3 to 6 o'clock
+            return 90 + roundedAtan(dY, dX);
+        } else if (dY > 0) {
+            // 6 to 9 o'clock
+            return 180 + roundedAtan(-dX, dY);
+        } else if (dX < 0) {
+            // Exactly 9 o'clock
+            return 270;
+        }
+
+        // The center itself; atan2(0, 0) is 0.
+        return 90;
+    }
+
+    /**
+     * @return atan(opposite / adjacent) rounded to whole degrees, in [0, 90]
+     */
+    private static int roundedAtan(int opposite, int adjacent) {
+        if (opposite > adjacent) {
+            return 90 - roundedAtanInOctant(adjacent, opposite);
+        }
+        return roundedAtanInOctant(opposite, adjacent);
+    }
+
+    /**
+     * @return atan(opposite / adjacent) rounded to whole degrees, for
+     * {@code 0 <= opposite <= adjacent}, in [0, 45]
+     */
+    private static int roundedAtanInOctant(int opposite, int adjacent) {
+        // Count the half-degree boundaries below the slope.
+        final long scaledOpposite = (long) opposite << FRACTION_BITS;
+        int low = 0;
+        int high = TAN_HALF_DEGREES.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (TAN_HALF_DEGREES[mid] * adjacent <= scaledOpposite) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the squared distance of the offset from the center
+     */
+    static long getDistanceSquared(int dX, int dY) {
+        return (long) dX * dX + (long) dY * dY;
+    }
+}
@@ -17,11 +17,7 @@
 
 package com.appeaser.sublimepickerlibrary.timepicker;
 
-import android.animation.Animator;
-import android.animation.AnimatorSet;
-import android.animation.Keyframe;
-import android.animation.ObjectAnimator;
-import android.animation.PropertyValuesHolder;
+import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
@@ -31,9 +27,7 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.Rect;
-import android.graphics.Region;
 import android.graphics.Typeface;
 import android.os.Build;
 import android.os.Bundle;
@@ -48,11 +42,13 @@ import android.view.MotionEvent;
 import android.view.View;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.animation.AccelerateDecelerateInterpolator;
 
 import com.appeaser.sublimepickerlibrary.R;
+import com.appeaser.sublimepickerlibrary.utilities.PropertyAnimation;
 import com.appeaser.sublimepickerlibrary.utilities.SUtils;
+import com.appeaser.sublimepickerlibrary.utilities.StateColorTable;
 
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
@@ -87,21 +83,19 @@ public class RadialTimePickerView extends View {
 
     private static final int[] HOURS_NUMBERS = {12, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
     private static final int[] HOURS_NUMBERS_24 = {0, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23};
-    private static final int[] MINUTES_NUMBERS = {0, 5, 10, 15, 20, 25, 30, 35, 40, 45, 50, 55};
 
     private static final int FADE_OUT_DURATION = 500;
     private static final int FADE_IN_DURATION = 500;
 
-    private static final int[] SNAP_PREFER_30S_MAP = new int[361];
+    // The interpolator ObjectAnimator uses by default
+    private static final TimeInterpolator FADE_INTERPOLATOR =
+            new AccelerateDecelerateInterpolator();
 
     private static final int NUM_POSITIONS = 12;
     private static final float[] COS_30 = new float[NUM_POSITIONS];
     private static final float[] SIN_30 = new float[NUM_POSITIONS];
 
     static {
-        // Prepare mapping to snap touchable degrees to selectable degrees.
-        preparePrefer30sMap();
-
         final double increment = 2.0 * Math.PI / NUM_POSITIONS;
         double angle = Math.PI / 2.0;
         for (int i = 0; i < NUM_POSITIONS; i++) {
@@ -117,7 +111,7 @@ public class RadialTimePickerView extends View {
     private final String[] mHours12Texts = new String[12];
     private final String[] mOuterHours24Texts = new String[12];
     private final String[] mInnerHours24Texts = new String[12];
-    private final String[] mMinutesTexts = new String[12];
+    private String[] mMinutesTexts;
 
     private final Paint[] mPaint = new Paint[2];
     private final IntHolder[] mAlpha = new IntHolder[2];
@@ -133,28 +127,43 @@ public class RadialTimePickerView extends View {
 
     private Typeface mTypeface;
 
-    private final ColorStateList[] mTextColor = new ColorStateList[3];
+    private final StateColorTable[] mTextColor = new StateColorTable[3];
     private final int[] mTextSize = new int[3];
     private final int[] mTextInset = new int[3];
 
-    private final float[][] mOuterTextX = new float[2][12];
-    private final float[][] mOuterTextY = new float[2][12];
+    // Minute positions are sized by the minute face.
+    private final float[][] mOuterTextX = new float[2][];
+    private final float[][] mOuterTextY = new float[2][];
 
     private final float[] mInnerTextX = new float[12];
     private final float[] mInnerTextY = new float[12];
 
     private final int[] mSelectionDegrees = new int[2];
 
-    private final ArrayList<Animator> mHoursToMinutesAnims = new ArrayList<>();
-    private final ArrayList<Animator> mMinuteToHoursAnims = new ArrayList<>();
+    // Built once, see createFadeTransition()
+    private PropertyAnimation mHoursToMinutesTransition;
+    private PropertyAnimation mMinutesToHoursTransition;
 
     private RadialPickerTouchHelper mTouchHelper;
 
-    private final Path mSelectorPath = new Path();
+    // Center of the minute selector circle, as last drawn.
+    private float mMinuteSelectorX;
+    private float mMinuteSelectorY;
+
+    private final MinuteLabelPainter mMinuteLabelPainter = new MinuteLabelPainter();
+
+    // Whether each minute label can be selected in the current hour
+    private final boolean[] mMinuteLabelEnabled = new boolean[12];
 
     private boolean mIs24HourMode;
     private boolean mShowHours;
 
+    // Labels and snapping for the current minute granularity
+    private MinuteFace mMinuteFace;
+
+    // Minutes that can be selected, or null if all of them can
+    private TimeAvailability mAvailability;
+
     /**
      * When in 24-hour mode, indicates that the current hour is between
      * 1 and 12 (inclusive).
@@ -177,7 +186,7 @@ public class RadialTimePickerView extends View {
     private String[] mOuterTextHours;
     private String[] mInnerTextHours;
     private String[] mMinutesText;
-    private AnimatorSet mTransition;
+    private PropertyAnimation mTransition;
 
     private int mAmOrPm;
 
@@ -191,73 +200,6 @@ public class RadialTimePickerView extends View {
         void onValueSelected(int pickerIndex, int newValue, boolean autoAdvance);
     }
 
-    /**
-     * Split up the 360 degrees of the circle among the 60 selectable values. Assigns a larger
-     * selectable area to each of the 12 visible values, such that the ratio of space apportioned
-     * to a visible value : space apportioned to a non-visible value will be 14 : 4.
-     * E.g. the output of 30 degrees should have a higher range of input associated with it than
-     * the output of 24 degrees, because 30 degrees corresponds to a visible number on the clock
-     * circle (5 on the minutes, 1 or 13 on the hours).
-     */
-    private static void preparePrefer30sMap() {
-        // We'll split up the visible output and the non-visible output such that each visible
-        // output will correspond to a range of 14 associated input degrees, and each non-visible
-        // output will correspond to a range of 4 associate input degrees, so visible numbers
-        // are more than 3 times easier to get than non-visible numbers:
-        // {354-359,0-7}:0, {8-11}:6, {12-15}:12, {16-19}:18, {20-23}:24, {24-37}:30, etc.
-        //
-        // If an output of 30 degrees should correspond to a range of 14 associated degrees, then
-        // we'll need any input between 24 - 37 to snap to 30. Working out from there, 20-23 should
-        // snap to 24, while 38-41 should snap to 36. This is somewhat counter-intuitive, that you
-        // can be touching 36 degrees but have the selection snapped to 30 degrees; however, this
-        // inconsistency isn't noticeable at such fine-grained degrees, and it affords us the
-        // ability to aggressively prefer the visible values by a factor of more than 3:1, which
-        // greatly contributes to the selectability of these values.
-
-        // The first output is 0, and each following output will increment by 6 {0, 6, 12, ...}.
-        int snappedOutputDegrees = 0;
-        // Count of how many inputs we've designated to the specified output.
-        int count = 1;
-        // How many input we expect for a specified output. This will be 14 for output divisible
-        // by 30, and 4 for the remaining output. We'll special case the outputs of 0 and 360, so
-        // the caller can decide which they need.
-        int expectedCount = 8;
-        // Iterate through the input.
-        for (int degrees = 0; degrees < 361; degrees++) {
-            // Save the input-output mapping.
-            SNAP_PREFER_30S_MAP[degrees] = snappedOutputDegrees;
-            // If this is the last input for the specified output, calculate the next output and
-            // the next expected count.
-            if (count == expectedCount) {
-                snappedOutputDegrees += 6;
-                if (snappedOutputDegrees == 360) {
-                    expectedCount = 7;
-                } else if (snappedOutputDegrees % 30 == 0) {
-                    expectedCount = 14;
-                } else {
-                    expectedCount = 4;
-                }
-                count = 1;
-            } else {
-                count++;
-            }
-        }
-    }
-
-    /**
-     * Returns mapping of any input degrees (0 to 360) to one of 60 selectable output degrees,
-     * where the degrees corresponding to visible numbers (i.e. those divisible by 30) will be
-     * weighted heavier than the degrees corresponding to non-visible numbers.
-     * See {@link #preparePrefer30sMap()} documentation for the rationale and generation of the
-     * mapping.
-     */
-    private static int snapPrefer30s(int degrees) {
-        if (SNAP_PREFER_30S_MAP == null) {
-            return -1;
-        }
-        return SNAP_PREFER_30S_MAP[degrees];
-    }
-
     /**
      * Returns mapping of any input degrees (0 to 360) to one of 12 visible output degrees (all
      * multiples of 30), where the input will be "snapped" to the closest visible degrees.
@@ -329,9 +271,16 @@ public class RadialTimePickerView extends View {
             mAlpha[i] = new IntHolder(ALPHA_OPAQUE);
         }
 
-        mTextColor[HOURS] = a.getColorStateList(R.styleable.RadialTimePickerView_spNumbersTextColor);
-        mTextColor[HOURS_INNER] = a.getColorStateList(R.styleable.RadialTimePickerView_spNumbersInnerTextColor);
-        mTextColor[MINUTES] = mTextColor[HOURS];
+        mHoursToMinutesTransition = createFadeTransition(mAlpha[HOURS], mAlpha[MINUTES]);
+        mMinutesToHoursTransition = createFadeTransition(mAlpha[MINUTES], mAlpha[HOURS]);
+
+        // Hours and minutes share colors, but fade independently.
+        final ColorStateList numbersTextColor =
+                a.getColorStateList(R.styleable.RadialTimePickerView_spNumbersTextColor);
+        mTextColor[HOURS] = new StateColorTable(numbersTextColor);
+        mTextColor[HOURS_INNER] = new StateColorTable(
+                a.getColorStateList(R.styleable.RadialTimePickerView_spNumbersInnerTextColor));
+        mTextColor[MINUTES] = new StateColorTable(numbersTextColor);
 
         mPaint[HOURS] = new Paint();
         mPaint[HOURS].setAntiAlias(true);
@@ -353,10 +302,8 @@ public class RadialTimePickerView extends View {
         mPaintCenter.setColor(selectorActivatedColor);
         mPaintCenter.setAntiAlias(true);
 
-        final int[] activatedStateSet = SUtils.resolveStateSet(SUtils.STATE_ENABLED | SUtils.STATE_ACTIVATED);
-
         mSelectorColor = selectorActivatedColor;
-        mSelectorDotColor = mTextColor[HOURS].getColorForState(activatedStateSet, 0);
+        mSelectorDotColor = mTextColor[HOURS].getColor(SUtils.STATE_ENABLED | SUtils.STATE_ACTIVATED);
 
         mPaintSelector[HOURS][SELECTOR_CIRCLE] = new Paint();
         mPaintSelector[HOURS][SELECTOR_CIRCLE].setAntiAlias(true);
@@ -399,6 +346,10 @@ public class RadialTimePickerView extends View {
         mIs24HourMode = false;
         mAmOrPm = AM;
 
+        mOuterTextX[HOURS] = new float[NUM_POSITIONS];
+        mOuterTextY[HOURS] = new float[NUM_POSITIONS];
+        mMinuteFace = MinuteFace.get(MinuteFace.DEFAULT_GRANULARITY);
+
         // Set up accessibility components.
         mTouchHelper = new RadialPickerTouchHelper();
         ViewCompat.setAccessibilityDelegate(this, mTouchHelper);
@@ -427,6 +378,8 @@ public class RadialTimePickerView extends View {
         if (mIs24HourMode != is24HourMode) {
             mIs24HourMode = is24HourMode;
             initData();
+            mTouchHelper.invalidateBounds();
+            mTouchHelper.invalidateRoot();
         }
 
         setCurrentHourInternal(hour, false, false);
@@ -472,18 +425,26 @@ public class RadialTimePickerView extends View {
      *                    selection mode, e.g. hour to minutes
      */
     private void setCurrentHourInternal(int hour, boolean callback, boolean autoAdvance) {
+        final int oldHour = getCurrentHour();
         final int degrees = (hour % 12) * DEGREES_FOR_ONE_HOUR;
         mSelectionDegrees[HOURS] = degrees;
 
         // 0 is 12 AM (midnight) and 12 is 12 PM (noon).
         final int amOrPm = (hour == 0 || (hour % 24) < 12) ? AM : PM;
         final boolean isOnInnerCircle = getInnerCircleForHour(hour);
-        if (mAmOrPm != amOrPm || mIsOnInnerCircle != isOnInnerCircle) {
+        final boolean amOrPmChanged = mAmOrPm != amOrPm;
+        if (amOrPmChanged || mIsOnInnerCircle != isOnInnerCircle) {
             mAmOrPm = amOrPm;
             mIsOnInnerCircle = isOnInnerCircle;
 
             initData();
+        }
+
+        if (amOrPmChanged && !mIs24HourMode && mAvailability != null) {
+            // Which 12-hour values are enabled depends on AM/PM.
             mTouchHelper.invalidateRoot();
+        } else {
+            mTouchHelper.invalidateHours(oldHour, getCurrentHour());
         }
 
         invalidate();
@@ -547,8 +508,11 @@ public class RadialTimePickerView extends View {
     }
 
     private void setCurrentMinuteInternal(int minute, boolean callback) {
-        mSelectionDegrees[MINUTES] = (minute % MINUTES_IN_CIRCLE) * DEGREES_FOR_ONE_MINUTE;
+        final int oldMinute = getCurrentMinute();
+        minute = mMinuteFace.floorMinute(minute % MINUTES_IN_CIRCLE);
+        mSelectionDegrees[MINUTES] = minute * DEGREES_FOR_ONE_MINUTE;
 
+        mTouchHelper.invalidateMinutes(oldMinute, minute);
         invalidate();
 
         if (callback && mListener != null) {
@@ -569,10 +533,110 @@ public class RadialTimePickerView extends View {
         return minute * DEGREES_FOR_ONE_MINUTE;
     }
 
+    /**
+     * Sets the step between selectable minutes. Supported values are 1 and
+     * the divisors of 60 that are multiples of 5, e.g. 5, 10, 15 or 30.
+     * The current minute is rounded down to the new step.
+     *
+     * @param granularity the step between selectable minutes
+     */
+    public void setMinuteGranularity(int granularity) {
+        if (mMinuteFace.getGranularity() == granularity) {
+            return;
+        }
+
+        mMinuteFace = MinuteFace.get(granularity);
+        initMinutesText();
+        calculatePositionsMinutes();
+        setCurrentMinuteInternal(getCurrentMinute(), false);
+        mTouchHelper.invalidateRoot();
+    }
+
+    public int getMinuteGranularity() {
+        return mMinuteFace.getGranularity();
+    }
+
+    /**
+     * Sets which minutes of the day can be selected. Labels of blocked
+     * values are drawn disabled and touches move to the closest available
+     * value. The current time is left as it is.
+     *
+     * @param availability the available minutes, or null if all minutes
+     *                     are available
+     */
+    public void setTimeAvailability(TimeAvailability availability) {
+        mAvailability = availability;
+        invalidate();
+        mTouchHelper.invalidateRoot();
+    }
+
+    public TimeAvailability getTimeAvailability() {
+        return mAvailability;
+    }
+
+    /**
+     * @return true if {@code hourOfDay} has a selectable minute that is available
+     */
+    private boolean isHourAvailable(int hourOfDay) {
+        return mAvailability == null
+                || mAvailability.isHourAvailable(hourOfDay, mMinuteFace.getGranularity());
+    }
+
+    private boolean isMinuteAvailable(int hourOfDay, int minute) {
+        return mAvailability == null || mAvailability.isAvailable(hourOfDay, minute);
+    }
+
+    /**
+     * @return degrees of the available hour on the given circle that is
+     * closest to {@code degrees}, or -1 if there is none
+     */
+    private int findAvailableHourDegrees(int degrees, boolean innerCircle) {
+        for (int offset = 0; offset <= 180; offset += DEGREES_FOR_ONE_HOUR) {
+            final int later = (degrees + offset) % 360;
+            if (isHourAvailable(getHourForDegrees(later, innerCircle))) {
+                return later;
+            }
+
+            final int earlier = (degrees - offset + 360) % 360;
+            if (isHourAvailable(getHourForDegrees(earlier, innerCircle))) {
+                return earlier;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the available minute of {@code hourOfDay} that is closest
+     * to {@code minute}, or -1 if there is none
+     */
+    private int findAvailableMinute(int hourOfDay, int minute) {
+        return mAvailability == null ? minute : mAvailability.findNearestAvailableMinute(
+                hourOfDay, minute, mMinuteFace.getGranularity());
+    }
+
+    /**
+     * Moves the current minute to the closest available one after the
+     * hour has been changed by the user.
+     */
+    private void moveMinuteToAvailable() {
+        final int minute = getCurrentMinute();
+        final int availableMinute = findAvailableMinute(getCurrentHour(), minute);
+        if (availableMinute != -1 && availableMinute != minute) {
+            setCurrentMinuteInternal(availableMinute, true);
+        }
+    }
+
     public void setAmOrPm(int val) {
+        final int oldHour = getCurrentHour();
         mAmOrPm = (val % 2);
         invalidate();
-        mTouchHelper.invalidateRoot();
+
+        if (!mIs24HourMode && mAvailability != null) {
+            // Which 12-hour values are enabled depends on AM/PM.
+            mTouchHelper.invalidateRoot();
+        } else {
+            mTouchHelper.invalidateHours(oldHour, getCurrentHour());
+        }
     }
 
     public int getAmOrPm() {
@@ -617,8 +681,23 @@ public class RadialTimePickerView extends View {
             mHours12Texts[i] = String.format("%d", HOURS_NUMBERS[i]);
             mInnerHours24Texts[i] = String.format("%02d", HOURS_NUMBERS_24[i]);
             mOuterHours24Texts[i] = String.format("%d", HOURS_NUMBERS[i]);
-            mMinutesTexts[i] = String.format("%02d", MINUTES_NUMBERS[i]);
         }
+
+        initMinutesText();
+    }
+
+    private void initMinutesText() {
+        final MinuteFace face = mMinuteFace;
+        final int labelCount = face.getLabelCount();
+
+        mMinutesTexts = new String[labelCount];
+        for (int i = 0; i < labelCount; i++) {
+            mMinutesTexts[i] = String.format("%02d", face.getLabelMinute(i));
+        }
+        mMinutesText = mMinutesTexts;
+
+        mOuterTextX[MINUTES] = new float[labelCount];
+        mOuterTextY[MINUTES] = new float[labelCount];
     }
 
     private void initData() {
@@ -656,6 +735,7 @@ public class RadialTimePickerView extends View {
         calculatePositionsHours();
         calculatePositionsMinutes();
 
+        mTouchHelper.invalidateBounds();
         mTouchHelper.invalidateRoot();
     }
 
@@ -677,18 +757,18 @@ public class RadialTimePickerView extends View {
         final int hoursAlpha = (int) (mAlpha[HOURS].getValue() * alphaMod + 0.5f);
         if (hoursAlpha > 0) {
             // Draw the hour selector under the elements.
-            drawSelector(canvas, mIsOnInnerCircle ? HOURS_INNER : HOURS, null, alphaMod);
+            drawSelector(canvas, mIsOnInnerCircle ? HOURS_INNER : HOURS, alphaMod);
 
             // Draw outer hours.
             drawTextElements(canvas, mTextSize[HOURS], mTypeface, mTextColor[HOURS],
                     mOuterTextHours, mOuterTextX[HOURS], mOuterTextY[HOURS], mPaint[HOURS],
-                    hoursAlpha, !mIsOnInnerCircle, mSelectionDegrees[HOURS], false);
+                    hoursAlpha, false, !mIsOnInnerCircle, mSelectionDegrees[HOURS]);
 
             // Draw inner hours (13-00) for 24-hour time.
             if (mIs24HourMode && mInnerTextHours != null) {
                 drawTextElements(canvas, mTextSize[HOURS_INNER], mTypeface, mTextColor[HOURS_INNER],
                         mInnerTextHours, mInnerTextX, mInnerTextY, mPaint[HOURS], hoursAlpha,
-                        mIsOnInnerCircle, mSelectionDegrees[HOURS], false);
+                        true, mIsOnInnerCircle, mSelectionDegrees[HOURS]);
             }
         }
     }
@@ -697,26 +777,38 @@ public class RadialTimePickerView extends View {
         final int minutesAlpha = (int) (mAlpha[MINUTES].getValue() * alphaMod + 0.5f);
         if (minutesAlpha > 0) {
             // Draw the minute selector under the elements.
-            drawSelector(canvas, MINUTES, mSelectorPath, alphaMod);
+            drawSelector(canvas, MINUTES, alphaMod);
+
+            // Draw minutes with activated states inside the selector region
+            // and without them outside of it.
+            drawMinuteTextElements(canvas, minutesAlpha);
+        }
+    }
 
-            // Exclude the selector region, then draw minutes with no
-            // activated states.
-            canvas.save(Canvas.CLIP_SAVE_FLAG);
-            canvas.clipPath(mSelectorPath, Region.Op.DIFFERENCE);
-            drawTextElements(canvas, mTextSize[MINUTES], mTypeface, mTextColor[MINUTES],
-                    mMinutesText, mOuterTextX[MINUTES], mOuterTextY[MINUTES], mPaint[MINUTES],
-                    minutesAlpha, false, 0, false);
-            canvas.restore();
+    /**
+     * Draws the minute values through {@link MinuteLabelPainter}. Values
+     * that are blocked in the current hour are drawn disabled.
+     */
+    private void drawMinuteTextElements(Canvas canvas, int alpha) {
+        final Paint paint = mPaint[MINUTES];
+        paint.setTextSize(mTextSize[MINUTES]);
+        paint.setTypeface(mTypeface);
 
-            // Intersect the selector region, then draw minutes with only
-            // activated states.
-            canvas.save(Canvas.CLIP_SAVE_FLAG);
-            canvas.clipPath(mSelectorPath, Region.Op.INTERSECT);
-            drawTextElements(canvas, mTextSize[MINUTES], mTypeface, mTextColor[MINUTES],
-                    mMinutesText, mOuterTextX[MINUTES], mOuterTextY[MINUTES], mPaint[MINUTES],
-                    minutesAlpha, true, mSelectionDegrees[MINUTES], true);
-            canvas.restore();
+        final int hourOfDay = getCurrentHour();
+        final int labelCount = mMinuteFace.getLabelCount();
+        for (int i = 0; i < labelCount; i++) {
+            mMinuteLabelEnabled[i] = isMinuteAvailable(hourOfDay, mMinuteFace.getLabelMinute(i));
         }
+
+        // The activated index can touch a range of elements.
+        final float activatedIndex = mSelectionDegrees[MINUTES] / (360.0f / labelCount);
+        final int activatedFloor = (int) activatedIndex;
+        final int activatedCeil = ((int) Math.ceil(activatedIndex)) % labelCount;
+
+        mMinuteLabelPainter.draw(canvas, paint, mTextColor[MINUTES], alpha,
+                mMinutesText, mOuterTextX[MINUTES], mOuterTextY[MINUTES],
+                mMinuteLabelEnabled, labelCount, activatedFloor, activatedCeil,
+                mMinuteSelectorX, mMinuteSelectorY, mSelectorRadius);
     }
 
     private void drawCenter(Canvas canvas, float alphaMod) {
@@ -730,11 +822,7 @@ public class RadialTimePickerView extends View {
         return (0xFFFFFF & argb) | (dstAlpha << 24);
     }
 
-    private int getMultipliedAlpha(int argb, int alpha) {
-        return (int) (Color.alpha(argb) * (alpha / 255.0) + 0.5);
-    }
-
-    private void drawSelector(Canvas canvas, int index, Path selectorPath, float alphaMod) {
+    private void drawSelector(Canvas canvas, int index, float alphaMod) {
         final int alpha = (int) (mAlpha[index % 2].getValue() * alphaMod + 0.5f);
         final int color = applyAlpha(mSelectorColor, alpha);
 
@@ -750,14 +838,16 @@ public class RadialTimePickerView extends View {
         paint.setColor(color);
         canvas.drawCircle(selCenterX, selCenterY, selRadius, paint);
 
-        // If needed, set up the clip path for later.
-        if (selectorPath != null) {
-            selectorPath.reset();
-            selectorPath.addCircle(selCenterX, selCenterY, selRadius, Path.Direction.CCW);
+        // Remember where the minute selector is for coloring the values.
+        if (index == MINUTES) {
+            mMinuteSelectorX = selCenterX;
+            mMinuteSelectorY = selCenterY;
         }
 
         // Draw the dot if we're between two items.
-        final boolean shouldDrawDot = mSelectionDegrees[index % 2] % 30 != 0;
+        final int degreesBetweenItems = index == MINUTES ?
+                mMinuteFace.getLabelStep() * DEGREES_FOR_ONE_MINUTE : DEGREES_FOR_ONE_HOUR;
+        final boolean shouldDrawDot = mSelectionDegrees[index % 2] % degreesBetweenItems != 0;
         if (shouldDrawDot) {
             final Paint dotPaint = mPaintSelector[index % 2][SELECTOR_DOT];
             dotPaint.setColor(mSelectorDotColor);
@@ -787,13 +877,13 @@ public class RadialTimePickerView extends View {
 
         // Calculate the positions for the 12 numbers in the main circle.
         calculatePositions(mPaint[HOURS], numbersRadius, mXCenter, mYCenter,
-                mTextSize[HOURS], mOuterTextX[HOURS], mOuterTextY[HOURS]);
+                mTextSize[HOURS], COS_30, SIN_30, mOuterTextX[HOURS], mOuterTextY[HOURS]);
 
         // If we have an inner circle, calculate those positions too.
         if (mIs24HourMode) {
             final int innerNumbersRadius = mCircleRadius - mTextInset[HOURS_INNER];
             calculatePositions(mPaint[HOURS], innerNumbersRadius, mXCenter, mYCenter,
-                    mTextSize[HOURS_INNER], mInnerTextX, mInnerTextY);
+                    mTextSize[HOURS_INNER], COS_30, SIN_30, mInnerTextX, mInnerTextY);
         }
     }
 
@@ -801,36 +891,41 @@ public class RadialTimePickerView extends View {
         // Calculate the text positions
         final float numbersRadius = mCircleRadius - mTextInset[MINUTES];
 
-        // Calculate the positions for the 12 numbers in the main circle.
+        // Calculate the positions for the labeled minutes in the main circle.
         calculatePositions(mPaint[MINUTES], numbersRadius, mXCenter, mYCenter,
-                mTextSize[MINUTES], mOuterTextX[MINUTES], mOuterTextY[MINUTES]);
+                mTextSize[MINUTES], mMinuteFace.getCos(), mMinuteFace.getSin(),
+                mOuterTextX[MINUTES], mOuterTextY[MINUTES]);
     }
 
     /**
-     * Using the trigonometric Unit Circle, calculate the positions that the text will need to be
-     * drawn at based on the specified circle radius. Place the values in the textGridHeights and
-     * textGridWidths parameters.
+     * Using the precomputed positions on the trigonometric Unit Circle, calculate the positions
+     * that the text will need to be drawn at based on the specified circle radius. Place the
+     * values in the x and y parameters.
      */
     private static void calculatePositions(Paint paint, float radius, float xCenter, float yCenter,
-                                           float textSize, float[] x, float[] y) {
+                                           float textSize, float[] cos, float[] sin,
+                                           float[] x, float[] y) {
         // Adjust yCenter to account for the text's baseline.
         paint.setTextSize(textSize);
         yCenter -= (paint.descent() + paint.ascent()) / 2;
 
-        for (int i = 0; i < NUM_POSITIONS; i++) {
-            x[i] = xCenter - radius * COS_30[i];
-            y[i] = yCenter - radius * SIN_30[i];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = xCenter - radius * cos[i];
+            y[i] = yCenter - radius * sin[i];
         }
     }
 
     /**
-     * Draw the 12 text values at the positions specified by the textGrid parameters.
+     * Draw the 12 hour values at the positions specified by the textGrid parameters.
+     * Hours without an available minute are drawn disabled.
      */
     private void drawTextElements(Canvas canvas, float textSize, Typeface typeface,
-                                  ColorStateList textColor, String[] texts, float[] textX, float[] textY, Paint paint,
-                                  int alpha, boolean showActivated, int activatedDegrees, boolean activatedOnly) {
+                                  StateColorTable textColor, String[] texts, float[] textX, float[] textY, Paint paint,
+                                  int alpha, boolean innerCircle, boolean showActivated,
+                                  int activatedDegrees) {
         paint.setTextSize(textSize);
         paint.setTypeface(typeface);
+        textColor.setAlpha(alpha);
 
         // The activated index can touch a range of elements.
         final float activatedIndex = activatedDegrees / (360.0f / NUM_POSITIONS);
@@ -839,46 +934,33 @@ public class RadialTimePickerView extends View {
 
         for (int i = 0; i < 12; i++) {
             final boolean activated = (activatedFloor == i || activatedCeil == i);
-            if (activatedOnly && !activated) {
-                continue;
-            }
-
-            final int stateMask = SUtils.STATE_ENABLED
+            final boolean enabled = mAvailability == null || isHourAvailable(
+                    getHourForDegrees(i * DEGREES_FOR_ONE_HOUR, innerCircle));
+            final int stateMask = (enabled ? SUtils.STATE_ENABLED : 0)
                     | (showActivated && activated ? SUtils.STATE_ACTIVATED : 0);
-            final int color = textColor.getColorForState(SUtils.resolveStateSet(stateMask), 0);
-            paint.setColor(color);
-            paint.setAlpha(getMultipliedAlpha(color, alpha));
+            paint.setColor(textColor.getColorWithAlpha(stateMask));
 
             canvas.drawText(texts[i], textX[i], textY[i], paint);
         }
     }
 
-    private static ObjectAnimator getFadeOutAnimator(IntHolder target, int startAlpha, int endAlpha,
-                                                     InvalidateUpdateListener updateListener) {
-        final ObjectAnimator animator = ObjectAnimator.ofInt(target, "value", startAlpha, endAlpha);
-        animator.setDuration(FADE_OUT_DURATION);
-        animator.addUpdateListener(updateListener);
-        return animator;
-    }
-
-    private static ObjectAnimator getFadeInAnimator(IntHolder target, int startAlpha, int endAlpha,
-                                                    InvalidateUpdateListener updateListener) {
+    /**
+     * Fades {@code fadeOut} out, while {@code fadeIn} fades in after a short delay.
+     */
+    private PropertyAnimation createFadeTransition(IntHolder fadeOut, IntHolder fadeIn) {
         final float delayMultiplier = 0.25f;
         final float transitionDurationMultiplier = 1f;
         final float totalDurationMultiplier = transitionDurationMultiplier + delayMultiplier;
         final int totalDuration = (int) (FADE_IN_DURATION * totalDurationMultiplier);
         final float delayPoint = (delayMultiplier * FADE_IN_DURATION) / totalDuration;
 
-        final Keyframe kf0, kf1, kf2;
-        kf0 = Keyframe.ofInt(0f, startAlpha);
-        kf1 = Keyframe.ofInt(delayPoint, startAlpha);
-        kf2 = Keyframe.ofInt(1f, endAlpha);
-        final PropertyValuesHolder fadeIn = PropertyValuesHolder.ofKeyframe("value", kf0, kf1, kf2);
-
-        final ObjectAnimator animator = ObjectAnimator.ofPropertyValuesHolder(target, fadeIn);
-        animator.setDuration(totalDuration);
-        animator.addUpdateListener(updateListener);
-        return animator;
+        final PropertyAnimation transition = new PropertyAnimation(2)
+                .addIntTrack(fadeOut, IntHolder.VALUE, ALPHA_OPAQUE, ALPHA_TRANSPARENT,
+                        FADE_OUT_DURATION, FADE_INTERPOLATOR, 0f)
+                .addIntTrack(fadeIn, IntHolder.VALUE, ALPHA_TRANSPARENT, ALPHA_OPAQUE,
+                        totalDuration, FADE_INTERPOLATOR, delayPoint);
+        transition.addUpdateListener(mInvalidateUpdateListener);
+        return transition;
     }
 
     private class InvalidateUpdateListener implements ValueAnimator.AnimatorUpdateListener {
@@ -889,37 +971,26 @@ public class RadialTimePickerView extends View {
     }
 
     private void startHoursToMinutesAnimation() {
-        if (mHoursToMinutesAnims.size() == 0) {
-            mHoursToMinutesAnims.add(getFadeOutAnimator(mAlpha[HOURS],
-                    ALPHA_OPAQUE, ALPHA_TRANSPARENT, mInvalidateUpdateListener));
-            mHoursToMinutesAnims.add(getFadeInAnimator(mAlpha[MINUTES],
-                    ALPHA_TRANSPARENT, ALPHA_OPAQUE, mInvalidateUpdateListener));
-        }
-
-        if (mTransition != null && mTransition.isRunning()) {
-            mTransition.end();
-        }
-        mTransition = new AnimatorSet();
-        mTransition.playTogether(mHoursToMinutesAnims);
-        mTransition.start();
+        startTransition(mHoursToMinutesTransition);
     }
 
     private void startMinutesToHoursAnimation() {
-        if (mMinuteToHoursAnims.size() == 0) {
-            mMinuteToHoursAnims.add(getFadeOutAnimator(mAlpha[MINUTES],
-                    ALPHA_OPAQUE, ALPHA_TRANSPARENT, mInvalidateUpdateListener));
-            mMinuteToHoursAnims.add(getFadeInAnimator(mAlpha[HOURS],
-                    ALPHA_TRANSPARENT, ALPHA_OPAQUE, mInvalidateUpdateListener));
-        }
+        startTransition(mMinutesToHoursTransition);
+    }
 
+    private void startTransition(PropertyAnimation transition) {
         if (mTransition != null && mTransition.isRunning()) {
             mTransition.end();
         }
-        mTransition = new AnimatorSet();
-        mTransition.playTogether(mMinuteToHoursAnims);
+        mTransition = transition;
         mTransition.start();
     }
 
+    /**
+     * Touch coordinates are resolved on the whole-pixel grid, where
+     * distances are compared squared and {@link RadialAngles} yields the
+     * same degrees as atan2.
+     */
     private int getDegreesFromXY(float x, float y, boolean constrainOutside) {
         // Ensure the point is inside the touchable area.
         final int innerBound;
@@ -934,28 +1005,24 @@ public class RadialTimePickerView extends View {
             outerBound = center + mSelectorRadius;
         }
 
-        final double dX = x - mXCenter;
-        final double dY = y - mYCenter;
-        final double distFromCenter = Math.sqrt(dX * dX + dY * dY);
-        if (distFromCenter < innerBound || constrainOutside && distFromCenter > outerBound) {
+        final int dX = Math.round(x) - mXCenter;
+        final int dY = Math.round(y) - mYCenter;
+        final long distSquared = RadialAngles.getDistanceSquared(dX, dY);
+        if (innerBound > 0 && distSquared < (long) innerBound * innerBound
+                || constrainOutside && (outerBound < 0
+                || distSquared > (long) outerBound * outerBound)) {
             return -1;
         }
 
-        // Convert to degrees.
-        final int degrees = (int) (Math.toDegrees(Math.atan2(dY, dX) + Math.PI / 2) + 0.5);
-        if (degrees < 0) {
-            return degrees + 360;
-        } else {
-            return degrees;
-        }
+        return RadialAngles.getDegrees(dX, dY);
     }
 
     private boolean getInnerCircleFromXY(float x, float y) {
         if (mIs24HourMode && mShowHours) {
-            final double dX = x - mXCenter;
-            final double dY = y - mYCenter;
-            final double distFromCenter = Math.sqrt(dX * dX + dY * dY);
-            return distFromCenter <= mHalfwayDist;
+            final int dX = Math.round(x) - mXCenter;
+            final int dY = Math.round(y) - mYCenter;
+            return mHalfwayDist >= 0 && RadialAngles.getDistanceSquared(dX, dY)
+                    <= (long) mHalfwayDist * mHalfwayDist;
         }
         return false;
     }
@@ -1008,7 +1075,13 @@ public class RadialTimePickerView extends View {
         final boolean valueChanged;
 
         if (mShowHours) {
-            final int snapDegrees = snapOnly30s(degrees, 0) % 360;
+            // Move to the closest hour on the touched circle that is available.
+            final int snapDegrees = findAvailableHourDegrees(
+                    snapOnly30s(degrees, 0) % 360, isOnInnerCircle);
+            if (snapDegrees == -1) {
+                return false;
+            }
+
             valueChanged = mIsOnInnerCircle != isOnInnerCircle
                     || mSelectionDegrees[HOURS] != snapDegrees;
             mIsOnInnerCircle = isOnInnerCircle;
@@ -1016,7 +1089,14 @@ public class RadialTimePickerView extends View {
             type = HOURS;
             newValue = getCurrentHour();
         } else {
-            final int snapDegrees = snapPrefer30s(degrees) % 360;
+            // Move to the closest minute of the current hour that is available.
+            final int minute = findAvailableMinute(getCurrentHour(),
+                    getMinuteForDegrees(mMinuteFace.snapDegrees(degrees) % 360));
+            if (minute == -1) {
+                return false;
+            }
+
+            final int snapDegrees = getDegreesForMinute(minute);
             valueChanged = mSelectionDegrees[MINUTES] != snapDegrees;
             mSelectionDegrees[MINUTES] = snapDegrees;
             type = MINUTES;
@@ -1029,6 +1109,10 @@ public class RadialTimePickerView extends View {
                 mListener.onValueSelected(type, newValue, autoAdvance);
             }
 
+            if (type == HOURS && valueChanged) {
+                moveMinuteToAvailable();
+            }
+
             // Only provide feedback if the value actually changed.
             if (valueChanged || forceSelection) {
                 SUtils.vibrateForTimePicker(this);
@@ -1054,6 +1138,17 @@ public class RadialTimePickerView extends View {
     private class RadialPickerTouchHelper extends ExploreByTouchHelper {
         private final Rect mTempRect = new Rect();
 
+        // Packed left, top, right and bottom of each hour's and minute's
+        // bounds. Bit n of the valid mask is set once the bounds of value n
+        // are cached.
+        private final int[] mHourBounds = new int[24 * 4];
+        private final int[] mMinuteBounds = new int[MINUTES_IN_CIRCLE * 4];
+        private int mHourBoundsValid;
+        private long mMinuteBoundsValid;
+
+        // Hours and minutes are described by their value.
+        private final CharSequence[] mValueDescriptions = new CharSequence[MINUTES_IN_CIRCLE];
+
         private final int TYPE_HOUR = 1;
         private final int TYPE_MINUTE = 2;
 
@@ -1063,13 +1158,49 @@ public class RadialTimePickerView extends View {
         private final int SHIFT_VALUE = 8;
         private final int MASK_VALUE = 0xFF;
 
+        public RadialPickerTouchHelper() {
+            super(RadialTimePickerView.this);
+        }
+
         /**
-         * Increment in which virtual views are exposed for minutes.
+         * Drops the cached bounds of all values. Called when the geometry
+         * of the view or the hour mode changes.
          */
-        private final int MINUTE_INCREMENT = 5;
+        void invalidateBounds() {
+            mHourBoundsValid = 0;
+            mMinuteBoundsValid = 0;
+        }
 
-        public RadialPickerTouchHelper() {
-            super(RadialTimePickerView.this);
+        /**
+         * Invalidates the nodes of a deselected and a selected hour, both
+         * in 24-hour time, if the hours are shown.
+         */
+        void invalidateHours(int oldHour, int newHour) {
+            if (!mShowHours || oldHour == newHour) {
+                return;
+            }
+
+            invalidateVirtualView(makeId(TYPE_HOUR, mIs24HourMode ? oldHour : hour24To12(oldHour)));
+            invalidateVirtualView(makeId(TYPE_HOUR, mIs24HourMode ? newHour : hour24To12(newHour)));
+        }
+
+        /**
+         * Invalidates the nodes of a deselected and a selected minute, if
+         * the minutes are shown.
+         */
+        void invalidateMinutes(int oldMinute, int newMinute) {
+            if (mShowHours || oldMinute == newMinute) {
+                return;
+            }
+
+            final int increment = mMinuteFace.getLabelStep();
+            if (oldMinute % increment != 0 || newMinute % increment != 0) {
+                // Unlabeled minutes get a node only while selected.
+                invalidateRoot();
+            } else {
+                invalidateVirtualView(makeId(TYPE_MINUTE, oldMinute));
+                invalidateVirtualView(makeId(TYPE_MINUTE, newMinute));
+            }
         }
 
         @Override
@@ -1081,13 +1212,15 @@ public class RadialTimePickerView extends View {
                     virtualViewIds.add(makeId(TYPE_HOUR, i));
                 }
             } else {
+                // Virtual views are exposed for labeled minutes.
+                final int increment = mMinuteFace.getLabelStep();
                 final int current = getCurrentMinute();
-                for (int i = 0; i < MINUTES_IN_CIRCLE; i += MINUTE_INCREMENT) {
+                for (int i = 0; i < MINUTES_IN_CIRCLE; i += increment) {
                     virtualViewIds.add(makeId(TYPE_MINUTE, i));
 
                     // If the current minute falls between two increments,
                     // insert an extra node for it.
-                    if (current > i && current < i + MINUTE_INCREMENT) {
+                    if (current > i && current < i + increment) {
                         virtualViewIds.add(makeId(TYPE_MINUTE, current));
                     }
                 }
@@ -1119,6 +1252,7 @@ public class RadialTimePickerView extends View {
 
             final boolean selected = isVirtualViewSelected(type, value);
             node.setSelected(selected);
+            node.setEnabled(isVirtualViewEnabled(type, value));
 
             final int nextId = getVirtualViewIdAfter(type, value);
             if (nextId != INVALID_ID) {
@@ -1131,9 +1265,14 @@ public class RadialTimePickerView extends View {
             if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
                 final int type = getTypeFromId(virtualViewId);
                 final int value = getValueFromId(virtualViewId);
+                if (!isVirtualViewEnabled(type, value)) {
+                    return false;
+                }
+
                 if (type == TYPE_HOUR) {
                     final int hour = mIs24HourMode ? value : hour12To24(value, mAmOrPm);
                     setCurrentHour(hour);
+                    moveMinuteToAvailable();
                     return true;
                 } else if (type == TYPE_MINUTE) {
                     setCurrentMinute(value);
@@ -1188,10 +1327,10 @@ public class RadialTimePickerView extends View {
                     maxValue = 12;
                 }
             } else {
-                stepSize = 5;
+                stepSize = mMinuteFace.getLabelStep();
                 initialStep = getCurrentMinute() / stepSize;
                 minValue = 0;
-                maxValue = 55;
+                maxValue = MINUTES_IN_CIRCLE - stepSize;
             }
 
             final int nextValue = (initialStep + step) * stepSize;
@@ -1208,7 +1347,8 @@ public class RadialTimePickerView extends View {
             final int id;
             final int degrees = getDegreesFromXY(x, y, true);
             if (degrees != -1) {
-                final int snapDegrees = snapOnly30s(degrees, 0) % 360;
+                final int snapDegrees = (mShowHours ?
+                        snapOnly30s(degrees, 0) : mMinuteFace.snapToLabelDegrees(degrees)) % 360;
                 if (mShowHours) {
                     final boolean isOnInnerCircle = getInnerCircleFromXY(x, y);
                     final int hour24 = getHourForDegrees(snapDegrees, isOnInnerCircle);
@@ -1261,8 +1401,9 @@ public class RadialTimePickerView extends View {
                 }
             } else if (type == TYPE_MINUTE) {
                 final int current = getCurrentMinute();
-                final int snapValue = value - (value % MINUTE_INCREMENT);
-                final int nextValue = snapValue + MINUTE_INCREMENT;
+                final int increment = mMinuteFace.getLabelStep();
+                final int snapValue = value - (value % increment);
+                final int nextValue = snapValue + increment;
                 if (value < current && nextValue > current) {
                     // The current value is between two snap values.
                     return makeId(type, current);
@@ -1296,9 +1437,37 @@ public class RadialTimePickerView extends View {
         }
 
         private void getBoundsForVirtualView(int virtualViewId, Rect bounds) {
-            final float radius;
             final int type = getTypeFromId(virtualViewId);
             final int value = getValueFromId(virtualViewId);
+            final int[] cache;
+            final boolean cached;
+            if (type == TYPE_HOUR) {
+                cache = mHourBounds;
+                cached = (mHourBoundsValid & (1 << value)) != 0;
+            } else {
+                cache = mMinuteBounds;
+                cached = (mMinuteBoundsValid & (1L << value)) != 0;
+            }
+
+            final int i = value * 4;
+            if (!cached) {
+                computeBoundsForVirtualView(type, value, bounds);
+                cache[i] = bounds.left;
+                cache[i + 1] = bounds.top;
+                cache[i + 2] = bounds.right;
+                cache[i + 3] = bounds.bottom;
+                if (type == TYPE_HOUR) {
+                    mHourBoundsValid |= 1 << value;
+                } else {
+                    mMinuteBoundsValid |= 1L << value;
+                }
+            } else {
+                bounds.set(cache[i], cache[i + 1], cache[i + 2], cache[i + 3]);
+            }
+        }
+
+        private void computeBoundsForVirtualView(int type, int value, Rect bounds) {
+            final float radius;
             final float centerRadius;
             final float degrees;
             if (type == TYPE_HOUR) {
@@ -1332,11 +1501,14 @@ public class RadialTimePickerView extends View {
         }
 
         private CharSequence getVirtualViewDescription(int type, int value) {
-            final CharSequence description;
-            if (type == TYPE_HOUR || type == TYPE_MINUTE) {
+            if (type != TYPE_HOUR && type != TYPE_MINUTE) {
+                return null;
+            }
+
+            CharSequence description = mValueDescriptions[value];
+            if (description == null) {
                 description = Integer.toString(value);
-            } else {
-                description = null;
+                mValueDescriptions[value] = description;
             }
             return description;
         }
@@ -1347,6 +1519,13 @@ public class RadialTimePickerView extends View {
                     : (type == TYPE_MINUTE && getCurrentMinute() == value);
         }
 
+        private boolean isVirtualViewEnabled(int type, int value) {
+            if (type == TYPE_HOUR) {
+                return isHourAvailable(mIs24HourMode ? value : hour12To24(value, mAmOrPm));
+            }
+            return type != TYPE_MINUTE || isMinuteAvailable(getCurrentHour(), value);
+        }
+
         private int makeId(int type, int value) {
             //noinspection PointlessBitwiseExpression
             return type << SHIFT_TYPE | value << SHIFT_VALUE;
@@ -1363,6 +1542,19 @@ public class RadialTimePickerView extends View {
     }
 
     private static class IntHolder {
+        static final PropertyAnimation.IntProperty<IntHolder> VALUE =
+                new PropertyAnimation.IntProperty<IntHolder>("value") {
+                    @Override
+                    public void setValue(IntHolder object, int value) {
+                        object.mValue = value;
+                    }
+
+                    @Override
+                    public int getValue(IntHolder object) {
+                        return object.mValue;
+                    }
+                };
+
         private int mValue;
 
         public IntHolder(int value) {
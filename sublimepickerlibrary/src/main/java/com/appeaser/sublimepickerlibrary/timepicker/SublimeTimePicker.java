@@ -31,7 +31,6 @@ import android.support.v4.view.ViewCompat;
 import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
 import android.text.SpannableStringBuilder;
 import android.text.TextUtils;
-import android.text.format.DateFormat;
 import android.text.format.DateUtils;
 import android.text.style.TtsSpan;
 import android.util.AttributeSet;
@@ -47,12 +46,11 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import com.appeaser.sublimepickerlibrary.R;
-import com.appeaser.sublimepickerlibrary.common.DateTimePatternHelper;
 import com.appeaser.sublimepickerlibrary.utilities.AccessibilityUtils;
 import com.appeaser.sublimepickerlibrary.utilities.SUtils;
 
 import java.text.DateFormatSymbols;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Locale;
 
@@ -78,6 +76,9 @@ public class SublimeTimePicker extends FrameLayout
 
     private static final int HOURS_IN_HALF_DAY = 12;
 
+    // Keyboard mode takes at most 4 digits and AM/PM, e.g. 12:59pm.
+    private static final int MAX_TYPED_KEYS = 5;
+
     private Context mContext;
     private Locale mCurrentLocale;
 
@@ -100,13 +101,20 @@ public class SublimeTimePicker extends FrameLayout
     private boolean mIs24HourView;
     private boolean mIsAmPmAtStart;
 
+    // Resolved lazily for mCurrentLocale and mIs24HourView
+    private HeaderFormat mHeaderFormat;
+
+    // Minutes that can be picked, or null if all of them can
+    private TimeAvailability mTimeAvailability;
+
     // For hardware IME input.
     private char mPlaceholderText;
     private String mDoublePlaceholderText;
     private String mDeletedKeyFormat;
     private boolean mInKbMode;
-    private ArrayList<Integer> mTypedTimes = new ArrayList<>();
-    private Node mLegalTimesTree;
+    private final int[] mTypedTimes = new int[MAX_TYPED_KEYS];
+    private int mTypedTimesCount;
+    private LegalTimesTable mLegalTimes;
     private int mAmKeyCode;
     private int mPmKeyCode;
 
@@ -243,7 +251,7 @@ public class SublimeTimePicker extends FrameLayout
         mDeletedKeyFormat = res.getString(R.string.deleted_key);
         mPlaceholderText = mDoublePlaceholderText.charAt(0);
         mAmKeyCode = mPmKeyCode = -1;
-        generateLegalTimesTree();
+        mLegalTimes = LegalTimesTable.get(mIs24HourView);
 
         // Initialize with current time
         final Calendar calendar = Calendar.getInstance(mCurrentLocale);
@@ -276,26 +284,20 @@ public class SublimeTimePicker extends FrameLayout
         }
     }
 
+    /**
+     * @return the width {@code v} needs to show any two-digit number below
+     * {@code maxNumber}, measured from the digits of the current locale
+     */
     private int computeStableWidth(TextView v, int maxNumber) {
-        int maxWidth = 0;
-
-        for (int i = 0; i < maxNumber; i++) {
-            final String text = String.format("%02d", i);
-            v.setText(text);
-            v.measure(View.MeasureSpec.UNSPECIFIED, View.MeasureSpec.UNSPECIFIED);
-
-            final int width = v.getMeasuredWidth();
-            if (width > maxWidth) {
-                maxWidth = width;
-            }
-        }
-
-        return maxWidth;
+        final float textWidth = HeaderDigitWidths.getMaxTwoDigitWidth(
+                v.getPaint(), mCurrentLocale, maxNumber);
+        return (int) Math.ceil(textWidth)
+                + v.getCompoundPaddingLeft() + v.getCompoundPaddingRight();
     }
 
     private void initialize(int hourOfDay, int minute, boolean is24HourView, int index) {
         mInitialHourOfDay = hourOfDay;
-        mInitialMinute = minute;
+        mInitialMinute = floorMinute(minute);
         mIs24HourView = is24HourView;
         mInKbMode = false;
         updateUI(index);
@@ -334,17 +336,7 @@ public class SublimeTimePicker extends FrameLayout
             mAmPmLayout.setVisibility(View.GONE);
         } else {
             // Ensure that AM/PM layout is in the correct position.
-            String timePattern;
-
-            // Available on API >= 18
-            if (SUtils.isApi_18_OrHigher()) {
-                timePattern = DateFormat.getBestDateTimePattern(mCurrentLocale, "hm");
-            } else {
-                timePattern = DateTimePatternHelper.getBestDateTimePattern(mCurrentLocale,
-                        DateTimePatternHelper.PATTERN_hm);
-            }
-
-            final boolean isAmPmAtStart = timePattern.startsWith("a");
+            final boolean isAmPmAtStart = getHeaderFormat().isAmPmAtStart();
             setAmPmAtStart(isAmPmAtStart);
 
             updateAmPmLabelStates(mInitialHourOfDay < 12 ? AM : PM);
@@ -409,9 +401,10 @@ public class SublimeTimePicker extends FrameLayout
     }
 
     /**
-     * Set the current minute (0-59).
+     * Set the current minute (0-59), rounded down to the minute step.
      */
     public void setCurrentMinute(int currentMinute) {
+        currentMinute = floorMinute(currentMinute);
         if (mInitialMinute == currentMinute) {
             return;
         }
@@ -429,6 +422,95 @@ public class SublimeTimePicker extends FrameLayout
         return mRadialTimePickerView.getCurrentMinute();
     }
 
+    /**
+     * Set the step between selectable minutes. Supported values are 1 and
+     * the divisors of 60 that are multiples of 5, e.g. 5, 10, 15 or 30.
+     * The current minute is rounded down to the new step, and typed times
+     * must be on it.
+     *
+     * @param minuteGranularity the step between selectable minutes
+     */
+    public void setMinuteGranularity(int minuteGranularity) {
+        if (minuteGranularity == getMinuteGranularity()) {
+            return;
+        }
+        mRadialTimePickerView.setMinuteGranularity(minuteGranularity);
+
+        final int minute = mRadialTimePickerView.getCurrentMinute();
+        if (minute != mInitialMinute) {
+            mInitialMinute = minute;
+            updateHeaderMinute(minute, false);
+            onTimeChanged();
+        }
+    }
+
+    /**
+     * @return The step between selectable minutes.
+     */
+    public int getMinuteGranularity() {
+        return mRadialTimePickerView.getMinuteGranularity();
+    }
+
+    /**
+     * @return true if {@code minuteGranularity} can be passed to
+     * {@link #setMinuteGranularity(int)}
+     */
+    public static boolean isValidMinuteGranularity(int minuteGranularity) {
+        return MinuteFace.isValidGranularity(minuteGranularity);
+    }
+
+    private int floorMinute(int minute) {
+        return minute - (minute % getMinuteGranularity());
+    }
+
+    /**
+     * Set which minutes of the day can be picked. Blocked hours and minutes
+     * are shown disabled, touches move to the closest available value and
+     * blocked times can't be typed. While the current time is blocked, the
+     * picker reports itself as invalid through the validation callback.
+     * <p/>
+     * Changes made to {@code timeAvailability} afterwards are picked up on
+     * the next call to this method.
+     *
+     * @param timeAvailability the available minutes, or null if all
+     *                         minutes are available
+     */
+    public void setTimeAvailability(TimeAvailability timeAvailability) {
+        mTimeAvailability = timeAvailability;
+        mRadialTimePickerView.setTimeAvailability(timeAvailability);
+        updateTimeValidation();
+    }
+
+    /**
+     * @return The minutes that can be picked, or null if all of them can.
+     */
+    public TimeAvailability getTimeAvailability() {
+        return mTimeAvailability;
+    }
+
+    private boolean isTimeAvailable(int hourOfDay, int minute) {
+        return mTimeAvailability == null
+                || mTimeAvailability.isAvailable(hourOfDay, floorMinute(minute));
+    }
+
+    /**
+     * A typed time must also be on the minute step: the dial can't show
+     * any other minute, and rounding it down would pick another time.
+     */
+    private boolean isTypedTimeAvailable(int hourOfDay, int minute) {
+        return minute % getMinuteGranularity() == 0 && isTimeAvailable(hourOfDay, minute);
+    }
+
+    /**
+     * Reports whether the current time can be picked. Keyboard mode
+     * reports its own validation as keys are typed.
+     */
+    private void updateTimeValidation() {
+        if (!mInKbMode) {
+            onValidationChanged(isTimeAvailable(getCurrentHour(), getCurrentMinute()));
+        }
+    }
+
     /**
      * Set whether in 24 hour or AM/PM mode.
      *
@@ -439,7 +521,7 @@ public class SublimeTimePicker extends FrameLayout
             return;
         }
         mIs24HourView = is24HourView;
-        generateLegalTimesTree();
+        mLegalTimes = LegalTimesTable.get(mIs24HourView);
         int hour = mRadialTimePickerView.getCurrentHour();
         mInitialHourOfDay = hour;
         updateHeaderHour(hour, false);
@@ -489,7 +571,8 @@ public class SublimeTimePicker extends FrameLayout
     @Override
     public Parcelable onSaveInstanceState() {
         return new SavedState(super.onSaveInstanceState(), getCurrentHour(), getCurrentMinute(),
-                is24HourView(), inKbMode(), getTypedTimes(), getCurrentItemShowing());
+                is24HourView(), inKbMode(), getTypedTimes(), getCurrentItemShowing(),
+                getMinuteGranularity());
     }
 
     @Override
@@ -499,6 +582,7 @@ public class SublimeTimePicker extends FrameLayout
         SavedState ss = (SavedState) bss;
         setInKbMode(ss.inKbMode());
         setTypedTimes(ss.getTypesTimes());
+        mRadialTimePickerView.setMinuteGranularity(ss.getMinuteGranularity());
         initialize(ss.getHour(), ss.getMinute(), ss.is24HourMode(), ss.getCurrentItemShowing());
         mRadialTimePickerView.invalidate();
         if (mInKbMode) {
@@ -551,15 +635,16 @@ public class SublimeTimePicker extends FrameLayout
         return mInKbMode;
     }
 
-    private void setTypedTimes(ArrayList<Integer> typeTimes) {
-        mTypedTimes = typeTimes;
+    private void setTypedTimes(int[] typedTimes) {
+        mTypedTimesCount = Math.min(typedTimes.length, MAX_TYPED_KEYS);
+        System.arraycopy(typedTimes, 0, mTypedTimes, 0, mTypedTimesCount);
     }
 
     /**
      * @return an array of typed times
      */
-    private ArrayList<Integer> getTypedTimes() {
-        return mTypedTimes;
+    private int[] getTypedTimes() {
+        return Arrays.copyOf(mTypedTimes, mTypedTimesCount);
     }
 
     /**
@@ -574,6 +659,7 @@ public class SublimeTimePicker extends FrameLayout
      */
     private void onTimeChanged() {
         sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+        updateTimeValidation();
         if (mOnTimeChangedListener != null) {
             mOnTimeChangedListener.onTimeChanged(this,
                     getCurrentHour(), getCurrentMinute());
@@ -589,12 +675,13 @@ public class SublimeTimePicker extends FrameLayout
         private final int mMinute;
         private final boolean mIs24HourMode;
         private final boolean mInKbMode;
-        private final ArrayList<Integer> mTypedTimes;
+        private final int[] mTypedTimes;
         private final int mCurrentItemShowing;
+        private final int mMinuteGranularity;
 
         private SavedState(Parcelable superState, int hour, int minute, boolean is24HourMode,
-                           boolean isKbMode, ArrayList<Integer> typedTimes,
-                           int currentItemShowing) {
+                           boolean isKbMode, int[] typedTimes,
+                           int currentItemShowing, int minuteGranularity) {
             super(superState);
             mHour = hour;
             mMinute = minute;
@@ -602,6 +689,7 @@ public class SublimeTimePicker extends FrameLayout
             mInKbMode = isKbMode;
             mTypedTimes = typedTimes;
             mCurrentItemShowing = currentItemShowing;
+            mMinuteGranularity = minuteGranularity;
         }
 
         private SavedState(Parcel in) {
@@ -610,9 +698,9 @@ public class SublimeTimePicker extends FrameLayout
             mMinute = in.readInt();
             mIs24HourMode = (in.readInt() == 1);
             mInKbMode = (in.readInt() == 1);
-            //noinspection unchecked
-            mTypedTimes = in.readArrayList(getClass().getClassLoader());
+            mTypedTimes = in.createIntArray();
             mCurrentItemShowing = in.readInt();
+            mMinuteGranularity = in.readInt();
         }
 
         public int getHour() {
@@ -631,7 +719,7 @@ public class SublimeTimePicker extends FrameLayout
             return mInKbMode;
         }
 
-        public ArrayList<Integer> getTypesTimes() {
+        public int[] getTypesTimes() {
             return mTypedTimes;
         }
 
@@ -639,6 +727,10 @@ public class SublimeTimePicker extends FrameLayout
             return mCurrentItemShowing;
         }
 
+        public int getMinuteGranularity() {
+            return mMinuteGranularity;
+        }
+
         @Override
         public void writeToParcel(Parcel dest, int flags) {
             super.writeToParcel(dest, flags);
@@ -646,8 +738,9 @@ public class SublimeTimePicker extends FrameLayout
             dest.writeInt(mMinute);
             dest.writeInt(mIs24HourMode ? 1 : 0);
             dest.writeInt(mInKbMode ? 1 : 0);
-            dest.writeList(mTypedTimes);
+            dest.writeIntArray(mTypedTimes);
             dest.writeInt(mCurrentItemShowing);
+            dest.writeInt(mMinuteGranularity);
         }
 
         @SuppressWarnings({"unused", "hiding"})
@@ -695,67 +788,38 @@ public class SublimeTimePicker extends FrameLayout
                 break;
             case ENABLE_PICKER_INDEX:
                 if (!isTypedTimeFullyLegal()) {
-                    mTypedTimes.clear();
+                    mTypedTimesCount = 0;
                 }
                 finishKbMode();
                 break;
         }
 
+        updateTimeValidation();
+
         if (mOnTimeChangedListener != null) {
             mOnTimeChangedListener.onTimeChanged(this, getCurrentHour(), getCurrentMinute());
         }
     }
 
-    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
     private void updateHeaderHour(int value, boolean announce) {
-        String timePattern;
-
-        if (SUtils.isApi_18_OrHigher()) {
-            timePattern = DateFormat.getBestDateTimePattern(mCurrentLocale,
-                    (mIs24HourView) ? "Hm" : "hm");
-        } else {
-            timePattern = DateTimePatternHelper.getBestDateTimePattern(mCurrentLocale,
-                    (mIs24HourView) ? DateTimePatternHelper.PATTERN_Hm
-                            : DateTimePatternHelper.PATTERN_hm);
-        }
-
-        final int lengthPattern = timePattern.length();
-        boolean hourWithTwoDigit = false;
-        char hourFormat = '\0';
-        // Check if the returned pattern is single or double 'H', 'h', 'K', 'k'. We also save
-        // the hour format that we found.
-        for (int i = 0; i < lengthPattern; i++) {
-            final char c = timePattern.charAt(i);
-            if (c == 'H' || c == 'h' || c == 'K' || c == 'k') {
-                hourFormat = c;
-                if (i + 1 < lengthPattern && c == timePattern.charAt(i + 1)) {
-                    hourWithTwoDigit = true;
-                }
-                break;
-            }
-        }
-        final String format;
-        if (hourWithTwoDigit) {
-            format = "%02d";
-        } else {
-            format = "%d";
-        }
-        if (mIs24HourView) {
-            // 'k' means 1-24 hour
-            if (hourFormat == 'k' && value == 0) {
-                value = 24;
-            }
-        } else {
-            // 'K' means 0-11 hour
-            value = modulo12(value, hourFormat == 'K');
-        }
-        CharSequence text = String.format(format, value);
+        final CharSequence text = getHeaderFormat().getHourText(value);
         mHourView.setText(text);
         if (announce) {
             tryAnnounceForAccessibility(text, true);
         }
     }
 
+    /**
+     * @return the header format for the current locale and mode, resolved
+     * once per locale and mode
+     */
+    private HeaderFormat getHeaderFormat() {
+        if (mHeaderFormat == null || !mHeaderFormat.matches(mCurrentLocale, mIs24HourView)) {
+            mHeaderFormat = HeaderFormat.get(mCurrentLocale, mIs24HourView);
+        }
+        return mHeaderFormat;
+    }
+
     private void tryAnnounceForAccessibility(CharSequence text, boolean isHour) {
         if (mLastAnnouncedIsHour != isHour || !text.equals(mLastAnnouncedText)) {
             // TODO: Find a better solution, potentially live regions?
@@ -765,68 +829,15 @@ public class SublimeTimePicker extends FrameLayout
         }
     }
 
-    private static int modulo12(int n, boolean startWithZero) {
-        int value = n % 12;
-        if (value == 0 && !startWithZero) {
-            value = 12;
-        }
-        return value;
-    }
-
-    /**
-     * The time separator is defined in the Unicode CLDR and cannot be supposed to be ":".
-     * <p/>
-     * See http://unicode.org/cldr/trac/browser/trunk/common/main
-     * <p/>
-     * We pass the correct "skeleton" depending on 12 or 24 hours view and then extract the
-     * separator as the character which is just after the hour marker in the returned pattern.
-     */
     private void updateHeaderSeparator() {
-        String timePattern;
-
-        // Available on API >= 18
-        if (SUtils.isApi_18_OrHigher()) {
-            timePattern = DateFormat.getBestDateTimePattern(mCurrentLocale,
-                    (mIs24HourView) ? "Hm" : "hm");
-        } else {
-            timePattern = DateTimePatternHelper.getBestDateTimePattern(mCurrentLocale,
-                    (mIs24HourView) ? DateTimePatternHelper.PATTERN_Hm
-                            : DateTimePatternHelper.PATTERN_hm);
-        }
-
-        final String separatorText;
-        // See http://www.unicode.org/reports/tr35/tr35-dates.html for hour formats
-        final char[] hourFormats = {'H', 'h', 'K', 'k'};
-        int hIndex = lastIndexOfAny(timePattern, hourFormats);
-        if (hIndex == -1) {
-            // Default case
-            separatorText = ":";
-        } else {
-            separatorText = Character.toString(timePattern.charAt(hIndex + 1));
-        }
-        mSeparatorView.setText(separatorText);
-    }
-
-    static private int lastIndexOfAny(String str, char[] any) {
-        final int lengthAny = any.length;
-        if (lengthAny > 0) {
-            for (int i = str.length() - 1; i >= 0; i--) {
-                char c = str.charAt(i);
-                for (char anyChar : any) {
-                    if (c == anyChar) {
-                        return i;
-                    }
-                }
-            }
-        }
-        return -1;
+        mSeparatorView.setText(getHeaderFormat().getSeparator());
     }
 
     private void updateHeaderMinute(int value, boolean announceForAccessibility) {
         if (value == 60) {
             value = 0;
         }
-        final CharSequence text = String.format(mCurrentLocale, "%02d", value);
+        final CharSequence text = getHeaderFormat().getMinuteText(value);
         mMinuteView.setText(text);
         if (announceForAccessibility) {
             tryAnnounceForAccessibility(text, false);
@@ -856,6 +867,7 @@ public class SublimeTimePicker extends FrameLayout
     private void setAmOrPm(int amOrPm) {
         updateAmPmLabelStates(amOrPm);
         mRadialTimePickerView.setAmOrPm(amOrPm);
+        updateTimeValidation();
     }
 
     /**
@@ -867,7 +879,7 @@ public class SublimeTimePicker extends FrameLayout
     private boolean processKeyUp(int keyCode) {
         if (keyCode == KeyEvent.KEYCODE_DEL) {
             if (mInKbMode) {
-                if (!mTypedTimes.isEmpty()) {
+                if (mTypedTimesCount != 0) {
                     int deleted = deleteLastTypedKey();
                     String deletedKeyStr;
                     if (deleted == getAmOrPmKeyCode(AM)) {
@@ -895,7 +907,7 @@ public class SublimeTimePicker extends FrameLayout
                     Log.e(TAG, "Unable to initiate keyboard mode, TimePicker was null.");
                     return true;
                 }
-                mTypedTimes.clear();
+                mTypedTimesCount = 0;
                 tryStartingKbMode(keyCode);
                 return true;
             }
@@ -927,13 +939,20 @@ public class SublimeTimePicker extends FrameLayout
     private boolean addKeyIfLegal(int keyCode) {
         // If we're in 24hour mode, we'll need to check if the input is full. If in AM/PM mode,
         // we'll need to see if AM/PM have been typed.
-        if ((mIs24HourView && mTypedTimes.size() == 4) ||
+        if ((mIs24HourView && mTypedTimesCount == 4) ||
                 (!mIs24HourView && isTypedTimeFullyLegal())) {
             return false;
         }
 
-        mTypedTimes.add(keyCode);
-        if (!isTypedTimeLegalSoFar()) {
+        final int state = getTypedTimesState();
+        final int symbol = getSymbolFromKeyCode(keyCode);
+        if (state == LegalTimesTable.NO_STATE || symbol == -1
+                || mLegalTimes.next(state, symbol) == LegalTimesTable.NO_STATE) {
+            return false;
+        }
+
+        mTypedTimes[mTypedTimesCount++] = keyCode;
+        if (isTypedTimeBlocked()) {
             deleteLastTypedKey();
             return false;
         }
@@ -943,9 +962,11 @@ public class SublimeTimePicker extends FrameLayout
 
         // Automatically fill in 0's if AM or PM was legally entered.
         if (isTypedTimeFullyLegal()) {
-            if (!mIs24HourView && mTypedTimes.size() <= 3) {
-                mTypedTimes.add(mTypedTimes.size() - 1, KeyEvent.KEYCODE_0);
-                mTypedTimes.add(mTypedTimes.size() - 1, KeyEvent.KEYCODE_0);
+            if (!mIs24HourView && mTypedTimesCount <= 3) {
+                mTypedTimes[mTypedTimesCount + 1] = mTypedTimes[mTypedTimesCount - 1];
+                mTypedTimes[mTypedTimesCount - 1] = KeyEvent.KEYCODE_0;
+                mTypedTimes[mTypedTimesCount] = KeyEvent.KEYCODE_0;
+                mTypedTimesCount += 2;
             }
             onValidationChanged(true);
         }
@@ -954,18 +975,33 @@ public class SublimeTimePicker extends FrameLayout
     }
 
     /**
-     * Traverse the tree to see if the keys that have been typed so far are legal as is,
-     * or may become legal as more keys are typed (excluding backspace).
+     * Run the keys that have been typed so far through the legal times table.
+     *
+     * @return the state reached, or {@link LegalTimesTable#NO_STATE} if the keys
+     * can't become legal as more keys are typed (excluding backspace).
      */
-    private boolean isTypedTimeLegalSoFar() {
-        Node node = mLegalTimesTree;
-        for (int keyCode : mTypedTimes) {
-            node = node.canReach(keyCode);
-            if (node == null) {
-                return false;
-            }
+    private int getTypedTimesState() {
+        int state = LegalTimesTable.START_STATE;
+        for (int i = 0; i < mTypedTimesCount && state != LegalTimesTable.NO_STATE; i++) {
+            final int symbol = getSymbolFromKeyCode(mTypedTimes[i]);
+            state = symbol == -1 ? LegalTimesTable.NO_STATE : mLegalTimes.next(state, symbol);
         }
-        return true;
+        return state;
+    }
+
+    /**
+     * @return the symbol of the legal times table for {@code keyCode}, or -1
+     */
+    private int getSymbolFromKeyCode(int keyCode) {
+        final int val = getValFromKeyCode(keyCode);
+        if (val != -1) {
+            return val;
+        } else if (keyCode == getAmOrPmKeyCode(AM)) {
+            return LegalTimesTable.SYMBOL_AM;
+        } else if (keyCode == getAmOrPmKeyCode(PM)) {
+            return LegalTimesTable.SYMBOL_PM;
+        }
+        return -1;
     }
 
     /**
@@ -976,17 +1012,60 @@ public class SublimeTimePicker extends FrameLayout
             // For 24-hour mode, the time is legal if the hours and minutes are each legal. Note:
             // getEnteredTime() will ONLY call isTypedTimeFullyLegal() when NOT in 24hour mode.
             int[] values = getEnteredTime(null);
-            return (values[0] >= 0 && values[1] >= 0 && values[1] < 60);
+            return (values[0] >= 0 && values[1] >= 0 && values[1] < 60
+                    && isTypedTimeAvailable(values[0], values[1]));
         } else {
-            // For AM/PM mode, the time is legal if it contains an AM or PM, as those can only be
-            // legally added at specific times based on the tree's algorithm.
-            return (mTypedTimes.contains(getAmOrPmKeyCode(AM)) ||
-                    mTypedTimes.contains(getAmOrPmKeyCode(PM)));
+            // For AM/PM mode, the time is legal if it ends with an AM or PM, as those can only be
+            // legally added at specific times based on the legal times table.
+            if (mTypedTimesCount == 0) {
+                return false;
+            }
+            final int lastKeyCode = mTypedTimes[mTypedTimesCount - 1];
+            return lastKeyCode == getAmOrPmKeyCode(AM) || lastKeyCode == getAmOrPmKeyCode(PM);
         }
     }
 
+    /**
+     * Check if the keys typed so far form a complete time that is blocked
+     * or off the minute step, i.e. no further key can turn them into an
+     * available time.
+     */
+    private boolean isTypedTimeBlocked() {
+        if (mTimeAvailability == null && getMinuteGranularity() == 1) {
+            return false;
+        }
+
+        final int[] values = getEnteredTime(null);
+        if (mIs24HourView) {
+            if (mTypedTimesCount < 4 && !isTypedTimeFinal()) {
+                return false;
+            }
+            return values[0] >= 0 && values[1] >= 0 && !isTypedTimeAvailable(values[0], values[1]);
+        }
+
+        if (values[2] == -1) {
+            // No AM or PM typed yet.
+            return false;
+        }
+
+        // Up to two digits before AM/PM are the hour; the minutes
+        // will be filled in with 0's.
+        final boolean hourOnly = mTypedTimesCount <= 3;
+        final int hour = (hourOnly ? values[1] : values[0]) % HOURS_IN_HALF_DAY;
+        final int minute = hourOnly ? 0 : values[1];
+        return !isTypedTimeAvailable(values[2] == PM ? hour + HOURS_IN_HALF_DAY : hour, minute);
+    }
+
+    /**
+     * Check if no further key can be typed after the keys typed so far.
+     */
+    private boolean isTypedTimeFinal() {
+        final int state = getTypedTimesState();
+        return state != LegalTimesTable.NO_STATE && mLegalTimes.isFinal(state);
+    }
+
     private int deleteLastTypedKey() {
-        int deleted = mTypedTimes.remove(mTypedTimes.size() - 1);
+        int deleted = mTypedTimes[--mTypedTimesCount];
         if (!isTypedTimeFullyLegal()) {
             onValidationChanged(false);
         }
@@ -998,14 +1077,14 @@ public class SublimeTimePicker extends FrameLayout
      */
     private void finishKbMode() {
         mInKbMode = false;
-        if (!mTypedTimes.isEmpty()) {
+        if (mTypedTimesCount != 0) {
             int values[] = getEnteredTime(null);
             mRadialTimePickerView.setCurrentHour(values[0]);
             mRadialTimePickerView.setCurrentMinute(values[1]);
             if (!mIs24HourView) {
                 mRadialTimePickerView.setAmOrPm(values[2]);
             }
-            mTypedTimes.clear();
+            mTypedTimesCount = 0;
         }
         updateDisplay(false);
         mRadialTimePickerView.setInputEnabled(true);
@@ -1020,7 +1099,7 @@ public class SublimeTimePicker extends FrameLayout
      *                          Otherwise, revert to the timepicker's values.
      */
     private void updateDisplay(boolean allowEmptyDisplay) {
-        if (!allowEmptyDisplay && mTypedTimes.isEmpty()) {
+        if (!allowEmptyDisplay && mTypedTimesCount == 0) {
             int hour = mRadialTimePickerView.getCurrentHour();
             int minute = mRadialTimePickerView.getCurrentMinute();
             updateHeaderHour(hour, false);
@@ -1029,7 +1108,7 @@ public class SublimeTimePicker extends FrameLayout
                 updateAmPmLabelStates(hour < 12 ? AM : PM);
             }
             setCurrentItemShowing(mRadialTimePickerView.getCurrentItemShowing(), true, true);
-            onValidationChanged(true);
+            onValidationChanged(isTimeAvailable(getCurrentHour(), minute));
         } else {
             boolean[] enteredZeros = {false, false};
             int[] values = getEnteredTime(enteredZeros);
@@ -1108,7 +1187,7 @@ public class SublimeTimePicker extends FrameLayout
         int amOrPm = -1;
         int startIndex = 1;
         if (!mIs24HourView && isTypedTimeFullyLegal()) {
-            int keyCode = mTypedTimes.get(mTypedTimes.size() - 1);
+            int keyCode = mTypedTimes[mTypedTimesCount - 1];
             if (keyCode == getAmOrPmKeyCode(AM)) {
                 amOrPm = AM;
             } else if (keyCode == getAmOrPmKeyCode(PM)) {
@@ -1118,8 +1197,8 @@ public class SublimeTimePicker extends FrameLayout
         }
         int minute = -1;
         int hour = -1;
-        for (int i = startIndex; i <= mTypedTimes.size(); i++) {
-            int val = getValFromKeyCode(mTypedTimes.get(mTypedTimes.size() - i));
+        for (int i = startIndex; i <= mTypedTimesCount; i++) {
+            int val = getValFromKeyCode(mTypedTimes[mTypedTimesCount - i]);
             if (i == startIndex) {
                 minute = val;
             } else if (i == startIndex + 1) {
@@ -1177,178 +1256,6 @@ public class SublimeTimePicker extends FrameLayout
         return -1;
     }
 
-    /**
-     * Create a tree for deciding what keys can legally be typed.
-     */
-    private void generateLegalTimesTree() {
-        // Create a quick cache of numbers to their keycodes.
-        final int k0 = KeyEvent.KEYCODE_0;
-        final int k1 = KeyEvent.KEYCODE_1;
-        final int k2 = KeyEvent.KEYCODE_2;
-        final int k3 = KeyEvent.KEYCODE_3;
-        final int k4 = KeyEvent.KEYCODE_4;
-        final int k5 = KeyEvent.KEYCODE_5;
-        final int k6 = KeyEvent.KEYCODE_6;
-        final int k7 = KeyEvent.KEYCODE_7;
-        final int k8 = KeyEvent.KEYCODE_8;
-        final int k9 = KeyEvent.KEYCODE_9;
-
-        // The root of the tree doesn't contain any numbers.
-        mLegalTimesTree = new Node();
-        if (mIs24HourView) {
-            // We'll be re-using these nodes, so we'll save them.
-            Node minuteFirstDigit = new Node(k0, k1, k2, k3, k4, k5);
-            Node minuteSecondDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
-            // The first digit must be followed by the second digit.
-            minuteFirstDigit.addChild(minuteSecondDigit);
-
-            // The first digit may be 0-1.
-            Node firstDigit = new Node(k0, k1);
-            mLegalTimesTree.addChild(firstDigit);
-
-            // When the first digit is 0-1, the second digit may be 0-5.
-            Node secondDigit = new Node(k0, k1, k2, k3, k4, k5);
-            firstDigit.addChild(secondDigit);
-            // We may now be followed by the first minute digit. E.g. 00:09, 15:58.
-            secondDigit.addChild(minuteFirstDigit);
-
-            // When the first digit is 0-1, and the second digit is 0-5, the third digit may be 6-9.
-            Node thirdDigit = new Node(k6, k7, k8, k9);
-            // The time must now be finished. E.g. 0:55, 1:08.
-            secondDigit.addChild(thirdDigit);
-
-            // When the first digit is 0-1, the second digit may be 6-9.
-            secondDigit = new Node(k6, k7, k8, k9);
-            firstDigit.addChild(secondDigit);
-            // We must now be followed by the first minute digit. E.g. 06:50, 18:20.
-            secondDigit.addChild(minuteFirstDigit);
-
-            // The first digit may be 2.
-            firstDigit = new Node(k2);
-            mLegalTimesTree.addChild(firstDigit);
-
-            // When the first digit is 2, the second digit may be 0-3.
-            secondDigit = new Node(k0, k1, k2, k3);
-            firstDigit.addChild(secondDigit);
-            // We must now be followed by the first minute digit. E.g. 20:50, 23:09.
-            secondDigit.addChild(minuteFirstDigit);
-
-            // When the first digit is 2, the second digit may be 4-5.
-            secondDigit = new Node(k4, k5);
-            firstDigit.addChild(secondDigit);
-            // We must now be followd by the last minute digit. E.g. 2:40, 2:53.
-            secondDigit.addChild(minuteSecondDigit);
-
-            // The first digit may be 3-9.
-            firstDigit = new Node(k3, k4, k5, k6, k7, k8, k9);
-            mLegalTimesTree.addChild(firstDigit);
-            // We must now be followed by the first minute digit. E.g. 3:57, 8:12.
-            firstDigit.addChild(minuteFirstDigit);
-        } else {
-            // We'll need to use the AM/PM node a lot.
-            // Set up AM and PM to respond to "a" and "p".
-            Node ampm = new Node(getAmOrPmKeyCode(AM), getAmOrPmKeyCode(PM));
-
-            // The first hour digit may be 1.
-            Node firstDigit = new Node(k1);
-            mLegalTimesTree.addChild(firstDigit);
-            // We'll allow quick input of on-the-hour times. E.g. 1pm.
-            firstDigit.addChild(ampm);
-
-            // When the first digit is 1, the second digit may be 0-2.
-            Node secondDigit = new Node(k0, k1, k2);
-            firstDigit.addChild(secondDigit);
-            // Also for quick input of on-the-hour times. E.g. 10pm, 12am.
-            secondDigit.addChild(ampm);
-
-            // When the first digit is 1, and the second digit is 0-2, the third digit may be 0-5.
-            Node thirdDigit = new Node(k0, k1, k2, k3, k4, k5);
-            secondDigit.addChild(thirdDigit);
-            // The time may be finished now. E.g. 1:02pm, 1:25am.
-            thirdDigit.addChild(ampm);
-
-            // When the first digit is 1, the second digit is 0-2, and the third digit is 0-5,
-            // the fourth digit may be 0-9.
-            Node fourthDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
-            thirdDigit.addChild(fourthDigit);
-            // The time must be finished now. E.g. 10:49am, 12:40pm.
-            fourthDigit.addChild(ampm);
-
-            // When the first digit is 1, and the second digit is 0-2, the third digit may be 6-9.
-            thirdDigit = new Node(k6, k7, k8, k9);
-            secondDigit.addChild(thirdDigit);
-            // The time must be finished now. E.g. 1:08am, 1:26pm.
-            thirdDigit.addChild(ampm);
-
-            // When the first digit is 1, the second digit may be 3-5.
-            secondDigit = new Node(k3, k4, k5);
-            firstDigit.addChild(secondDigit);
-
-            // When the first digit is 1, and the second digit is 3-5, the third digit may be 0-9.
-            thirdDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
-            secondDigit.addChild(thirdDigit);
-            // The time must be finished now. E.g. 1:39am, 1:50pm.
-            thirdDigit.addChild(ampm);
-
-            // The hour digit may be 2-9.
-            firstDigit = new Node(k2, k3, k4, k5, k6, k7, k8, k9);
-            mLegalTimesTree.addChild(firstDigit);
-            // We'll allow quick input of on-the-hour-times. E.g. 2am, 5pm.
-            firstDigit.addChild(ampm);
-
-            // When the first digit is 2-9, the second digit may be 0-5.
-            secondDigit = new Node(k0, k1, k2, k3, k4, k5);
-            firstDigit.addChild(secondDigit);
-
-            // When the first digit is 2-9, and the second digit is 0-5, the third digit may be 0-9.
-            thirdDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
-            secondDigit.addChild(thirdDigit);
-            // The time must be finished now. E.g. 2:57am, 9:30pm.
-            thirdDigit.addChild(ampm);
-        }
-    }
-
-    /**
-     * Simple node class to be used for traversal to check for legal times.
-     * mLegalKeys represents the keys that can be typed to get to the node.
-     * mChildren are the children that can be reached from this node.
-     */
-    private class Node {
-        private final int[] mLegalKeys;
-        private final ArrayList<Node> mChildren;
-
-        public Node(int... legalKeys) {
-            mLegalKeys = legalKeys;
-            mChildren = new ArrayList<>();
-        }
-
-        public void addChild(Node child) {
-            mChildren.add(child);
-        }
-
-        public boolean containsKey(int key) {
-            for (int legalKey : mLegalKeys) {
-                if (legalKey == key) {
-                    return true;
-                }
-            }
-
-            return false;
-        }
-
-        public Node canReach(int key) {
-            if (mChildren == null) {
-                return null;
-            }
-            for (Node child : mChildren) {
-                if (child.containsKey(key)) {
-                    return child;
-                }
-            }
-            return null;
-        }
-    }
-
     private final View.OnClickListener mClickListener = new View.OnClickListener() {
         @Override
         public void onClick(View v) {
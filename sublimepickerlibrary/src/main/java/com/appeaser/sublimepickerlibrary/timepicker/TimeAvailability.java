@@ -0,0 +1,227 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * Which minutes of a day can be picked in {@link SublimeTimePicker}.
+ * Backed by a bitmap of 1440 bits, one per minute of the day; all
+ * minutes are available until blocked.
+ * <p/>
+ * Changes made after the instance has been handed to a picker are picked
+ * up on the next call to {@link SublimeTimePicker#setTimeAvailability(TimeAvailability)}.
+ */
+public class TimeAvailability implements Parcelable {
+
+    public static final int MINUTES_IN_DAY = 24 * 60;
+
+    private static final int MINUTES_IN_HOUR = 60;
+    private static final int WORD_COUNT = (MINUTES_IN_DAY + 63) >>> 6;
+
+    // Set bits mark blocked minutes.
+    private final long[] mBlocked = new long[WORD_COUNT];
+
+    public TimeAvailability() {
+        // Nothing
+    }
+
+    private TimeAvailability(Parcel in) {
+        in.readLongArray(mBlocked);
+    }
+
+    /**
+     * @return the minute of the day for {@code hourOfDay}:{@code minute}
+     */
+    public static int getMinuteOfDay(int hourOfDay, int minute) {
+        return hourOfDay * MINUTES_IN_HOUR + minute;
+    }
+
+    /**
+     * Makes every minute of the day available, or blocks every minute.
+     */
+    public TimeAvailability setAllAvailable(boolean available) {
+        final long fill = available ? 0L : -1L;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            mBlocked[i] = fill;
+        }
+        clearUnusedBits();
+        return this;
+    }
+
+    /**
+     * Makes the minutes in [{@code fromMinuteOfDay}, {@code toMinuteOfDay})
+     * available or blocked.
+     */
+    public TimeAvailability setAvailable(int fromMinuteOfDay, int toMinuteOfDay,
+                                         boolean available) {
+        if (fromMinuteOfDay < 0 || toMinuteOfDay > MINUTES_IN_DAY
+                || fromMinuteOfDay > toMinuteOfDay) {
+            throw new IllegalArgumentException("Invalid range: ["
+                    + fromMinuteOfDay + ", " + toMinuteOfDay + ")");
+        }
+
+        if (fromMinuteOfDay == toMinuteOfDay) {
+            return this;
+        }
+
+        final int firstWord = fromMinuteOfDay >>> 6;
+        final int lastWord = (toMinuteOfDay - 1) >>> 6;
+        final long firstMask = -1L << fromMinuteOfDay;
+        final long lastMask = -1L >>> -toMinuteOfDay;
+
+        for (int i = firstWord; i <= lastWord; i++) {
+            long mask = -1L;
+            if (i == firstWord) {
+                mask &= firstMask;
+            }
+            if (i == lastWord) {
+                mask &= lastMask;
+            }
+
+            if (available) {
+                mBlocked[i] &= ~mask;
+            } else {
+                mBlocked[i] |= mask;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Makes the minutes from {@code fromHourOfDay}:{@code fromMinute} up to,
+     * but excluding, {@code toHourOfDay}:{@code toMinute} available or blocked.
+     * Use 24:00 to include the last minute of the day.
+     */
+    public TimeAvailability setAvailable(int fromHourOfDay, int fromMinute,
+                                         int toHourOfDay, int toMinute, boolean available) {
+        return setAvailable(getMinuteOfDay(fromHourOfDay, fromMinute),
+                getMinuteOfDay(toHourOfDay, toMinute), available);
+    }
+
+    /**
+     * Replaces the whole bitmap. Bit {@code m % 64} of {@code blocked[m / 64]}
+     * is set if minute of the day {@code m} is blocked.
+     *
+     * @param blocked 23 words, as returned by {@link #getBlockedBitmap()}
+     */
+    public TimeAvailability setBlockedBitmap(long[] blocked) {
+        if (blocked.length != WORD_COUNT) {
+            throw new IllegalArgumentException("Expected " + WORD_COUNT + " words.");
+        }
+
+        System.arraycopy(blocked, 0, mBlocked, 0, WORD_COUNT);
+        clearUnusedBits();
+        return this;
+    }
+
+    /**
+     * @return a copy of the bitmap of blocked minutes
+     */
+    public long[] getBlockedBitmap() {
+        return mBlocked.clone();
+    }
+
+    public boolean isAvailable(int minuteOfDay) {
+        return (mBlocked[minuteOfDay >>> 6] & (1L << minuteOfDay)) == 0;
+    }
+
+    public boolean isAvailable(int hourOfDay, int minute) {
+        return isAvailable(getMinuteOfDay(hourOfDay, minute));
+    }
+
+    /**
+     * @param step the step between selectable minutes
+     * @return true if any minute of {@code hourOfDay} that is a multiple
+     * of {@code step} is available
+     */
+    public boolean isHourAvailable(int hourOfDay, int step) {
+        final int start = getMinuteOfDay(hourOfDay, 0);
+        if (step == 1) {
+            // The hour spans at most two words.
+            final int end = start + MINUTES_IN_HOUR;
+            final int firstWord = start >>> 6;
+            final int lastWord = (end - 1) >>> 6;
+            final long firstMask = -1L << start;
+            final long lastMask = -1L >>> -end;
+            if (firstWord == lastWord) {
+                return (~mBlocked[firstWord] & firstMask & lastMask) != 0;
+            }
+            return (~mBlocked[firstWord] & firstMask) != 0
+                    || (~mBlocked[lastWord] & lastMask) != 0;
+        }
+
+        for (int minute = 0; minute < MINUTES_IN_HOUR; minute += step) {
+            if (isAvailable(start + minute)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the available minute of {@code hourOfDay} that is closest to
+     * {@code minute} on the clock face, moving in multiples of {@code step}.
+     * When two minutes are equally close, the later one wins.
+     *
+     * @return the minute, or -1 if no minute of the hour is available
+     */
+    public int findNearestAvailableMinute(int hourOfDay, int minute, int step) {
+        if (isAvailable(hourOfDay, minute)) {
+            return minute;
+        }
+
+        for (int offset = step; offset <= MINUTES_IN_HOUR / 2; offset += step) {
+            final int later = (minute + offset) % MINUTES_IN_HOUR;
+            if (isAvailable(hourOfDay, later)) {
+                return later;
+            }
+
+            final int earlier = (minute - offset + MINUTES_IN_HOUR) % MINUTES_IN_HOUR;
+            if (isAvailable(hourOfDay, earlier)) {
+                return earlier;
+            }
+        }
+        return -1;
+    }
+
+    private void clearUnusedBits() {
+        mBlocked[WORD_COUNT - 1] &= -1L >>> -MINUTES_IN_DAY;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeLongArray(mBlocked);
+    }
+
+    public static final Parcelable.Creator<TimeAvailability> CREATOR
+            = new Parcelable.Creator<TimeAvailability>() {
+        public TimeAvailability createFromParcel(Parcel in) {
+            return new TimeAvailability(in);
+        }
+
+        public TimeAvailability[] newArray(int size) {
+            return new TimeAvailability[size];
+        }
+    };
+}
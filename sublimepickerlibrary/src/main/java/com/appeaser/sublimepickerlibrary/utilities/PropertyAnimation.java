@@ -0,0 +1,225 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.utilities;
+
+import android.animation.Animator;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.graphics.RectF;
+import android.util.Property;
+import android.view.animation.LinearInterpolator;
+
+import com.appeaser.sublimepickerlibrary.drawables.CRectFEvaluator;
+
+/**
+ * An animation of a fixed set of {@link Property} tracks, built once and
+ * started as often as needed. All tracks are driven by one preallocated
+ * {@link ValueAnimator}: each frame, every track maps the elapsed time
+ * through its own duration and interpolator and writes the value straight
+ * into its property. Nothing is looked up by reflection, int values are
+ * not boxed and RectF values are written into a reused rect, so running
+ * the animation again allocates nothing.
+ * <p/>
+ * Tracks keep references to the RectF values they are given; changing
+ * those rects in place changes the animation.
+ */
+public final class PropertyAnimation implements ValueAnimator.AnimatorUpdateListener {
+
+    private final ValueAnimator mAnimator = ValueAnimator.ofFloat(0f, 1f);
+    private final Track[] mTracks;
+    private int mTrackCount;
+    private long mDuration;
+
+    /**
+     * @param maxTracks the number of tracks that will be added
+     */
+    public PropertyAnimation(int maxTracks) {
+        mTracks = new Track[maxTracks];
+        mAnimator.setInterpolator(new LinearInterpolator());
+        mAnimator.addUpdateListener(this);
+    }
+
+    /**
+     * Adds a track animating an int property.
+     *
+     * @param delayFraction the interpolated fraction of the track before
+     *                      which the value stays at {@code from}
+     */
+    public <T> PropertyAnimation addIntTrack(T target, IntProperty<T> property, int from, int to,
+                                             long duration, TimeInterpolator interpolator,
+                                             float delayFraction) {
+        return addTrack(new IntTrack<>(target, property, from, to,
+                duration, interpolator, delayFraction));
+    }
+
+    /**
+     * Adds a track animating a RectF property. The property receives the
+     * same rect on every frame and must copy its values.
+     */
+    public <T> PropertyAnimation addRectFTrack(T target, Property<T, RectF> property,
+                                               RectF from, RectF to,
+                                               long duration, TimeInterpolator interpolator) {
+        return addTrack(new RectFTrack<>(target, property, from, to, duration, interpolator));
+    }
+
+    private PropertyAnimation addTrack(Track track) {
+        if (mTrackCount == mTracks.length) {
+            throw new IllegalStateException("Only " + mTracks.length + " tracks can be added.");
+        }
+
+        mTracks[mTrackCount++] = track;
+        mDuration = Math.max(mDuration, track.mDuration);
+        mAnimator.setDuration(mDuration);
+        return this;
+    }
+
+    public void addUpdateListener(ValueAnimator.AnimatorUpdateListener listener) {
+        mAnimator.addUpdateListener(listener);
+    }
+
+    public void addListener(Animator.AnimatorListener listener) {
+        mAnimator.addListener(listener);
+    }
+
+    public void start() {
+        mAnimator.start();
+    }
+
+    /**
+     * Jumps to the end values.
+     */
+    public void end() {
+        mAnimator.end();
+    }
+
+    /**
+     * Stops where the animation is.
+     */
+    public void cancel() {
+        mAnimator.cancel();
+    }
+
+    public boolean isRunning() {
+        return mAnimator.isRunning();
+    }
+
+    /**
+     * Moves to {@code playTime} and applies the tracks, as a frame would.
+     */
+    void setCurrentPlayTime(long playTime) {
+        mAnimator.setCurrentPlayTime(playTime);
+    }
+
+    long getDuration() {
+        return mDuration;
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        final float playTime = animation.getAnimatedFraction() * mDuration;
+        for (int i = 0; i < mTrackCount; i++) {
+            final Track track = mTracks[i];
+            final float fraction = track.mDuration == 0 ? 1f
+                    : Math.min(1f, playTime / track.mDuration);
+            track.apply(track.mInterpolator.getInterpolation(fraction));
+        }
+    }
+
+    /**
+     * A property holding an int, set without boxing.
+     */
+    public abstract static class IntProperty<T> extends Property<T, Integer> {
+
+        public IntProperty(String name) {
+            super(Integer.class, name);
+        }
+
+        public abstract void setValue(T object, int value);
+
+        public abstract int getValue(T object);
+
+        @Override
+        public final void set(T object, Integer value) {
+            setValue(object, value);
+        }
+
+        @Override
+        public final Integer get(T object) {
+            return getValue(object);
+        }
+    }
+
+    private abstract static class Track {
+        final long mDuration;
+        final TimeInterpolator mInterpolator;
+
+        Track(long duration, TimeInterpolator interpolator) {
+            mDuration = duration;
+            mInterpolator = interpolator;
+        }
+
+        abstract void apply(float fraction);
+    }
+
+    private static final class IntTrack<T> extends Track {
+        private final T mTarget;
+        private final IntProperty<T> mProperty;
+        private final int mFrom, mTo;
+        private final float mDelayFraction;
+
+        IntTrack(T target, IntProperty<T> property, int from, int to,
+                 long duration, TimeInterpolator interpolator, float delayFraction) {
+            super(duration, interpolator);
+            mTarget = target;
+            mProperty = property;
+            mFrom = from;
+            mTo = to;
+            mDelayFraction = delayFraction;
+        }
+
+        @Override
+        void apply(float fraction) {
+            if (fraction <= mDelayFraction) {
+                fraction = 0f;
+            } else {
+                fraction = (fraction - mDelayFraction) / (1f - mDelayFraction);
+            }
+            mProperty.setValue(mTarget, mFrom + (int) (fraction * (mTo - mFrom)));
+        }
+    }
+
+    private static final class RectFTrack<T> extends Track {
+        private final T mTarget;
+        private final Property<T, RectF> mProperty;
+        private final RectF mFrom, mTo;
+        private final CRectFEvaluator mEvaluator = new CRectFEvaluator(new RectF());
+
+        RectFTrack(T target, Property<T, RectF> property, RectF from, RectF to,
+                   long duration, TimeInterpolator interpolator) {
+            super(duration, interpolator);
+            mTarget = target;
+            mProperty = property;
+            mFrom = from;
+            mTo = to;
+        }
+
+        @Override
+        void apply(float fraction) {
+            mProperty.set(mTarget, mEvaluator.evaluate(fraction, mFrom, mTo));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.utilities;
+
+import android.content.res.ColorStateList;
+
+/**
+ * Colors of a {@link ColorStateList} resolved up front for every
+ * combination of {@link SUtils#STATE_ENABLED}, {@link SUtils#STATE_ACTIVATED}
+ * and {@link SUtils#STATE_PRESSED}, so that draw loops can look a color up
+ * by state mask with a plain array read.
+ *
+ * A second table holds the same colors with their alpha multiplied by an
+ * alpha level; it is only recomputed when that level changes.
+ */
+public final class StateColorTable {
+
+    private static final int STATE_MASK_COUNT = 8;
+
+    private final int[] mColors = new int[STATE_MASK_COUNT];
+    private final int[] mColorsWithAlpha = new int[STATE_MASK_COUNT];
+
+    private ColorStateList mColorStateList;
+    private int mAlpha = 255;
+
+    public StateColorTable() {
+    }
+
+    public StateColorTable(ColorStateList colorStateList) {
+        setColorStateList(colorStateList);
+    }
+
+    /**
+     * Resolves the colors of {@code colorStateList} for all state masks.
+     * Does nothing if the same list is already resolved.
+     */
+    public void setColorStateList(ColorStateList colorStateList) {
+        if (colorStateList == mColorStateList) {
+            return;
+        }
+
+        mColorStateList = colorStateList;
+
+        for (int mask = 0; mask < STATE_MASK_COUNT; mask++) {
+            mColors[mask] = colorStateList == null ? 0
+                    : colorStateList.getColorForState(SUtils.resolveStateSet(mask), 0);
+        }
+
+        updateColorsWithAlpha();
+    }
+
+    public ColorStateList getColorStateList() {
+        return mColorStateList;
+    }
+
+    /**
+     * @param stateMask combination of the {@code SUtils.STATE_*} flags
+     * @return the color for the given states
+     */
+    public int getColor(int stateMask) {
+        return mColors[stateMask];
+    }
+
+    /**
+     * Sets the alpha level (0-255) applied by {@link #getColorWithAlpha(int)}.
+     */
+    public void setAlpha(int alpha) {
+        if (alpha != mAlpha) {
+            mAlpha = alpha;
+            updateColorsWithAlpha();
+        }
+    }
+
+    /**
+     * @param stateMask combination of the {@code SUtils.STATE_*} flags
+     * @return the color for the given states, with its alpha multiplied
+     * by the level set through {@link #setAlpha(int)}
+     */
+    public int getColorWithAlpha(int stateMask) {
+        return mColorsWithAlpha[stateMask];
+    }
+
+    private void updateColorsWithAlpha() {
+        for (int mask = 0; mask < STATE_MASK_COUNT; mask++) {
+            final int color = mColors[mask];
+            final int alpha = (int) ((color >>> 24) * (mAlpha / 255.0) + 0.5);
+            mColorsWithAlpha[mask] = (color & 0xFFFFFF) | (alpha << 24);
+        }
+    }
+}
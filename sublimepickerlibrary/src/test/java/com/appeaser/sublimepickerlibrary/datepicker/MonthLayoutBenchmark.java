@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lays out the 24 months of a two-year swipe with {@link MonthLayout}, and
+ * with a {@link Calendar} as {@link SimpleMonthView} did before it. Run with
+ * {@code ./gradlew jmh -Pjmh=MonthLayout}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MonthLayoutBenchmark {
+
+    private static final int MONTHS = 24;
+
+    private final Calendar mCalendar = Calendar.getInstance();
+
+    @Benchmark
+    public int monthLayout() {
+        int rows = 0;
+        for (int i = 0; i < MONTHS; i++) {
+            rows += new MonthLayout(2016 + i / 12, i % 12, Calendar.SUNDAY, 1, 31).getRows();
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int calendar() {
+        int rows = 0;
+        for (int i = 0; i < MONTHS; i++) {
+            mCalendar.set(Calendar.MONTH, i % 12);
+            mCalendar.set(Calendar.YEAR, 2016 + i / 12);
+            mCalendar.set(Calendar.DAY_OF_MONTH, 1);
+            final int dayOfWeekStart = mCalendar.get(Calendar.DAY_OF_WEEK);
+            final int daysInMonth = mCalendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+            final int offset = (dayOfWeekStart - Calendar.SUNDAY + 7) % 7;
+            rows += (offset + daysInMonth + 6) / 7;
+        }
+        return rows;
+    }
+}
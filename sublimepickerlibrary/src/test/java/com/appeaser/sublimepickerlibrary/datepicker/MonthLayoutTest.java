@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class MonthLayoutTest {
+
+    @Test
+    public void epochDaysMatchTheProlepticGregorianCalendar() {
+        final GregorianCalendar calendar = newCalendar();
+        calendar.set(1600, Calendar.JANUARY, 1);
+        int epochDay = MonthLayout.toEpochDay(1600, Calendar.JANUARY, 1);
+        assertEquals(getEpochDay(calendar), epochDay);
+
+        while (calendar.get(Calendar.YEAR) < 2400) {
+            final int year = calendar.get(Calendar.YEAR);
+            final int month = calendar.get(Calendar.MONTH);
+            final int day = calendar.get(Calendar.DAY_OF_MONTH);
+            assertEquals(year + "-" + month + "-" + day,
+                    epochDay, MonthLayout.toEpochDay(year, month, day));
+            assertEquals(calendar.get(Calendar.DAY_OF_WEEK), MonthLayout.getDayOfWeek(epochDay));
+            assertEquals(calendar.getActualMaximum(Calendar.DAY_OF_MONTH),
+                    MonthLayout.getDaysInMonth(month, year));
+
+            calendar.add(Calendar.DATE, 1);
+            epochDay++;
+        }
+        assertEquals(0, MonthLayout.toEpochDay(1970, Calendar.JANUARY, 1));
+    }
+
+    @Test
+    public void epochDaysOfDistantYears() {
+        final GregorianCalendar calendar = newCalendar();
+        for (int year = -4000; year <= 12000; year += 7) {
+            for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+                calendar.clear();
+                calendar.set(Calendar.ERA, year > 0 ? GregorianCalendar.AD : GregorianCalendar.BC);
+                calendar.set(year > 0 ? year : 1 - year, month, 1);
+                assertEquals(year + "-" + month, getEpochDay(calendar),
+                        MonthLayout.toEpochDay(year, month, 1));
+            }
+        }
+    }
+
+    @Test
+    public void laysOutMonthsLikeCalendar() {
+        final GregorianCalendar calendar = newCalendar();
+        for (int year = 1999; year <= 2030; year++) {
+            for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+                for (int weekStart = Calendar.SUNDAY; weekStart <= Calendar.SATURDAY; weekStart++) {
+                    calendar.clear();
+                    calendar.setFirstDayOfWeek(weekStart);
+                    calendar.setMinimalDaysInFirstWeek(1);
+                    calendar.set(year, month, 1);
+
+                    final MonthLayout layout = new MonthLayout(year, month, weekStart, 1, 31);
+                    final int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+                    assertEquals(calendar.getActualMaximum(Calendar.WEEK_OF_MONTH),
+                            layout.getRows());
+                    for (int day = 1; day <= daysInMonth; day++) {
+                        calendar.set(Calendar.DAY_OF_MONTH, day);
+                        final int row = calendar.get(Calendar.WEEK_OF_MONTH) - 1;
+                        final int col = (calendar.get(Calendar.DAY_OF_WEEK) - weekStart
+                                + MonthLayout.DAYS_IN_WEEK) % MonthLayout.DAYS_IN_WEEK;
+                        assertEquals(layout + " day " + day, row, layout.getRow(day));
+                        assertEquals(layout + " day " + day, col, layout.getColumn(day));
+                        assertEquals(day, layout.getDayAt(row, col));
+                    }
+                    assertEquals(-1, layout.getDayAt(0, layout.getDayOffset() - 1));
+                    assertEquals(-1, layout.getDayAt(layout.getRow(daysInMonth),
+                            layout.getColumn(daysInMonth) + 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void equalsLayoutsForTheSameConstrainedDays() {
+        final MonthLayout layout = new MonthLayout(2700, Calendar.FEBRUARY, Calendar.MONDAY, 1, 28);
+        final MonthLayout same = new MonthLayout(2700, Calendar.FEBRUARY, Calendar.MONDAY, -5, 31);
+        assertEquals(layout, same);
+        assertEquals(layout.hashCode(), same.hashCode());
+        assertEquals(28, layout.getEnabledDayEnd());
+
+        assertNotEquals(layout, new MonthLayout(2700, Calendar.FEBRUARY, Calendar.SUNDAY, 1, 28));
+        assertNotEquals(layout, new MonthLayout(2700, Calendar.FEBRUARY, Calendar.MONDAY, 2, 28));
+        assertNotEquals(layout, new MonthLayout(2700, Calendar.MARCH, Calendar.MONDAY, 1, 28));
+        assertNotEquals(layout, new MonthLayout(2701, Calendar.FEBRUARY, Calendar.MONDAY, 1, 28));
+    }
+
+    @Test
+    public void staysGregorianBeforeTheJulianSwitch() {
+        // A default GregorianCalendar goes from 1582-10-04 (Julian) straight
+        // to 1582-10-15; the proleptic Gregorian calendar has ten days between.
+        final GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(1582, Calendar.OCTOBER, 15);
+        assertEquals(getEpochDay(calendar), MonthLayout.toEpochDay(1582, Calendar.OCTOBER, 15));
+        calendar.set(1582, Calendar.OCTOBER, 4);
+        assertEquals(getEpochDay(calendar) - 10, MonthLayout.toEpochDay(1582, Calendar.OCTOBER, 4));
+
+        // 1500 is a leap year in the Julian calendar only.
+        assertEquals(28, MonthLayout.getDaysInMonth(Calendar.FEBRUARY, 1500));
+    }
+
+    private static long getEpochDay(Calendar calendar) {
+        final long dayMillis = 24 * 60 * 60 * 1000L;
+        final long millis = calendar.getTimeInMillis();
+        return millis >= 0 ? millis / dayMillis : -((-millis + dayMillis - 1) / dayMillis);
+    }
+
+    private static GregorianCalendar newCalendar() {
+        final GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+        calendar.clear();
+        return calendar;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.datepicker;
+
+import android.content.BroadcastReceiver;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.IntentFilter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Drives {@link TodayProvider} with a fake {@link TodayProvider.Clock}.
+ * The main thread Handler is stubbed out in local tests, so the scheduled
+ * rollover is run by calling {@link TodayProvider#checkForDayChange()}, and
+ * time change broadcasts are delivered by hand.
+ */
+public class TodayProviderTest {
+
+    private static final int MARCH_10_2016 = MonthLayout.toEpochDay(2016, Calendar.MARCH, 10);
+
+    private final FakeClock mClock = new FakeClock();
+    private final RecordingContext mContext = new RecordingContext();
+    private TimeZone mDefaultTimeZone;
+    private TodayProvider mProvider;
+
+    @Before
+    public void setUp() {
+        mDefaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+
+        mClock.set(2016, Calendar.MARCH, 10, 23, 0);
+        mProvider = new TodayProvider();
+        mProvider.setClock(mClock);
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(mDefaultTimeZone);
+    }
+
+    @Test
+    public void rollsOverAtLocalMidnight() {
+        assertEquals(MARCH_10_2016, mProvider.getTodayEpochDay());
+
+        mClock.set(2016, Calendar.MARCH, 10, 23, 59);
+        mClock.mMillis += 59999;
+        assertEquals(MARCH_10_2016, mProvider.getTodayEpochDay());
+
+        mClock.mMillis++;
+        assertEquals(MARCH_10_2016 + 1, mProvider.getTodayEpochDay());
+    }
+
+    @Test
+    public void rollsOverOnDaylightSavingDays() {
+        // Clocks go forward at 02:00 on 2016-03-27 in Berlin, so that day is 23 hours long
+        mClock.set(2016, Calendar.MARCH, 27, 1, 0);
+        final int march27 = MonthLayout.toEpochDay(2016, Calendar.MARCH, 27);
+        assertEquals(march27, mProvider.getTodayEpochDay());
+
+        mClock.mMillis += 22 * 60 * 60 * 1000L - 1;
+        assertEquals(march27, mProvider.getTodayEpochDay());
+        mClock.mMillis++;
+        assertEquals(march27 + 1, mProvider.getTodayEpochDay());
+    }
+
+    @Test
+    public void notifiesListenersOnceAfterMidnight() {
+        final RecordingListener listener = new RecordingListener();
+        mProvider.addOnDayChangedListener(mContext, listener);
+
+        mClock.set(2016, Calendar.MARCH, 10, 23, 30);
+        mProvider.checkForDayChange();
+        assertEquals(Collections.<Integer>emptyList(), listener.mDays);
+
+        mClock.set(2016, Calendar.MARCH, 11, 0, 0);
+        mProvider.checkForDayChange();
+        mProvider.checkForDayChange();
+        assertEquals(Arrays.asList(MARCH_10_2016 + 1), listener.mDays);
+
+        mClock.set(2016, Calendar.MARCH, 13, 8, 0);
+        mProvider.checkForDayChange();
+        assertEquals(Arrays.asList(MARCH_10_2016 + 1, MARCH_10_2016 + 3), listener.mDays);
+    }
+
+    @Test
+    public void addsListenersOnce() {
+        final RecordingListener listener = new RecordingListener();
+        mProvider.addOnDayChangedListener(mContext, listener);
+        mProvider.addOnDayChangedListener(mContext, listener);
+
+        mClock.set(2016, Calendar.MARCH, 11, 0, 0);
+        mProvider.checkForDayChange();
+        assertEquals(Arrays.asList(MARCH_10_2016 + 1), listener.mDays);
+    }
+
+    @Test
+    public void doesNotNotifyDetachedListeners() {
+        final RecordingListener attached = new RecordingListener();
+        final RecordingListener detached = new RecordingListener();
+        mProvider.addOnDayChangedListener(mContext, attached);
+        mProvider.addOnDayChangedListener(mContext, detached);
+        mProvider.removeOnDayChangedListener(detached);
+
+        mClock.set(2016, Calendar.MARCH, 11, 0, 0);
+        mProvider.checkForDayChange();
+        assertEquals(Arrays.asList(MARCH_10_2016 + 1), attached.mDays);
+        assertEquals(Collections.<Integer>emptyList(), detached.mDays);
+    }
+
+    @Test
+    public void reattachedListenersStartFromToday() {
+        final RecordingListener listener = new RecordingListener();
+        mProvider.addOnDayChangedListener(mContext, listener);
+        mProvider.removeOnDayChangedListener(listener);
+
+        // The day changes while nothing is attached
+        mClock.set(2016, Calendar.MARCH, 12, 9, 0);
+        mProvider.addOnDayChangedListener(mContext, listener);
+        mProvider.checkForDayChange();
+        assertEquals(Collections.<Integer>emptyList(), listener.mDays);
+        assertEquals(MARCH_10_2016 + 2, mProvider.getTodayEpochDay());
+    }
+
+    @Test
+    public void listenersMayDetachWhileNotified() {
+        final RecordingListener second = new RecordingListener();
+        final RecordingListener first = new RecordingListener() {
+            @Override
+            public void onDayChanged(int todayEpochDay) {
+                super.onDayChanged(todayEpochDay);
+                mProvider.removeOnDayChangedListener(this);
+            }
+        };
+        mProvider.addOnDayChangedListener(mContext, first);
+        mProvider.addOnDayChangedListener(mContext, second);
+
+        mClock.set(2016, Calendar.MARCH, 11, 0, 0);
+        mProvider.checkForDayChange();
+        mClock.set(2016, Calendar.MARCH, 12, 0, 0);
+        mProvider.checkForDayChange();
+
+        assertEquals(Arrays.asList(MARCH_10_2016 + 1), first.mDays);
+        assertEquals(Arrays.asList(MARCH_10_2016 + 1, MARCH_10_2016 + 2), second.mDays);
+    }
+
+    @Test
+    public void followsTheClockBackwards() {
+        final RecordingListener listener = new RecordingListener();
+        mProvider.addOnDayChangedListener(mContext, listener);
+
+        mClock.set(2016, Calendar.MARCH, 9, 12, 0);
+        assertEquals(MARCH_10_2016 - 1, mProvider.getTodayEpochDay());
+        mProvider.checkForDayChange();
+        assertEquals(Arrays.asList(MARCH_10_2016 - 1), listener.mDays);
+
+        // Back to the start of the cached day is still that day.
+        mClock.set(2016, Calendar.MARCH, 9, 0, 0);
+        assertEquals(MARCH_10_2016 - 1, mProvider.getTodayEpochDay());
+        mClock.mMillis--;
+        assertEquals(MARCH_10_2016 - 2, mProvider.getTodayEpochDay());
+    }
+
+    @Test
+    public void timeZoneChangeRecomputesToday() {
+        final RecordingListener listener = new RecordingListener();
+        mProvider.addOnDayChangedListener(mContext, listener);
+        assertEquals(MARCH_10_2016, mProvider.getTodayEpochDay());
+
+        // 23:00 in Berlin is 07:00 the next day in Tokyo.
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        mContext.broadcast(Intent.ACTION_TIMEZONE_CHANGED);
+
+        assertEquals(MARCH_10_2016 + 1, mProvider.getTodayEpochDay());
+        assertEquals(Arrays.asList(MARCH_10_2016 + 1), listener.mDays);
+    }
+
+    @Test
+    public void timeZoneChangeWhileDetachedIsSeenOnAttach() {
+        final RecordingListener listener = new RecordingListener();
+        assertEquals(MARCH_10_2016, mProvider.getTodayEpochDay());
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        mProvider.addOnDayChangedListener(mContext, listener);
+
+        assertEquals(MARCH_10_2016 + 1, mProvider.getTodayEpochDay());
+    }
+
+    @Test
+    public void listensForTimeChangesWhileThereAreListeners() {
+        final RecordingListener first = new RecordingListener();
+        final RecordingListener second = new RecordingListener();
+        mProvider.addOnDayChangedListener(mContext, first);
+        mProvider.addOnDayChangedListener(mContext, second);
+        assertEquals(1, mContext.mRegistrations);
+
+        mProvider.removeOnDayChangedListener(first);
+        assertEquals(1, mContext.mRegistrations);
+        mProvider.removeOnDayChangedListener(second);
+        assertNull(mContext.mReceiver);
+    }
+
+    @Test
+    public void replacingTheClockRecomputesToday() {
+        assertEquals(MARCH_10_2016, mProvider.getTodayEpochDay());
+
+        final FakeClock earlier = new FakeClock();
+        earlier.set(2015, Calendar.DECEMBER, 31, 12, 0);
+        mProvider.setClock(earlier);
+        assertEquals(MonthLayout.toEpochDay(2015, Calendar.DECEMBER, 31),
+                mProvider.getTodayEpochDay());
+    }
+
+    private static class FakeClock implements TodayProvider.Clock {
+        long mMillis;
+
+        void set(int year, int month, int dayOfMonth, int hourOfDay, int minute) {
+            final Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(year, month, dayOfMonth, hourOfDay, minute);
+            mMillis = calendar.getTimeInMillis();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return mMillis;
+        }
+    }
+
+    /**
+     * Keeps the receiver registered with it, so broadcasts can be sent to it.
+     */
+    private static class RecordingContext extends ContextWrapper {
+        BroadcastReceiver mReceiver;
+        int mRegistrations;
+
+        RecordingContext() {
+            super(null);
+        }
+
+        @Override
+        public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+            mReceiver = receiver;
+            mRegistrations++;
+            return null;
+        }
+
+        @Override
+        public void unregisterReceiver(BroadcastReceiver receiver) {
+            assertEquals(mReceiver, receiver);
+            mReceiver = null;
+        }
+
+        void broadcast(String action) {
+            mReceiver.onReceive(this, new Intent(action));
+        }
+    }
+
+    private static class RecordingListener implements TodayProvider.OnDayChangedListener {
+        final List<Integer> mDays = new ArrayList<>();
+
+        @Override
+        public void onDayChanged(int todayEpochDay) {
+            mDays.add(todayEpochDay);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * The examples of RFC 5545, section 3.3.10, all starting at 09:00 in a
+ * floating time zone. UNTIL is read as a wall-clock time in that zone, so
+ * the tests don't depend on {@link android.text.format.Time}.
+ */
+public class EventRecurrenceIteratorTest {
+
+    @Test
+    public void dailyForTenOccurrences() {
+        assertOccurrences("19970902", "FREQ=DAILY;COUNT=10", 100,
+                "19970902", "19970903", "19970904", "19970905", "19970906",
+                "19970907", "19970908", "19970909", "19970910", "19970911");
+    }
+
+    @Test
+    public void dailyUntil() {
+        assertCount("19970902", "FREQ=DAILY;UNTIL=19971224T000000Z", 113, "19970902", "19971223");
+    }
+
+    @Test
+    public void everyOtherDay() {
+        assertOccurrences("19970902", "FREQ=DAILY;INTERVAL=2", 4,
+                "19970902", "19970904", "19970906", "19970908");
+    }
+
+    @Test
+    public void everyTenDaysFiveOccurrences() {
+        assertOccurrences("19970902", "FREQ=DAILY;INTERVAL=10;COUNT=5", 100,
+                "19970902", "19970912", "19970922", "19971002", "19971012");
+    }
+
+    @Test
+    public void everyDayInJanuaryYearly() {
+        assertCount("19980101",
+                "FREQ=YEARLY;UNTIL=20000131T140000Z;BYMONTH=1;BYDAY=SU,MO,TU,WE,TH,FR,SA",
+                93, "19980101", "20000131");
+    }
+
+    @Test
+    public void everyDayInJanuaryDaily() {
+        assertCount("19980101", "FREQ=DAILY;UNTIL=20000131T140000Z;BYMONTH=1",
+                93, "19980101", "20000131");
+    }
+
+    @Test
+    public void weeklyForTenOccurrences() {
+        assertOccurrences("19970902", "FREQ=WEEKLY;COUNT=10", 100,
+                "19970902", "19970909", "19970916", "19970923", "19970930",
+                "19971007", "19971014", "19971021", "19971028", "19971104");
+    }
+
+    @Test
+    public void weeklyUntil() {
+        assertCount("19970902", "FREQ=WEEKLY;UNTIL=19971224T000000Z", 17, "19970902", "19971223");
+    }
+
+    @Test
+    public void everyOtherWeek() {
+        assertOccurrences("19970902", "FREQ=WEEKLY;INTERVAL=2;WKST=SU", 5,
+                "19970902", "19970916", "19970930", "19971014", "19971028");
+    }
+
+    @Test
+    public void weeklyOnTuesdayAndThursdayUntil() {
+        assertOccurrences("19970902", "FREQ=WEEKLY;UNTIL=19971007T000000Z;WKST=SU;BYDAY=TU,TH", 100,
+                "19970902", "19970904", "19970909", "19970911", "19970916",
+                "19970918", "19970923", "19970925", "19970930", "19971002");
+    }
+
+    @Test
+    public void weeklyOnTuesdayAndThursdayCount() {
+        assertOccurrences("19970902", "FREQ=WEEKLY;COUNT=10;WKST=SU;BYDAY=TU,TH", 100,
+                "19970902", "19970904", "19970909", "19970911", "19970916",
+                "19970918", "19970923", "19970925", "19970930", "19971002");
+    }
+
+    @Test
+    public void everyOtherWeekOnMondayWednesdayFriday() {
+        assertOccurrences("19970901",
+                "FREQ=WEEKLY;INTERVAL=2;UNTIL=19971224T000000Z;WKST=SU;BYDAY=MO,WE,FR", 100,
+                "19970901", "19970903", "19970905", "19970915", "19970917",
+                "19970919", "19970929", "19971001", "19971003", "19971013",
+                "19971015", "19971017", "19971027", "19971029", "19971031",
+                "19971110", "19971112", "19971114", "19971124", "19971126",
+                "19971128", "19971208", "19971210", "19971212", "19971222");
+    }
+
+    @Test
+    public void everyOtherWeekOnTuesdayAndThursday() {
+        assertOccurrences("19970902", "FREQ=WEEKLY;INTERVAL=2;COUNT=8;WKST=SU;BYDAY=TU,TH", 100,
+                "19970902", "19970904", "19970916", "19970918",
+                "19970930", "19971002", "19971014", "19971016");
+    }
+
+    @Test
+    public void monthlyOnFirstFriday() {
+        assertOccurrences("19970905", "FREQ=MONTHLY;COUNT=10;BYDAY=1FR", 100,
+                "19970905", "19971003", "19971107", "19971205", "19980102",
+                "19980206", "19980306", "19980403", "19980501", "19980605");
+    }
+
+    @Test
+    public void everyOtherMonthOnFirstAndLastSunday() {
+        assertOccurrences("19970907", "FREQ=MONTHLY;INTERVAL=2;COUNT=10;BYDAY=1SU,-1SU", 100,
+                "19970907", "19970928", "19971102", "19971130", "19980104",
+                "19980125", "19980301", "19980329", "19980503", "19980531");
+    }
+
+    @Test
+    public void monthlyOnSecondToLastMonday() {
+        assertOccurrences("19970922", "FREQ=MONTHLY;COUNT=6;BYDAY=-2MO", 100,
+                "19970922", "19971020", "19971117", "19971222", "19980119", "19980216");
+    }
+
+    @Test
+    public void monthlyOnThirdToLastDay() {
+        assertOccurrences("19970928", "FREQ=MONTHLY;BYMONTHDAY=-3", 6,
+                "19970928", "19971029", "19971128", "19971229", "19980129", "19980226");
+    }
+
+    @Test
+    public void monthlyOnSecondAndFifteenth() {
+        assertOccurrences("19970902", "FREQ=MONTHLY;COUNT=10;BYMONTHDAY=2,15", 100,
+                "19970902", "19970915", "19971002", "19971015", "19971102",
+                "19971115", "19971202", "19971215", "19980102", "19980115");
+    }
+
+    @Test
+    public void monthlyOnFirstAndLastDay() {
+        assertOccurrences("19970930", "FREQ=MONTHLY;COUNT=10;BYMONTHDAY=1,-1", 100,
+                "19970930", "19971001", "19971031", "19971101", "19971130",
+                "19971201", "19971231", "19980101", "19980131", "19980201");
+    }
+
+    @Test
+    public void everyEighteenMonthsOnTenthToFifteenth() {
+        assertOccurrences("19970910",
+                "FREQ=MONTHLY;INTERVAL=18;COUNT=10;BYMONTHDAY=10,11,12,13,14,15", 100,
+                "19970910", "19970911", "19970912", "19970913", "19970914",
+                "19970915", "19990310", "19990311", "19990312", "19990313");
+    }
+
+    @Test
+    public void everyTuesdayEveryOtherMonth() {
+        assertOccurrences("19970902", "FREQ=MONTHLY;INTERVAL=2;BYDAY=TU", 14,
+                "19970902", "19970909", "19970916", "19970923", "19970930",
+                "19971104", "19971111", "19971118", "19971125", "19980106",
+                "19980113", "19980120", "19980127", "19980303");
+    }
+
+    @Test
+    public void yearlyInJuneAndJuly() {
+        assertOccurrences("19970610", "FREQ=YEARLY;COUNT=10;BYMONTH=6,7", 100,
+                "19970610", "19970710", "19980610", "19980710", "19990610",
+                "19990710", "20000610", "20000710", "20010610", "20010710");
+    }
+
+    @Test
+    public void everyOtherYearInJanuaryFebruaryMarch() {
+        assertOccurrences("19970310", "FREQ=YEARLY;INTERVAL=2;COUNT=10;BYMONTH=1,2,3", 100,
+                "19970310", "19990110", "19990210", "19990310", "20010110",
+                "20010210", "20010310", "20030110", "20030210", "20030310");
+    }
+
+    @Test
+    public void everyThirdYearOnYearDays() {
+        assertOccurrences("19970101", "FREQ=YEARLY;INTERVAL=3;COUNT=10;BYYEARDAY=1,100,200", 100,
+                "19970101", "19970410", "19970719", "20000101", "20000409",
+                "20000718", "20030101", "20030410", "20030719", "20060101");
+    }
+
+    @Test
+    public void twentiethMondayOfTheYear() {
+        assertOccurrences("19970519", "FREQ=YEARLY;BYDAY=20MO", 3,
+                "19970519", "19980518", "19990517");
+    }
+
+    @Test
+    public void mondayOfWeekTwenty() {
+        assertOccurrences("19970512", "FREQ=YEARLY;BYWEEKNO=20;BYDAY=MO", 3,
+                "19970512", "19980511", "19990517");
+    }
+
+    @Test
+    public void everyThursdayInMarch() {
+        assertOccurrences("19970313", "FREQ=YEARLY;BYMONTH=3;BYDAY=TH", 11,
+                "19970313", "19970320", "19970327", "19980305", "19980312",
+                "19980319", "19980326", "19990304", "19990311", "19990318", "19990325");
+    }
+
+    @Test
+    public void everyThursdayInSummer() {
+        assertOccurrences("19970605", "FREQ=YEARLY;BYDAY=TH;BYMONTH=6,7,8", 14,
+                "19970605", "19970612", "19970619", "19970626", "19970703",
+                "19970710", "19970717", "19970724", "19970731", "19970807",
+                "19970814", "19970821", "19970828", "19980604");
+    }
+
+    @Test
+    public void fridayTheThirteenth() {
+        // DTSTART doesn't match the rule, so it isn't an occurrence.
+        assertOccurrences("19970902", "FREQ=MONTHLY;BYDAY=FR;BYMONTHDAY=13", 5,
+                "19980213", "19980313", "19981113", "19990813", "20001013");
+    }
+
+    @Test
+    public void firstSaturdayAfterFirstSunday() {
+        assertOccurrences("19970913", "FREQ=MONTHLY;BYDAY=SA;BYMONTHDAY=7,8,9,10,11,12,13", 10,
+                "19970913", "19971011", "19971108", "19971213", "19980110",
+                "19980207", "19980307", "19980411", "19980509", "19980613");
+    }
+
+    @Test
+    public void presidentialElectionDay() {
+        assertOccurrences("19961105",
+                "FREQ=YEARLY;INTERVAL=4;BYMONTH=11;BYDAY=TU;BYMONTHDAY=2,3,4,5,6,7,8", 3,
+                "19961105", "20001107", "20041102");
+    }
+
+    @Test
+    public void thirdTuesdayWednesdayOrThursday() {
+        assertOccurrences("19970904", "FREQ=MONTHLY;COUNT=3;BYDAY=TU,WE,TH;BYSETPOS=3", 100,
+                "19970904", "19971007", "19971106");
+    }
+
+    @Test
+    public void secondToLastWeekday() {
+        assertOccurrences("19970929", "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-2", 7,
+                "19970929", "19971030", "19971127", "19971230",
+                "19980129", "19980226", "19980330");
+    }
+
+    @Test
+    public void everyThreeHoursUntil() {
+        assertOccurrences("19970902", "FREQ=HOURLY;INTERVAL=3;UNTIL=19970902T170000Z", 100,
+                "19970902T0900", "19970902T1200", "19970902T1500");
+    }
+
+    @Test
+    public void everyFifteenMinutes() {
+        assertOccurrences("19970902", "FREQ=MINUTELY;INTERVAL=15;COUNT=6", 100,
+                "19970902T0900", "19970902T0915", "19970902T0930",
+                "19970902T0945", "19970902T1000", "19970902T1015");
+    }
+
+    @Test
+    public void everyHourAndAHalf() {
+        assertOccurrences("19970902", "FREQ=MINUTELY;INTERVAL=90;COUNT=4", 100,
+                "19970902T0900", "19970902T1030", "19970902T1200", "19970902T1330");
+    }
+
+    @Test
+    public void everyTwentyMinutesFromNineToFourFortyDaily() {
+        assertOccurrences("19970902", "FREQ=DAILY;BYHOUR=9,10,11,12,13,14,15,16;BYMINUTE=0,20,40",
+                25, everyTwentyMinutes());
+    }
+
+    @Test
+    public void everyTwentyMinutesFromNineToFourFortyMinutely() {
+        assertOccurrences("19970902", "FREQ=MINUTELY;INTERVAL=20;BYHOUR=9,10,11,12,13,14,15,16",
+                25, everyTwentyMinutes());
+    }
+
+    @Test
+    public void weekStartChangesEveryOtherWeek() {
+        assertOccurrences("19970805", "FREQ=WEEKLY;INTERVAL=2;COUNT=4;BYDAY=TU,SU;WKST=MO", 100,
+                "19970805", "19970810", "19970819", "19970824");
+        assertOccurrences("19970805", "FREQ=WEEKLY;INTERVAL=2;COUNT=4;BYDAY=TU,SU;WKST=SU", 100,
+                "19970805", "19970817", "19970819", "19970831");
+    }
+
+    @Test
+    public void invalidDatesAreIgnored() {
+        assertOccurrences("20070115", "FREQ=MONTHLY;BYMONTHDAY=15,30;COUNT=5", 100,
+                "20070115", "20070130", "20070215", "20070315", "20070330");
+    }
+
+    @Test
+    public void hourlyLimitedByMonthDay() {
+        assertOccurrences("19970902", "FREQ=HOURLY;INTERVAL=5;BYMONTHDAY=3", 7,
+                "19970903T0000", "19970903T0500", "19970903T1000", "19970903T1500",
+                "19970903T2000", "19971003T0000", "19971003T0500");
+    }
+
+    @Test
+    public void setPositionOfTimes() {
+        assertOccurrences("19970902", "FREQ=DAILY;BYHOUR=9,17;BYSETPOS=-1;COUNT=2", 100,
+                "19970902T1700", "19970903T1700");
+    }
+
+    @Test
+    public void secondlyByTheHour() {
+        assertOccurrences("19970902", "FREQ=SECONDLY;INTERVAL=3600;COUNT=3", 100,
+                "19970902T0900", "19970902T1000", "19970902T1100");
+    }
+
+    @Test
+    public void timesBeforeTheStartAreSkipped() {
+        assertOccurrences("19970902", "FREQ=WEEKLY;BYDAY=MO,TU;BYHOUR=8,12;COUNT=5", 100,
+                "19970902T1200", "19970908T0800", "19970908T1200",
+                "19970909T0800", "19970909T1200");
+    }
+
+    @Test
+    public void advanceToSkipsWholePeriods() {
+        final EventRecurrenceIterator iterator = iterate("19970901",
+                "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR;WKST=SU");
+        iterator.advanceTo(parse("19971016T0000"));
+        assertEquals("19971017T0900", format(iterator.next()));
+        assertEquals("19971027T0900", format(iterator.next()));
+    }
+
+    @Test(timeout = 5000)
+    public void impossibleDayEnds() {
+        assertFalse(iterate("19970901", "FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30").hasNext());
+        assertFalse(iterate("19970901", "FREQ=HOURLY;BYMONTH=2;BYMONTHDAY=30").hasNext());
+    }
+
+    @Test(timeout = 1000)
+    public void impossibleTimeOfDayEnds() {
+        // The intervals never reach an odd hour, minute or second.
+        assertFalse(iterate("20200101T0000", "FREQ=HOURLY;INTERVAL=2;BYHOUR=1").hasNext());
+        assertFalse(iterate("20200101T0000", "FREQ=MINUTELY;INTERVAL=2;BYMINUTE=1").hasNext());
+        assertFalse(iterate("20200101T0000", "FREQ=SECONDLY;INTERVAL=2;BYSECOND=1").hasNext());
+    }
+
+    @Test(timeout = 1000)
+    public void sparseTimeOfDaySkipsWholeHours() {
+        assertOccurrences("20200101T0000", "FREQ=SECONDLY;INTERVAL=7;BYHOUR=23;BYMINUTE=59", 3,
+                "20200101T2359", "20200101T2359", "20200101T2359");
+        assertOccurrences("20200101T0000", "FREQ=MINUTELY;INTERVAL=7;BYHOUR=5;BYMINUTE=3", 2,
+                "20200102T0503", "20200109T0503");
+    }
+
+    @Test
+    public void epochDaysMatchTheProlepticGregorianCalendar() {
+        final GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+        calendar.clear();
+        calendar.set(1, Calendar.JANUARY, 1);
+
+        final EventRecurrenceIterator iterator = iterate("00010101", "FREQ=DAILY");
+        int expectedDay = EventRecurrenceIterator.toEpochDay(1, 0, 1);
+        while (iterator.hasNext()) {
+            final long day = iterator.next();
+            final int epochDay = EventRecurrenceIterator.getEpochDay(day);
+            assertEquals(expectedDay++, epochDay);
+            assertEquals(calendar.get(Calendar.YEAR), EventRecurrenceIterator.getYear(day));
+            assertEquals(calendar.get(Calendar.MONTH), EventRecurrenceIterator.getMonth(day));
+            assertEquals(calendar.get(Calendar.DAY_OF_MONTH),
+                    EventRecurrenceIterator.getMonthDay(day));
+            assertEquals(calendar.get(Calendar.DAY_OF_WEEK) - 1,
+                    EventRecurrenceIterator.getWeekday(epochDay));
+            calendar.add(Calendar.DATE, 1);
+        }
+        assertEquals(EventRecurrenceIterator.MAX_YEAR + 1, calendar.get(Calendar.YEAR));
+        assertEquals(0, EventRecurrenceIterator.toEpochDay(1970, 0, 1));
+    }
+
+    private static String[] everyTwentyMinutes() {
+        final List<String> times = new ArrayList<>();
+        for (int hour = 9; hour <= 16; hour++) {
+            for (int minute = 0; minute < 60; minute += 20) {
+                times.add(String.format(Locale.US, "19970902T%02d%02d", hour, minute));
+            }
+        }
+        times.add("19970903T0900");
+        return times.toArray(new String[times.size()]);
+    }
+
+    private static void assertOccurrences(String start, String rule, int max, String... expected) {
+        final List<String> expectedTimes = new ArrayList<>();
+        for (String date : expected) {
+            expectedTimes.add(date.length() == 8 ? date + "T0900" : date);
+        }
+        assertEquals(rule, expectedTimes, expand(start, rule, max));
+    }
+
+    private static void assertCount(String start, String rule, int count,
+                                    String first, String last) {
+        final List<String> occurrences = expand(start, rule, Integer.MAX_VALUE);
+        assertEquals(rule, count, occurrences.size());
+        assertEquals(rule, first + "T0900", occurrences.get(0));
+        assertEquals(rule, last + "T0900", occurrences.get(count - 1));
+    }
+
+    private static List<String> expand(String start, String rule, int max) {
+        final EventRecurrenceIterator iterator = iterate(start, rule);
+        final List<String> occurrences = new ArrayList<>();
+        while (occurrences.size() < max && iterator.hasNext()) {
+            occurrences.add(format(iterator.next()));
+        }
+        return occurrences;
+    }
+
+    private static EventRecurrenceIterator iterate(String start, String rule) {
+        final EventRecurrence recurrence = new EventRecurrence();
+        recurrence.parse(rule);
+        final long until = recurrence.until == null ? Long.MAX_VALUE : parse(recurrence.until);
+        return new EventRecurrenceIterator(recurrence, parse(start), until);
+    }
+
+    /**
+     * Parses "yyyyMMdd", at 09:00, or "yyyyMMddTHHmm[ss][Z]".
+     */
+    private static long parse(String date) {
+        final int year = Integer.parseInt(date.substring(0, 4));
+        final int month = Integer.parseInt(date.substring(4, 6)) - 1;
+        final int day = Integer.parseInt(date.substring(6, 8));
+        if (date.length() == 8) {
+            return EventRecurrenceIterator.pack(year, month, day, 9, 0, 0);
+        }
+
+        final int hour = Integer.parseInt(date.substring(9, 11));
+        final int minute = Integer.parseInt(date.substring(11, 13));
+        final int second = date.length() >= 15 ? Integer.parseInt(date.substring(13, 15)) : 0;
+        return EventRecurrenceIterator.pack(year, month, day, hour, minute, second);
+    }
+
+    private static String format(long occurrence) {
+        return String.format(Locale.US, "%04d%02d%02dT%02d%02d",
+                EventRecurrenceIterator.getYear(occurrence),
+                EventRecurrenceIterator.getMonth(occurrence) + 1,
+                EventRecurrenceIterator.getMonthDay(occurrence),
+                EventRecurrenceIterator.getHour(occurrence),
+                EventRecurrenceIterator.getMinute(occurrence));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses {@link EventRecurrenceParseTest#RULES} with the single-scan
+ * parser and with {@link LegacyEventRecurrence}. Run with
+ * {@code ./gradlew jmh -Pjmh=EventRecurrenceParse}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventRecurrenceParseBenchmark {
+
+    private final EventRecurrence mRecurrence = new EventRecurrence();
+    private final LegacyEventRecurrence mLegacy = new LegacyEventRecurrence();
+
+    @Benchmark
+    public void singleScan(Blackhole blackhole) {
+        for (String rule : EventRecurrenceParseTest.RULES) {
+            mRecurrence.parse(rule);
+            blackhole.consume(mRecurrence.freq);
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String rule : EventRecurrenceParseTest.RULES) {
+            mLegacy.parse(rule);
+            blackhole.consume(mLegacy.freq);
+        }
+    }
+}
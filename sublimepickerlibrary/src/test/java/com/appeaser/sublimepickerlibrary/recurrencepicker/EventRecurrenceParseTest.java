@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks {@link EventRecurrence#parse} against {@link LegacyEventRecurrence},
+ * on hand-picked rules and on random strings built from RRULE fragments.
+ */
+public class EventRecurrenceParseTest {
+
+    static final String[] RULES = {
+            "FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=10",
+            "freq=daily;until=19970829t021400z",
+            "FREQ=MONTHLY;INTERVAL=2;BYDAY=1SU,-1SU;COUNT=10",
+            "FREQ=YEARLY;BYWEEKNO=20;BYDAY=MO;WKST=SU",
+            "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-2",
+            "FREQ=MINUTELY;INTERVAL=20;BYHOUR=9,10,11,12,13,14,15,16",
+            "FREQ=YEARLY;INTERVAL=3;COUNT=10;BYYEARDAY=1,100,200",
+            "FREQ=DAILY;BYSECOND=0,15,30,45;BYMINUTE=0,30",
+    };
+
+    // RRULE fragments; the first 16 are part names
+    private static final String[] ATOMS = {
+            "FREQ", "freq", "UNTIL", "COUNT", "INTERVAL", "BYSECOND", "BYMINUTE", "BYHOUR",
+            "BYDAY", "ByDay", "BYMONTHDAY", "BYYEARDAY", "BYWEEKNO", "BYMONTH", "BYSETPOS",
+            "WKST", "X-FOO", "x-", "X", "=", ";", ",", "+", "-", "++", "1", "0", "-1", "+5",
+            "53", "54", "366", "99999999999", "2147483647", "-2147483648", "SU", "mo", "TU",
+            "1SU", "-1fr", "+2WE", "5XX", "Q", "DAILY", "weekly", "MONTHLY", "YEARLY",
+            "SECONDLY", "19970829T021400Z", "t", "ß", "ı", "K", "١",
+            "１", " ", "",
+    };
+    private static final int PART_NAMES = 16;
+
+    @Test
+    public void parsesRulesLikeTheLegacyParser() throws Exception {
+        for (String rule : RULES) {
+            assertParsesAlike(rule);
+        }
+    }
+
+    @Test
+    public void rejectsMalformedRulesLikeTheLegacyParser() throws Exception {
+        final String[] malformed = {
+                "", ";", "=X", "FREQ=", "FREQ=DAILY;;", "FREQ=DAILY;FREQ=WEEKLY",
+                "FREQ=DAILY;X-A=b", "FREQ=DAILY;COUNT=-5;INTERVAL=0", "FREQ=DAILY;BYSETPOS=+-3",
+                "FREQ=DAILY;BYDAY=+SU", "FREQ=YEARLY;BYMONTH=13", "FREQ=DAILY;BYHOUR=24",
+                "FREQ=DAILY;UNTIL=19970829;COUNT=3", "COUNT=3",
+        };
+        for (String rule : malformed) {
+            assertParsesAlike(rule);
+        }
+    }
+
+    @Test
+    public void parsesRandomRulesLikeTheLegacyParser() throws Exception {
+        final Random random = new Random(42);
+        final StringBuilder rule = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            // Any fragments in any order
+            rule.setLength(0);
+            for (int j = random.nextInt(10); j > 0; j--) {
+                rule.append(ATOMS[random.nextInt(ATOMS.length)]);
+            }
+            assertParsesAlike(rule.toString());
+
+            // NAME=value,value;...
+            rule.setLength(0);
+            for (int part = random.nextInt(4); part >= 0; part--) {
+                rule.append(ATOMS[random.nextInt(PART_NAMES)]).append('=');
+                for (int value = random.nextInt(4); value > 0; value--) {
+                    rule.append(ATOMS[PART_NAMES + random.nextInt(ATOMS.length - PART_NAMES)]);
+                    if (value > 1 && random.nextBoolean()) {
+                        rule.append(',');
+                    }
+                }
+                if (part > 0) {
+                    rule.append(';');
+                }
+            }
+            assertParsesAlike(rule.toString());
+        }
+    }
+
+    @Test
+    public void parsesNonAsciiRulesInAnyDefaultLocale() throws Exception {
+        final Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            // The non-ASCII part makes the parser upper-case the whole rule.
+            final EventRecurrence recurrence = new EventRecurrence();
+            recurrence.parse("freq=daily;interval=2;x-stra\u00dfe=1");
+
+            assertEquals(EventRecurrence.DAILY, recurrence.freq);
+            assertEquals(2, recurrence.interval);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    /**
+     * Asserts that both parsers throw the same exception, or none, and
+     * leave the same values in every field.
+     */
+    private static void assertParsesAlike(String rule) throws Exception {
+        final LegacyEventRecurrence legacy = new LegacyEventRecurrence();
+        final EventRecurrence recurrence = new EventRecurrence();
+        String expected = parse(legacy, rule);
+        final String actual = parse(recurrence, rule);
+
+        // The legacy parser fails on empty list entries, e.g. "BYDAY=MO,,TU",
+        // without a message
+        if (expected.startsWith(StringIndexOutOfBoundsException.class.getName())) {
+            expected = EventRecurrence.InvalidFormatException.class.getName()
+                    + ": Invalid integer value: ";
+        }
+        assertEquals(rule, expected, actual);
+
+        for (Field field : EventRecurrence.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            final Object value = field.get(recurrence);
+            final Object legacyValue = LegacyEventRecurrence.class
+                    .getField(field.getName()).get(legacy);
+            if (value instanceof int[]) {
+                assertEquals(rule + ": " + field.getName(),
+                        Arrays.toString((int[]) legacyValue), Arrays.toString((int[]) value));
+            } else {
+                assertEquals(rule + ": " + field.getName(), legacyValue, value);
+            }
+        }
+    }
+
+    private static String parse(Object recurrence, String rule) {
+        try {
+            if (recurrence instanceof LegacyEventRecurrence) {
+                ((LegacyEventRecurrence) recurrence).parse(rule);
+            } else {
+                ((EventRecurrence) recurrence).parse(rule);
+            }
+            return "parsed";
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
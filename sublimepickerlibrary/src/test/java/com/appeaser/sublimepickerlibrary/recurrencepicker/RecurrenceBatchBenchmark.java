@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expands 5000 events over 91 days on 1 to 8 threads, to show how
+ * {@link RecurrenceBatch} scales with cores; 0 threads expands on the
+ * calling thread, for the cost of scheduling. Run with
+ * {@code ./gradlew jmh -Pjmh=RecurrenceBatch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RecurrenceBatchBenchmark {
+
+    @Param({"0", "1", "2", "4", "8"})
+    int threads;
+
+    private RecurrenceBatch mBatch;
+    private ExecutorService mExecutor;
+
+    @Setup
+    public void setUp() {
+        mBatch = RecurrenceBatchTest.newBatch(5000, 2);
+        if (threads > 0) {
+            mExecutor = Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (mExecutor != null) {
+            mExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public DayOccurrences expand() throws InterruptedException {
+        if (mExecutor == null) {
+            return mBatch.expand(RecurrenceBatchTest.FROM, RecurrenceBatchTest.TO);
+        }
+        return mBatch.expand(RecurrenceBatchTest.FROM, RecurrenceBatchTest.TO, mExecutor);
+    }
+}
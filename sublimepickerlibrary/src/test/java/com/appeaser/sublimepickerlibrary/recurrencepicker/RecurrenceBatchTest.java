@@ -0,0 +1,254 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import android.text.format.Time;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecurrenceBatchTest {
+
+    static final String[] RULES = {
+            "FREQ=DAILY",
+            "FREQ=DAILY;INTERVAL=3;COUNT=20",
+            "FREQ=WEEKLY;BYDAY=MO,WE,FR",
+            "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,TH;WKST=SU",
+            "FREQ=MONTHLY;BYDAY=1FR",
+            "FREQ=MONTHLY;BYMONTHDAY=1,15,-1",
+            "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1",
+            "FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=29",
+            "FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30",
+            "FREQ=HOURLY;INTERVAL=5;BYDAY=SA,SU",
+            "FREQ=MINUTELY;INTERVAL=90;COUNT=50",
+            "FREQ=DAILY;BYHOUR=9,17;BYMINUTE=0,30",
+    };
+
+    // 2016-01-01 to 2016-04-01
+    static final long FROM = EventRecurrenceIterator.pack(2016, 0, 1, 0, 0, 0);
+    static final long TO = EventRecurrenceIterator.pack(2016, 3, 1, 0, 0, 0);
+    // 2026-01-01, for expansions that should be interrupted
+    static final long LONG_TO = EventRecurrenceIterator.pack(2026, 0, 1, 0, 0, 0);
+
+    @Test
+    public void matchesEachEventExpandedAlone() {
+        final RecurrenceBatch batch = newBatch(500, 1);
+
+        final List<String> expected = new ArrayList<>();
+        final Random random = new Random(1);
+        for (int event = 0; event < batch.size(); event++) {
+            final String rule = RULES[random.nextInt(RULES.length)];
+            final EventRecurrenceIterator iterator = new EventRecurrenceIterator(
+                    RecurrenceRule.parse(rule).getRecurrence(), randomStart(random), Long.MAX_VALUE);
+            while (iterator.hasNext()) {
+                final long occurrence = iterator.next();
+                if (occurrence >= TO) {
+                    break;
+                }
+                if (occurrence >= FROM) {
+                    expected.add(occurrence + "/" + event);
+                }
+            }
+        }
+        Collections.sort(expected, new Comparator<String>() {
+            @Override
+            public int compare(String lhs, String rhs) {
+                final String[] l = lhs.split("/");
+                final String[] r = rhs.split("/");
+                final int byTime = Long.valueOf(l[0]).compareTo(Long.valueOf(r[0]));
+                return byTime != 0 ? byTime : Integer.valueOf(l[1]).compareTo(Integer.valueOf(r[1]));
+            }
+        });
+
+        assertEquals(expected, flatten(batch.expand(FROM, TO)));
+    }
+
+    @Test
+    public void parallelExpansionMatchesSerial() throws InterruptedException {
+        final RecurrenceBatch batch = newBatch(5000, 2);
+        final List<String> serial = flatten(batch.expand(FROM, TO));
+
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                assertEquals("threads: " + threads, serial,
+                        flatten(batch.expand(FROM, TO, executor)));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void groupsOccurrencesByDay() {
+        final RecurrenceBatch batch = newBatch(300, 3);
+        final DayOccurrences occurrences = batch.expand(FROM, TO);
+
+        assertEquals(91, occurrences.getDayCount());
+        for (int day = 0; day < occurrences.getDayCount(); day++) {
+            for (int i = occurrences.getDayStart(day); i < occurrences.getDayEnd(day); i++) {
+                assertEquals(occurrences.getEpochDay(day),
+                        EventRecurrenceIterator.getEpochDay(occurrences.getOccurrence(i)));
+            }
+        }
+    }
+
+    @Test(timeout = 1000)
+    public void impossibleRulesStopAtTheWindow() {
+        final RecurrenceBatch batch = new RecurrenceBatch();
+        final RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30");
+        for (int i = 0; i < 100; i++) {
+            batch.add(rule, newTime(2016, 0, 1, 9, 0));
+        }
+        assertEquals(0, batch.expand(FROM, TO).size());
+    }
+
+    @Test(timeout = 10000)
+    public void interruptCancelsSerialExpansion() throws InterruptedException {
+        final RecurrenceBatch batch = newHourlyBatch();
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final boolean[] stillInterrupted = new boolean[1];
+
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    batch.expand(FROM, LONG_TO);
+                } catch (Throwable t) {
+                    thrown.set(t);
+                    stillInterrupted[0] = Thread.currentThread().isInterrupted();
+                }
+            }
+        });
+        thread.start();
+        Thread.sleep(20);
+        thread.interrupt();
+        thread.join();
+
+        assertTrue(String.valueOf(thrown.get()), thrown.get() instanceof CancellationException);
+        assertTrue(stillInterrupted[0]);
+    }
+
+    @Test(timeout = 10000)
+    public void interruptedWorkerCancelsParallelExpansion() throws InterruptedException {
+        final RecurrenceBatch batch = newHourlyBatch();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final Thread interrupter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                executor.shutdownNow();
+            }
+        });
+        interrupter.start();
+
+        try {
+            batch.expand(FROM, LONG_TO, executor);
+            fail("Expected a CancellationException");
+        } catch (CancellationException expected) {
+            assertTrue(expected.getCause() instanceof InterruptedException);
+        } finally {
+            interrupter.join();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void interruptedCallerStopsWaiting() {
+        final RecurrenceBatch batch = newHourlyBatch();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        Thread.currentThread().interrupt();
+        try {
+            batch.expand(FROM, LONG_TO, executor);
+            fail("Expected an InterruptedException");
+        } catch (InterruptedException expected) {
+            // The workers are cancelled, so the executor drains quickly.
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return events that take seconds to expand up to {@link #LONG_TO}
+     */
+    private static RecurrenceBatch newHourlyBatch() {
+        final RecurrenceBatch batch = new RecurrenceBatch();
+        final RecurrenceRule rule = RecurrenceRule.parse("FREQ=HOURLY");
+        for (int i = 0; i < 1000; i++) {
+            batch.add(rule, newTime(2016, 0, 1, 0, 0));
+        }
+        return batch;
+    }
+
+    static RecurrenceBatch newBatch(int size, long seed) {
+        final RecurrenceBatch batch = new RecurrenceBatch();
+        final Random random = new Random(seed);
+        for (int i = 0; i < size; i++) {
+            final RecurrenceRule rule = RecurrenceRule.parse(RULES[random.nextInt(RULES.length)]);
+            final long start = randomStart(random);
+            batch.add(rule, newTime(EventRecurrenceIterator.getYear(start),
+                    EventRecurrenceIterator.getMonth(start),
+                    EventRecurrenceIterator.getMonthDay(start),
+                    EventRecurrenceIterator.getHour(start),
+                    EventRecurrenceIterator.getMinute(start)));
+        }
+        return batch;
+    }
+
+    /**
+     * @return a start in 2015, so some events end before the window
+     */
+    private static long randomStart(Random random) {
+        return EventRecurrenceIterator.pack(2015, random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(4) * 15, 0);
+    }
+
+    private static Time newTime(int year, int month, int monthDay, int hour, int minute) {
+        // Set the fields directly, so this doesn't need a real Time
+        final Time time = new Time();
+        time.year = year;
+        time.month = month;
+        time.monthDay = monthDay;
+        time.hour = hour;
+        time.minute = minute;
+        return time;
+    }
+
+    private static List<String> flatten(DayOccurrences occurrences) {
+        final List<String> flat = new ArrayList<>();
+        for (int i = 0; i < occurrences.size(); i++) {
+            flat.add(occurrences.getOccurrence(i) + "/" + occurrences.getEvent(i));
+        }
+        return flat;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class RecurrenceRuleCacheTest {
+
+    @Test
+    public void sharesRulesBetweenEqualStrings() {
+        final RecurrenceRuleCache cache = new RecurrenceRuleCache(8);
+        final RecurrenceRule rule = cache.get("FREQ=WEEKLY;BYDAY=MO");
+
+        assertSame(rule, cache.get("FREQ=WEEKLY;BYDAY=MO"));
+        assertSame(rule, cache.get(new String("FREQ=WEEKLY;BYDAY=MO")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void sharesRulesBetweenSpellingsOfOneRule() {
+        final RecurrenceRuleCache cache = new RecurrenceRuleCache(8);
+        final RecurrenceRule rule = cache.get("FREQ=DAILY;INTERVAL=2");
+
+        assertSame(rule, cache.get("freq=daily;interval=2"));
+        assertSame(rule, cache.get("INTERVAL=2;FREQ=DAILY"));
+        assertNotSame(rule, cache.get("FREQ=DAILY;INTERVAL=3"));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedRule() {
+        final RecurrenceRuleCache cache = new RecurrenceRuleCache(2);
+        final RecurrenceRule daily = cache.get("FREQ=DAILY");
+        final RecurrenceRule weekly = cache.get("FREQ=WEEKLY");
+
+        // Touch daily, so weekly is evicted next.
+        assertSame(daily, cache.get("FREQ=DAILY"));
+        cache.get("FREQ=MONTHLY");
+        assertEquals(2, cache.size());
+
+        assertSame(daily, cache.get("FREQ=DAILY"));
+        final RecurrenceRule reparsed = cache.get("FREQ=WEEKLY");
+        assertNotSame(weekly, reparsed);
+        assertEquals(weekly, reparsed);
+    }
+
+    @Test
+    public void clearDropsAllRules() {
+        final RecurrenceRuleCache cache = new RecurrenceRuleCache(8);
+        final RecurrenceRule rule = cache.get("FREQ=DAILY");
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNotSame(rule, cache.get("freq=daily"));
+    }
+
+    @Test
+    public void doesNotCacheMalformedRules() {
+        final RecurrenceRuleCache cache = new RecurrenceRuleCache(8);
+        try {
+            cache.get("FREQ=SOMETIMES");
+            fail("Expected an InvalidFormatException");
+        } catch (EventRecurrence.InvalidFormatException expected) {
+            assertEquals(0, cache.size());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appeaser.sublimepickerlibrary.recurrencepicker;
+
+import android.text.format.Time;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Checks that {@link RecurrenceRule} and {@link EventRecurrence} keep
+ * equals() and hashCode() consistent, and that rules are isolated from the
+ * recurrences they are made from or turned into.
+ */
+public class RecurrenceRuleTest {
+
+    @Test
+    public void caseAndPartOrderDoNotMatter() {
+        assertEqualRules("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE",
+                "freq=weekly;interval=2;byday=mo,we");
+        assertEqualRules("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE",
+                "BYDAY=MO,WE;FREQ=WEEKLY;INTERVAL=2");
+        assertEqualRules("FREQ=DAILY;UNTIL=20161231T000000Z",
+                "UNTIL=20161231T000000Z;FREQ=DAILY");
+    }
+
+    @Test
+    public void differentRulesDiffer() {
+        assertNotEquals(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO"),
+                RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=TU"));
+        assertNotEquals(RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=1MO"),
+                RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=2MO"));
+        assertNotEquals(RecurrenceRule.parse("FREQ=DAILY"),
+                RecurrenceRule.parse("FREQ=DAILY;COUNT=5"));
+    }
+
+    @Test
+    public void staleEntriesAfterReparseAreIgnored() {
+        // The second parse leaves the longer arrays of the first in place.
+        final EventRecurrence reused = new EventRecurrence();
+        reused.parse("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR;BYMONTH=1,2,3;BYSETPOS=1,-1");
+        reused.parse("FREQ=WEEKLY;BYDAY=MO;BYMONTH=1");
+
+        final EventRecurrence fresh = new EventRecurrence();
+        fresh.parse("FREQ=WEEKLY;BYDAY=MO;BYMONTH=1");
+
+        assertEquals(fresh, reused);
+        assertEquals(fresh.hashCode(), reused.hashCode());
+        assertEqualRules(RecurrenceRule.of(fresh), RecurrenceRule.of(reused));
+    }
+
+    @Test
+    public void startDateIsNotPartOfTheRule() {
+        final EventRecurrence withStart = new EventRecurrence();
+        withStart.parse("FREQ=DAILY;COUNT=3");
+        withStart.startDate = new Time();
+        final EventRecurrence withoutStart = new EventRecurrence();
+        withoutStart.parse("FREQ=DAILY;COUNT=3");
+
+        // The recurrences differ, but hash alike; the rules are equal.
+        assertNotEquals(withStart, withoutStart);
+        assertEquals(withStart.hashCode(), withoutStart.hashCode());
+        assertEqualRules(RecurrenceRule.of(withStart), RecurrenceRule.of(withoutStart));
+        assertEquals(null, RecurrenceRule.of(withStart).toEventRecurrence().startDate);
+    }
+
+    @Test
+    public void changingTheSourceDoesNotChangeTheRule() {
+        final EventRecurrence source = new EventRecurrence();
+        source.parse("FREQ=WEEKLY;BYDAY=MO,WE");
+        final RecurrenceRule rule = RecurrenceRule.of(source);
+        final int hashCode = rule.hashCode();
+
+        source.byday[0] = EventRecurrence.FR;
+        source.count = 7;
+        source.parse("FREQ=DAILY");
+
+        assertEquals(hashCode, rule.hashCode());
+        assertEqualRules(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE"), rule);
+    }
+
+    @Test
+    public void changingACopyDoesNotChangeTheRule() {
+        final RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE");
+        final int hashCode = rule.hashCode();
+
+        final EventRecurrence copy = rule.toEventRecurrence();
+        assertEquals(rule.getRecurrence(), copy);
+        copy.byday[1] = EventRecurrence.FR;
+        copy.interval = 3;
+
+        assertEquals(hashCode, rule.hashCode());
+        assertEqualRules(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE"), rule);
+        assertFalse(rule.getRecurrence().equals(copy));
+    }
+
+    private static void assertEqualRules(String expected, String actual) {
+        assertEqualRules(RecurrenceRule.parse(expected), RecurrenceRule.parse(actual));
+    }
+
+    private static void assertEqualRules(RecurrenceRule expected, RecurrenceRule actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.getRecurrence().hashCode(), actual.getRecurrence().hashCode());
+    }
+}
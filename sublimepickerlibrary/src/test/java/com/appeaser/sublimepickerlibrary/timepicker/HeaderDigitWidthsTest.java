@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.graphics.Paint;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the text measured by {@link HeaderDigitWidths}: each number once
+ * for the first picker, nothing for the pickers opened after it.
+ */
+public class HeaderDigitWidthsTest {
+
+    @Test
+    public void measuresEachNumberOnce() {
+        final CountingPaint paint = new CountingPaint(101f);
+
+        assertEquals(5 + 9, HeaderDigitWidths.getMaxTwoDigitWidth(paint, Locale.US, 60), 0f);
+        assertEquals(60, paint.mMeasured);
+
+        // Another picker with the same style
+        final CountingPaint samePaint = new CountingPaint(101f);
+        assertEquals(5 + 9,
+                HeaderDigitWidths.getMaxTwoDigitWidth(samePaint, Locale.US, 60), 0f);
+        assertEquals(0, samePaint.mMeasured);
+    }
+
+    @Test
+    public void measuresAgainForAnotherStyleOrRange() {
+        final CountingPaint paint = new CountingPaint(102f);
+        assertEquals(1 + 9, HeaderDigitWidths.getMaxTwoDigitWidth(paint, Locale.US, 24), 0f);
+        assertEquals(24, paint.mMeasured);
+
+        HeaderDigitWidths.getMaxTwoDigitWidth(paint, Locale.US, 60);
+        assertEquals(24 + 60, paint.mMeasured);
+
+        HeaderDigitWidths.getMaxTwoDigitWidth(paint, Locale.GERMANY, 24);
+        assertEquals(24 + 60 + 24, paint.mMeasured);
+
+        final CountingPaint largerPaint = new CountingPaint(103f);
+        HeaderDigitWidths.getMaxTwoDigitWidth(largerPaint, Locale.US, 24);
+        assertEquals(24, largerPaint.mMeasured);
+    }
+
+    /**
+     * Measures a number as the sum of its digits, so 19 is the widest
+     * below 24, and keeps the text size that the stubbed Paint drops.
+     */
+    private static class CountingPaint extends Paint {
+        private final float mTextSize;
+        int mMeasured;
+
+        CountingPaint(float textSize) {
+            mTextSize = textSize;
+        }
+
+        @Override
+        public float getTextSize() {
+            return mTextSize;
+        }
+
+        @Override
+        public float measureText(String text) {
+            mMeasured++;
+            return (text.charAt(0) - '0') + (text.charAt(1) - '0');
+        }
+    }
+}
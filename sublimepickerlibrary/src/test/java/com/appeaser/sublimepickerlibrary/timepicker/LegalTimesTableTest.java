@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Types every sequence of up to 5 symbols into {@link LegalTimesTable} and
+ * into a copy of the tree of {@link Node}s that {@link SublimeTimePicker}
+ * used before, and checks that they agree on which sequences are legal so
+ * far and after which no further key can be typed.
+ */
+public class LegalTimesTableTest {
+
+    private static final int MAX_LENGTH = 5;
+
+    @Test
+    public void matchesLegalTimesTree24Hour() {
+        assertMatches(LegalTimesTable.get(true), generateLegalTimesTree(true));
+    }
+
+    @Test
+    public void matchesLegalTimesTree12Hour() {
+        assertMatches(LegalTimesTable.get(false), generateLegalTimesTree(false));
+    }
+
+    private static void assertMatches(LegalTimesTable table, Node tree) {
+        final int checked = assertMatches(table, LegalTimesTable.START_STATE, tree, "", 0);
+
+        int sequences = 0;
+        for (int length = 1, count = 1; length <= MAX_LENGTH; length++) {
+            count *= LegalTimesTable.SYMBOL_COUNT;
+            sequences += count;
+        }
+        assertEquals(sequences, checked);
+    }
+
+    /**
+     * @return the number of sequences checked that start with {@code typed}
+     */
+    private static int assertMatches(LegalTimesTable table, int state, Node node,
+                                     String typed, int length) {
+        if (length == MAX_LENGTH) {
+            return 0;
+        }
+
+        int checked = 0;
+        for (int symbol = 0; symbol < LegalTimesTable.SYMBOL_COUNT; symbol++) {
+            final String sequence = typed + " " + symbol;
+            final int nextState = state == LegalTimesTable.NO_STATE
+                    ? LegalTimesTable.NO_STATE : table.next(state, symbol);
+            final Node child = node == null ? null : node.canReach(symbol);
+
+            assertEquals("legal so far:" + sequence,
+                    child != null, nextState != LegalTimesTable.NO_STATE);
+            if (child != null) {
+                assertEquals("at leaf:" + sequence,
+                        child.mChildren.isEmpty(), table.isFinal(nextState));
+            }
+            checked += 1 + assertMatches(table, nextState, child, sequence, length + 1);
+        }
+        return checked;
+    }
+
+    /**
+     * The tree built by {@code SublimeTimePicker#generateLegalTimesTree()}
+     * before {@link LegalTimesTable}, with key codes replaced by symbols.
+     */
+    private static Node generateLegalTimesTree(boolean is24HourView) {
+        final int k0 = 0;
+        final int k1 = 1;
+        final int k2 = 2;
+        final int k3 = 3;
+        final int k4 = 4;
+        final int k5 = 5;
+        final int k6 = 6;
+        final int k7 = 7;
+        final int k8 = 8;
+        final int k9 = 9;
+
+        // The root of the tree doesn't contain any numbers.
+        final Node legalTimesTree = new Node();
+        if (is24HourView) {
+            // We'll be re-using these nodes, so we'll save them.
+            Node minuteFirstDigit = new Node(k0, k1, k2, k3, k4, k5);
+            Node minuteSecondDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
+            // The first digit must be followed by the second digit.
+            minuteFirstDigit.addChild(minuteSecondDigit);
+
+            // The first digit may be 0-1.
+            Node firstDigit = new Node(k0, k1);
+            legalTimesTree.addChild(firstDigit);
+
+            // When the first digit is 0-1, the second digit may be 0-5.
+            Node secondDigit = new Node(k0, k1, k2, k3, k4, k5);
+            firstDigit.addChild(secondDigit);
+            // We may now be followed by the first minute digit. E.g. 00:09, 15:58.
+            secondDigit.addChild(minuteFirstDigit);
+
+            // When the first digit is 0-1, and the second digit is 0-5, the third digit may be 6-9.
+            Node thirdDigit = new Node(k6, k7, k8, k9);
+            // The time must now be finished. E.g. 0:55, 1:08.
+            secondDigit.addChild(thirdDigit);
+
+            // When the first digit is 0-1, the second digit may be 6-9.
+            secondDigit = new Node(k6, k7, k8, k9);
+            firstDigit.addChild(secondDigit);
+            // We must now be followed by the first minute digit. E.g. 06:50, 18:20.
+            secondDigit.addChild(minuteFirstDigit);
+
+            // The first digit may be 2.
+            firstDigit = new Node(k2);
+            legalTimesTree.addChild(firstDigit);
+
+            // When the first digit is 2, the second digit may be 0-3.
+            secondDigit = new Node(k0, k1, k2, k3);
+            firstDigit.addChild(secondDigit);
+            // We must now be followed by the first minute digit. E.g. 20:50, 23:09.
+            secondDigit.addChild(minuteFirstDigit);
+
+            // When the first digit is 2, the second digit may be 4-5.
+            secondDigit = new Node(k4, k5);
+            firstDigit.addChild(secondDigit);
+            // We must now be followd by the last minute digit. E.g. 2:40, 2:53.
+            secondDigit.addChild(minuteSecondDigit);
+
+            // The first digit may be 3-9.
+            firstDigit = new Node(k3, k4, k5, k6, k7, k8, k9);
+            legalTimesTree.addChild(firstDigit);
+            // We must now be followed by the first minute digit. E.g. 3:57, 8:12.
+            firstDigit.addChild(minuteFirstDigit);
+        } else {
+            // We'll need to use the AM/PM node a lot.
+            // Set up AM and PM to respond to "a" and "p".
+            Node ampm = new Node(LegalTimesTable.SYMBOL_AM, LegalTimesTable.SYMBOL_PM);
+
+            // The first hour digit may be 1.
+            Node firstDigit = new Node(k1);
+            legalTimesTree.addChild(firstDigit);
+            // We'll allow quick input of on-the-hour times. E.g. 1pm.
+            firstDigit.addChild(ampm);
+
+            // When the first digit is 1, the second digit may be 0-2.
+            Node secondDigit = new Node(k0, k1, k2);
+            firstDigit.addChild(secondDigit);
+            // Also for quick input of on-the-hour times. E.g. 10pm, 12am.
+            secondDigit.addChild(ampm);
+
+            // When the first digit is 1, and the second digit is 0-2, the third digit may be 0-5.
+            Node thirdDigit = new Node(k0, k1, k2, k3, k4, k5);
+            secondDigit.addChild(thirdDigit);
+            // The time may be finished now. E.g. 1:02pm, 1:25am.
+            thirdDigit.addChild(ampm);
+
+            // When the first digit is 1, the second digit is 0-2, and the third digit is 0-5,
+            // the fourth digit may be 0-9.
+            Node fourthDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
+            thirdDigit.addChild(fourthDigit);
+            // The time must be finished now. E.g. 10:49am, 12:40pm.
+            fourthDigit.addChild(ampm);
+
+            // When the first digit is 1, and the second digit is 0-2, the third digit may be 6-9.
+            thirdDigit = new Node(k6, k7, k8, k9);
+            secondDigit.addChild(thirdDigit);
+            // The time must be finished now. E.g. 1:08am, 1:26pm.
+            thirdDigit.addChild(ampm);
+
+            // When the first digit is 1, the second digit may be 3-5.
+            secondDigit = new Node(k3, k4, k5);
+            firstDigit.addChild(secondDigit);
+
+            // When the first digit is 1, and the second digit is 3-5, the third digit may be 0-9.
+            thirdDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
+            secondDigit.addChild(thirdDigit);
+            // The time must be finished now. E.g. 1:39am, 1:50pm.
+            thirdDigit.addChild(ampm);
+
+            // The hour digit may be 2-9.
+            firstDigit = new Node(k2, k3, k4, k5, k6, k7, k8, k9);
+            legalTimesTree.addChild(firstDigit);
+            // We'll allow quick input of on-the-hour-times. E.g. 2am, 5pm.
+            firstDigit.addChild(ampm);
+
+            // When the first digit is 2-9, the second digit may be 0-5.
+            secondDigit = new Node(k0, k1, k2, k3, k4, k5);
+            firstDigit.addChild(secondDigit);
+
+            // When the first digit is 2-9, and the second digit is 0-5, the third digit may be 0-9.
+            thirdDigit = new Node(k0, k1, k2, k3, k4, k5, k6, k7, k8, k9);
+            secondDigit.addChild(thirdDigit);
+            // The time must be finished now. E.g. 2:57am, 9:30pm.
+            thirdDigit.addChild(ampm);
+        }
+        return legalTimesTree;
+    }
+
+    /**
+     * The former node class of {@link SublimeTimePicker}.
+     * mLegalKeys represents the keys that can be typed to get to the node.
+     * mChildren are the children that can be reached from this node.
+     */
+    private static class Node {
+        private final int[] mLegalKeys;
+        private final ArrayList<Node> mChildren;
+
+        public Node(int... legalKeys) {
+            mLegalKeys = legalKeys;
+            mChildren = new ArrayList<>();
+        }
+
+        public void addChild(Node child) {
+            mChildren.add(child);
+        }
+
+        public boolean containsKey(int key) {
+            for (int legalKey : mLegalKeys) {
+                if (legalKey == key) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        public Node canReach(int key) {
+            for (Node child : mChildren) {
+                if (child.containsKey(key)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+    }
+}
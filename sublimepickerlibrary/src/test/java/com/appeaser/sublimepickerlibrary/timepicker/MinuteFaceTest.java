@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MinuteFaceTest {
+
+    private static final int[] GRANULARITIES = {1, 5, 10, 15, 20, 30};
+
+    @Test
+    public void acceptsDivisorsOfAnHourInStepsOfFive() {
+        for (int granularity : GRANULARITIES) {
+            assertTrue("granularity " + granularity, MinuteFace.isValidGranularity(granularity));
+        }
+        for (int granularity : new int[]{-5, 0, 2, 6, 12, 25, 45, 60}) {
+            assertFalse("granularity " + granularity, MinuteFace.isValidGranularity(granularity));
+        }
+    }
+
+    @Test
+    public void sharesFaces() {
+        assertSame(MinuteFace.get(15), MinuteFace.get(15));
+        try {
+            MinuteFace.get(7);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // 7 is not a valid granularity.
+        }
+    }
+
+    @Test
+    public void labelsEveryFiveMinutesOrEveryStep() {
+        assertLabels(MinuteFace.get(1), 5, 12);
+        assertLabels(MinuteFace.get(5), 5, 12);
+        assertLabels(MinuteFace.get(10), 10, 6);
+        assertLabels(MinuteFace.get(15), 15, 4);
+        assertLabels(MinuteFace.get(30), 30, 2);
+    }
+
+    @Test
+    public void placesLabelsClockwiseFromTwelve() {
+        for (int granularity : GRANULARITIES) {
+            final MinuteFace face = MinuteFace.get(granularity);
+            for (int i = 0; i < face.getLabelCount(); i++) {
+                // Labels sit at (center - r * cos, center - r * sin), so the
+                // minute's clock angle from 12 o'clock gives x = sin, y = -cos.
+                final double clockAngle = Math.toRadians(face.getLabelMinute(i) * 6);
+                final String label = "granularity " + granularity + ", minute "
+                        + face.getLabelMinute(i);
+                assertEquals(label, Math.sin(clockAngle), -face.getCos()[i], 1e-6);
+                assertEquals(label, -Math.cos(clockAngle), -face.getSin()[i], 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void snapsToTheNearestStep() {
+        final MinuteFace face = MinuteFace.get(15);
+        assertEquals(0, face.snapDegrees(0));
+        assertEquals(0, face.snapDegrees(44));
+        // Halfway goes to the higher step.
+        assertEquals(90, face.snapDegrees(45));
+        assertEquals(90, face.snapDegrees(134));
+        assertEquals(180, face.snapDegrees(135));
+        assertEquals(360, face.snapDegrees(359));
+        assertEquals(360, face.snapDegrees(360));
+    }
+
+    @Test
+    public void snapsOnlyToSelectableMinutes() {
+        for (int granularity : GRANULARITIES) {
+            final MinuteFace face = MinuteFace.get(granularity);
+            int previous = 0;
+            for (int degrees = 0; degrees <= 360; degrees++) {
+                final int snapped = face.snapDegrees(degrees);
+                final String label = "granularity " + granularity + ", degrees " + degrees;
+                assertEquals(label, 0, snapped % (granularity * 6));
+                assertTrue(label, snapped >= previous);
+                assertTrue(label, Math.abs(snapped - degrees) <= 15 * granularity);
+                previous = snapped;
+            }
+        }
+    }
+
+    @Test
+    public void prefersLabeledMinutesAtGranularityOne() {
+        final MinuteFace face = MinuteFace.get(1);
+        final int[] inputs = new int[361];
+        for (int degrees = 0; degrees <= 360; degrees++) {
+            inputs[face.snapDegrees(degrees)]++;
+        }
+
+        // 0 and 360 split the range of 12 o'clock between them.
+        assertEquals(8, inputs[0]);
+        assertEquals(7, inputs[360]);
+        for (int output = 6; output < 360; output += 6) {
+            assertEquals("output " + output, output % 30 == 0 ? 14 : 4, inputs[output]);
+        }
+
+        assertEquals(0, face.snapDegrees(7));
+        assertEquals(6, face.snapDegrees(8));
+        assertEquals(30, face.snapDegrees(24));
+        assertEquals(30, face.snapDegrees(37));
+        assertEquals(36, face.snapDegrees(38));
+    }
+
+    @Test
+    public void snapsToTheNearestLabel() {
+        final MinuteFace face = MinuteFace.get(1);
+        assertEquals(0, face.snapToLabelDegrees(14));
+        assertEquals(30, face.snapToLabelDegrees(15));
+        assertEquals(360, face.snapToLabelDegrees(345));
+
+        assertEquals(90, MinuteFace.get(15).snapToLabelDegrees(60));
+    }
+
+    @Test
+    public void floorsToSelectableMinutes() {
+        assertEquals(7, MinuteFace.get(1).floorMinute(7));
+        assertEquals(0, MinuteFace.get(15).floorMinute(7));
+        assertEquals(45, MinuteFace.get(15).floorMinute(59));
+        assertEquals(30, MinuteFace.get(30).floorMinute(30));
+    }
+
+    private static void assertLabels(MinuteFace face, int step, int count) {
+        assertEquals(step, face.getLabelStep());
+        assertEquals(count, face.getLabelCount());
+        assertEquals(count, face.getCos().length);
+        assertEquals(count, face.getSin().length);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i * step, face.getLabelMinute(i));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Region;
+import android.graphics.Shader;
+
+import com.appeaser.sublimepickerlibrary.utilities.StateColorTable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the draw operations of {@link MinuteLabelPainter}. The android.*
+ * classes are stubs here, so only the calls are checked, not pixels.
+ */
+public class MinuteLabelPainterTest {
+
+    private static final int LABEL_COUNT = 12;
+    private static final float CIRCLE_RADIUS = 100f;
+    private static final int SELECTOR_RADIUS = 30;
+
+    private final String[] mTexts = new String[LABEL_COUNT];
+    private final float[] mTextX = new float[LABEL_COUNT];
+    private final float[] mTextY = new float[LABEL_COUNT];
+    private final boolean[] mEnabled = new boolean[LABEL_COUNT];
+
+    private MinuteLabelPainter mPainter;
+    private CountingCanvas mCanvas;
+    private ShaderPaint mPaint;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < LABEL_COUNT; i++) {
+            mTexts[i] = String.format("%02d", i * 5);
+            mTextX[i] = getX(i * 30);
+            mTextY[i] = getY(i * 30);
+        }
+        Arrays.fill(mEnabled, true);
+
+        mPainter = new MinuteLabelPainter();
+        mCanvas = new CountingCanvas();
+        mPaint = new ShaderPaint();
+    }
+
+    @Test
+    public void selectorOnLabel() {
+        draw(3, 3, 90);
+
+        assertEquals(LABEL_COUNT, mCanvas.mTextCount);
+        assertEquals(Arrays.asList("15"), mCanvas.mShadedTexts);
+        assertNoClipping();
+    }
+
+    @Test
+    public void selectorBetweenLabels() {
+        draw(3, 4, 105);
+
+        assertEquals(LABEL_COUNT, mCanvas.mTextCount);
+        assertEquals(Arrays.asList("15", "20"), mCanvas.mShadedTexts);
+        assertNoClipping();
+    }
+
+    @Test
+    public void blockedLabels() {
+        Arrays.fill(mEnabled, 0, 6, false);
+        draw(5, 6, 165);
+
+        assertEquals(LABEL_COUNT, mCanvas.mTextCount);
+        assertEquals(Arrays.asList("25", "30"), mCanvas.mShadedTexts);
+        assertNoClipping();
+    }
+
+    @Test
+    public void repeatedFrames() {
+        for (int degrees = 0; degrees < 360; degrees += 6) {
+            final int index = degrees / 30;
+            draw(index, (int) Math.ceil(degrees / 30f) % LABEL_COUNT, degrees);
+        }
+
+        assertEquals(60 * LABEL_COUNT, mCanvas.mTextCount);
+        assertNoClipping();
+        assertEquals(null, mPaint.getShader());
+    }
+
+    private void draw(int activatedFloor, int activatedCeil, int selectorDegrees) {
+        mCanvas.mShadedTexts.clear();
+        mPainter.draw(mCanvas, mPaint, new StateColorTable(), 255,
+                mTexts, mTextX, mTextY, mEnabled, LABEL_COUNT, activatedFloor, activatedCeil,
+                getX(selectorDegrees), getY(selectorDegrees), SELECTOR_RADIUS);
+    }
+
+    private void assertNoClipping() {
+        assertEquals(0, mCanvas.mClipCount);
+        assertEquals(0, mCanvas.mSaveCount);
+    }
+
+    private static float getX(int degrees) {
+        return CIRCLE_RADIUS * (float) Math.sin(Math.toRadians(degrees));
+    }
+
+    private static float getY(int degrees) {
+        return -CIRCLE_RADIUS * (float) Math.cos(Math.toRadians(degrees));
+    }
+
+    /**
+     * Keeps its shader, which the stubbed Paint does not.
+     */
+    private static class ShaderPaint extends Paint {
+        private Shader mShader;
+
+        @Override
+        public Shader setShader(Shader shader) {
+            mShader = shader;
+            return shader;
+        }
+
+        @Override
+        public Shader getShader() {
+            return mShader;
+        }
+    }
+
+    private static class CountingCanvas extends Canvas {
+        final List<String> mShadedTexts = new ArrayList<>();
+        int mTextCount;
+        int mClipCount;
+        int mSaveCount;
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+            mTextCount++;
+            if (paint.getShader() != null) {
+                mShadedTexts.add(text);
+            }
+        }
+
+        @Override
+        public boolean clipPath(Path path, Region.Op op) {
+            mClipCount++;
+            return false;
+        }
+
+        @Override
+        public boolean clipPath(Path path) {
+            mClipCount++;
+            return false;
+        }
+
+        @Override
+        public int save() {
+            mSaveCount++;
+            return 0;
+        }
+
+        @Override
+        public int save(int saveFlags) {
+            mSaveCount++;
+            return 0;
+        }
+    }
+}
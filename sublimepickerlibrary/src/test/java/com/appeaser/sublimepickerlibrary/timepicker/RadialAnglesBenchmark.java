@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves 1024 random touch offsets within 500 pixels of the center with
+ * {@link RadialAngles} and with atan2. Run with
+ * {@code ./gradlew jmh -Pjmh=RadialAngles}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RadialAnglesBenchmark {
+
+    private static final int OFFSETS = 1024;
+
+    private final int[] mDX = new int[OFFSETS];
+    private final int[] mDY = new int[OFFSETS];
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        for (int i = 0; i < OFFSETS; i++) {
+            mDX[i] = random.nextInt(1001) - 500;
+            mDY[i] = random.nextInt(1001) - 500;
+        }
+    }
+
+    @Benchmark
+    public int integerTable() {
+        int sum = 0;
+        for (int i = 0; i < OFFSETS; i++) {
+            sum += RadialAngles.getDegrees(mDX[i], mDY[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int atan2() {
+        int sum = 0;
+        for (int i = 0; i < OFFSETS; i++) {
+            sum += RadialAnglesTest.getDegreesWithAtan2(mDX[i], mDY[i]);
+        }
+        return sum;
+    }
+}
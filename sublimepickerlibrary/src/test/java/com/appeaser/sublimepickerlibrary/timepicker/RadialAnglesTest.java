@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Vikram Kakkar
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.appeaser.sublimepickerlibrary.timepicker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RadialAnglesTest {
+
+    private static final int GRID = 1500;
+
+    @Test
+    public void matchesAtan2OnPixelGrid() {
+        for (int dX = -GRID; dX <= GRID; dX++) {
+            for (int dY = -GRID; dY <= GRID; dY++) {
+                final int expected = getDegreesWithAtan2(dX, dY);
+                final int actual = RadialAngles.getDegrees(dX, dY);
+                if (actual != expected) {
+                    assertEquals("dX " + dX + ", dY " + dY, expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchesClockPositions() {
+        assertEquals(0, RadialAngles.getDegrees(0, -100));
+        assertEquals(90, RadialAngles.getDegrees(100, 0));
+        assertEquals(180, RadialAngles.getDegrees(0, 100));
+        assertEquals(270, RadialAngles.getDegrees(-100, 0));
+        assertEquals(90, RadialAngles.getDegrees(0, 0));
+    }
+
+    @Test
+    public void squaresDistancesWithoutOverflow() {
+        assertEquals(25, RadialAngles.getDistanceSquared(-3, 4));
+        assertEquals(2L * Integer.MAX_VALUE * Integer.MAX_VALUE,
+                RadialAngles.getDistanceSquared(Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * The angle as {@code RadialTimePickerView#getDegreesFromXY} computed it
+     * before {@link RadialAngles}.
+     */
+    static int getDegreesWithAtan2(double dX, double dY) {
+        final int degrees = (int) (Math.toDegrees(Math.atan2(dY, dX) + Math.PI / 2) + 0.5);
+        if (degrees < 0) {
+            return degrees + 360;
+        } else {
+            return degrees;
+        }
+    }
+}